@@ -0,0 +1,53 @@
+package com.flightbooking.search.availability;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of repeated strings (airport codes, flight numbers) as dense
+ * int codes, so the availability index stores one int per value instead of a String
+ * reference. Codes are never reused or removed.
+ *
+ * Decoding sits on the search path and takes no lock: values live in an array that
+ * only {@link #encode} writes, under a lock, and republishes through a volatile field
+ * after each write. A slot is filled before its code is handed out and never changes,
+ * so a reader holding a code always finds its value in the array it reads.
+ */
+class CodeDictionary {
+    
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+    
+    /**
+     * The code of {@code value}, or -1 if it has never been encoded.
+     */
+    int code(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+    
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (codes) {
+            return codes.computeIfAbsent(value, v -> {
+                String[] current = size == values.length ? Arrays.copyOf(values, size * 2) : values;
+                current[size] = v;
+                values = current;
+                return size++;
+            });
+        }
+    }
+    
+    String decode(int code) {
+        return values[code];
+    }
+    
+    int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,343 @@
+package com.flightbooking.search.availability;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-process availability index answering nonstop searches from memory.
+ *
+ * Flights departing today or later are packed into one {@link RouteDaySlots} per
+ * (origin, destination, day), keyed by a single long built from dictionary-encoded
+ * airport codes and the epoch day. Flight numbers and fare classes are dictionary
+ * encoded too; carriers and cabins are stored as enum ordinals and prices in minor
+ * units, so a flight-fare row costs a few primitive array slots.
+ *
+ * The index loads in the background once the application is ready and reports
+ * {@link #isReady()} when complete; until then searches use the regular path. Every
+ * inventory change re-reads the affected flight and swaps in a rebuilt block for its
+ * route/day. Changes that arrive during a load are re-applied afterwards. If a patch
+ * fails, the index steps aside and reloads in the background; a periodic check
+ * retries failed loads and drops the blocks of days that have passed.
+ */
+@Component("flightAvailabilityIndex")
+@Slf4j
+public class FlightAvailabilityIndex {
+    
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final CabinClass[] CABINS = CabinClass.values();
+    private static final Carrier[] CARRIERS = Carrier.values();
+    private static final BigDecimal MAX_MINOR_UNITS = BigDecimal.valueOf(Integer.MAX_VALUE);
+    
+    private final FlightRepository flightRepository;
+    private final SeatInventoryRepository seatInventoryRepository;
+    private final Executor taskExecutor;
+    private final boolean enabled;
+    private final CodeDictionary airports = new CodeDictionary();
+    private final CodeDictionary flightNumbers = new CodeDictionary();
+    private final CodeDictionary fareClasses = new CodeDictionary();
+    private final Set<UUID> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private volatile Map<Long, RouteDaySlots> blocks = new ConcurrentHashMap<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+    
+    public FlightAvailabilityIndex(FlightRepository flightRepository,
+                                   SeatInventoryRepository seatInventoryRepository,
+                                   @Qualifier("taskExecutor") Executor taskExecutor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${search.availability-index.enabled:false}") boolean enabled) {
+        this.flightRepository = flightRepository;
+        this.seatInventoryRepository = seatInventoryRepository;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        Gauge.builder("search.availability.index.flights", this,
+                index -> index.blocks.values().stream().mapToInt(RouteDaySlots::flightCount).sum())
+            .register(meterRegistry);
+        Gauge.builder("search.availability.index.fares", this,
+                index -> index.blocks.values().stream().mapToInt(RouteDaySlots::fareCount).sum())
+            .register(meterRegistry);
+        Gauge.builder("search.availability.index.ready", this, index -> index.ready ? 1 : 0)
+            .register(meterRegistry);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            taskExecutor.execute(this::load);
+        }
+    }
+    
+    /**
+     * Builds the index from Postgres, reading flights in keyset pages.
+     */
+    void load() {
+        loading = true;
+        long started = System.currentTimeMillis();
+        try {
+            LocalDateTime from = LocalDate.now().atStartOfDay();
+            Map<Long, List<FlightSlot>> slotsByKey = new HashMap<>();
+            List<Flight> page = flightRepository.findAllByOrderByFlightIdAsc(Limit.of(LOAD_PAGE_SIZE));
+            while (!page.isEmpty()) {
+                List<Flight> upcoming = page.stream()
+                    .filter(flight -> Boolean.TRUE.equals(flight.getIsActive()))
+                    .filter(flight -> !flight.getDepartureTime().isBefore(from))
+                    .collect(Collectors.toList());
+                Map<UUID, List<SeatInventory>> inventory = inventoryOf(upcoming);
+                for (Flight flight : upcoming) {
+                    List<SeatInventory> fares = inventory.get(flight.getFlightId());
+                    FlightSlot slot = fares == null ? null : slot(flight, fares);
+                    if (slot != null) {
+                        slotsByKey.computeIfAbsent(key(flight), key -> new ArrayList<>()).add(slot);
+                    }
+                }
+                if (page.size() < LOAD_PAGE_SIZE) {
+                    break;
+                }
+                page = flightRepository.findByFlightIdGreaterThanOrderByFlightIdAsc(
+                    page.get(page.size() - 1).getFlightId(), Limit.of(LOAD_PAGE_SIZE));
+            }
+            
+            Map<Long, RouteDaySlots> loaded = new ConcurrentHashMap<>();
+            slotsByKey.forEach((key, slots) -> loaded.put(key, new RouteDaySlots(slots)));
+            blocks = loaded;
+            loading = false;
+            
+            for (UUID flightId : Set.copyOf(changedDuringLoad)) {
+                changedDuringLoad.remove(flightId);
+                patch(flightId);
+            }
+            ready = true;
+            log.info("Availability index loaded {} route/days, {} airports in {} ms",
+                     loaded.size(), airports.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            loading = false;
+            log.error("Availability index load failed, searches keep using the regular path", e);
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (loading) {
+            changedDuringLoad.add(event.getFlightId());
+        }
+        try {
+            patch(event.getFlightId());
+        } catch (RuntimeException e) {
+            // A stale block is worse than none: fall back until a reload completes
+            ready = false;
+            log.error("Failed to patch availability index for flight {}, reloading it", event.getFlightId(), e);
+            scheduleReload();
+        }
+    }
+    
+    /**
+     * Retries a failed load and drops route/days that departed before today, which no
+     * search can ask for and which would otherwise stay in memory for good.
+     */
+    @Scheduled(fixedDelayString = "${search.availability-index.maintenance-interval:5m}",
+               initialDelayString = "${search.availability-index.maintenance-interval:5m}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        if (!ready && !loading) {
+            scheduleReload();
+        }
+        long today = LocalDate.now().toEpochDay();
+        int before = blocks.size();
+        blocks.keySet().removeIf(key -> (key & 0xFFFFFF) < today);
+        if (blocks.size() < before) {
+            log.info("Dropped {} departed route/days from the availability index", before - blocks.size());
+        }
+    }
+    
+    private void scheduleReload() {
+        if (!reloadScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    load();
+                } finally {
+                    reloadScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reloadScheduled.set(false);
+            log.warn("Availability index reload rejected, retrying on the next check");
+        }
+    }
+    
+    /**
+     * Nonstop results for the request, in departure then price order.
+     */
+    public List<FlightSearchResponse> search(FlightSearchRequest request) {
+        List<FlightSearchResponse> results = new ArrayList<>();
+        search(request, results::add);
+        return results;
+    }
+    
+    /**
+     * Streams nonstop results for the request to {@code sink} in departure then price
+     * order, without collecting them.
+     */
+    public void search(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        int origin = airports.code(request.getOrigin());
+        int destination = airports.code(request.getDestination());
+        if (origin < 0 || destination < 0) {
+            return;
+        }
+        RouteDaySlots slots = blocks.get(key(origin, destination, request.getDepartureDate()));
+        if (slots == null) {
+            return;
+        }
+        
+        LocalDateTime dayStart = request.getDepartureDate().atStartOfDay();
+        int cabin = request.getCabinClass() == null ? -1 : request.getCabinClass().ordinal();
+        slots.forEachMatch(request.getPassengers(), cabin,
+            (mostSig, leastSig, departureMinute, durationMinutes, carrier, flightNumber, fareCabin, fareClass, price,
+             seats) -> {
+                FlightSearchResponse response = new FlightSearchResponse();
+                response.setFlightId(new UUID(mostSig, leastSig));
+                response.setCarrier(CARRIERS[carrier]);
+                response.setFlightNumber(flightNumbers.decode(flightNumber));
+                response.setOrigin(request.getOrigin());
+                response.setDestination(request.getDestination());
+                response.setDepartureTime(dayStart.plusMinutes(departureMinute));
+                response.setArrivalTime(dayStart.plusMinutes(departureMinute + durationMinutes));
+                response.setDurationMinutes((int) durationMinutes);
+                response.setCabinClass(CABINS[fareCabin]);
+                response.setFareClass(fareClasses.decode(fareClass));
+                response.setPrice(BigDecimal.valueOf(price, 2));
+                response.setCurrency("INR");
+                response.setAvailableSeats(seats);
+                response.setStops(0);
+                sink.accept(response);
+            });
+    }
+    
+    private void patch(UUID flightId) {
+        Flight flight = flightRepository.findById(flightId).orElse(null);
+        if (flight == null) {
+            return;
+        }
+        long key = key(flight);
+        List<SeatInventory> fares = seatInventoryRepository.findByFlightId(flightId);
+        boolean listed = Boolean.TRUE.equals(flight.getIsActive()) && !fares.isEmpty();
+        FlightSlot replacement = listed ? slot(flight, fares) : null;
+        blocks.compute(key, (k, current) -> {
+            RouteDaySlots updated = (current == null ? RouteDaySlots.EMPTY : current)
+                .replacing(flightId.getMostSignificantBits(), flightId.getLeastSignificantBits(), replacement);
+            return updated.flightCount() == 0 ? null : updated;
+        });
+    }
+    
+    private Map<UUID, List<SeatInventory>> inventoryOf(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return Map.of();
+        }
+        return seatInventoryRepository.findByFlightIdIn(flights.stream().map(Flight::getFlightId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.groupingBy(SeatInventory::getFlightId));
+    }
+    
+    /**
+     * Packs a flight and its fares, or returns null if none of its fares fit the index.
+     * Prices are rounded to minor units; a fare too large for an int is left out, so
+     * it is only found through the regular search path.
+     */
+    private FlightSlot slot(Flight flight, List<SeatInventory> inventory) {
+        List<SeatInventory> fares = new ArrayList<>(inventory.size());
+        for (SeatInventory fare : inventory) {
+            if (minorUnits(fare.getPrice()).compareTo(MAX_MINOR_UNITS) > 0) {
+                log.warn("Fare {} of flight {} is priced {}, beyond the index's range; leaving it out",
+                         fare.getFareClass(), flight.getFlightId(), fare.getPrice());
+            } else {
+                fares.add(fare);
+            }
+        }
+        if (fares.isEmpty()) {
+            return null;
+        }
+        fares.sort(Comparator.comparing(SeatInventory::getPrice));
+        byte[] cabins = new byte[fares.size()];
+        int[] classes = new int[fares.size()];
+        int[] prices = new int[fares.size()];
+        int[] seats = new int[fares.size()];
+        for (int i = 0; i < fares.size(); i++) {
+            SeatInventory fare = fares.get(i);
+            cabins[i] = (byte) fare.getCabinClass().ordinal();
+            classes[i] = fareClasses.encode(fare.getFareClass());
+            prices[i] = minorUnits(fare.getPrice()).intValue();
+            seats[i] = fare.getAvailableSeats();
+        }
+        LocalDateTime departure = flight.getDepartureTime();
+        return new FlightSlot(
+            flight.getFlightId().getMostSignificantBits(),
+            flight.getFlightId().getLeastSignificantBits(),
+            (short) (departure.getHour() * 60 + departure.getMinute()),
+            (short) Duration.between(departure, flight.getArrivalTime()).toMinutes(),
+            (byte) flight.getCarrier().ordinal(),
+            flightNumbers.encode(flight.getFlightNumber()),
+            cabins, classes, prices, seats);
+    }
+    
+    private static BigDecimal minorUnits(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).movePointRight(2);
+    }
+    
+    private long key(Flight flight) {
+        return key(airports.encode(flight.getDepartureAirport()), airports.encode(flight.getArrivalAirport()),
+            flight.getDepartureTime().toLocalDate());
+    }
+    
+    private static long key(int origin, int destination, LocalDate day) {
+        return ((long) origin << 44) | ((long) destination << 24) | (day.toEpochDay() & 0xFFFFFF);
+    }
+}
@@ -0,0 +1,17 @@
+package com.flightbooking.search.availability;
+
+/**
+ * One flight of a route/day with its fares, in the primitive form the availability
+ * index packs into arrays. Fare arrays are parallel and sorted by price.
+ */
+record FlightSlot(long idMostSig,
+                  long idLeastSig,
+                  short departureMinute,
+                  short durationMinutes,
+                  byte carrier,
+                  int flightNumber,
+                  byte[] fareCabins,
+                  int[] fareClasses,
+                  int[] farePrices,
+                  int[] fareSeats) {
+}
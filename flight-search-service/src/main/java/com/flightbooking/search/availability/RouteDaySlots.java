@@ -0,0 +1,127 @@
+package com.flightbooking.search.availability;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, primitive-packed flights of one (origin, destination, day), sorted by
+ * departure minute. Fares of flight {@code i} occupy {@code [fareStart[i], fareStart[i + 1])}
+ * in the fare arrays, cheapest first. Prices are stored in minor currency units.
+ *
+ * Updates never mutate a block; {@link #replacing(long, long, FlightSlot)} builds a
+ * new one that the index swaps in atomically.
+ */
+final class RouteDaySlots {
+    
+    static final RouteDaySlots EMPTY = new RouteDaySlots(List.of());
+    
+    private final long[] idMostSig;
+    private final long[] idLeastSig;
+    private final short[] departureMinute;
+    private final short[] durationMinutes;
+    private final byte[] carrier;
+    private final int[] flightNumber;
+    private final int[] fareStart;
+    private final byte[] fareCabin;
+    private final int[] fareClass;
+    private final int[] farePrice;
+    private final int[] fareSeats;
+    
+    RouteDaySlots(List<FlightSlot> slots) {
+        List<FlightSlot> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparingInt(FlightSlot::departureMinute));
+        int flights = sorted.size();
+        int fares = sorted.stream().mapToInt(slot -> slot.farePrices().length).sum();
+        
+        idMostSig = new long[flights];
+        idLeastSig = new long[flights];
+        departureMinute = new short[flights];
+        durationMinutes = new short[flights];
+        carrier = new byte[flights];
+        flightNumber = new int[flights];
+        fareStart = new int[flights + 1];
+        fareCabin = new byte[fares];
+        fareClass = new int[fares];
+        farePrice = new int[fares];
+        fareSeats = new int[fares];
+        
+        int fare = 0;
+        for (int i = 0; i < flights; i++) {
+            FlightSlot slot = sorted.get(i);
+            idMostSig[i] = slot.idMostSig();
+            idLeastSig[i] = slot.idLeastSig();
+            departureMinute[i] = slot.departureMinute();
+            durationMinutes[i] = slot.durationMinutes();
+            carrier[i] = slot.carrier();
+            flightNumber[i] = slot.flightNumber();
+            fareStart[i] = fare;
+            int count = slot.farePrices().length;
+            System.arraycopy(slot.fareCabins(), 0, fareCabin, fare, count);
+            System.arraycopy(slot.fareClasses(), 0, fareClass, fare, count);
+            System.arraycopy(slot.farePrices(), 0, farePrice, fare, count);
+            System.arraycopy(slot.fareSeats(), 0, fareSeats, fare, count);
+            fare += count;
+        }
+        fareStart[flights] = fare;
+    }
+    
+    int flightCount() {
+        return idMostSig.length;
+    }
+    
+    int fareCount() {
+        return farePrice.length;
+    }
+    
+    /**
+     * A copy of this block with the given flight removed and, if {@code replacement}
+     * is non-null, added back in its new state.
+     */
+    RouteDaySlots replacing(long mostSig, long leastSig, FlightSlot replacement) {
+        List<FlightSlot> slots = new ArrayList<>(flightCount() + 1);
+        for (int i = 0; i < flightCount(); i++) {
+            if (idMostSig[i] != mostSig || idLeastSig[i] != leastSig) {
+                slots.add(slot(i));
+            }
+        }
+        if (replacement != null) {
+            slots.add(replacement);
+        }
+        return new RouteDaySlots(slots);
+    }
+    
+    /**
+     * Visits every fare with at least {@code passengers} seats in {@code cabin}
+     * ({@code -1} for any cabin), in departure then price order.
+     */
+    void forEachMatch(int passengers, int cabin, FareVisitor visitor) {
+        for (int flight = 0; flight < idMostSig.length; flight++) {
+            for (int fare = fareStart[flight]; fare < fareStart[flight + 1]; fare++) {
+                if (fareSeats[fare] >= passengers && (cabin < 0 || fareCabin[fare] == cabin)) {
+                    visitor.visit(idMostSig[flight], idLeastSig[flight], departureMinute[flight],
+                        durationMinutes[flight], carrier[flight], flightNumber[flight],
+                        fareCabin[fare], fareClass[fare], farePrice[fare], fareSeats[fare]);
+                }
+            }
+        }
+    }
+    
+    private FlightSlot slot(int i) {
+        int from = fareStart[i];
+        int to = fareStart[i + 1];
+        return new FlightSlot(idMostSig[i], idLeastSig[i], departureMinute[i], durationMinutes[i],
+            carrier[i], flightNumber[i],
+            Arrays.copyOfRange(fareCabin, from, to),
+            Arrays.copyOfRange(fareClass, from, to),
+            Arrays.copyOfRange(farePrice, from, to),
+            Arrays.copyOfRange(fareSeats, from, to));
+    }
+    
+    @FunctionalInterface
+    interface FareVisitor {
+        void visit(long idMostSig, long idLeastSig, short departureMinute, short durationMinutes,
+                   byte carrier, int flightNumber, byte cabin, int fareClass, int price, int seats);
+    }
+}
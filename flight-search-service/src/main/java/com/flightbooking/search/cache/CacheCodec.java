@@ -0,0 +1,24 @@
+package com.flightbooking.search.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Value encodings selectable per Redis cache. Every codec reads entries written by
+ * {@link #JSON}, so a cache can be switched without flushing it.
+ */
+public enum CacheCodec {
+
+    /**
+     * Jackson JSON with type metadata; works for any value.
+     */
+    JSON,
+
+    /**
+     * {@link FlightSearchBinarySerializer} for search results, JSON for anything else.
+     */
+    BINARY;
+
+    public RedisSerializer<Object> serializer(RedisSerializer<Object> json) {
+        return this == BINARY ? new FlightSearchBinarySerializer(json) : json;
+    }
+}
@@ -0,0 +1,55 @@
+package com.flightbooking.search.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Redis pub/sub channel that fans L1 invalidations out to all search-service nodes.
+ * Messages published by this node are ignored on receipt since the local L1 was
+ * already updated in-line.
+ */
+@Slf4j
+public class CacheInvalidationBus {
+    
+    private static final String TOPIC = "cache-invalidation";
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RTopic topic;
+    
+    public CacheInvalidationBus(RedissonClient redissonClient) {
+        this.topic = redissonClient.getTopic(TOPIC);
+    }
+    
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        topic.addListener(CacheInvalidationMessage.class, (channel, message) -> {
+            if (!nodeId.equals(message.getOriginNodeId())) {
+                listener.accept(message);
+            }
+        });
+    }
+    
+    public void publishEvict(String cacheName, Object key) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, key, null));
+    }
+    
+    public void publishEvictTag(String cacheName, String tag) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null, tag));
+    }
+    
+    public void publishClear(String cacheName) {
+        publish(new CacheInvalidationMessage(nodeId, cacheName, null, null));
+    }
+    
+    // Publishing is asynchronous, so failures surface on the future rather than here
+    private void publish(CacheInvalidationMessage message) {
+        topic.publishAsync(message).whenComplete((receivers, e) -> {
+            if (e != null) {
+                log.warn("Failed to publish cache invalidation for {}: {}", message.getCacheName(), e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.flightbooking.search.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Broadcast to every search-service node when a cache entry changes, so each node
+ * drops its local L1 copy. A tag evicts every entry carrying it; with neither key nor
+ * tag set, the whole cache was cleared.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage implements Serializable {
+    private String originNodeId;
+    private String cacheName;
+    private Object key;
+    private String tag;
+}
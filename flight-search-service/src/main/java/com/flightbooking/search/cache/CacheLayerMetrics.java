@@ -0,0 +1,39 @@
+package com.flightbooking.search.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hit/miss counters and hit ratio for one layer (l1 or l2) of a {@link TwoLevelCache}.
+ */
+class CacheLayerMetrics {
+    
+    private final Counter hits;
+    private final Counter misses;
+    
+    CacheLayerMetrics(MeterRegistry registry, String cacheName, String layer) {
+        this.hits = Counter.builder("cache.layer.gets")
+            .tag("cache", cacheName).tag("layer", layer).tag("result", "hit")
+            .register(registry);
+        this.misses = Counter.builder("cache.layer.gets")
+            .tag("cache", cacheName).tag("layer", layer).tag("result", "miss")
+            .register(registry);
+        Gauge.builder("cache.layer.hit.ratio", this, CacheLayerMetrics::hitRatio)
+            .tag("cache", cacheName).tag("layer", layer)
+            .register(registry);
+    }
+    
+    void hit() {
+        hits.increment();
+    }
+    
+    void miss() {
+        misses.increment();
+    }
+    
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+}
@@ -0,0 +1,49 @@
+package com.flightbooking.search.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-node extension of single-flight loading: a short Redisson lease per cache key
+ * so that, when a hot entry expires, one node recomputes it while the others wait and
+ * then pick the fresh value up from Redis. If the lease cannot be obtained within the
+ * wait time the caller loads anyway rather than failing the request.
+ */
+@Slf4j
+public class CacheLoadLease {
+    
+    private final RedissonClient redissonClient;
+    private final Duration waitTime;
+    private final Duration leaseTime;
+    
+    public CacheLoadLease(RedissonClient redissonClient, Duration waitTime, Duration leaseTime) {
+        this.redissonClient = redissonClient;
+        this.waitTime = waitTime;
+        this.leaseTime = leaseTime;
+    }
+    
+    public <T> T callExclusively(String cacheName, Object key, Callable<T> action) throws Exception {
+        RLock lease = redissonClient.getLock(cacheName + "::lease:" + key);
+        boolean acquired = false;
+        try {
+            acquired = lease.tryLock(waitTime.toMillis(), leaseTime.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cache load lease unavailable for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+        
+        try {
+            return action.call();
+        } finally {
+            if (acquired && lease.isHeldByCurrentThread()) {
+                lease.unlock();
+            }
+        }
+    }
+}
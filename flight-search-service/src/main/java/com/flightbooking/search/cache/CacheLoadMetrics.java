@@ -0,0 +1,33 @@
+package com.flightbooking.search.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counters for how a {@link TwoLevelCache} produced values beyond plain hits:
+ * coalesced loads, stale entries served and background refreshes.
+ */
+class CacheLoadMetrics {
+    
+    private final Counter coalesced;
+    private final Counter staleServed;
+    private final Counter refreshed;
+    
+    CacheLoadMetrics(MeterRegistry registry, String cacheName) {
+        this.coalesced = Counter.builder("cache.loads.coalesced").tag("cache", cacheName).register(registry);
+        this.staleServed = Counter.builder("cache.stale.served").tag("cache", cacheName).register(registry);
+        this.refreshed = Counter.builder("cache.refreshes").tag("cache", cacheName).register(registry);
+    }
+    
+    void coalesced() {
+        coalesced.increment();
+    }
+    
+    void staleServed() {
+        staleServed.increment();
+    }
+    
+    void refreshed() {
+        refreshed.increment();
+    }
+}
@@ -0,0 +1,40 @@
+package com.flightbooking.search.cache;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when a cached entry should be recomputed in the background.
+ *
+ * An entry older than {@code freshTtl} is stale: it is still served (Redis keeps it
+ * for an extra grace period) while a reload runs. Before that, each read refreshes
+ * early with a probability that rises as expiry approaches, scaled by how expensive
+ * the entry was to compute (the "XFetch" rule: refresh when
+ * {@code now - computeMillis * beta * ln(rand) >= computedAt + freshTtl}).
+ */
+public class CacheRefreshPolicy {
+    
+    private final long freshTtlMillis;
+    private final double beta;
+    @Getter
+    private final Executor executor;
+    
+    public CacheRefreshPolicy(Duration freshTtl, double beta, Executor executor) {
+        this.freshTtlMillis = freshTtl.toMillis();
+        this.beta = beta;
+        this.executor = executor;
+    }
+    
+    boolean isStale(CachedValue entry, long now) {
+        return now >= entry.getComputedAt() + freshTtlMillis;
+    }
+    
+    boolean shouldRefreshEarly(CachedValue entry, long now) {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.getComputeMillis() * beta * Math.log(random);
+        return now + gap >= entry.getComputedAt() + freshTtlMillis;
+    }
+}
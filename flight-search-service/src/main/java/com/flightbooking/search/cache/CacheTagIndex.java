@@ -0,0 +1,50 @@
+package com.flightbooking.search.cache;
+
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Redis-side index of which L2 cache keys carry a given tag (for flight searches, the
+ * route/day), so a whole group of entries can be evicted without scanning the keyspace.
+ */
+public class CacheTagIndex {
+    
+    private static final int DRAIN_BATCH_SIZE = 100;
+    
+    private final RedissonClient redissonClient;
+    private final Duration ttl;
+    
+    public CacheTagIndex(RedissonClient redissonClient, Duration ttl) {
+        this.redissonClient = redissonClient;
+        this.ttl = ttl;
+    }
+    
+    public void add(String cacheName, String tag, String key) {
+        RSet<String> keys = tagSet(cacheName, tag);
+        keys.addAsync(key);
+        keys.expireAsync(ttl);
+    }
+    
+    /**
+     * Atomically pops every key recorded under the tag.
+     */
+    public Set<String> drain(String cacheName, String tag) {
+        RSet<String> keys = tagSet(cacheName, tag);
+        Set<String> drained = new HashSet<>();
+        Set<String> batch;
+        do {
+            batch = keys.removeRandom(DRAIN_BATCH_SIZE);
+            drained.addAll(batch);
+        } while (batch.size() == DRAIN_BATCH_SIZE);
+        return drained;
+    }
+    
+    private RSet<String> tagSet(String cacheName, String tag) {
+        return redissonClient.getSet(cacheName + "::tag:" + tag, StringCodec.INSTANCE);
+    }
+}
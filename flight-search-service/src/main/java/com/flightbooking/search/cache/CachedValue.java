@@ -0,0 +1,18 @@
+package com.flightbooking.search.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cache entry envelope recording when the value was computed and how long the
+ * computation took, which drives stale-while-revalidate and early refresh.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedValue {
+    private Object value;
+    private long computedAt;
+    private long computeMillis;
+}
@@ -0,0 +1,397 @@
+package com.flightbooking.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchPage;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchFacets;
+import com.flightbooking.search.dto.SearchSort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hand-written binary codec for cached flight search results.
+ *
+ * {@link CachedValue} envelopes holding a result list or a {@link FlightSearchPage} are
+ * written field by field: varints for numbers, ordinals for enums, a per-entry string
+ * table so repeated airports, flight numbers and currencies are stored once, and a
+ * presence mask per row instead of field names and type metadata. Facets, which are
+ * small and rarely cached, are embedded as plain JSON. Anything else goes through the
+ * {@code fallback} serializer.
+ *
+ * Binary payloads start with a marker byte that cannot begin a JSON document, so
+ * entries written by the fallback (for example before the codec was switched on)
+ * remain readable.
+ */
+public class FlightSearchBinarySerializer implements RedisSerializer<Object> {
+
+    static final byte MARKER = (byte) 0xB1;
+
+    private static final int RESULT_LIST = 1;
+    private static final int RESULT_PAGE = 2;
+    private static final Carrier[] CARRIERS = Carrier.values();
+    private static final CabinClass[] CABINS = CabinClass.values();
+    private static final SearchSort[] SORTS = SearchSort.values();
+
+    private final RedisSerializer<Object> fallback;
+    private final ObjectMapper facetMapper = new ObjectMapper();
+
+    public FlightSearchBinarySerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof CachedValue cached && isResultList(cached.getValue())) {
+            Writer out = envelope(cached, RESULT_LIST);
+            writeResults(out, castResults(cached.getValue()));
+            return out.toByteArray();
+        }
+        if (value instanceof CachedValue cached && cached.getValue() instanceof FlightSearchPage page) {
+            Writer out = envelope(cached, RESULT_PAGE);
+            writePage(out, page);
+            return out.toByteArray();
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MARKER) {
+            return fallback.deserialize(bytes);
+        }
+        Reader in = new Reader(bytes, 1);
+        int kind = in.varInt();
+        long computedAt = in.varLong();
+        long computeMillis = in.varLong();
+        Object value = switch (kind) {
+            case RESULT_LIST -> readResults(in);
+            case RESULT_PAGE -> readPage(in);
+            default -> throw new SerializationException("Unknown cached search payload kind " + kind);
+        };
+        return new CachedValue(value, computedAt, computeMillis);
+    }
+
+    private static boolean isResultList(Object value) {
+        return value instanceof List<?> list && list.stream().allMatch(FlightSearchResponse.class::isInstance);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<FlightSearchResponse> castResults(Object value) {
+        return (List<FlightSearchResponse>) value;
+    }
+
+    private static Writer envelope(CachedValue cached, int kind) {
+        Writer out = new Writer();
+        out.write(MARKER);
+        out.varInt(kind);
+        out.varLong(cached.getComputedAt());
+        out.varLong(cached.getComputeMillis());
+        return out;
+    }
+
+    private void writePage(Writer out, FlightSearchPage page) {
+        writeResults(out, page.getResults());
+        out.varInt(page.getSort() == null ? 0 : page.getSort().ordinal() + 1);
+        out.varInt(page.getPageSize() == null ? 0 : page.getPageSize() + 1);
+        out.nullableString(page.getNextCursor());
+        if (page.getFacets() == null) {
+            out.varInt(0);
+        } else {
+            try {
+                byte[] facets = facetMapper.writeValueAsBytes(page.getFacets());
+                out.varInt(facets.length + 1);
+                out.write(facets, 0, facets.length);
+            } catch (IOException e) {
+                throw new SerializationException("Could not write search facets", e);
+            }
+        }
+    }
+
+    private FlightSearchPage readPage(Reader in) {
+        FlightSearchPage page = new FlightSearchPage();
+        page.setResults(readResults(in));
+        int sort = in.varInt();
+        page.setSort(sort == 0 ? null : SORTS[sort - 1]);
+        int pageSize = in.varInt();
+        page.setPageSize(pageSize == 0 ? null : pageSize - 1);
+        page.setNextCursor(in.nullableString());
+        int facets = in.varInt();
+        if (facets > 0) {
+            try {
+                page.setFacets(facetMapper.readValue(in.bytes(facets - 1), SearchFacets.class));
+            } catch (IOException e) {
+                throw new SerializationException("Could not read search facets", e);
+            }
+        }
+        return page;
+    }
+
+    private static void writeResults(Writer out, List<FlightSearchResponse> results) {
+        if (results == null) {
+            out.varInt(0);
+            return;
+        }
+        out.varInt(results.size() + 1);
+        for (FlightSearchResponse row : results) {
+            int mask = mask(row.getFlightId(), row.getCarrier(), row.getFlightNumber(), row.getOrigin(),
+                row.getDestination(), row.getDepartureTime(), row.getArrivalTime(), row.getDurationMinutes(),
+                row.getCabinClass(), row.getPrice(), row.getCurrency(), row.getAvailableSeats(), row.getStops(),
+                row.getSegments(), row.getFareClass());
+            out.varInt(mask);
+            if (has(mask, 0)) out.uuid(row.getFlightId());
+            if (has(mask, 1)) out.varInt(row.getCarrier().ordinal());
+            if (has(mask, 2)) out.string(row.getFlightNumber());
+            if (has(mask, 3)) out.string(row.getOrigin());
+            if (has(mask, 4)) out.string(row.getDestination());
+            if (has(mask, 5)) out.dateTime(row.getDepartureTime());
+            if (has(mask, 6)) out.dateTime(row.getArrivalTime());
+            if (has(mask, 7)) out.varInt(row.getDurationMinutes());
+            if (has(mask, 8)) out.varInt(row.getCabinClass().ordinal());
+            if (has(mask, 9)) out.decimal(row.getPrice());
+            if (has(mask, 10)) out.string(row.getCurrency());
+            if (has(mask, 11)) out.varInt(row.getAvailableSeats());
+            if (has(mask, 12)) out.varInt(row.getStops());
+            if (has(mask, 13)) writeSegments(out, row.getSegments());
+            // Appended last so rows written before the field existed still read
+            if (has(mask, 14)) out.string(row.getFareClass());
+        }
+    }
+
+    private static List<FlightSearchResponse> readResults(Reader in) {
+        int size = in.varInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<FlightSearchResponse> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int mask = in.varInt();
+            FlightSearchResponse row = new FlightSearchResponse();
+            if (has(mask, 0)) row.setFlightId(in.uuid());
+            if (has(mask, 1)) row.setCarrier(CARRIERS[in.varInt()]);
+            if (has(mask, 2)) row.setFlightNumber(in.string());
+            if (has(mask, 3)) row.setOrigin(in.string());
+            if (has(mask, 4)) row.setDestination(in.string());
+            if (has(mask, 5)) row.setDepartureTime(in.dateTime());
+            if (has(mask, 6)) row.setArrivalTime(in.dateTime());
+            if (has(mask, 7)) row.setDurationMinutes(in.varInt());
+            if (has(mask, 8)) row.setCabinClass(CABINS[in.varInt()]);
+            if (has(mask, 9)) row.setPrice(in.decimal());
+            if (has(mask, 10)) row.setCurrency(in.string());
+            if (has(mask, 11)) row.setAvailableSeats(in.varInt());
+            if (has(mask, 12)) row.setStops(in.varInt());
+            if (has(mask, 13)) row.setSegments(readSegments(in));
+            if (has(mask, 14)) row.setFareClass(in.string());
+            results.add(row);
+        }
+        return results;
+    }
+
+    private static void writeSegments(Writer out, List<FlightSearchResponse.SegmentInfo> segments) {
+        out.varInt(segments.size());
+        for (FlightSearchResponse.SegmentInfo segment : segments) {
+            int mask = mask(segment.getFlightId(), segment.getCarrier(), segment.getFlightNumber(),
+                segment.getOrigin(), segment.getDestination(), segment.getDepartureTime(),
+                segment.getArrivalTime(), segment.getFareClass(), segment.getCabinClass(), segment.getPrice());
+            out.varInt(mask);
+            if (has(mask, 0)) out.uuid(segment.getFlightId());
+            if (has(mask, 1)) out.varInt(segment.getCarrier().ordinal());
+            if (has(mask, 2)) out.string(segment.getFlightNumber());
+            if (has(mask, 3)) out.string(segment.getOrigin());
+            if (has(mask, 4)) out.string(segment.getDestination());
+            if (has(mask, 5)) out.dateTime(segment.getDepartureTime());
+            if (has(mask, 6)) out.dateTime(segment.getArrivalTime());
+            if (has(mask, 7)) out.string(segment.getFareClass());
+            if (has(mask, 8)) out.varInt(segment.getCabinClass().ordinal());
+            if (has(mask, 9)) out.decimal(segment.getPrice());
+        }
+    }
+
+    private static List<FlightSearchResponse.SegmentInfo> readSegments(Reader in) {
+        int size = in.varInt();
+        List<FlightSearchResponse.SegmentInfo> segments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int mask = in.varInt();
+            FlightSearchResponse.SegmentInfo segment = new FlightSearchResponse.SegmentInfo();
+            if (has(mask, 0)) segment.setFlightId(in.uuid());
+            if (has(mask, 1)) segment.setCarrier(CARRIERS[in.varInt()]);
+            if (has(mask, 2)) segment.setFlightNumber(in.string());
+            if (has(mask, 3)) segment.setOrigin(in.string());
+            if (has(mask, 4)) segment.setDestination(in.string());
+            if (has(mask, 5)) segment.setDepartureTime(in.dateTime());
+            if (has(mask, 6)) segment.setArrivalTime(in.dateTime());
+            if (has(mask, 7)) segment.setFareClass(in.string());
+            if (has(mask, 8)) segment.setCabinClass(CABINS[in.varInt()]);
+            if (has(mask, 9)) segment.setPrice(in.decimal());
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static int mask(Object... fields) {
+        int mask = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean has(int mask, int field) {
+        return (mask & (1 << field)) != 0;
+    }
+
+    /**
+     * Output buffer with varint encoding and a string table: the first occurrence of a
+     * string is written inline, later ones as a reference to it.
+     */
+    private static final class Writer extends ByteArrayOutputStream {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Writer() {
+            super(256);
+        }
+
+        void varInt(int value) {
+            varLong(value & 0xFFFFFFFFL);
+        }
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void uuid(UUID value) {
+            // Random bits gain nothing from varints
+            fixedLong(value.getMostSignificantBits());
+            fixedLong(value.getLeastSignificantBits());
+        }
+
+        void fixedLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void dateTime(LocalDateTime value) {
+            varLong(value.toEpochSecond(ZoneOffset.UTC));
+            varInt(value.getNano());
+        }
+
+        void decimal(BigDecimal value) {
+            varInt(value.scale());
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            varInt(unscaled.length);
+            write(unscaled, 0, unscaled.length);
+        }
+
+        void string(String value) {
+            Integer reference = strings.get(value);
+            if (reference != null) {
+                varInt(reference + 1);
+                return;
+            }
+            strings.put(value, strings.size());
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varInt(0);
+            varInt(utf8.length);
+            write(utf8, 0, utf8.length);
+        }
+
+        void nullableString(String value) {
+            write(value == null ? 0 : 1);
+            if (value != null) {
+                string(value);
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private final List<String> strings = new ArrayList<>();
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int varInt() {
+            return (int) varLong();
+        }
+
+        long varLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        UUID uuid() {
+            return new UUID(fixedLong(), fixedLong());
+        }
+
+        long fixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        LocalDateTime dateTime() {
+            return LocalDateTime.ofEpochSecond(varLong(), varInt(), ZoneOffset.UTC);
+        }
+
+        BigDecimal decimal() {
+            int scale = varInt();
+            return new BigDecimal(new BigInteger(bytes(varInt())), scale);
+        }
+
+        String string() {
+            int reference = varInt();
+            if (reference > 0) {
+                return strings.get(reference - 1);
+            }
+            String value = new String(bytes(varInt()), StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        String nullableString() {
+            return bytes[position++] == 0 ? null : string();
+        }
+
+        byte[] bytes(int length) {
+            byte[] value = new byte[length];
+            System.arraycopy(bytes, position, value, 0, length);
+            position += length;
+            return value;
+        }
+    }
+}
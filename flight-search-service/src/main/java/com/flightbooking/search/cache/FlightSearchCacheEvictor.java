@@ -0,0 +1,63 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.repository.FlightRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Evicts cached searches for the route and departure day of a flight whose inventory
+ * changed. A second pass shortly after catches searches that read the old rows just
+ * before the commit and cached them after the first eviction. Connecting itineraries
+ * that use the flight as a leg of another route are not evicted; they are cached with
+ * a short TTL instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlightSearchCacheEvictor {
+    
+    static final List<String> SEARCH_CACHES = List.of("flightSearch", "flightSearchPages");
+    
+    private final CacheManager cacheManager;
+    private final FlightRepository flightRepository;
+    private final TaskScheduler taskScheduler;
+    
+    @Value("${search.cache.invalidation.second-pass-delay:2s}")
+    private Duration secondPassDelay;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        flightRepository.findById(event.getFlightId()).ifPresent(flight -> {
+            String routeDay = FlightSearchCacheKeys.routeDay(flight.getDepartureAirport(),
+                flight.getArrivalAirport(), flight.getDepartureTime().toLocalDate());
+            evictRouteDay(routeDay);
+            taskScheduler.schedule(() -> evictRouteDay(routeDay), Instant.now().plus(secondPassDelay));
+        });
+    }
+    
+    public void evictRouteDay(String routeDay) {
+        for (String cacheName : SEARCH_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                try {
+                    twoLevelCache.evictTag(routeDay);
+                } catch (Exception e) {
+                    log.error("Failed to evict {} entries for {}", cacheName, routeDay, e);
+                }
+            }
+        }
+        log.debug("Evicted cached searches for {}", routeDay);
+    }
+}
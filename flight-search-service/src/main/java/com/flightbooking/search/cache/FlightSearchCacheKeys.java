@@ -0,0 +1,69 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+
+import java.time.LocalDate;
+
+/**
+ * Key layout for flight search caches: {@code <route/day>:<passengers>:<cabin>}, with a
+ * trailing {@code :<maxStops>} when connections are requested, and for result pages
+ * {@code :page:<sort>:<pageSize>:<cursor>[:facets]} on top. The route/day prefix
+ * doubles as the eviction tag, so inventory changes on one flight only invalidate
+ * searches for that route and departure day. Searches with connections also contain
+ * legs on other routes, which that tag does not cover, so they are cached only briefly
+ * (see {@link SearchResultTtl}).
+ */
+public final class FlightSearchCacheKeys {
+    
+    private static final char SEPARATOR = ':';
+    
+    private FlightSearchCacheKeys() {
+    }
+    
+    public static String searchKey(FlightSearchRequest request) {
+        return routeDay(request.getOrigin(), request.getDestination(), request.getDepartureDate())
+            + SEPARATOR + request.getPassengers()
+            + SEPARATOR + (request.getCabinClass() == null ? "ANY" : request.getCabinClass().name())
+            + (maxStops(request) > 0 ? SEPARATOR + String.valueOf(maxStops(request)) : "");
+    }
+    
+    public static String pageKey(FlightSearchRequest request) {
+        return searchKey(request)
+            + SEPARATOR + "page"
+            + SEPARATOR + request.getSort()
+            + SEPARATOR + request.getPageSize()
+            + SEPARATOR + (request.getCursor() == null ? "first" : request.getCursor())
+            + (Boolean.TRUE.equals(request.getIncludeFacets()) ? SEPARATOR + "facets" : "");
+    }
+    
+    private static int maxStops(FlightSearchRequest request) {
+        return request.getMaxStops() == null ? 0 : request.getMaxStops();
+    }
+    
+    public static String routeDay(String origin, String destination, LocalDate departureDate) {
+        return origin + "-" + destination + "-" + departureDate;
+    }
+    
+    /**
+     * Whether a search cache key asks for connections, i.e. carries a {@code maxStops}
+     * segment after the cabin.
+     */
+    public static boolean hasConnections(Object key) {
+        if (!(key instanceof String value)) {
+            return false;
+        }
+        String[] segments = value.split(String.valueOf(SEPARATOR), 5);
+        return segments.length > 3 && !segments[3].isEmpty() && segments[3].chars().allMatch(Character::isDigit);
+    }
+    
+    /**
+     * Extracts the route/day tag from a search cache key, or null for foreign keys.
+     */
+    public static String routeDayOf(Object key) {
+        if (key instanceof String value) {
+            int separator = value.indexOf(SEPARATOR);
+            return separator > 0 ? value.substring(0, separator) : null;
+        }
+        return null;
+    }
+}
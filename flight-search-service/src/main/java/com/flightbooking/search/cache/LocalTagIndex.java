@@ -0,0 +1,57 @@
+package com.flightbooking.search.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * In-heap counterpart of {@link CacheTagIndex} for one node's L1: which local keys
+ * carry a given tag, so a tag eviction touches only those keys instead of walking the
+ * whole L1. Keys are added when an entry enters L1 and removed when it leaves, whether
+ * by an explicit invalidation or by Caffeine evicting or expiring it.
+ */
+class LocalTagIndex {
+
+    private final Function<Object, String> keyTagger;
+    private final ConcurrentMap<String, Set<Object>> keysByTag = new ConcurrentHashMap<>();
+
+    LocalTagIndex(Function<Object, String> keyTagger) {
+        this.keyTagger = keyTagger;
+    }
+
+    void add(Object key) {
+        String tag = keyTagger.apply(key);
+        if (tag == null) {
+            return;
+        }
+        keysByTag.compute(tag, (t, keys) -> {
+            Set<Object> tagged = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+            tagged.add(key);
+            return tagged;
+        });
+    }
+
+    void remove(Object key) {
+        String tag = keyTagger.apply(key);
+        if (tag == null) {
+            return;
+        }
+        keysByTag.computeIfPresent(tag, (t, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Removes and returns every key recorded under the tag.
+     */
+    Set<Object> drain(String tag) {
+        Set<Object> keys = keysByTag.remove(tag);
+        return keys == null ? Set.of() : keys;
+    }
+
+    void clear() {
+        keysByTag.clear();
+    }
+}
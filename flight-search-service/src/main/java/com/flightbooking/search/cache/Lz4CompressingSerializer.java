@@ -0,0 +1,81 @@
+package com.flightbooking.search.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wraps a cache value serializer with LZ4 block compression for payloads of at least
+ * {@code minBytes}. Smaller payloads, and payloads that do not shrink, are stored as
+ * the delegate wrote them; compressed ones carry a marker byte and their original
+ * length, so both kinds read back transparently.
+ *
+ * Payloads come from Redis, so they are decompressed with the pure-Java safe
+ * decompressor: it never writes past the buffer sized from the stored length, and a
+ * payload that does not decode to exactly that length is rejected. The native and
+ * unsafe fast decompressors of lz4-java 1.8.0 trust their input (CVE-2025-12183).
+ */
+public class Lz4CompressingSerializer implements RedisSerializer<Object> {
+
+    static final byte MARKER = (byte) 0xB2;
+
+    private static final int HEADER_BYTES = 5;
+    // LZ4 cannot expand a block by more than this factor, so a larger stored length is corrupt
+    private static final int MAX_EXPANSION = 255;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final RedisSerializer<Object> delegate;
+    private final int minBytes;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.safeInstance().safeDecompressor();
+
+    public Lz4CompressingSerializer(RedisSerializer<Object> delegate, int minBytes) {
+        this.delegate = delegate;
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null || raw.length < minBytes) {
+            return raw;
+        }
+        byte[] compressed = new byte[HEADER_BYTES + compressor.maxCompressedLength(raw.length)];
+        int length = compressor.compress(raw, 0, raw.length, compressed, HEADER_BYTES);
+        if (HEADER_BYTES + length >= raw.length) {
+            return raw;
+        }
+        ByteBuffer.wrap(compressed).put(MARKER).putInt(raw.length);
+        byte[] result = new byte[HEADER_BYTES + length];
+        System.arraycopy(compressed, 0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_BYTES || bytes[0] != MARKER) {
+            return delegate.deserialize(bytes);
+        }
+        int originalLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        int compressedLength = bytes.length - HEADER_BYTES;
+        if (originalLength < 0 || (long) originalLength > (long) compressedLength * MAX_EXPANSION) {
+            throw new SerializationException("Corrupt compressed cache entry: stored length " + originalLength);
+        }
+        byte[] raw = new byte[originalLength];
+        try {
+            int length = decompressor.decompress(bytes, HEADER_BYTES, compressedLength, raw, 0, originalLength);
+            if (length != originalLength) {
+                throw new SerializationException("Corrupt compressed cache entry: decoded " + length
+                    + " of " + originalLength + " bytes");
+            }
+        } catch (LZ4Exception e) {
+            throw new SerializationException("Corrupt compressed cache entry", e);
+        }
+        return delegate.deserialize(raw);
+    }
+}
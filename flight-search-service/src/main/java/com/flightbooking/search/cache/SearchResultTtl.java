@@ -0,0 +1,48 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.dto.FlightSearchPage;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Redis TTL for search cache entries: the regular TTL for results, a short one for
+ * searches that found nothing. Empty results are cheap to recompute, and caching them
+ * briefly still absorbs repeated misses on the same key without keeping a route dark
+ * long after flights are added to it.
+ *
+ * Searches with connections get their own short TTL too. Their legs fly other routes,
+ * and an inventory change on a leg only evicts that leg's route/day, so the entry can
+ * show a sold-out connection until it expires.
+ */
+public class SearchResultTtl implements RedisCacheWriter.TtlFunction {
+    
+    private final Duration ttl;
+    private final Duration emptyTtl;
+    private final Duration connectionTtl;
+    
+    public SearchResultTtl(Duration ttl, Duration emptyTtl, Duration connectionTtl) {
+        this.ttl = ttl;
+        this.emptyTtl = emptyTtl;
+        this.connectionTtl = connectionTtl;
+    }
+    
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (isEmpty(value instanceof CachedValue cached ? cached.getValue() : value)) {
+            return emptyTtl;
+        }
+        return FlightSearchCacheKeys.hasConnections(key) ? connectionTtl : ttl;
+    }
+    
+    private static boolean isEmpty(Object value) {
+        if (value instanceof Collection<?> results) {
+            return results.isEmpty();
+        }
+        if (value instanceof FlightSearchPage page) {
+            return page.getResults() == null || page.getResults().isEmpty();
+        }
+        return false;
+    }
+}
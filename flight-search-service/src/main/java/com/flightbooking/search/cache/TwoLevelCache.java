@@ -0,0 +1,330 @@
+package com.flightbooking.search.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Read-through cache layering a small, short-lived in-heap Caffeine L1 in front of
+ * the shared Redis L2. Writes and evictions go to both layers and are broadcast so
+ * other nodes drop their L1 copy. When a key tagger is configured, every L2 write is
+ * also recorded under the key's tag so {@link #evictTag(String)} can drop a group of
+ * related entries at once, and L1 keys are indexed by tag the same way on each node.
+ *
+ * Loads through {@link #get(Object, Callable)} are single-flight: concurrent misses
+ * for the same key on this node share one loader invocation, and an optional
+ * {@link CacheLoadLease} extends that across nodes.
+ *
+ * Entries are stored as {@link CachedValue}s carrying their age and compute cost.
+ * With a {@link CacheRefreshPolicy}, entries past their fresh TTL are served stale
+ * while a background reload runs, and hot entries are reloaded probabilistically
+ * shortly before they go stale, so expiry never blocks a caller.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, CachedValue> l1;
+    private final Cache l2;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheLayerMetrics l1Metrics;
+    private final CacheLayerMetrics l2Metrics;
+    private final CacheLoadMetrics loadMetrics;
+    private final Function<Object, String> keyTagger;
+    private final CacheTagIndex tagIndex;
+    private final LocalTagIndex localTagIndex;
+    private final CacheLoadLease loadLease;
+    private final CacheRefreshPolicy refreshPolicy;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<Object, CachedValue> l1,
+                  Cache l2,
+                  CacheInvalidationBus invalidationBus,
+                  CacheLayerMetrics l1Metrics,
+                  CacheLayerMetrics l2Metrics,
+                  CacheLoadMetrics loadMetrics,
+                  Function<Object, String> keyTagger,
+                  CacheTagIndex tagIndex,
+                  LocalTagIndex localTagIndex,
+                  CacheLoadLease loadLease,
+                  CacheRefreshPolicy refreshPolicy) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationBus = invalidationBus;
+        this.l1Metrics = l1Metrics;
+        this.l2Metrics = l2Metrics;
+        this.loadMetrics = loadMetrics;
+        this.keyTagger = keyTagger;
+        this.tagIndex = tagIndex;
+        this.localTagIndex = localTagIndex;
+        this.loadLease = loadLease;
+        this.refreshPolicy = refreshPolicy;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CachedValue entry = lookup(key);
+        return entry == null ? null : new SimpleValueWrapper(entry.getValue());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CachedValue entry = lookup(key);
+        if (entry != null) {
+            if (refreshPolicy != null) {
+                long now = System.currentTimeMillis();
+                if (refreshPolicy.isStale(entry, now)) {
+                    loadMetrics.staleServed();
+                    refreshInBackground(key, valueLoader);
+                } else if (refreshPolicy.shouldRefreshEarly(entry, now)) {
+                    refreshInBackground(key, valueLoader);
+                }
+            }
+            return (T) entry.getValue();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            loadMetrics.coalesced();
+            return (T) awaitLeader(leader, key, valueLoader);
+        }
+
+        try {
+            Object value = loadValue(key, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, new CachedValue(value, System.currentTimeMillis(), 0));
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        invalidateLocalKey(key);
+        invalidationBus.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        invalidateLocalAll();
+        invalidationBus.publishClear(name);
+    }
+
+    /**
+     * Evicts every entry written under the given tag from L2 and from the L1 of every node.
+     */
+    public void evictTag(String tag) {
+        if (tagIndex != null) {
+            for (String key : tagIndex.drain(name, tag)) {
+                l2.evict(key);
+            }
+        }
+        invalidateLocalTag(tag);
+        invalidationBus.publishEvictTag(name, tag);
+    }
+
+    /**
+     * Applies an invalidation received from another node to the local L1 only.
+     */
+    void invalidateLocal(CacheInvalidationMessage message) {
+        if (message.getTag() != null) {
+            invalidateLocalTag(message.getTag());
+        } else if (message.getKey() != null) {
+            invalidateLocalKey(message.getKey());
+        } else {
+            invalidateLocalAll();
+        }
+    }
+
+    private CachedValue lookup(Object key) {
+        CachedValue local = l1.getIfPresent(key);
+        if (local != null) {
+            l1Metrics.hit();
+            return local;
+        }
+        l1Metrics.miss();
+
+        CachedValue remote = readL2(key);
+        if (remote == null) {
+            l2Metrics.miss();
+            return null;
+        }
+        l2Metrics.hit();
+
+        putLocal(key, remote);
+        return remote;
+    }
+
+    private CachedValue readL2(Object key) {
+        try {
+            ValueWrapper wrapper = l2.get(key);
+            if (wrapper != null && wrapper.get() instanceof CachedValue entry) {
+                return entry;
+            }
+        } catch (RuntimeException e) {
+            // Entries written in an older format are treated as misses and overwritten
+            log.debug("Unreadable {} entry for {}: {}", name, key, e.getMessage());
+        }
+        return null;
+    }
+
+    private void store(Object key, CachedValue entry) {
+        l2.put(key, entry);
+        String tag = tagOf(key);
+        if (tag != null && tagIndex != null) {
+            tagIndex.add(name, tag, key.toString());
+        }
+        putLocal(key, entry);
+        invalidationBus.publishEvict(name, key);
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+
+        try {
+            refreshPolicy.getExecutor().execute(() -> {
+                try {
+                    flight.complete(loadAndStore(key, valueLoader));
+                    loadMetrics.refreshed();
+                } catch (RuntimeException e) {
+                    flight.completeExceptionally(e);
+                    log.warn("Background refresh of {}::{} failed: {}", name, key, e.getMessage());
+                } finally {
+                    inFlight.remove(key, flight);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, flight);
+            flight.cancel(false);
+            log.debug("Background refresh of {}::{} rejected, serving current value", name, key);
+        }
+    }
+
+    private Object loadValue(Object key, Callable<?> valueLoader) {
+        try {
+            if (loadLease == null) {
+                return loadAndStore(key, valueLoader);
+            }
+            return loadLease.callExclusively(name, key, () -> {
+                // Another node may have filled L2 while this one waited for the lease
+                CachedValue remote = readL2(key);
+                if (remote != null) {
+                    putLocal(key, remote);
+                    return remote.getValue();
+                }
+                return loadAndStore(key, valueLoader);
+            });
+        } catch (ValueRetrievalException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Object loadAndStore(Object key, Callable<?> valueLoader) {
+        long start = System.currentTimeMillis();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long end = System.currentTimeMillis();
+        store(key, new CachedValue(value, end, end - start));
+        return value;
+    }
+
+    private Object awaitLeader(CompletableFuture<Object> leader, Object key, Callable<?> valueLoader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    // Indexed after the put, so a tag eviction racing the put either finds the key
+    // now or on its second pass
+    private void putLocal(Object key, CachedValue entry) {
+        l1.put(key, entry);
+        if (localTagIndex != null) {
+            localTagIndex.add(key);
+        }
+    }
+
+    private void invalidateLocalKey(Object key) {
+        l1.invalidate(key);
+        if (localTagIndex != null) {
+            localTagIndex.remove(key);
+        }
+    }
+
+    private void invalidateLocalAll() {
+        l1.invalidateAll();
+        if (localTagIndex != null) {
+            localTagIndex.clear();
+        }
+    }
+
+    private void invalidateLocalTag(String tag) {
+        if (localTagIndex != null) {
+            l1.invalidateAll(localTagIndex.drain(tag));
+        }
+    }
+
+    private String tagOf(Object key) {
+        return keyTagger == null ? null : keyTagger.apply(key);
+    }
+}
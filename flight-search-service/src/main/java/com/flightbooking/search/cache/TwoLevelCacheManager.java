@@ -0,0 +1,99 @@
+package com.flightbooking.search.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * {@link CacheManager} that fronts selected caches of the Redis cache manager with a
+ * per-node Caffeine L1. Caches not listed in {@code l1CacheNames} are served by
+ * Redis directly. An optional key tagger and tag index enable group eviction on the
+ * layered caches, an optional load lease makes their single-flight loads
+ * cluster-wide, and per-cache refresh policies enable stale-while-revalidate.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager l2CacheManager;
+    private final Set<String> l1CacheNames;
+    private final long l1MaximumSize;
+    private final Duration l1Ttl;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final Function<Object, String> keyTagger;
+    private final CacheTagIndex tagIndex;
+    private final CacheLoadLease loadLease;
+    private final Map<String, CacheRefreshPolicy> refreshPolicies;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager l2CacheManager,
+                                Set<String> l1CacheNames,
+                                long l1MaximumSize,
+                                Duration l1Ttl,
+                                CacheInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry,
+                                Function<Object, String> keyTagger,
+                                CacheTagIndex tagIndex,
+                                CacheLoadLease loadLease,
+                                Map<String, CacheRefreshPolicy> refreshPolicies) {
+        this.l2CacheManager = l2CacheManager;
+        this.l1CacheNames = l1CacheNames;
+        this.l1MaximumSize = l1MaximumSize;
+        this.l1Ttl = l1Ttl;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.keyTagger = keyTagger;
+        this.tagIndex = tagIndex;
+        this.loadLease = loadLease;
+        this.refreshPolicies = refreshPolicies;
+        invalidationBus.subscribe(this::onRemoteInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2CacheManager.getCacheNames();
+    }
+
+    private Cache createCache(String name) {
+        Cache l2 = l2CacheManager.getCache(name);
+        if (l2 == null || !l1CacheNames.contains(name)) {
+            return l2;
+        }
+
+        // The eviction listener runs inside Caffeine's removal of the entry, so a key that
+        // is size-evicted or expires leaves the local tag index with it
+        LocalTagIndex localTagIndex = keyTagger == null ? null : new LocalTagIndex(keyTagger);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(l1MaximumSize)
+            .expireAfterWrite(l1Ttl);
+        com.github.benmanes.caffeine.cache.Cache<Object, CachedValue> l1 = localTagIndex == null
+            ? builder.build()
+            : builder.<Object, CachedValue>evictionListener((key, value, cause) -> localTagIndex.remove(key)).build();
+
+        return new TwoLevelCache(name, l1, l2, invalidationBus,
+            new CacheLayerMetrics(meterRegistry, name, "l1"),
+            new CacheLayerMetrics(meterRegistry, name, "l2"),
+            new CacheLoadMetrics(meterRegistry, name),
+            keyTagger, tagIndex, localTagIndex, loadLease, refreshPolicies.get(name));
+    }
+
+    private void onRemoteInvalidation(CacheInvalidationMessage message) {
+        Cache cache = caches.get(message.getCacheName());
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.invalidateLocal(message);
+        }
+    }
+}
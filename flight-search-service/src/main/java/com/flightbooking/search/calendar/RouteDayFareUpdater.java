@@ -0,0 +1,89 @@
+package com.flightbooking.search.calendar;
+
+import com.flightbooking.search.cache.FlightSearchCacheKeys;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.RouteDayFareRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps the pre-aggregated {@code route_day_fares} rows behind the low-fare calendar
+ * up to date.
+ *
+ * After every committed inventory change the affected route/day is recomputed with
+ * one aggregate upsert, serialized per route/day so concurrent changes cannot leave
+ * an older minimum behind. A periodic reconcile rebuilds all upcoming days, which
+ * also backfills rows after a fresh deploy and repairs changes lost to a crash
+ * between commit and recomputation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteDayFareUpdater {
+    
+    static final String LOCK_KEY = "search:calendar:reconcile";
+    
+    private final RouteDayFareRepository routeDayFareRepository;
+    private final FlightRepository flightRepository;
+    private final RedissonClient redissonClient;
+    
+    @Value("${search.calendar.horizon-days:365}")
+    private int horizonDays;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        try {
+            flightRepository.findById(event.getFlightId()).ifPresent(this::refreshRouteDay);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh low fares for flight {}, next reconcile repairs it: {}",
+                     event.getFlightId(), e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${search.calendar.reconcile-interval:15m}",
+               initialDelayString = "${search.calendar.reconcile-initial-delay:30s}")
+    @Transactional
+    public void reconcile() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate horizon = today.plusDays(horizonDays);
+            int purged = routeDayFareRepository.deleteByDepartureDateBefore(today);
+            int removed = routeDayFareRepository.deleteUnavailable(null, null, today, horizon);
+            int upserted = routeDayFareRepository.upsertMinFares(null, null,
+                today.atStartOfDay(), horizon.plusDays(1).atStartOfDay());
+            log.info("Reconciled low-fare calendar: {} fares upserted, {} removed, {} past days purged",
+                     upserted, removed, purged);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private void refreshRouteDay(Flight flight) {
+        LocalDate day = flight.getDepartureTime().toLocalDate();
+        String origin = flight.getDepartureAirport();
+        String destination = flight.getArrivalAirport();
+        routeDayFareRepository.lockRouteDay(FlightSearchCacheKeys.routeDay(origin, destination, day));
+        routeDayFareRepository.deleteUnavailable(origin, destination, day, day);
+        routeDayFareRepository.upsertMinFares(origin, destination, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+}
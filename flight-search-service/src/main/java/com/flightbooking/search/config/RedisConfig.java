@@ -3,6 +3,20 @@ package com.flightbooking.search.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flightbooking.search.cache.CacheCodec;
+import com.flightbooking.search.cache.CacheInvalidationBus;
+import com.flightbooking.search.cache.CacheLoadLease;
+import com.flightbooking.search.cache.CacheRefreshPolicy;
+import com.flightbooking.search.cache.CacheTagIndex;
+import com.flightbooking.search.cache.FlightSearchCacheKeys;
+import com.flightbooking.search.cache.Lz4CompressingSerializer;
+import com.flightbooking.search.cache.SearchResultTtl;
+import com.flightbooking.search.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,26 +25,137 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
     
+    /**
+     * Bumped whenever {@code FlightSearchResponse} gains a field that cached rows would
+     * otherwise come back without (2: fare class on nonstop rows).
+     */
+    private static final int SEARCH_ROW_VERSION = 2;
+    
+    @Value("${search.cache.flight-search.ttl:60m}")
+    private Duration flightSearchTtl;
+    
+    @Value("${search.cache.flight-search.stale-grace:5m}")
+    private Duration flightSearchStaleGrace;
+    
+    @Value("${search.cache.flight-search.empty-ttl:1m}")
+    private Duration emptyResultTtl;
+    
+    @Value("${search.cache.flight-search.connection-ttl:2m}")
+    private Duration connectionResultTtl;
+    
+    @Value("${search.cache.flight-search.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+    
+    @Value("${search.cache.l1.cache-names:flightSearch,flightSearchPages}")
+    private Set<String> l1CacheNames;
+    
+    @Value("${search.cache.l1.maximum-size:10000}")
+    private long l1MaximumSize;
+    
+    @Value("${search.cache.l1.ttl:30s}")
+    private Duration l1Ttl;
+    
+    @Value("${search.cache.single-flight.distributed:false}")
+    private boolean distributedSingleFlight;
+    
+    @Value("${search.cache.single-flight.lease-wait:3s}")
+    private Duration leaseWait;
+    
+    @Value("${search.cache.single-flight.lease-time:10s}")
+    private Duration leaseTime;
+    
+    @Value("#{${search.cache.codec.by-cache:{:}}}")
+    private Map<String, String> codecByCache;
+    
+    @Value("${search.cache.codec.compression.cache-names:}")
+    private Set<String> compressedCacheNames;
+    
+    @Value("${search.cache.codec.compression.min-bytes:2048}")
+    private int compressionMinBytes;
+    
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheInvalidationBus cacheInvalidationBus(RedissonClient redissonClient) {
+        return new CacheInvalidationBus(redissonClient);
+    }
+    
+    @Bean
+    public CacheTagIndex cacheTagIndex(RedissonClient redissonClient) {
+        return new CacheTagIndex(redissonClient, flightSearchTtl.plus(flightSearchStaleGrace));
+    }
+    
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CacheInvalidationBus cacheInvalidationBus,
+                                     CacheTagIndex cacheTagIndex,
+                                     RedissonClient redissonClient,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier("taskExecutor") Executor taskExecutor) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         
+        // Default typing so layered caches read back their CachedValue envelopes
+        RedisSerializer<Object> json = GenericJackson2JsonRedisSerializer.builder()
+            .objectMapper(objectMapper)
+            .defaultTyping(true)
+            .build();
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(10))
-            .serializeValuesWith(RedisSerializationContext.SerializationPair
-                .fromSerializer(new GenericJackson2JsonRedisSerializer(objectMapper)));
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(json));
+        SearchResultTtl searchTtl = new SearchResultTtl(flightSearchTtl.plus(flightSearchStaleGrace), emptyResultTtl,
+            connectionResultTtl);
         
-        return RedisCacheManager.builder(connectionFactory)
+        // Redis keeps search entries for a grace period past their fresh TTL so they
+        // can be served stale while a background refresh runs; empty results and results
+        // with connections expire early. Search keys carry the row schema version, so rows
+        // cached before a field was added are never served in place of fresh ones.
+        RedisCacheConfiguration searchConfig = config.entryTtl(searchTtl)
+            .computePrefixWith(cacheName -> cacheName + "::v" + SEARCH_ROW_VERSION + "::");
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(config)
+            .withCacheConfiguration("flightSearch", searchConfig
+                .serializeValuesWith(serializerFor("flightSearch", json)))
+            .withCacheConfiguration("flightSearchPages", searchConfig
+                .serializeValuesWith(serializerFor("flightSearchPages", json)))
             .build();
+        redisCacheManager.initializeCaches();
+        
+        CacheRefreshPolicy refreshPolicy = new CacheRefreshPolicy(flightSearchTtl, earlyRefreshBeta, taskExecutor);
+        
+        return new TwoLevelCacheManager(redisCacheManager, l1CacheNames, l1MaximumSize, l1Ttl,
+                                        cacheInvalidationBus, meterRegistry,
+                                        FlightSearchCacheKeys::routeDayOf, cacheTagIndex,
+                                        distributedSingleFlight
+                                            ? new CacheLoadLease(redissonClient, leaseWait, leaseTime)
+                                            : null,
+                                        Map.of("flightSearch", refreshPolicy, "flightSearchPages", refreshPolicy));
+    }
+    
+    /**
+     * Value serializer for a cache: the configured codec (JSON by default), optionally
+     * LZ4-compressed above the size threshold. Both wrappers still read plain JSON, so
+     * switching a cache's codec does not require flushing it.
+     */
+    private RedisSerializationContext.SerializationPair<Object> serializerFor(String cacheName,
+                                                                               RedisSerializer<Object> json) {
+        CacheCodec codec = CacheCodec.valueOf(
+            codecByCache.getOrDefault(cacheName, CacheCodec.JSON.name()).toUpperCase(Locale.ROOT));
+        RedisSerializer<Object> serializer = codec.serializer(json);
+        if (compressedCacheNames.contains(cacheName)) {
+            serializer = new Lz4CompressingSerializer(serializer, compressionMinBytes);
+        }
+        return RedisSerializationContext.SerializationPair.fromSerializer(serializer);
     }
 }
@@ -1,13 +1,26 @@
 package com.flightbooking.search.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.flightbooking.search.dto.FlightDetailsResponse;
+import com.flightbooking.search.dto.FlightSearchPage;
 import com.flightbooking.search.dto.FlightSearchRequest;
 import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.LowFareCalendarRequest;
+import com.flightbooking.search.dto.LowFareCalendarResponse;
+import com.flightbooking.search.paging.ResultPosition;
 import com.flightbooking.search.service.FlightSearchService;
+import com.flightbooking.search.service.LowFareCalendarService;
+import com.flightbooking.search.streaming.FlightResultWriter;
+import com.flightbooking.search.traffic.RouteTrafficTracker;
+import com.flightbooking.search.warmup.SearchTrafficRecorder;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -18,13 +31,59 @@ import java.util.UUID;
 public class FlightSearchController {
     
     private final FlightSearchService flightSearchService;
+    private final LowFareCalendarService lowFareCalendarService;
+    private final SearchTrafficRecorder searchTrafficRecorder;
+    private final RouteTrafficTracker routeTrafficTracker;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${search.streaming.flush-every:50}")
+    private int streamFlushEvery;
     
     @GetMapping("/search")
     public ResponseEntity<List<FlightSearchResponse>> searchFlights(@Valid @ModelAttribute FlightSearchRequest request) {
+        searchTrafficRecorder.record(request);
+        routeTrafficTracker.record(request);
         List<FlightSearchResponse> results = flightSearchService.searchFlights(request);
         return ResponseEntity.ok(results);
     }
     
+    @GetMapping("/search/page")
+    public ResponseEntity<FlightSearchPage> searchFlightPage(@Valid @ModelAttribute FlightSearchRequest request) {
+        // Rejected here, before the search circuit breaker and its database fallback
+        if (request.getCursor() != null) {
+            ResultPosition.fromCursor(request.getCursor(), request.getSort());
+        }
+        routeTrafficTracker.record(request);
+        return ResponseEntity.ok(flightSearchService.searchFlightPage(request));
+    }
+    
+    /**
+     * Streams results as newline-delimited JSON ({@code Accept: application/x-ndjson}) or
+     * server-sent events ({@code Accept: text/event-stream}) while they are produced.
+     */
+    @GetMapping(value = "/search/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamFlights(@Valid @ModelAttribute FlightSearchRequest request,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT,
+                                                                  defaultValue = MediaType.APPLICATION_NDJSON_VALUE) String accept) {
+        routeTrafficTracker.record(request);
+        boolean sse = accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        StreamingResponseBody body = out -> {
+            FlightResultWriter writer = new FlightResultWriter(out, objectMapper,
+                sse ? FlightResultWriter.Format.SSE : FlightResultWriter.Format.NDJSON, streamFlushEvery);
+            flightSearchService.streamFlights(request, writer);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+            .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .body(body);
+    }
+    
+    @GetMapping("/calendar")
+    public ResponseEntity<LowFareCalendarResponse> getLowFareCalendar(@Valid @ModelAttribute LowFareCalendarRequest request) {
+        return ResponseEntity.ok(lowFareCalendarService.getCalendar(request));
+    }
+    
     @GetMapping("/{flightId}")
     public ResponseEntity<FlightDetailsResponse> getFlightDetails(@PathVariable UUID flightId) {
         FlightDetailsResponse response = flightSearchService.getFlightDetails(flightId);
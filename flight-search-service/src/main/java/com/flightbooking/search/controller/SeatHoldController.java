@@ -1,5 +1,7 @@
 package com.flightbooking.search.controller;
 
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.search.dto.SeatHoldResponse;
 import com.flightbooking.search.service.SeatHoldService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -21,11 +23,23 @@ public class SeatHoldController {
             @RequestParam UUID flightId,
             @RequestParam String sessionId,
             @RequestBody List<String> seats,
+            @RequestParam(required = false) String fareClass,
             @RequestParam(defaultValue = "15") Integer durationMinutes) {
-        UUID holdId = seatHoldService.holdSeats(flightId, sessionId, seats, durationMinutes);
+        UUID holdId = seatHoldService.holdSeats(flightId, sessionId, seats, fareClass, durationMinutes);
         return ResponseEntity.ok(Map.of("holdId", holdId));
     }
     
+    @PostMapping("/adjacent")
+    public ResponseEntity<SeatHoldResponse> holdAdjacentSeats(
+            @RequestParam UUID flightId,
+            @RequestParam String sessionId,
+            @RequestParam CabinClass cabinClass,
+            @RequestParam int count,
+            @RequestParam(defaultValue = "15") Integer durationMinutes) {
+        return ResponseEntity.ok(
+            seatHoldService.holdAdjacentSeats(flightId, sessionId, cabinClass, count, durationMinutes));
+    }
+    
     @DeleteMapping("/{holdId}")
     public ResponseEntity<Void> releaseHold(@PathVariable UUID holdId) {
         seatHoldService.releaseHold(holdId);
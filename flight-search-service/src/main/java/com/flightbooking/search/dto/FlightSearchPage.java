@@ -0,0 +1,26 @@
+package com.flightbooking.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of search results. Pass {@code nextCursor} back as {@code cursor} with the
+ * same search criteria and sort to fetch the following page; it is null on the last page.
+ * Facets, when requested, cover the whole result set rather than this page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSearchPage {
+    private List<FlightSearchResponse> results;
+    private SearchSort sort;
+    private Integer pageSize;
+    private String nextCursor;
+    /**
+     * Present only when the request asked for facets.
+     */
+    private SearchFacets facets;
+}
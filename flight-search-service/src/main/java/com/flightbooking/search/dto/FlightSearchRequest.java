@@ -1,6 +1,7 @@
 package com.flightbooking.search.dto;
 
 import com.flightbooking.common.enums.CabinClass;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -29,5 +30,27 @@ public class FlightSearchRequest {
     
     private CabinClass cabinClass;
     
+    @Min(0)
+    @Max(2)
     private Integer maxStops;
+    
+    /**
+     * Paged searches only: result order, page size and the {@code nextCursor} of the
+     * previous page.
+     */
+    @NotNull
+    private SearchSort sort = SearchSort.DEPARTURE;
+    
+    @NotNull
+    @Min(1)
+    @Max(100)
+    private Integer pageSize = 20;
+    
+    private String cursor;
+    
+    /**
+     * Paged searches only: also count carriers, prices, departure hours and cabins
+     * over the full result set.
+     */
+    private Boolean includeFacets = false;
 }
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -26,7 +27,34 @@ public class FlightSearchResponse {
     public LocalDateTime arrivalTime;
     public Integer durationMinutes;
     public CabinClass cabinClass;
+    /**
+     * Fare bucket of a nonstop row; null for connections, whose legs carry their own.
+     */
+    public String fareClass;
     public BigDecimal price;
     public String currency;
     public Integer availableSeats;
+    public Integer stops;
+    /**
+     * Legs of a connecting itinerary; null for nonstop flights.
+     */
+    public List<SegmentInfo> segments;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SegmentInfo {
+        public UUID flightId;
+        public Carrier carrier;
+        public String flightNumber;
+        public String origin;
+        public String destination;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        public LocalDateTime departureTime;
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        public LocalDateTime arrivalTime;
+        public String fareClass;
+        public CabinClass cabinClass;
+        public BigDecimal price;
+    }
 }
@@ -0,0 +1,29 @@
+package com.flightbooking.search.dto;
+
+import com.flightbooking.common.enums.CabinClass;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowFareCalendarRequest {
+    @NotBlank
+    private String origin;
+    
+    @NotBlank
+    private String destination;
+    
+    @NotNull
+    private LocalDate startDate;
+    
+    @NotNull
+    private LocalDate endDate;
+    
+    private CabinClass cabinClass;
+}
@@ -0,0 +1,34 @@
+package com.flightbooking.search.dto;
+
+import com.flightbooking.common.enums.CabinClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowFareCalendarResponse {
+    private String origin;
+    private String destination;
+    private String currency;
+    private List<CalendarDay> days;
+    
+    /**
+     * Lowest fare with seats left on one departure day; {@code lowestFare} is null
+     * and {@code cabinFares} empty when nothing is bookable that day.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CalendarDay {
+        private LocalDate date;
+        private BigDecimal lowestFare;
+        private Map<CabinClass, BigDecimal> cabinFares;
+    }
+}
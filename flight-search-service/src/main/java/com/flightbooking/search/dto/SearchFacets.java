@@ -0,0 +1,47 @@
+package com.flightbooking.search.dto;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter sidebar data computed over every result of a search, not just the returned
+ * page, so clients can filter and re-count locally without another query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacets {
+    private long total;
+    private Map<Carrier, Long> carriers;
+    private List<PriceBucket> priceHistogram;
+    /**
+     * Result counts keyed by local departure hour (0-23); hours without results are omitted.
+     */
+    private Map<Integer, Long> departureHours;
+    private Map<CabinClass, CabinAvailability> cabins;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CabinAvailability {
+        private long count;
+        private BigDecimal lowestPrice;
+        private int maxAvailableSeats;
+    }
+}
@@ -0,0 +1,11 @@
+package com.flightbooking.search.dto;
+
+/**
+ * Server-side orderings for paged flight search results. Ties on the primary key
+ * fall back to departure, price and duration, in that order.
+ */
+public enum SearchSort {
+    DEPARTURE,
+    PRICE,
+    DURATION
+}
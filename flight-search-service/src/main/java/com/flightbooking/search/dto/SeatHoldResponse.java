@@ -0,0 +1,16 @@
+package com.flightbooking.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldResponse {
+    private UUID holdId;
+    private List<String> seats;
+}
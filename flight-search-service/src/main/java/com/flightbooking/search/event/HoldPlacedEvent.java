@@ -0,0 +1,20 @@
+package com.flightbooking.search.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a seat hold is taken, so its expiry can be scheduled once the hold
+ * is committed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldPlacedEvent {
+    private UUID holdId;
+    private LocalDateTime expiresAt;
+}
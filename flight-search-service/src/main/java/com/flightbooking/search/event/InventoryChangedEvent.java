@@ -0,0 +1,19 @@
+package com.flightbooking.search.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Published whenever seat inventory of a flight changes (holds, releases, new fare
+ * buckets). The search index outbox is written before the surrounding transaction
+ * commits; cache eviction reacts after it commits.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryChangedEvent {
+    private UUID flightId;
+}
@@ -0,0 +1,80 @@
+package com.flightbooking.search.facets;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchFacets;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Counts facets in the same pass that produces search results, with memory bounded by
+ * the number of distinct facet values rather than the number of rows.
+ */
+public class FacetCollector implements Consumer<FlightSearchResponse> {
+    
+    private final BigDecimal priceBucketWidth;
+    private final long[] carrierCounts = new long[Carrier.values().length];
+    private final long[] hourCounts = new long[24];
+    private final Map<CabinClass, SearchFacets.CabinAvailability> cabins = new EnumMap<>(CabinClass.class);
+    private final TreeMap<BigDecimal, Long> priceBuckets = new TreeMap<>();
+    private long total;
+    
+    public FacetCollector(BigDecimal priceBucketWidth) {
+        this.priceBucketWidth = priceBucketWidth;
+    }
+    
+    @Override
+    public void accept(FlightSearchResponse response) {
+        total++;
+        if (response.getCarrier() != null) {
+            carrierCounts[response.getCarrier().ordinal()]++;
+        }
+        if (response.getDepartureTime() != null) {
+            hourCounts[response.getDepartureTime().getHour()]++;
+        }
+        if (response.getPrice() != null) {
+            BigDecimal bucket = response.getPrice().divide(priceBucketWidth, 0, RoundingMode.FLOOR).multiply(priceBucketWidth);
+            priceBuckets.merge(bucket, 1L, Long::sum);
+        }
+        if (response.getCabinClass() != null) {
+            SearchFacets.CabinAvailability cabin = cabins.computeIfAbsent(response.getCabinClass(),
+                c -> new SearchFacets.CabinAvailability(0, null, 0));
+            cabin.setCount(cabin.getCount() + 1);
+            if (response.getPrice() != null
+                    && (cabin.getLowestPrice() == null || response.getPrice().compareTo(cabin.getLowestPrice()) < 0)) {
+                cabin.setLowestPrice(response.getPrice());
+            }
+            if (response.getAvailableSeats() != null) {
+                cabin.setMaxAvailableSeats(Math.max(cabin.getMaxAvailableSeats(), response.getAvailableSeats()));
+            }
+        }
+    }
+    
+    public SearchFacets toFacets() {
+        Map<Carrier, Long> carriers = new LinkedHashMap<>();
+        for (Carrier carrier : Carrier.values()) {
+            if (carrierCounts[carrier.ordinal()] > 0) {
+                carriers.put(carrier, carrierCounts[carrier.ordinal()]);
+            }
+        }
+        Map<Integer, Long> hours = new TreeMap<>();
+        for (int hour = 0; hour < hourCounts.length; hour++) {
+            if (hourCounts[hour] > 0) {
+                hours.put(hour, hourCounts[hour]);
+            }
+        }
+        List<SearchFacets.PriceBucket> histogram = new ArrayList<>(priceBuckets.size());
+        priceBuckets.forEach((from, count) ->
+            histogram.add(new SearchFacets.PriceBucket(from, from.add(priceBucketWidth), count)));
+        return new SearchFacets(total, carriers, histogram, hours, new LinkedHashMap<>(cabins));
+    }
+}
@@ -0,0 +1,58 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.model.SeatMap;
+import com.flightbooking.search.repository.SeatMapRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Works out which fare buckets a hold debits and by how many seats.
+ *
+ * An explicit fare class puts every seat in that bucket. Otherwise each seat is
+ * looked up in the flight's {@link SeatMap}. Seats that are not on a seat map need an
+ * explicit fare class: debiting some default bucket would sell seats out of a fare
+ * the customer never chose.
+ */
+@Component
+@RequiredArgsConstructor
+public class FareClassResolver {
+    
+    private final SeatMapRepository seatMapRepository;
+    
+    /**
+     * Seats per fare class in fare class order, which is also the order bucket locks
+     * are taken in; never empty.
+     *
+     * @throws BusinessException if no fare class is given and a seat is not on the seat map
+     */
+    public SortedMap<String, Integer> resolve(UUID flightId, List<String> seats, String fareClass) {
+        SortedMap<String, Integer> buckets = new TreeMap<>();
+        if (fareClass != null && !fareClass.isBlank()) {
+            buckets.put(fareClass, seats.size());
+            return buckets;
+        }
+        
+        List<SeatMap> mapped = seatMapRepository.findByFlightIdAndSeatNoIn(flightId, seats);
+        if (mapped.isEmpty()) {
+            throw new BusinessException("Seats are not on the seat map, a fare class is required");
+        }
+        Map<String, String> fareClassBySeat = mapped.stream()
+            .collect(Collectors.toMap(SeatMap::getSeatNo, SeatMap::getFareClass));
+        for (String seat : seats) {
+            String seatFareClass = fareClassBySeat.get(seat);
+            if (seatFareClass == null) {
+                throw new BusinessException("Seat " + seat + " is not on the seat map");
+            }
+            buckets.merge(seatFareClass, 1, Integer::sum);
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,156 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs hold commands for the flights this node owns, one writer thread per lane.
+ *
+ * A flight always maps to the same lane, so its commands are applied strictly in
+ * arrival order by a single thread and never wait on a lock. Each lane thread takes
+ * whatever has queued up since its last write, up to {@code batch-size} commands, and
+ * hands them to {@link HoldBatchWriter} as one transaction: under load many holds
+ * share a commit, while a lone hold is written as soon as it arrives.
+ */
+@Component
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "sequencer")
+@Slf4j
+public class FlightHoldSequencer implements HoldCommands {
+    
+    private final HoldBatchWriter batchWriter;
+    private final int batchSize;
+    private final Duration commandTimeout;
+    private final List<BlockingQueue<HoldCommand>> lanes;
+    private final ExecutorService laneThreads;
+    private final DistributionSummary batchSizes;
+    private volatile boolean running = true;
+    
+    public FlightHoldSequencer(HoldBatchWriter batchWriter,
+                               MeterRegistry meterRegistry,
+                               @Value("${search.holds.sequencer.lanes:8}") int laneCount,
+                               @Value("${search.holds.sequencer.batch-size:100}") int batchSize,
+                               @Value("${search.holds.sequencer.queue-capacity:10000}") int queueCapacity,
+                               @Value("${search.holds.sequencer.command-timeout:5s}") Duration commandTimeout) {
+        this.batchWriter = batchWriter;
+        this.batchSize = batchSize;
+        this.commandTimeout = commandTimeout;
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        this.laneThreads = Executors.newFixedThreadPool(laneCount,
+            Thread.ofPlatform().name("hold-sequencer-", 0).daemon().factory());
+        this.batchSizes = DistributionSummary.builder("search.holds.sequencer.batch")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder("search.holds.sequencer.queued", this,
+                sequencer -> sequencer.lanes.stream().mapToInt(BlockingQueue::size).sum())
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        lanes.forEach(lane -> laneThreads.execute(() -> drain(lane)));
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        laneThreads.shutdownNow();
+        laneThreads.awaitTermination(commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void hold(UUID flightId, UUID holdId, String sessionId, List<String> seats,
+                     Map<String, Integer> fareClassSeats, int durationMinutes) {
+        await(submit(HoldCommand.hold(flightId, holdId, sessionId, seats, fareClassSeats, durationMinutes)));
+    }
+    
+    @Override
+    public List<String> holdAdjacent(UUID flightId, UUID holdId, String sessionId, CabinClass cabinClass, int count,
+                                     int durationMinutes) {
+        // Copied so the result crosses nodes as a plain list
+        return new ArrayList<>(await(submit(
+            HoldCommand.holdAdjacent(flightId, holdId, sessionId, cabinClass, count, durationMinutes))));
+    }
+    
+    @Override
+    public void release(UUID flightId, UUID holdId) {
+        await(submit(HoldCommand.release(flightId, holdId)));
+    }
+    
+    CompletableFuture<List<String>> submit(HoldCommand command) {
+        if (!lane(command.flightId()).offer(command)) {
+            throw new BusinessException("Too many seat holds in progress, try again");
+        }
+        return command.result();
+    }
+    
+    private BlockingQueue<HoldCommand> lane(UUID flightId) {
+        return lanes.get(Math.floorMod(flightId.hashCode(), lanes.size()));
+    }
+    
+    private void drain(BlockingQueue<HoldCommand> lane) {
+        List<HoldCommand> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(lane.take());
+                lane.drainTo(batch, batchSize - 1);
+                batchSizes.record(batch.size());
+                batchWriter.write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Hold sequencer lane failed a batch of {}", batch.size(), e);
+                batch.forEach(command -> command.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        List<HoldCommand> abandoned = new ArrayList<>();
+        lane.drainTo(abandoned);
+        abandoned.forEach(command -> command.result().completeExceptionally(
+            new BusinessException("Seat hold service is shutting down")));
+    }
+    
+    private List<String> await(CompletableFuture<List<String>> result) {
+        try {
+            return result.get(commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // The command may still commit; an unclaimed hold is released when it expires
+            throw new BusinessException("Seat hold timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Seat hold interrupted");
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.flightbooking.search.holds;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.common.enums.HoldStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.event.HoldPlacedEvent;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.InventoryHold;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.seatmap.FlightSeatMap;
+import com.flightbooking.search.seatmap.SeatChange;
+import com.flightbooking.search.seatmap.SeatMapEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a batch of sequenced hold commands to Postgres in one transaction.
+ *
+ * Availability of every flight in the batch is read once, each command is decided
+ * against it in order, and each flight's accepted holds and releases are written as
+ * one conditional update of its fare buckets. Flights with a seat map also take or
+ * return the exact seats in their cached {@link FlightSeatMap}, and the changed seat
+ * rows are written in one statement. Commands are completed only after the commit.
+ *
+ * The bucket and seat writes are conditional, so a write racing the sequencer (the
+ * database hold path, or two nodes while ownership moves) fails the batch instead of
+ * overselling. The batch's seat maps are then dropped, as they may hold changes that
+ * were rolled back, and its commands are retried one at a time against fresh state.
+ */
+@Component
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "sequencer")
+@RequiredArgsConstructor
+@Slf4j
+public class HoldBatchWriter {
+    
+    private final SeatInventoryRepository inventoryRepository;
+    private final InventoryHoldRepository holdRepository;
+    private final SeatMapEngine seatMapEngine;
+    private final FareClassResolver fareClassResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    
+    public void write(List<HoldCommand> batch) {
+        List<Runnable> completions;
+        try {
+            completions = transactionTemplate.execute(status -> apply(batch));
+        } catch (RuntimeException e) {
+            batch.forEach(command -> seatMapEngine.evict(command.flightId()));
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Hold batch of {} failed, applying commands one at a time: {}", batch.size(), e.getMessage());
+            batch.forEach(command -> write(List.of(command)));
+            return;
+        }
+        completions.forEach(Runnable::run);
+    }
+    
+    private List<Runnable> apply(List<HoldCommand> batch) {
+        Map<UUID, List<SeatInventory>> inventoryByFlight = inventoryRepository.findByFlightIdIn(
+                batch.stream().map(HoldCommand::flightId).collect(Collectors.toSet())).stream()
+            .collect(Collectors.groupingBy(SeatInventory::getFlightId, LinkedHashMap::new, Collectors.toList()));
+        Map<UUID, InventoryHold> releasedHolds = holdRepository.findAllById(batch.stream()
+                .filter(command -> command.type() == HoldCommand.Type.RELEASE)
+                .map(HoldCommand::holdId)
+                .collect(Collectors.toList())).stream()
+            .collect(Collectors.toMap(InventoryHold::getHoldId, Function.identity()));
+        
+        Map<UUID, Map<String, Integer>> available = new HashMap<>();
+        inventoryByFlight.forEach((flightId, inventories) -> available.put(flightId, inventories.stream()
+            .collect(Collectors.toMap(SeatInventory::getFareClass, SeatInventory::getAvailableSeats))));
+        Map<UUID, Map<String, Integer>> deltas = new LinkedHashMap<>();
+        List<SeatChange> seatChanges = new ArrayList<>();
+        List<HoldCommand> accepted = new ArrayList<>();
+        List<List<String>> acceptedSeats = new ArrayList<>();
+        List<Map<String, Integer>> acceptedBuckets = new ArrayList<>();
+        List<Runnable> completions = new ArrayList<>();
+        
+        for (HoldCommand command : batch) {
+            List<SeatInventory> inventories = inventoryByFlight.get(command.flightId());
+            if (command.type() != HoldCommand.Type.RELEASE) {
+                try {
+                    FlightSeatMap seatMap = seatMapEngine.get(command.flightId());
+                    List<String> seats = seats(command, seatMap);
+                    Map<String, Integer> buckets = buckets(
+                        command.type() == HoldCommand.Type.HOLD ? command.fareClassSeats() : seatMap.fareClassSeats(seats),
+                        inventories);
+                    Map<String, Integer> flightAvailable = available.get(command.flightId());
+                    checkAvailable(flightAvailable, buckets);
+                    if (!seatMap.isEmpty()) {
+                        seatChanges.addAll(seatMap.hold(seats, command.holdId()));
+                    }
+                    buckets.forEach((fareClass, count) -> {
+                        flightAvailable.merge(fareClass, -count, Integer::sum);
+                        deltas.computeIfAbsent(command.flightId(), id -> new TreeMap<>())
+                            .merge(fareClass, -count, Integer::sum);
+                    });
+                    accepted.add(command);
+                    acceptedSeats.add(seats);
+                    acceptedBuckets.add(buckets);
+                    completions.add(() -> command.result().complete(seats));
+                } catch (BusinessException e) {
+                    completions.add(() -> command.result().completeExceptionally(e));
+                }
+            } else {
+                InventoryHold hold = releasedHolds.get(command.holdId());
+                if (hold == null) {
+                    completions.add(() -> command.result().completeExceptionally(new BusinessException("Hold not found")));
+                    continue;
+                }
+                Map<String, Integer> buckets = hold.getFareClassSeats();
+                if (hold.getStatus() == HoldStatus.ACTIVE && (buckets == null || buckets.isEmpty())) {
+                    // Held before buckets were recorded; credit the fare classes of its seats
+                    try {
+                        buckets = fareClassResolver.resolve(hold.getFlightId(), hold.getSeats(), null);
+                    } catch (BusinessException e) {
+                        completions.add(() -> command.result().completeExceptionally(e));
+                        continue;
+                    }
+                }
+                // Conditional so a hold confirmed since it was read stays confirmed
+                if (hold.getStatus() == HoldStatus.ACTIVE
+                    && holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.RELEASED) == 1) {
+                    hold.setStatus(HoldStatus.RELEASED);
+                    buckets.forEach((fareClass, seats) -> deltas.computeIfAbsent(hold.getFlightId(), id -> new TreeMap<>())
+                        .merge(fareClass, seats, Integer::sum));
+                    seatChanges.addAll(seatMapEngine.get(hold.getFlightId()).release(hold.getHoldId()));
+                }
+                completions.add(() -> command.result().complete(List.of()));
+            }
+        }
+        
+        deltas.forEach(this::adjust);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < accepted.size(); i++) {
+            HoldCommand command = accepted.get(i);
+            LocalDateTime expiresAt = now.plusMinutes(command.durationMinutes());
+            int inserted = holdRepository.insertIfAbsent(command.holdId(), command.flightId(), command.sessionId(),
+                acceptedSeats.get(i).size(), toJson(acceptedSeats.get(i)), toJson(new TreeMap<>(acceptedBuckets.get(i))),
+                expiresAt, now);
+            if (inserted == 0) {
+                // Already applied by another writer; debiting again would leak seats
+                throw new IllegalStateException("Hold " + command.holdId() + " was already written");
+            }
+            eventPublisher.publishEvent(new HoldPlacedEvent(command.holdId(), expiresAt));
+        }
+        seatMapEngine.persist(seatChanges);
+        deltas.keySet().forEach(flightId -> eventPublisher.publishEvent(new InventoryChangedEvent(flightId)));
+        return completions;
+    }
+    
+    /**
+     * The seats a hold takes: the requested ones, or the first side-by-side run found.
+     */
+    private static List<String> seats(HoldCommand command, FlightSeatMap seatMap) {
+        if (command.type() == HoldCommand.Type.HOLD) {
+            return command.seats();
+        }
+        if (seatMap.isEmpty()) {
+            throw new BusinessException("Flight has no seat map");
+        }
+        List<String> seats = seatMap.findAdjacent(command.cabinClass(), command.count());
+        if (seats == null) {
+            throw new BusinessException("No " + command.count() + " adjacent seats available in " + command.cabinClass());
+        }
+        return seats;
+    }
+    
+    /**
+     * Seats per bucket for a hold; a hold must name at least one bucket.
+     */
+    private static Map<String, Integer> buckets(Map<String, Integer> fareClassSeats, List<SeatInventory> inventories) {
+        if (inventories == null || inventories.isEmpty()) {
+            throw new BusinessException("No inventory found for flight");
+        }
+        if (fareClassSeats.isEmpty()) {
+            throw new BusinessException("No fare class resolved for the requested seats");
+        }
+        return fareClassSeats;
+    }
+    
+    private static void checkAvailable(Map<String, Integer> available, Map<String, Integer> buckets) {
+        for (Map.Entry<String, Integer> bucket : buckets.entrySet()) {
+            Integer seats = available.get(bucket.getKey());
+            if (seats == null) {
+                throw new BusinessException("Unknown fare class for flight");
+            }
+            if (seats < bucket.getValue()) {
+                throw new BusinessException("Insufficient seats available");
+            }
+        }
+    }
+    
+    private void adjust(UUID flightId, Map<String, Integer> delta) {
+        delta.values().removeIf(seats -> seats == 0);
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (inventoryRepository.adjustAvailableSeats(flightId, toJson(delta)) < delta.size()) {
+            throw new IllegalStateException("Seat inventory of flight " + flightId + " changed outside the sequencer");
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write hold batch value", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A hold or release waiting in a sequencer lane, completed with the seats it held
+ * once its batch commits. Hold ids are assigned when the command is created.
+ */
+record HoldCommand(Type type,
+                   UUID flightId,
+                   UUID holdId,
+                   String sessionId,
+                   List<String> seats,
+                   Map<String, Integer> fareClassSeats,
+                   CabinClass cabinClass,
+                   int count,
+                   int durationMinutes,
+                   CompletableFuture<List<String>> result) {
+    
+    enum Type {
+        HOLD,
+        HOLD_ADJACENT,
+        RELEASE
+    }
+    
+    static HoldCommand hold(UUID flightId, UUID holdId, String sessionId, List<String> seats,
+                            Map<String, Integer> fareClassSeats, int durationMinutes) {
+        return new HoldCommand(Type.HOLD, flightId, holdId, sessionId, seats, fareClassSeats, null,
+            seats.size(), durationMinutes, new CompletableFuture<>());
+    }
+    
+    static HoldCommand holdAdjacent(UUID flightId, UUID holdId, String sessionId, CabinClass cabinClass, int count,
+                                    int durationMinutes) {
+        return new HoldCommand(Type.HOLD_ADJACENT, flightId, holdId, sessionId, null, null, cabinClass, count,
+            durationMinutes, new CompletableFuture<>());
+    }
+    
+    static HoldCommand release(UUID flightId, UUID holdId) {
+        return new HoldCommand(Type.RELEASE, flightId, holdId, null, null, null, null, 0, 0,
+            new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,29 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hold commands a node accepts for the flights it sequences, locally or from other
+ * nodes over Redisson remote service. Arguments are plain collections so any codec
+ * can carry them.
+ */
+public interface HoldCommands {
+    
+    /**
+     * @param fareClassSeats seats per fare class, as resolved by {@link FareClassResolver}
+     */
+    void hold(UUID flightId, UUID holdId, String sessionId, List<String> seats, Map<String, Integer> fareClassSeats,
+              int durationMinutes);
+    
+    /**
+     * @return the seats held, side by side in one row
+     */
+    List<String> holdAdjacent(UUID flightId, UUID holdId, String sessionId, CabinClass cabinClass, int count,
+                              int durationMinutes);
+    
+    void release(UUID flightId, UUID holdId);
+}
@@ -0,0 +1,94 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.search.event.HoldPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hold expiries kept in Redis, so every node sees the same schedule and it survives
+ * restarts of the search service.
+ *
+ * {@code seat-hold:expiry} is a sorted set of hold ids scored by expiry time. A node
+ * claims due holds by moving them, in one script, to {@code seat-hold:expiry:claimed}
+ * scored by the end of its lease; no other node gets them while the lease runs. A
+ * claim is finished with {@link #complete(UUID)} once the hold is released. If the node
+ * dies first, the lease runs out and the next claim picks the hold up again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HoldExpiryQueue {
+    
+    static final String EXPIRY_KEY = "seat-hold:expiry";
+    static final String CLAIMED_KEY = "seat-hold:expiry:claimed";
+    
+    private static final String CLAIM = """
+        local limit = tonumber(ARGV[3])
+        local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, limit)
+        for _, holdId in ipairs(due) do
+            redis.call('ZREM', KEYS[1], holdId)
+            redis.call('ZADD', KEYS[2], ARGV[2], holdId)
+        end
+        if #due < limit then
+            local abandoned = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, limit - #due)
+            for _, holdId in ipairs(abandoned) do
+                redis.call('ZADD', KEYS[2], ARGV[2], holdId)
+                table.insert(due, holdId)
+            end
+        end
+        return due
+        """;
+    
+    private final RedissonClient redissonClient;
+    
+    /**
+     * Schedules a hold once it is committed. A failure only delays the release until
+     * the next database sweep.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onHoldPlaced(HoldPlacedEvent event) {
+        try {
+            schedule(event.getHoldId(), event.getExpiresAt());
+        } catch (RuntimeException e) {
+            log.warn("Could not schedule expiry of hold {}, leaving it to the sweep: {}", event.getHoldId(),
+                     e.getMessage());
+        }
+    }
+    
+    public void schedule(UUID holdId, LocalDateTime expiresAt) {
+        redissonClient.<String>getScoredSortedSet(EXPIRY_KEY, StringCodec.INSTANCE)
+            .add(epochMillis(expiresAt), holdId.toString());
+    }
+    
+    /**
+     * Claims up to {@code limit} holds that expired by {@code now}, including ones whose
+     * earlier claim was never completed, for {@code lease}.
+     */
+    public List<UUID> claimDue(LocalDateTime now, int limit, Duration lease) {
+        long nowMillis = epochMillis(now);
+        List<Object> due = redissonClient.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE, CLAIM,
+            RScript.ReturnType.MULTI, List.of(EXPIRY_KEY, CLAIMED_KEY),
+            String.valueOf(nowMillis), String.valueOf(nowMillis + lease.toMillis()), String.valueOf(limit));
+        return due.stream().map(holdId -> UUID.fromString((String) holdId)).toList();
+    }
+    
+    public void complete(UUID holdId) {
+        redissonClient.<String>getScoredSortedSet(CLAIMED_KEY, StringCodec.INSTANCE).remove(holdId.toString());
+    }
+    
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
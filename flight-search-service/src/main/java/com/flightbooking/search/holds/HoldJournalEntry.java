@@ -0,0 +1,55 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.HoldStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One hold state change accepted by the Redis seat counters and waiting to be written
+ * to Postgres. Entries are appended to the journal by the same script that changes
+ * the counters, so every accepted hold is persisted even if the accepting node dies.
+ *
+ * @param fareClassSeats seats per fare class; filled in by the status change script
+ *                       from the hold's record
+ */
+public record HoldJournalEntry(Type type,
+                               UUID holdId,
+                               UUID flightId,
+                               Map<String, Integer> fareClassSeats,
+                               String sessionId,
+                               List<String> seats,
+                               Integer seatCount,
+                               LocalDateTime expiresAt,
+                               LocalDateTime at) {
+    
+    public enum Type {
+        HOLD(HoldStatus.ACTIVE),
+        RELEASE(HoldStatus.RELEASED),
+        CONFIRM(HoldStatus.CONFIRMED),
+        /** Undoes a hold Postgres would not take. */
+        CANCEL(HoldStatus.CANCELLED);
+        
+        private final HoldStatus status;
+        
+        Type(HoldStatus status) {
+            this.status = status;
+        }
+        
+        public HoldStatus status() {
+            return status;
+        }
+    }
+    
+    static HoldJournalEntry hold(UUID holdId, UUID flightId, Map<String, Integer> fareClassSeats, String sessionId,
+                                 List<String> seats, LocalDateTime expiresAt) {
+        return new HoldJournalEntry(Type.HOLD, holdId, flightId, fareClassSeats, sessionId, seats, seats.size(),
+            expiresAt, LocalDateTime.now());
+    }
+    
+    static HoldJournalEntry statusChange(Type type, UUID holdId, UUID flightId) {
+        return new HoldJournalEntry(type, holdId, flightId, null, null, null, null, null, LocalDateTime.now());
+    }
+}
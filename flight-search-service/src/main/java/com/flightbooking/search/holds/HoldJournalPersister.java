@@ -0,0 +1,279 @@
+package com.flightbooking.search.holds;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Writes the hold journal kept by {@link RedisSeatCounters} to Postgres.
+ *
+ * Each poll takes the head of every loaded flight's journal in batches and applies a
+ * batch in one transaction, so many holds share a commit; entries are removed from
+ * Redis only after it commits. A hold's entries all sit in its flight's journal, so
+ * they are applied in the order Redis accepted them. Applying an entry is idempotent (holds are inserted under their
+ * own id, status changes only move active holds), so a batch replayed after a crash
+ * changes nothing twice. If a batch fails, its entries are applied one at a time and
+ * the ones that still fail are moved to {@code seat-hold:journal:failed}. A hold that
+ * fails is also cancelled in Redis, returning its seats to the counters. One node
+ * persists at a time.
+ *
+ * Periodically the counters are overwritten with Postgres availability, which picks
+ * up changes made outside the counters such as new fare buckets or legacy releases.
+ */
+@Component
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "redis-counters")
+@Slf4j
+public class HoldJournalPersister {
+    
+    static final String LOCK_KEY = "search:holds:journal:drain";
+    
+    private final RedisSeatCounters counters;
+    private final InventoryHoldRepository holdRepository;
+    private final SeatInventoryRepository inventoryRepository;
+    private final SeatMapRepository seatMapRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Counter corrected;
+    private final Timer lag;
+    
+    public HoldJournalPersister(RedisSeatCounters counters,
+                                InventoryHoldRepository holdRepository,
+                                SeatInventoryRepository inventoryRepository,
+                                SeatMapRepository seatMapRepository,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                RedissonClient redissonClient,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${search.holds.redis-counters.batch-size:500}") int batchSize) {
+        this.counters = counters;
+        this.holdRepository = holdRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.seatMapRepository = seatMapRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.redissonClient = redissonClient;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.persisted = meterRegistry.counter("search.holds.journal.persisted");
+        this.failed = meterRegistry.counter("search.holds.journal.failed");
+        this.corrected = meterRegistry.counter("search.holds.counters.corrected");
+        this.lag = meterRegistry.timer("search.holds.journal.lag");
+    }
+    
+    @Scheduled(fixedDelayString = "${search.holds.redis-counters.persist-interval:200ms}")
+    public void persist() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Hold journal persist failed, retrying on next poll: {}", e.getMessage());
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${search.holds.redis-counters.reconcile-interval:5m}",
+               initialDelayString = "${search.holds.redis-counters.reconcile-interval:5m}")
+    public void reconcile() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            // Holding the lock keeps the journal from being drained, so any hold taken
+            // after this drain is still journaled when a flight is reconciled and the
+            // script skips it rather than overwriting it with older Postgres counts
+            drain();
+            int skipped = 0;
+            for (UUID flightId : counters.loadedFlights()) {
+                List<SeatInventory> inventories = inventoryRepository.findByFlightId(flightId);
+                if (inventories.isEmpty()) {
+                    continue;
+                }
+                long changed = counters.reconcile(flightId, RedisSeatHoldService.available(inventories));
+                if (changed < 0) {
+                    skipped++;
+                } else if (changed > 0) {
+                    corrected.increment(changed);
+                    log.info("Corrected {} seat counters for flight {}", changed, flightId);
+                }
+            }
+            if (skipped > 0) {
+                log.debug("Skipped reconciling {} flights with holds waiting to be persisted", skipped);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Seat counter reconcile failed: {}", e.getMessage());
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    void drain() {
+        for (UUID flightId : counters.loadedFlights()) {
+            int drained;
+            do {
+                drained = persistBatch(flightId);
+            } while (drained == batchSize);
+        }
+    }
+    
+    private int persistBatch(UUID flightId) {
+        List<String> raw = counters.journalHead(flightId, batchSize);
+        if (raw.isEmpty()) {
+            return 0;
+        }
+        
+        List<HoldJournalEntry> entries = new ArrayList<>(raw.size());
+        for (String entry : raw) {
+            try {
+                entries.add(counters.parse(entry));
+            } catch (JsonProcessingException e) {
+                log.error("Unreadable hold journal entry, moving it aside: {}", entry, e);
+                counters.deadLetter(entry);
+                failed.increment();
+            }
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyAll(entries));
+        } catch (RuntimeException e) {
+            log.warn("Hold journal batch of {} failed, applying entries one at a time: {}", entries.size(), e.getMessage());
+            for (HoldJournalEntry entry : entries) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> applyAll(List.of(entry)));
+                } catch (RuntimeException entryFailure) {
+                    log.error("Could not persist hold journal entry {}, moving it aside", entry, entryFailure);
+                    counters.deadLetter(toJson(entry));
+                    failed.increment();
+                    if (entry.type() == HoldJournalEntry.Type.HOLD) {
+                        cancel(entry);
+                    }
+                }
+            }
+        }
+        
+        counters.trimJournal(flightId, raw.size());
+        persisted.increment(entries.size());
+        entries.stream()
+            .map(HoldJournalEntry::at)
+            .min(LocalDateTime::compareTo)
+            .ifPresent(oldest -> lag.record(Duration.between(oldest, LocalDateTime.now())));
+        return raw.size();
+    }
+    
+    private void applyAll(List<HoldJournalEntry> entries) {
+        Set<UUID> changedFlights = new LinkedHashSet<>();
+        for (HoldJournalEntry entry : entries) {
+            if (apply(entry)) {
+                changedFlights.add(entry.flightId());
+            }
+        }
+        changedFlights.forEach(flightId -> eventPublisher.publishEvent(new InventoryChangedEvent(flightId)));
+    }
+    
+    /**
+     * Applies one entry, returning whether seat availability changed.
+     */
+    private boolean apply(HoldJournalEntry entry) {
+        switch (entry.type()) {
+            case HOLD -> {
+                int inserted = holdRepository.insertIfAbsent(entry.holdId(), entry.flightId(), entry.sessionId(),
+                    entry.seatCount(), toJson(entry.seats()), toJson(entry.fareClassSeats()), entry.expiresAt(),
+                    entry.at());
+                if (inserted == 0) {
+                    return false;
+                }
+                adjust(entry, -1);
+                return true;
+            }
+            case RELEASE, CANCEL -> {
+                // Seats were marked HELD before the hold reached Postgres, so a hold that was
+                // never inserted still has seats to give back
+                seatMapRepository.releaseSeats(entry.flightId(), entry.holdId());
+                if (holdRepository.updateStatusIfActive(entry.holdId(), entry.type().status()) == 0) {
+                    return false;
+                }
+                adjust(entry, 1);
+                return true;
+            }
+            case CONFIRM -> {
+                if (holdRepository.updateStatusIfActive(entry.holdId(), entry.type().status()) == 1) {
+                    seatMapRepository.bookSeats(entry.flightId(), entry.holdId());
+                }
+                return false;
+            }
+            default -> throw new IllegalStateException("Unknown hold journal entry type " + entry.type());
+        }
+    }
+    
+    /**
+     * Gives the seats of a hold Postgres never recorded back to the Redis counters.
+     * Left in place, the next reconcile would overwrite the counters with Postgres
+     * availability that never included the hold, and its seats could be sold twice.
+     */
+    private void cancel(HoldJournalEntry entry) {
+        try {
+            counters.changeStatus(HoldJournalEntry.statusChange(HoldJournalEntry.Type.CANCEL, entry.holdId(),
+                entry.flightId()));
+            log.warn("Cancelled hold {} on flight {} after it could not be persisted", entry.holdId(), entry.flightId());
+        } catch (RuntimeException e) {
+            log.error("Could not cancel unpersisted hold {} in Redis", entry.holdId(), e);
+        }
+    }
+    
+    private void adjust(HoldJournalEntry entry, int sign) {
+        Map<String, Integer> deltas = new TreeMap<>();
+        entry.fareClassSeats().forEach((fareClass, seats) -> deltas.put(fareClass, sign * seats));
+        if (inventoryRepository.adjustAvailableSeats(entry.flightId(), toJson(deltas)) < deltas.size()) {
+            throw new IllegalStateException("Postgres availability for flight " + entry.flightId()
+                + " could not take " + deltas + " for hold " + entry.holdId());
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write hold journal value", e);
+        }
+    }
+}
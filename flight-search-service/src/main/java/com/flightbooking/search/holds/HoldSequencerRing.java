@@ -0,0 +1,134 @@
+package com.flightbooking.search.holds;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Consistent-hash ring assigning each flight to the node that sequences its holds.
+ *
+ * Nodes heartbeat into the {@code search:holds:sequencer:nodes} sorted set, scored by
+ * the time they were last seen, and each node builds the same ring from the members
+ * seen within three heartbeats. Every node owns {@code virtual-nodes} points on the
+ * ring, so a node joining or leaving moves only its share of the flights.
+ */
+@Component
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "sequencer")
+@Slf4j
+public class HoldSequencerRing {
+    
+    static final String NODES_KEY = "search:holds:sequencer:nodes";
+    
+    private final RedissonClient redissonClient;
+    private final Duration heartbeatInterval;
+    private final int virtualNodes;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile Set<String> members = Set.of();
+    private volatile NavigableMap<Long, String> ring = new TreeMap<>();
+    
+    public HoldSequencerRing(RedissonClient redissonClient,
+                             @Value("${search.holds.sequencer.heartbeat-interval:2s}") Duration heartbeatInterval,
+                             @Value("${search.holds.sequencer.virtual-nodes:64}") int virtualNodes) {
+        this.redissonClient = redissonClient;
+        this.heartbeatInterval = heartbeatInterval;
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public String nodeId() {
+        return nodeId;
+    }
+    
+    /**
+     * The node sequencing holds for the flight; this node until the first heartbeat.
+     */
+    public String ownerOf(UUID flightId) {
+        NavigableMap<Long, String> current = ring;
+        return current.isEmpty() ? nodeId : ownerOf(current, flightId);
+    }
+    
+    static String ownerOf(NavigableMap<Long, String> ring, UUID flightId) {
+        long point = mix(flightId.getMostSignificantBits() ^ flightId.getLeastSignificantBits());
+        Map.Entry<Long, String> owner = ring.ceilingEntry(point);
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+    
+    @PostConstruct
+    @Scheduled(fixedRateString = "${search.holds.sequencer.heartbeat-interval:2s}")
+    public void heartbeat() {
+        try {
+            long now = System.currentTimeMillis();
+            nodes().add(now, nodeId);
+            Set<String> live = new TreeSet<>(
+                nodes().valueRange(now - heartbeatInterval.multipliedBy(3).toMillis(), true, Double.MAX_VALUE, true));
+            nodes().removeRangeByScore(0, true, now - heartbeatInterval.multipliedBy(30).toMillis(), true);
+            if (!live.equals(members)) {
+                ring = build(live);
+                members = live;
+                log.info("Hold sequencer ring now has {} nodes", live.size());
+            }
+        } catch (RuntimeException e) {
+            // Keep the last ring: a stale owner only costs a forward or a local fallback
+            log.warn("Hold sequencer heartbeat failed: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void leave() {
+        try {
+            nodes().remove(nodeId);
+        } catch (RuntimeException e) {
+            log.debug("Could not leave hold sequencer ring: {}", e.getMessage());
+        }
+    }
+    
+    NavigableMap<Long, String> build(Set<String> nodeIds) {
+        NavigableMap<Long, String> points = new TreeMap<>();
+        for (String node : nodeIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(point(node + "#" + i), node);
+            }
+        }
+        return points;
+    }
+    
+    private RScoredSortedSet<String> nodes() {
+        return redissonClient.getScoredSortedSet(NODES_KEY, StringCodec.INSTANCE);
+    }
+    
+    private static long point(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,277 @@
+package com.flightbooking.search.holds;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RList;
+import org.redisson.api.RScript;
+import org.redisson.api.RSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Seat availability per (flight, fare class) kept in Redis and changed only by Lua
+ * scripts, so checking and decrementing a bucket is one atomic server-side step with
+ * no lock round trips.
+ *
+ * Each flight has a hash {@code seat-avail:{<flightId>}} of fare class to available
+ * seats. Each hold has a hash {@code seat-hold:{<flightId>}:h:<holdId>} recording
+ * the seats it took per bucket and its status, and every accepted change is appended
+ * to the flight's {@code seat-hold:{<flightId>}:journal} list in the same script for
+ * {@link HoldJournalPersister}. The braces are a Redis Cluster hash tag: every key a
+ * script touches belongs to one flight and so to one slot. {@code seat-hold:flight:<holdId>}
+ * maps a hold back to its flight for releases and confirms, which only know the hold.
+ */
+@Component
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "redis-counters")
+@RequiredArgsConstructor
+public class RedisSeatCounters {
+    
+    static final String DEAD_LETTER_KEY = "seat-hold:journal:failed";
+    static final String FLIGHTS_KEY = "seat-avail:flights";
+    
+    /** Counters for the flight are not loaded. */
+    public static final long NOT_LOADED = -1;
+    /** A bucket has fewer seats than requested. */
+    public static final long INSUFFICIENT = -2;
+    /** The flight has no such fare class. */
+    public static final long UNKNOWN_FARE_CLASS = -3;
+    /** The hold expired before it could be confirmed. */
+    public static final long EXPIRED = -4;
+    
+    private static final Script HOLD = new Script("""
+        if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end
+        local buckets = cjson.decode(ARGV[1])
+        if next(buckets) == nil then return -3 end
+        for fareClass, count in pairs(buckets) do
+            local available = redis.call('HGET', KEYS[1], fareClass)
+            if not available then return -3 end
+            if tonumber(available) < count then return -2 end
+        end
+        local remaining
+        for fareClass, count in pairs(buckets) do
+            local left = redis.call('HINCRBY', KEYS[1], fareClass, -count)
+            if not remaining or left < remaining then remaining = left end
+        end
+        redis.call('HSET', KEYS[2], 'flightId', ARGV[2], 'fareClassSeats', ARGV[1], 'status', 'ACTIVE',
+            'expiresAt', ARGV[5])
+        redis.call('EXPIRE', KEYS[2], ARGV[3])
+        redis.call('RPUSH', KEYS[3], ARGV[4])
+        return remaining
+        """);
+    
+    // A counters hash that is gone, e.g. evicted, is not recreated with a lone bucket:
+    // the next hold loads the flight from Postgres, which the journaled release reaches
+    private static final Script CHANGE_STATUS = new Script("""
+        local status = redis.call('HGET', KEYS[1], 'status')
+        if not status then return -1 end
+        if status ~= 'ACTIVE' then return 0 end
+        local expiresAt = redis.call('HGET', KEYS[1], 'expiresAt')
+        if ARGV[1] == 'CONFIRMED' and expiresAt and tonumber(expiresAt) < tonumber(ARGV[3]) then return -4 end
+        redis.call('HSET', KEYS[1], 'status', ARGV[1])
+        local buckets = cjson.decode(redis.call('HGET', KEYS[1], 'fareClassSeats'))
+        if ARGV[1] ~= 'CONFIRMED' and redis.call('EXISTS', KEYS[2]) == 1 then
+            for fareClass, count in pairs(buckets) do
+                redis.call('HINCRBY', KEYS[2], fareClass, count)
+            end
+        end
+        local entry = cjson.decode(ARGV[2])
+        entry['fareClassSeats'] = buckets
+        redis.call('RPUSH', KEYS[3], cjson.encode(entry))
+        return 1
+        """);
+    
+    private static final Script LOAD = new Script("""
+        if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+        redis.call('HSET', KEYS[1], unpack(ARGV))
+        return 1
+        """);
+    
+    // Only safe while nothing is waiting in the journal: unpersisted holds are in
+    // Redis but not yet in the Postgres counts being written back
+    private static final Script RECONCILE = new Script("""
+        if redis.call('LLEN', KEYS[2]) > 0 then return -1 end
+        local corrected = 0
+        for i = 1, #ARGV, 2 do
+            if redis.call('HGET', KEYS[1], ARGV[i]) ~= ARGV[i + 1] then corrected = corrected + 1 end
+        end
+        redis.call('DEL', KEYS[1])
+        redis.call('HSET', KEYS[1], unpack(ARGV))
+        return corrected
+        """);
+    
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Takes the seats of {@code entry} from each of its fare class buckets and journals
+     * the hold. Either every bucket is debited or none is. The hold's flight is recorded first, so a hold
+     * the script accepts can always be found by its id.
+     *
+     * @return the fewest seats left in a debited bucket, or {@link #NOT_LOADED},
+     *         {@link #INSUFFICIENT} or {@link #UNKNOWN_FARE_CLASS}
+     */
+    public long hold(HoldJournalEntry entry, Duration recordTtl) {
+        redissonClient.<String>getBucket(holdFlightKey(entry.holdId()), StringCodec.INSTANCE)
+            .set(entry.flightId().toString(), recordTtl);
+        return run(HOLD, List.of(countersKey(entry.flightId()), holdKey(entry.flightId(), entry.holdId()),
+                journalKey(entry.flightId())),
+            toJson(entry.fareClassSeats()),
+            entry.flightId().toString(),
+            String.valueOf(recordTtl.toSeconds()),
+            toJson(entry),
+            String.valueOf(epochMillis(entry.expiresAt())));
+    }
+    
+    /**
+     * Moves an active hold to the status of {@code entry}, returning its seats for a release.
+     *
+     * @return 1 if changed, 0 if the hold was no longer active, {@link #EXPIRED} if a
+     *         confirm came after the hold's expiry, {@link #NOT_LOADED} if Redis has no
+     *         record of the hold
+     */
+    public long changeStatus(HoldJournalEntry entry) {
+        return run(CHANGE_STATUS, List.of(holdKey(entry.flightId(), entry.holdId()), countersKey(entry.flightId()),
+                journalKey(entry.flightId())),
+            entry.type().status().name(), toJson(entry), String.valueOf(epochMillis(entry.at())));
+    }
+    
+    /**
+     * The flight of a hold Redis knows about, or null.
+     */
+    public UUID flightOf(UUID holdId) {
+        String flightId = redissonClient.<String>getBucket(holdFlightKey(holdId), StringCodec.INSTANCE).get();
+        return flightId == null ? null : UUID.fromString(flightId);
+    }
+    
+    /**
+     * Loads a flight's counters unless another caller already did. The flight is listed
+     * first, so the persister never misses the journal of loaded counters.
+     */
+    public void load(UUID flightId, Map<String, Integer> available) {
+        redissonClient.<String>getSet(FLIGHTS_KEY, StringCodec.INSTANCE).add(flightId.toString());
+        run(LOAD, List.of(countersKey(flightId)), fields(available).toArray());
+    }
+    
+    /**
+     * Overwrites a flight's counters with Postgres availability if its journal is empty.
+     *
+     * @return the number of counters that differed, or -1 if skipped
+     */
+    public long reconcile(UUID flightId, Map<String, Integer> available) {
+        return run(RECONCILE, List.of(countersKey(flightId), journalKey(flightId)), fields(available).toArray());
+    }
+    
+    public Set<UUID> loadedFlights() {
+        RSet<String> flights = redissonClient.getSet(FLIGHTS_KEY, StringCodec.INSTANCE);
+        return flights.readAll().stream().map(UUID::fromString).collect(Collectors.toSet());
+    }
+    
+    public List<String> journalHead(UUID flightId, int limit) {
+        return journal(flightId).range(0, limit - 1);
+    }
+    
+    public void trimJournal(UUID flightId, int persisted) {
+        journal(flightId).trim(persisted, -1);
+    }
+    
+    public void deadLetter(String entry) {
+        redissonClient.<String>getList(DEAD_LETTER_KEY, StringCodec.INSTANCE).add(entry);
+    }
+    
+    public HoldJournalEntry parse(String entry) throws JsonProcessingException {
+        return objectMapper.readValue(entry, HoldJournalEntry.class);
+    }
+    
+    private RList<String> journal(UUID flightId) {
+        return redissonClient.getList(journalKey(flightId), StringCodec.INSTANCE);
+    }
+    
+    private static List<Object> fields(Map<String, Integer> available) {
+        List<Object> fields = new ArrayList<>();
+        available.forEach((fareClass, seats) -> {
+            fields.add(fareClass);
+            fields.add(String.valueOf(seats));
+        });
+        return fields;
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write hold journal entry", e);
+        }
+    }
+    
+    /**
+     * Runs a script by digest, loading it on the first call after a Redis restart.
+     */
+    private long run(Script script, List<Object> keys, Object... args) {
+        RScript scripts = redissonClient.getScript(StringCodec.INSTANCE);
+        try {
+            Long result = scripts.evalSha(RScript.Mode.READ_WRITE, script.sha(), RScript.ReturnType.INTEGER, keys, args);
+            return result;
+        } catch (RedisException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("NOSCRIPT")) {
+                throw e;
+            }
+            scripts.scriptLoad(script.source());
+            Long result = scripts.evalSha(RScript.Mode.READ_WRITE, script.sha(), RScript.ReturnType.INTEGER, keys, args);
+            return result;
+        }
+    }
+    
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    static String countersKey(UUID flightId) {
+        return "seat-avail:{" + flightId + "}";
+    }
+    
+    static String holdKey(UUID flightId, UUID holdId) {
+        return "seat-hold:{" + flightId + "}:h:" + holdId;
+    }
+    
+    static String journalKey(UUID flightId) {
+        return "seat-hold:{" + flightId + "}:journal";
+    }
+    
+    static String holdFlightKey(UUID holdId) {
+        return "seat-hold:flight:" + holdId;
+    }
+    
+    private record Script(String source, String sha) {
+        
+        Script(String source) {
+            this(source, sha1(source));
+        }
+        
+        private static String sha1(String source) {
+            try {
+                return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.SeatHoldResponse;
+import com.flightbooking.search.event.HoldPlacedEvent;
+import com.flightbooking.search.model.InventoryHold;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.flightbooking.search.service.SeatHoldService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Seat holds decided by {@link RedisSeatCounters} instead of a per-flight lock around a
+ * JPA read-modify-write. A hold is one script call: the counter check, the decrement
+ * and the journal append happen atomically in Redis, and {@link HoldJournalPersister}
+ * writes the hold and the new availability to Postgres shortly after. The requested
+ * seats are then marked HELD on {@code seat_map} with a conditional update; if one was
+ * taken meanwhile, the hold is cancelled in Redis and refused.
+ *
+ * Counters for a flight are loaded from Postgres on its first hold. Holds that Redis
+ * has no record of, such as ones taken before the counters were enabled, are handled
+ * by the regular {@link com.flightbooking.search.service.impl.SeatHoldServiceImpl}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "redis-counters")
+@Slf4j
+public class RedisSeatHoldService implements SeatHoldService {
+    
+    private final RedisSeatCounters counters;
+    private final SeatHoldService databaseHolds;
+    private final FareClassResolver fareClassResolver;
+    private final SeatInventoryRepository inventoryRepository;
+    private final InventoryHoldRepository holdRepository;
+    private final SeatMapRepository seatMapRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration recordRetention;
+    private final Counter rejected;
+    
+    public RedisSeatHoldService(RedisSeatCounters counters,
+                                @Qualifier("seatHoldServiceImpl") SeatHoldService databaseHolds,
+                                FareClassResolver fareClassResolver,
+                                SeatInventoryRepository inventoryRepository,
+                                InventoryHoldRepository holdRepository,
+                                SeatMapRepository seatMapRepository,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${search.holds.redis-counters.record-retention:1d}") Duration recordRetention) {
+        this.counters = counters;
+        this.databaseHolds = databaseHolds;
+        this.fareClassResolver = fareClassResolver;
+        this.inventoryRepository = inventoryRepository;
+        this.holdRepository = holdRepository;
+        this.seatMapRepository = seatMapRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.recordRetention = recordRetention;
+        this.rejected = meterRegistry.counter("search.holds.rejected");
+    }
+    
+    @Override
+    public UUID holdSeats(UUID flightId, String sessionId, List<String> seats, String fareClass,
+                          Integer durationMinutes) {
+        if (seats == null || seats.isEmpty()) {
+            throw new BusinessException("No seats requested");
+        }
+        HoldJournalEntry entry = HoldJournalEntry.hold(UUID.randomUUID(), flightId,
+            fareClassResolver.resolve(flightId, seats, fareClass), sessionId, List.copyOf(seats),
+            LocalDateTime.now().plusMinutes(durationMinutes));
+        // The hold record outlives the hold so late releases and confirms still find it
+        Duration recordTtl = Duration.ofMinutes(durationMinutes).plus(recordRetention);
+        
+        long remaining = counters.hold(entry, recordTtl);
+        if (remaining == RedisSeatCounters.NOT_LOADED) {
+            loadCounters(flightId);
+            remaining = counters.hold(entry, recordTtl);
+        }
+        if (remaining == RedisSeatCounters.INSUFFICIENT) {
+            rejected.increment();
+            throw new BusinessException("Insufficient seats available");
+        }
+        if (remaining == RedisSeatCounters.UNKNOWN_FARE_CLASS) {
+            throw new BusinessException("Unknown fare class for flight");
+        }
+        if (remaining < 0) {
+            throw new BusinessException("No inventory found for flight");
+        }
+        holdMappedSeats(entry);
+        eventPublisher.publishEvent(new HoldPlacedEvent(entry.holdId(), entry.expiresAt()));
+        log.debug("Held {} seats on flight {}, {} left in the emptiest bucket held from", seats.size(), flightId, remaining);
+        return entry.holdId();
+    }
+    
+    /**
+     * Marks the hold's seats HELD on {@code seat_map} once the counters took it, all of
+     * them or none. If another session got one first, the hold is cancelled in Redis,
+     * which returns its seats to the counters. Flights without a seat map hold nothing.
+     */
+    private void holdMappedSeats(HoldJournalEntry entry) {
+        Boolean held;
+        try {
+            held = transactionTemplate.execute(status -> {
+                int seatsHeld = seatMapRepository.holdSeats(entry.flightId(), entry.seats(), entry.holdId());
+                if (seatsHeld < entry.seats().size()
+                    && seatMapRepository.findByFlightIdAndSeatNoIn(entry.flightId(), entry.seats()).size() > seatsHeld) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+        } catch (RuntimeException e) {
+            cancel(entry);
+            throw e;
+        }
+        if (!Boolean.TRUE.equals(held)) {
+            cancel(entry);
+            rejected.increment();
+            throw new BusinessException("Requested seats are no longer available");
+        }
+    }
+    
+    private void cancel(HoldJournalEntry entry) {
+        counters.changeStatus(HoldJournalEntry.statusChange(HoldJournalEntry.Type.CANCEL, entry.holdId(),
+            entry.flightId()));
+    }
+    
+    @Override
+    public SeatHoldResponse holdAdjacentSeats(UUID flightId, String sessionId, CabinClass cabinClass, int count,
+                                              Integer durationMinutes) {
+        // Redis counters track buckets, not seats, so they cannot place a party together
+        throw new BusinessException("Adjacent seat holds need search.holds.mode lock or sequencer");
+    }
+    
+    @Override
+    public void releaseHold(UUID holdId) {
+        changeStatus(holdId, HoldJournalEntry.Type.RELEASE);
+    }
+    
+    @Override
+    public void confirmHold(UUID holdId) {
+        changeStatus(holdId, HoldJournalEntry.Type.CONFIRM);
+    }
+    
+    @Override
+    public void releaseExpiredHolds() {
+        List<InventoryHold> expiredHolds = holdRepository.findExpiredHolds(LocalDateTime.now());
+        
+        for (InventoryHold hold : expiredHolds) {
+            try {
+                releaseHold(hold.getHoldId());
+            } catch (Exception e) {
+                log.error("Error releasing expired hold: {}", hold.getHoldId(), e);
+            }
+        }
+        
+        log.info("Released {} expired holds", expiredHolds.size());
+    }
+    
+    private void changeStatus(UUID holdId, HoldJournalEntry.Type type) {
+        UUID flightId = counters.flightOf(holdId);
+        long changed = flightId == null
+            ? RedisSeatCounters.NOT_LOADED
+            : counters.changeStatus(HoldJournalEntry.statusChange(type, holdId, flightId));
+        if (changed == RedisSeatCounters.NOT_LOADED) {
+            if (type == HoldJournalEntry.Type.RELEASE) {
+                databaseHolds.releaseHold(holdId);
+            } else {
+                databaseHolds.confirmHold(holdId);
+            }
+            return;
+        }
+        // A repeated release is harmless, but a confirm must not succeed for seats
+        // that have already been given back
+        if (type == HoldJournalEntry.Type.CONFIRM) {
+            if (changed == RedisSeatCounters.EXPIRED) {
+                throw new BusinessException("Hold has expired");
+            }
+            if (changed == 0) {
+                throw new BusinessException("Hold is no longer active");
+            }
+        }
+    }
+    
+    private void loadCounters(UUID flightId) {
+        List<SeatInventory> inventories = inventoryRepository.findByFlightId(flightId);
+        if (inventories.isEmpty()) {
+            throw new BusinessException("No inventory found for flight");
+        }
+        counters.load(flightId, available(inventories));
+    }
+    
+    static Map<String, Integer> available(List<SeatInventory> inventories) {
+        Map<String, Integer> available = new LinkedHashMap<>();
+        for (SeatInventory inventory : inventories) {
+            available.put(inventory.getFareClass(), inventory.getAvailableSeats());
+        }
+        return available;
+    }
+}
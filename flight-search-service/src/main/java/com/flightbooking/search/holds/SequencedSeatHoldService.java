@@ -0,0 +1,213 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.HoldStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.SeatHoldResponse;
+import com.flightbooking.search.model.InventoryHold;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.flightbooking.search.service.SeatHoldService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RRemoteService;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RemoteInvocationOptions;
+import org.redisson.remote.RemoteServiceAckTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat holds routed to a single writer per flight instead of a distributed lock.
+ *
+ * {@link HoldSequencerRing} names the node owning a flight. Holds and releases for
+ * flights this node owns go straight to its {@link FlightHoldSequencer}; the rest are
+ * forwarded to the owner's sequencer over Redisson remote service, registered under
+ * {@code seat-holds:<nodeId>}. If the owner does not acknowledge in time (it just
+ * left, or the ring is changing) the command runs on the local sequencer; the batch
+ * writer's conditional update keeps that correct, only without the single-writer
+ * throughput.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "search.holds.mode", havingValue = "sequencer")
+@Slf4j
+public class SequencedSeatHoldService implements SeatHoldService {
+    
+    static final String REMOTE_SERVICE_PREFIX = "seat-holds:";
+    
+    private final FlightHoldSequencer sequencer;
+    private final HoldSequencerRing ring;
+    private final FareClassResolver fareClassResolver;
+    private final InventoryHoldRepository holdRepository;
+    private final SeatMapRepository seatMapRepository;
+    private final RedissonClient redissonClient;
+    private final Duration commandTimeout;
+    private final int remoteWorkers;
+    private final Counter forwarded;
+    private final Counter ownerFallbacks;
+    
+    public SequencedSeatHoldService(FlightHoldSequencer sequencer,
+                                    HoldSequencerRing ring,
+                                    FareClassResolver fareClassResolver,
+                                    InventoryHoldRepository holdRepository,
+                                    SeatMapRepository seatMapRepository,
+                                    RedissonClient redissonClient,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${search.holds.sequencer.command-timeout:5s}") Duration commandTimeout,
+                                    @Value("${search.holds.sequencer.remote-workers:32}") int remoteWorkers) {
+        this.sequencer = sequencer;
+        this.ring = ring;
+        this.fareClassResolver = fareClassResolver;
+        this.holdRepository = holdRepository;
+        this.seatMapRepository = seatMapRepository;
+        this.redissonClient = redissonClient;
+        this.commandTimeout = commandTimeout;
+        this.remoteWorkers = remoteWorkers;
+        this.forwarded = meterRegistry.counter("search.holds.sequencer.forwarded");
+        this.ownerFallbacks = meterRegistry.counter("search.holds.sequencer.owner.fallbacks");
+    }
+    
+    @PostConstruct
+    public void register() {
+        remoteService(ring.nodeId()).register(HoldCommands.class, sequencer, remoteWorkers);
+    }
+    
+    @PreDestroy
+    public void deregister() {
+        remoteService(ring.nodeId()).deregister(HoldCommands.class);
+    }
+    
+    @Override
+    public UUID holdSeats(UUID flightId, String sessionId, List<String> seats, String fareClass,
+                          Integer durationMinutes) {
+        if (seats == null || seats.isEmpty()) {
+            throw new BusinessException("No seats requested");
+        }
+        // Plain mutable collections: they cross nodes through the Redisson codec
+        TreeMap<String, Integer> fareClassSeats = new TreeMap<>(fareClassResolver.resolve(flightId, seats, fareClass));
+        ArrayList<String> seatList = new ArrayList<>(seats);
+        // Chosen here for the same reason as in holdAdjacentSeats
+        UUID holdId = UUID.randomUUID();
+        
+        String owner = ring.ownerOf(flightId);
+        if (!owner.equals(ring.nodeId())) {
+            try {
+                forwarded.increment();
+                remote(owner).hold(flightId, holdId, sessionId, seatList, fareClassSeats, durationMinutes);
+                return holdId;
+            } catch (RemoteServiceAckTimeoutException e) {
+                ownerFallbacks.increment();
+                log.warn("Hold sequencer owner {} of flight {} did not answer, holding locally", owner, flightId);
+            }
+        }
+        sequencer.hold(flightId, holdId, sessionId, seatList, fareClassSeats, durationMinutes);
+        return holdId;
+    }
+    
+    @Override
+    public SeatHoldResponse holdAdjacentSeats(UUID flightId, String sessionId, CabinClass cabinClass, int count,
+                                              Integer durationMinutes) {
+        if (count < 1) {
+            throw new BusinessException("No seats requested");
+        }
+        // Chosen here so a forward that times out after the owner applied it is not
+        // held a second time locally: the writer inserts holds only if absent
+        UUID holdId = UUID.randomUUID();
+        
+        String owner = ring.ownerOf(flightId);
+        if (!owner.equals(ring.nodeId())) {
+            try {
+                forwarded.increment();
+                return new SeatHoldResponse(holdId,
+                    remote(owner).holdAdjacent(flightId, holdId, sessionId, cabinClass, count, durationMinutes));
+            } catch (RemoteServiceAckTimeoutException e) {
+                ownerFallbacks.increment();
+                log.warn("Hold sequencer owner {} of flight {} did not answer, holding locally", owner, flightId);
+            }
+        }
+        return new SeatHoldResponse(holdId,
+            sequencer.holdAdjacent(flightId, holdId, sessionId, cabinClass, count, durationMinutes));
+    }
+    
+    @Override
+    public void releaseHold(UUID holdId) {
+        InventoryHold hold = holdRepository.findById(holdId)
+            .orElseThrow(() -> new BusinessException("Hold not found"));
+        
+        if (hold.getStatus() != HoldStatus.ACTIVE) {
+            return;
+        }
+        
+        String owner = ring.ownerOf(hold.getFlightId());
+        if (!owner.equals(ring.nodeId())) {
+            try {
+                forwarded.increment();
+                remote(owner).release(hold.getFlightId(), holdId);
+                return;
+            } catch (RemoteServiceAckTimeoutException e) {
+                ownerFallbacks.increment();
+                log.warn("Hold sequencer owner {} of flight {} did not answer, releasing locally", owner,
+                         hold.getFlightId());
+            }
+        }
+        sequencer.release(hold.getFlightId(), holdId);
+    }
+    
+    @Override
+    @Transactional
+    public void confirmHold(UUID holdId) {
+        // Confirming changes no availability, so it needs no sequencing; the release
+        // path only moves holds that are still active. The owner's seat map keeps the
+        // seats as held, which is just as unavailable as booked.
+        InventoryHold hold = holdRepository.findById(holdId)
+            .orElseThrow(() -> new BusinessException("Hold not found"));
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("Hold has expired");
+        }
+        if (holdRepository.updateStatusIfActive(holdId, HoldStatus.CONFIRMED) == 0) {
+            throw new BusinessException("Hold is no longer active");
+        }
+        seatMapRepository.bookSeats(hold.getFlightId(), holdId);
+        log.info("Hold confirmed: {}", holdId);
+    }
+    
+    @Override
+    public void releaseExpiredHolds() {
+        List<InventoryHold> expiredHolds = holdRepository.findExpiredHolds(LocalDateTime.now());
+        
+        for (InventoryHold hold : expiredHolds) {
+            try {
+                releaseHold(hold.getHoldId());
+            } catch (Exception e) {
+                log.error("Error releasing expired hold: {}", hold.getHoldId(), e);
+            }
+        }
+        
+        log.info("Released {} expired holds", expiredHolds.size());
+    }
+    
+    private HoldCommands remote(String nodeId) {
+        return remoteService(nodeId).get(HoldCommands.class, RemoteInvocationOptions.defaults()
+            .expectAckWithin(1, TimeUnit.SECONDS)
+            .expectResultWithin(commandTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS));
+    }
+    
+    private RRemoteService remoteService(String nodeId) {
+        return redissonClient.getRemoteService(REMOTE_SERVICE_PREFIX + nodeId);
+    }
+}
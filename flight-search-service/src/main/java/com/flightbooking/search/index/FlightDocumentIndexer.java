@@ -0,0 +1,79 @@
+package com.flightbooking.search.index;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import com.flightbooking.search.mapper.FlightMapper;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.DeleteQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Builds search documents for a batch of flights and writes them to an index with
+ * bulk requests. Shared by the full re-index and the incremental outbox relay.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightDocumentIndexer {
+    
+    private final SeatInventoryRepository seatInventoryRepository;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final FlightMapper flightMapper;
+    
+    /**
+     * Builds one document per flight carrying all of its fares, fetching inventory for
+     * the whole batch in one query. Flights without inventory get no document.
+     */
+    public List<FlightDocument> toDocuments(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> flightIds = flights.stream().map(Flight::getFlightId).collect(Collectors.toList());
+        Map<UUID, List<SeatInventory>> inventoryByFlight = seatInventoryRepository.findByFlightIdIn(flightIds).stream()
+            .collect(Collectors.groupingBy(SeatInventory::getFlightId));
+        
+        return flights.stream()
+            .filter(flight -> inventoryByFlight.containsKey(flight.getFlightId()))
+            .map(flight -> flightMapper.toDocument(flight, inventoryByFlight.get(flight.getFlightId())))
+            .collect(Collectors.toList());
+    }
+    
+    public void bulkIndex(List<FlightDocument> docs, IndexCoordinates index) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        List<IndexQuery> queries = docs.stream()
+            .map(doc -> new IndexQueryBuilder().withId(doc.getItineraryId()).withObject(doc).build())
+            .collect(Collectors.toList());
+        elasticsearchOperations.bulkIndex(queries, index);
+    }
+    
+    /**
+     * Removes every document of the given flights.
+     */
+    public void deleteFlights(Collection<UUID> flightIds, IndexCoordinates index) {
+        if (flightIds.isEmpty()) {
+            return;
+        }
+        List<FieldValue> values = flightIds.stream()
+            .map(flightId -> FieldValue.of(flightId.toString()))
+            .collect(Collectors.toList());
+        NativeQuery query = NativeQuery.builder()
+            .withQuery(q -> q.terms(t -> t.field("flightId").terms(v -> v.value(values))))
+            .build();
+        elasticsearchOperations.delete(DeleteQuery.builder(query).build(), FlightDocument.class, index);
+    }
+}
@@ -0,0 +1,224 @@
+package com.flightbooking.search.index;
+
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.repository.FlightRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams the flights table into Elasticsearch.
+ *
+ * Flights are read in keyset pages ordered by flight ID, their inventory is fetched
+ * with one query per page, and each page is sent as a single bulk request. At most
+ * {@code max-in-flight} bulk requests run concurrently; reading blocks until one
+ * completes. The ID of the last flight whose page (and every page before it) was
+ * indexed is checkpointed in Redis, so a run that dies part way resumes from there.
+ *
+ * Each run loads a new index generation from {@link ItineraryIndexManager} rather
+ * than the live alias, and publishes it once every page is in; a resumed run keeps
+ * loading the generation it started.
+ */
+@Component
+@Slf4j
+public class FlightReindexer {
+    
+    static final String CHECKPOINT_KEY = "search:reindex:flights:checkpoint";
+    static final String TARGET_KEY = "search:reindex:flights:target";
+    static final String LOCK_KEY = "search:reindex:flights:lock";
+    
+    private final FlightRepository flightRepository;
+    private final FlightDocumentIndexer documentIndexer;
+    private final ItineraryIndexManager indexManager;
+    private final RedissonClient redissonClient;
+    private final Executor reindexExecutor;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Counter flightsIndexed;
+    private final Counter documentsIndexed;
+    private final Timer bulkLatency;
+    
+    public FlightReindexer(FlightRepository flightRepository,
+                           FlightDocumentIndexer documentIndexer,
+                           ItineraryIndexManager indexManager,
+                           RedissonClient redissonClient,
+                           @Qualifier("reindexExecutor") Executor reindexExecutor,
+                           MeterRegistry meterRegistry,
+                           @Value("${search.reindex.batch-size:500}") int batchSize,
+                           @Value("${search.reindex.max-in-flight:4}") int maxInFlight) {
+        this.flightRepository = flightRepository;
+        this.documentIndexer = documentIndexer;
+        this.indexManager = indexManager;
+        this.redissonClient = redissonClient;
+        this.reindexExecutor = reindexExecutor;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.flightsIndexed = meterRegistry.counter("search.reindex.flights");
+        this.documentsIndexed = meterRegistry.counter("search.reindex.documents");
+        this.bulkLatency = meterRegistry.timer("search.reindex.bulk");
+    }
+    
+    /**
+     * The generation a full re-index is currently loading, if any. Incremental updates
+     * are written there as well as to the live alias so they are not lost on swap.
+     */
+    public Optional<String> buildingGeneration() {
+        return Optional.ofNullable(redissonClient.<String>getBucket(TARGET_KEY, StringCodec.INSTANCE).get());
+    }
+    
+    /**
+     * Re-indexes every flight, resuming after the stored checkpoint if the previous run
+     * did not finish. Only one node runs a re-index at a time.
+     *
+     * @return the number of flights read by this run
+     */
+    public long reindex() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            log.warn("Flight re-index already running on another node, skipping");
+            return 0;
+        }
+        try {
+            return reindexFromCheckpoint();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private long reindexFromCheckpoint() {
+        RBucket<String> checkpoint = redissonClient.getBucket(CHECKPOINT_KEY, StringCodec.INSTANCE);
+        RBucket<String> target = redissonClient.getBucket(TARGET_KEY, StringCodec.INSTANCE);
+        String generation = target.get();
+        if (generation == null || !indexManager.exists(generation)) {
+            generation = indexManager.createGeneration();
+            target.set(generation);
+            checkpoint.delete();
+        }
+        IndexCoordinates index = IndexCoordinates.of(generation);
+        
+        String stored = checkpoint.get();
+        UUID after = stored == null ? null : UUID.fromString(stored);
+        log.info("Starting flight re-index into {}{}", generation, after == null ? "" : " after " + after);
+        
+        Semaphore permits = new Semaphore(maxInFlight);
+        Deque<Batch> pending = new ArrayDeque<>();
+        long flights = 0;
+        long documents = 0;
+        long started = System.nanoTime();
+        
+        try {
+            List<Flight> page;
+            do {
+                page = after == null
+                    ? flightRepository.findAllByOrderByFlightIdAsc(Limit.of(batchSize))
+                    : flightRepository.findByFlightIdGreaterThanOrderByFlightIdAsc(after, Limit.of(batchSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                
+                List<FlightDocument> docs = documentIndexer.toDocuments(page);
+                after = page.get(page.size() - 1).getFlightId();
+                
+                permits.acquire();
+                CompletableFuture<Void> bulk;
+                try {
+                    int pageSize = page.size();
+                    bulk = CompletableFuture.runAsync(() -> {
+                        try {
+                            bulkIndex(docs, index);
+                            flightsIndexed.increment(pageSize);
+                        } finally {
+                            permits.release();
+                        }
+                    }, reindexExecutor);
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                pending.add(new Batch(after, bulk));
+                
+                flights += page.size();
+                documents += docs.size();
+                advanceCheckpoint(pending, checkpoint, false);
+                log.info("Re-index progress: {} flights, {} documents read, {} docs/s",
+                         flights, documents, throughput(documents, started));
+            } while (page.size() == batchSize);
+            
+            advanceCheckpoint(pending, checkpoint, true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Flight re-index interrupted", e);
+        }
+        
+        indexManager.publish(generation);
+        checkpoint.delete();
+        target.delete();
+        log.info("Completed re-index of {} flights ({} documents) in {}s, {} docs/s",
+                 flights, documents, (System.nanoTime() - started) / 1_000_000_000, throughput(documents, started));
+        return flights;
+    }
+    
+    private void bulkIndex(List<FlightDocument> docs, IndexCoordinates index) {
+        if (docs.isEmpty()) {
+            return;
+        }
+        bulkLatency.record(() -> documentIndexer.bulkIndex(docs, index));
+        documentsIndexed.increment(docs.size());
+    }
+    
+    /**
+     * Moves the checkpoint past every leading batch that has finished. Batches complete
+     * out of order, so the checkpoint only ever covers a contiguous prefix of flight IDs.
+     */
+    private void advanceCheckpoint(Deque<Batch> pending, RBucket<String> checkpoint, boolean waitForAll) {
+        UUID reached = null;
+        while (!pending.isEmpty() && (waitForAll || pending.peek().bulk().isDone())) {
+            Batch batch = pending.peek();
+            try {
+                batch.bulk().join();
+            } catch (CompletionException e) {
+                if (reached != null) {
+                    checkpoint.set(reached.toString());
+                }
+                log.error("Flight re-index failed, next run resumes from the stored checkpoint", e.getCause());
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            pending.poll();
+            reached = batch.lastFlightId();
+        }
+        if (reached != null) {
+            checkpoint.set(reached.toString());
+        }
+    }
+    
+    private long throughput(long documents, long started) {
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        return documents * 1000 / elapsedMillis;
+    }
+    
+    private record Batch(UUID lastFlightId, CompletableFuture<Void> bulk) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.flightbooking.search.index;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.flightbooking.search.model.FlightDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Manages the versioned generations behind the {@code itineraries} alias.
+ *
+ * Searches and incremental writes always go through the alias. A full re-index loads
+ * a fresh {@code itineraries-v<timestamp>} index with refresh disabled and no replicas,
+ * then {@link #publish(String)} restores the serving settings and atomically moves
+ * the alias onto it, keeping the previous generation around for rollback.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItineraryIndexManager {
+    
+    public static final String ALIAS = "itineraries";
+    static final String GENERATION_PREFIX = ALIAS + "-v";
+    private static final DateTimeFormatter GENERATION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    
+    @Value("${search.index.itineraries.shards:1}")
+    private int shards;
+    
+    @Value("${search.index.itineraries.replicas:1}")
+    private int replicas;
+    
+    @Value("${search.index.itineraries.refresh-interval:1s}")
+    private String refreshInterval;
+    
+    @Value("${search.index.itineraries.retained-generations:2}")
+    private int retainedGenerations;
+    
+    /**
+     * Makes sure the alias exists on startup so searches and incremental writes have
+     * somewhere to go before the first full re-index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureAlias() {
+        try {
+            if (!indexOps(ALIAS).exists()) {
+                log.info("No {} index or alias found, creating an empty generation", ALIAS);
+                publish(createGeneration());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not verify the {} alias on startup: {}", ALIAS, e.getMessage());
+        }
+    }
+    
+    /**
+     * Creates a new, empty generation tuned for bulk loading.
+     */
+    public String createGeneration() {
+        String generation = GENERATION_PREFIX + LocalDateTime.now().format(GENERATION_FORMAT);
+        Map<String, Object> bulkLoadSettings = Map.of(
+            "index.number_of_shards", shards,
+            "index.number_of_replicas", 0,
+            "index.refresh_interval", "-1"
+        );
+        indexOps(generation).create(bulkLoadSettings,
+            elasticsearchOperations.indexOps(FlightDocument.class).createMapping());
+        log.info("Created index generation {}", generation);
+        return generation;
+    }
+    
+    public boolean exists(String generation) {
+        return indexOps(generation).exists();
+    }
+    
+    /**
+     * Restores serving settings on a loaded generation, swaps the alias onto it in one
+     * atomic request and deletes generations older than the retained ones.
+     */
+    public void publish(String generation) {
+        restoreServingSettings(generation);
+        indexOps(generation).refresh();
+        
+        List<IndexInformation> generations = generations();
+        AliasActions actions = new AliasActions();
+        generations.stream()
+            .filter(index -> index.getAliases().stream().anyMatch(alias -> ALIAS.equals(alias.getAlias())))
+            .forEach(index -> actions.add(new AliasAction.Remove(AliasActionParameters.builder()
+                .withIndices(index.getName()).withAliases(ALIAS).build())));
+        boolean aliased = !actions.getActions().isEmpty();
+        if (!aliased && indexOps(ALIAS).exists()) {
+            // Pre-alias deployments wrote to a concrete "itineraries" index; drop it in
+            // the same request so the alias can take its name
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(ALIAS).build()));
+        }
+        actions.add(new AliasAction.Add(AliasActionParameters.builder()
+            .withIndices(generation).withAliases(ALIAS).build()));
+        indexOps(generation).alias(actions);
+        log.info("Alias {} now points to {}", ALIAS, generation);
+        
+        deleteOldGenerations(generations, generation);
+    }
+    
+    private void restoreServingSettings(String generation) {
+        try {
+            elasticsearchClient.indices().putSettings(p -> p
+                .index(generation)
+                .settings(s -> s
+                    .refreshInterval(t -> t.time(refreshInterval))
+                    .numberOfReplicas(String.valueOf(replicas))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update settings of " + generation, e);
+        }
+    }
+    
+    private void deleteOldGenerations(List<IndexInformation> generations, String published) {
+        List<String> names = generations.stream()
+            .map(IndexInformation::getName)
+            .filter(name -> !name.equals(published))
+            .sorted(Comparator.reverseOrder())
+            .collect(Collectors.toList());
+        // The published generation counts towards the retained ones
+        names.stream()
+            .skip(Math.max(0, retainedGenerations - 1))
+            .forEach(name -> {
+                indexOps(name).delete();
+                log.info("Deleted old index generation {}", name);
+            });
+    }
+    
+    private List<IndexInformation> generations() {
+        return indexOps(GENERATION_PREFIX + "*").getInformation();
+    }
+    
+    private IndexOperations indexOps(String index) {
+        return elasticsearchOperations.indexOps(IndexCoordinates.of(index));
+    }
+}
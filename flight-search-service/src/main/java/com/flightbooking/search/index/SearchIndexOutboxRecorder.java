@@ -0,0 +1,25 @@
+package com.flightbooking.search.index;
+
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.SearchIndexOutbox;
+import com.flightbooking.search.repository.SearchIndexOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Writes an outbox row for every inventory change before the surrounding transaction
+ * commits, so the change and the pending index update commit or roll back together.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexOutboxRecorder {
+    
+    private final SearchIndexOutboxRepository outboxRepository;
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        outboxRepository.save(new SearchIndexOutbox(event.getFlightId()));
+    }
+}
@@ -0,0 +1,136 @@
+package com.flightbooking.search.index;
+
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.model.SearchIndexOutbox;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.SearchIndexOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Applies pending {@link SearchIndexOutbox} rows to Elasticsearch in micro-batches.
+ *
+ * Every poll drains the outbox in batches: rows for the same flight are coalesced
+ * into one rewrite of that flight's documents, the documents are bulk indexed into
+ * the live alias (and into the generation a full re-index is loading, if any), and
+ * only then are the rows deleted. A failed batch stays in the outbox and is retried
+ * on the next poll, so delivery is at-least-once. One node relays at a time.
+ */
+@Component
+@Slf4j
+public class SearchIndexOutboxRelay {
+    
+    static final String LOCK_KEY = "search:index:outbox:relay";
+    
+    private final SearchIndexOutboxRepository outboxRepository;
+    private final FlightRepository flightRepository;
+    private final FlightDocumentIndexer documentIndexer;
+    private final FlightReindexer flightReindexer;
+    private final RedissonClient redissonClient;
+    private final int batchSize;
+    private final Counter changesApplied;
+    private final Counter changesCoalesced;
+    private final Timer lag;
+    
+    public SearchIndexOutboxRelay(SearchIndexOutboxRepository outboxRepository,
+                                  FlightRepository flightRepository,
+                                  FlightDocumentIndexer documentIndexer,
+                                  FlightReindexer flightReindexer,
+                                  RedissonClient redissonClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${search.index.outbox.batch-size:500}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.flightRepository = flightRepository;
+        this.documentIndexer = documentIndexer;
+        this.flightReindexer = flightReindexer;
+        this.redissonClient = redissonClient;
+        this.batchSize = batchSize;
+        this.changesApplied = meterRegistry.counter("search.index.outbox.applied");
+        this.changesCoalesced = meterRegistry.counter("search.index.outbox.coalesced");
+        this.lag = meterRegistry.timer("search.index.outbox.lag");
+    }
+    
+    @Scheduled(fixedDelayString = "${search.index.outbox.poll-interval:1s}")
+    public void relay() {
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Search index outbox relay failed, retrying on next poll: {}", e.getMessage());
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private int relayBatch() {
+        List<SearchIndexOutbox> entries = outboxRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        
+        Set<UUID> changedFlights = entries.stream()
+            .map(SearchIndexOutbox::getFlightId)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        List<Flight> activeFlights = flightRepository.findAllById(changedFlights).stream()
+            .filter(flight -> Boolean.TRUE.equals(flight.getIsActive()))
+            .collect(Collectors.toList());
+        List<FlightDocument> docs = documentIndexer.toDocuments(activeFlights);
+        
+        // Flights that no longer produce any document must disappear from search
+        Set<UUID> removedFlights = new LinkedHashSet<>(changedFlights);
+        docs.forEach(doc -> removedFlights.remove(doc.getFlightId()));
+        
+        for (IndexCoordinates index : targets()) {
+            documentIndexer.bulkIndex(docs, index);
+            documentIndexer.deleteFlights(removedFlights, index);
+        }
+        
+        outboxRepository.deleteAllByIdInBatch(entries.stream().map(SearchIndexOutbox::getId).collect(Collectors.toList()));
+        
+        changesApplied.increment(entries.size());
+        changesCoalesced.increment(entries.size() - changedFlights.size());
+        entries.stream()
+            .map(SearchIndexOutbox::getCreatedAt)
+            .min(Comparator.naturalOrder())
+            .ifPresent(oldest -> lag.record(Duration.between(oldest, LocalDateTime.now())));
+        log.debug("Applied {} outbox entries as {} flight updates", entries.size(), changedFlights.size());
+        return entries.size();
+    }
+    
+    private List<IndexCoordinates> targets() {
+        List<IndexCoordinates> targets = new ArrayList<>();
+        targets.add(IndexCoordinates.of(ItineraryIndexManager.ALIAS));
+        flightReindexer.buildingGeneration()
+            .map(IndexCoordinates::of)
+            .ifPresent(targets::add);
+        return targets;
+    }
+}
@@ -0,0 +1,215 @@
+package com.flightbooking.search.itinerary;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.mapper.FlightMapper;
+import com.flightbooking.search.model.FlightDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds one- and two-stop itineraries from the in-memory {@link DepartureBoards}.
+ *
+ * A connection is valid when the next leg leaves the connecting airport no earlier
+ * than its minimum connection time and no later than the maximum layover after the
+ * previous leg lands, never revisits an airport, and every leg has a fare with
+ * enough seats in the requested cabin. Branches that cannot reach the destination
+ * within the remaining stops are pruned using each board's route map, and every
+ * search stops after a fixed number of candidate legs, so the cost per search is
+ * bounded regardless of network size. Nonstop flights are left to the index search.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConnectionBuilder {
+    
+    private static final Comparator<FlightSearchResponse> ITINERARY_ORDER = Comparator
+        .comparing(FlightSearchResponse::getDepartureTime)
+        .thenComparing(FlightSearchResponse::getPrice);
+    
+    private final DepartureBoards departureBoards;
+    private final FlightMapper flightMapper;
+    
+    @Value("${search.connections.min-connection-time:45m}")
+    private Duration minConnectionTime;
+    
+    @Value("#{${search.connections.min-connection-minutes-by-airport:{:}}}")
+    private Map<String, Integer> minConnectionMinutesByAirport;
+    
+    @Value("${search.connections.max-layover:6h}")
+    private Duration maxLayover;
+    
+    @Value("${search.connections.max-stops:2}")
+    private int maxStops;
+    
+    @Value("${search.connections.max-results:50}")
+    private int maxResults;
+    
+    @Value("${search.connections.expansion-budget:5000}")
+    private int expansionBudget;
+    
+    /**
+     * Connecting itineraries for the request, ordered by departure then total price.
+     * Empty unless the request allows at least one stop.
+     */
+    public List<FlightSearchResponse> search(FlightSearchRequest request) {
+        int stops = Math.min(request.getMaxStops() == null ? 0 : request.getMaxStops(), maxStops);
+        if (stops < 1) {
+            return List.of();
+        }
+        
+        // Each connection can push the next leg into the following day
+        LocalDate day = request.getDepartureDate();
+        List<DepartureBoard> boards = new ArrayList<>();
+        for (int offset = 0; offset <= stops; offset++) {
+            boards.add(departureBoards.forDay(day.plusDays(offset)));
+        }
+        
+        Search search = new Search(request, stops, boards);
+        search.run();
+        return search.results.stream()
+            .sorted(ITINERARY_ORDER)
+            .limit(maxResults)
+            .collect(Collectors.toList());
+    }
+    
+    private Duration minConnectionTime(String airport) {
+        Integer minutes = minConnectionMinutesByAirport == null ? null : minConnectionMinutesByAirport.get(airport);
+        return minutes == null ? minConnectionTime : Duration.ofMinutes(minutes);
+    }
+    
+    private final class Search {
+        
+        private final FlightSearchRequest request;
+        private final int stops;
+        private final List<DepartureBoard> boards;
+        private final List<FlightDocument> legs = new ArrayList<>();
+        private final List<FlightDocument.FareInfo> fares = new ArrayList<>();
+        private final Set<String> visited = new HashSet<>();
+        private final Map<String, Boolean> reachable = new HashMap<>();
+        private final List<FlightSearchResponse> results = new ArrayList<>();
+        private final int maxCandidates = maxResults * 4;
+        private int budget = expansionBudget;
+        
+        Search(FlightSearchRequest request, int stops, List<DepartureBoard> boards) {
+            this.request = request;
+            this.stops = stops;
+            this.boards = boards;
+        }
+        
+        void run() {
+            LocalDateTime dayStart = request.getDepartureDate().atStartOfDay();
+            visited.add(request.getOrigin());
+            for (FlightDocument first : departures(request.getOrigin(), dayStart, dayStart.plusDays(1).minusNanos(1))) {
+                if (exhausted()) {
+                    break;
+                }
+                budget--;
+                if (first.getDestination().equals(request.getDestination())) {
+                    continue;
+                }
+                extendWith(first, stops);
+            }
+            if (budget <= 0) {
+                log.debug("Connection search {}-{} on {} hit its expansion budget",
+                          request.getOrigin(), request.getDestination(), request.getDepartureDate());
+            }
+        }
+        
+        /**
+         * Appends {@code leg} to the current path when it is bookable and can still lead
+         * to the destination, then explores onward connections.
+         */
+        private void extendWith(FlightDocument leg, int connectionsLeft) {
+            String arrival = leg.getDestination();
+            if (visited.contains(arrival)) {
+                return;
+            }
+            FlightDocument.FareInfo fare = cheapestFare(leg);
+            if (fare == null) {
+                return;
+            }
+            boolean complete = arrival.equals(request.getDestination());
+            if (!complete && (connectionsLeft == 0 || !canReach(arrival, connectionsLeft))) {
+                return;
+            }
+            
+            legs.add(leg);
+            fares.add(fare);
+            if (complete) {
+                results.add(flightMapper.toItineraryResponse(List.copyOf(legs), List.copyOf(fares)));
+            } else {
+                visited.add(arrival);
+                LocalDateTime landed = leg.getArrivalTime();
+                for (FlightDocument next : departures(arrival, landed.plus(minConnectionTime(arrival)),
+                                                      landed.plus(maxLayover))) {
+                    if (exhausted()) {
+                        break;
+                    }
+                    budget--;
+                    extendWith(next, connectionsLeft - 1);
+                }
+                visited.remove(arrival);
+            }
+            legs.remove(legs.size() - 1);
+            fares.remove(fares.size() - 1);
+        }
+        
+        private boolean exhausted() {
+            return budget <= 0 || results.size() >= maxCandidates;
+        }
+        
+        private FlightDocument.FareInfo cheapestFare(FlightDocument leg) {
+            if (leg.getFares() == null) {
+                return null;
+            }
+            // Fares are stored cheapest first
+            return leg.getFares().stream()
+                .filter(fare -> fare.getAvailableSeats() >= request.getPassengers())
+                .filter(fare -> request.getCabinClass() == null || request.getCabinClass() == fare.getCabinClass())
+                .findFirst()
+                .orElse(null);
+        }
+        
+        /**
+         * Whether the destination is reachable from {@code airport} in at most {@code hops} flights.
+         */
+        private boolean canReach(String airport, int hops) {
+            String key = airport + "/" + hops;
+            Boolean known = reachable.get(key);
+            if (known != null) {
+                return known;
+            }
+            Set<String> next = new HashSet<>();
+            boards.forEach(board -> next.addAll(board.routesFrom(airport)));
+            boolean result = next.contains(request.getDestination())
+                || (hops > 1 && next.stream().anyMatch(hop -> canReach(hop, hops - 1)));
+            reachable.put(key, result);
+            return result;
+        }
+        
+        private List<FlightDocument> departures(String airport, LocalDateTime from, LocalDateTime to) {
+            List<FlightDocument> departures = new ArrayList<>();
+            for (DepartureBoard board : boards) {
+                if (!board.getDay().isBefore(from.toLocalDate()) && !board.getDay().isAfter(to.toLocalDate())) {
+                    departures.addAll(board.departures(airport, from, to));
+                }
+            }
+            return departures;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.flightbooking.search.itinerary;
+
+import com.flightbooking.search.model.FlightDocument;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory index of one day's departures, grouped by origin airport and
+ * sorted by departure time, plus the set of airports served nonstop from each airport.
+ * Lookups are a binary search over one airport's departures.
+ */
+public class DepartureBoard {
+    
+    private static final Comparator<FlightDocument> BY_DEPARTURE = Comparator.comparing(FlightDocument::getDepartureTime);
+    
+    private final LocalDate day;
+    private final Map<String, List<FlightDocument>> departuresByAirport;
+    private final Map<String, Set<String>> routesFrom;
+    
+    public DepartureBoard(LocalDate day, List<FlightDocument> flights) {
+        Map<String, List<FlightDocument>> departures = new HashMap<>();
+        Map<String, Set<String>> routes = new HashMap<>();
+        for (FlightDocument flight : flights) {
+            departures.computeIfAbsent(flight.getOrigin(), airport -> new ArrayList<>()).add(flight);
+            routes.computeIfAbsent(flight.getOrigin(), airport -> new HashSet<>()).add(flight.getDestination());
+        }
+        departures.values().forEach(list -> list.sort(BY_DEPARTURE));
+        this.day = day;
+        this.departuresByAirport = departures;
+        this.routesFrom = routes;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    /**
+     * Departures from {@code airport} in {@code [from, to]}, in departure order.
+     */
+    public List<FlightDocument> departures(String airport, LocalDateTime from, LocalDateTime to) {
+        List<FlightDocument> all = departuresByAirport.getOrDefault(airport, List.of());
+        int start = firstAtOrAfter(all, from);
+        int end = start;
+        while (end < all.size() && !all.get(end).getDepartureTime().isAfter(to)) {
+            end++;
+        }
+        return start == end ? List.of() : Collections.unmodifiableList(all.subList(start, end));
+    }
+    
+    public Set<String> routesFrom(String airport) {
+        return routesFrom.getOrDefault(airport, Set.of());
+    }
+    
+    public int size() {
+        return departuresByAirport.values().stream().mapToInt(List::size).sum();
+    }
+    
+    private int firstAtOrAfter(List<FlightDocument> departures, LocalDateTime time) {
+        int low = 0;
+        int high = departures.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures.get(mid).getDepartureTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,54 @@
+package com.flightbooking.search.itinerary;
+
+import com.flightbooking.search.index.FlightDocumentIndexer;
+import com.flightbooking.search.repository.FlightRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-node cache of {@link DepartureBoard}s by departure day, built from Postgres.
+ *
+ * Each day is loaded once per node and then refreshed in the background, so
+ * connection searches never wait on a rebuild once a day is warm; seat counts on a
+ * board can therefore lag the database by up to the refresh interval.
+ */
+@Component
+@Slf4j
+public class DepartureBoards {
+    
+    private final FlightRepository flightRepository;
+    private final FlightDocumentIndexer documentIndexer;
+    private final LoadingCache<LocalDate, DepartureBoard> boards;
+    
+    public DepartureBoards(FlightRepository flightRepository,
+                           FlightDocumentIndexer documentIndexer,
+                           @Value("${search.connections.board.maximum-days:30}") long maximumDays,
+                           @Value("${search.connections.board.refresh:1m}") Duration refresh) {
+        this.flightRepository = flightRepository;
+        this.documentIndexer = documentIndexer;
+        this.boards = Caffeine.newBuilder()
+            .maximumSize(maximumDays)
+            .refreshAfterWrite(refresh)
+            .build(this::load);
+    }
+    
+    public DepartureBoard forDay(LocalDate day) {
+        return boards.get(day);
+    }
+    
+    private DepartureBoard load(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        DepartureBoard board = new DepartureBoard(day, documentIndexer.toDocuments(
+            flightRepository.findByDepartureTimeGreaterThanEqualAndDepartureTimeLessThanAndIsActiveTrue(
+                start, start.plusDays(1))));
+        log.debug("Loaded departure board for {} with {} flights", day, board.size());
+        return board;
+    }
+}
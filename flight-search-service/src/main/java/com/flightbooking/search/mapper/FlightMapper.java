@@ -7,14 +7,17 @@ import com.flightbooking.search.model.FlightDocument;
 import com.flightbooking.search.model.SeatInventory;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class FlightMapper {
     
-    public FlightSearchResponse toSearchResponse(FlightDocument doc) {
+    public FlightSearchResponse toSearchResponse(FlightDocument doc, FlightDocument.FareInfo fare) {
         FlightSearchResponse response = new FlightSearchResponse();
         response.setFlightId(doc.getFlightId());
         response.setCarrier(doc.getCarrier());
@@ -24,13 +27,63 @@ public class FlightMapper {
         response.setDepartureTime(doc.getDepartureTime());
         response.setArrivalTime(doc.getArrivalTime());
         response.setDurationMinutes(doc.getDurationMinutes());
-        response.setCabinClass(doc.getCabinClass());
-        response.setPrice(doc.getPrice());
+        response.setCabinClass(fare.getCabinClass());
+        response.setFareClass(fare.getFareClass());
+        response.setPrice(fare.getPrice());
         response.setCurrency(doc.getCurrency());
-        response.setAvailableSeats(doc.getAvailableSeats());
+        response.setAvailableSeats(fare.getAvailableSeats());
+        response.setStops(0);
         return response;
     }
     
+    /**
+     * Maps a connecting itinerary; {@code fares} holds the chosen fare of each leg.
+     */
+    public FlightSearchResponse toItineraryResponse(List<FlightDocument> legs, List<FlightDocument.FareInfo> fares) {
+        FlightDocument first = legs.get(0);
+        FlightDocument last = legs.get(legs.size() - 1);
+        
+        FlightSearchResponse response = new FlightSearchResponse();
+        response.setFlightId(first.getFlightId());
+        response.setCarrier(first.getCarrier());
+        response.setFlightNumber(legs.stream().map(FlightDocument::getFlightNumber).collect(Collectors.joining("/")));
+        response.setOrigin(first.getOrigin());
+        response.setDestination(last.getDestination());
+        response.setDepartureTime(first.getDepartureTime());
+        response.setArrivalTime(last.getArrivalTime());
+        response.setDurationMinutes((int) Duration.between(first.getDepartureTime(), 
+                                                            last.getArrivalTime()).toMinutes());
+        response.setCabinClass(fares.get(0).getCabinClass());
+        response.setPrice(fares.stream().map(FlightDocument.FareInfo::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add));
+        response.setCurrency(first.getCurrency());
+        response.setAvailableSeats(fares.stream().mapToInt(FlightDocument.FareInfo::getAvailableSeats).min().orElse(0));
+        response.setStops(legs.size() - 1);
+        
+        List<FlightSearchResponse.SegmentInfo> segments = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++) {
+            FlightDocument leg = legs.get(i);
+            FlightDocument.FareInfo fare = fares.get(i);
+            segments.add(new FlightSearchResponse.SegmentInfo(
+                leg.getFlightId(),
+                leg.getCarrier(),
+                leg.getFlightNumber(),
+                leg.getOrigin(),
+                leg.getDestination(),
+                leg.getDepartureTime(),
+                leg.getArrivalTime(),
+                fare.getFareClass(),
+                fare.getCabinClass(),
+                fare.getPrice()
+            ));
+        }
+        response.setSegments(segments);
+        return response;
+    }
+    
+    public FlightSearchResponse toSearchResponse(Flight flight, SeatInventory inventory) {
+        return toSearchResponse(toDocument(flight, List.of(inventory)), toFare(inventory));
+    }
+    
     public FlightDetailsResponse toDetailsResponse(Flight flight, List<SeatInventory> inventory) {
         FlightDetailsResponse response = new FlightDetailsResponse();
         response.setFlightId(flight.getFlightId());
@@ -56,7 +109,7 @@ public class FlightMapper {
         return response;
     }
     
-    public FlightDocument toDocument(Flight flight, SeatInventory inventory) {
+    public FlightDocument toDocument(Flight flight, List<SeatInventory> inventory) {
         FlightDocument doc = new FlightDocument();
         doc.setItineraryId(flight.getFlightId().toString());
         doc.setFlightId(flight.getFlightId());
@@ -68,11 +121,21 @@ public class FlightMapper {
         doc.setArrivalTime(flight.getArrivalTime());
         doc.setDurationMinutes((int) Duration.between(flight.getDepartureTime(), 
                                                        flight.getArrivalTime()).toMinutes());
-        doc.setCabinClass(inventory.getCabinClass());
-        doc.setPrice(inventory.getPrice());
         doc.setCurrency("INR");
-        doc.setAvailableSeats(inventory.getAvailableSeats());
+        doc.setFares(inventory.stream()
+            .map(this::toFare)
+            .sorted(Comparator.comparing(FlightDocument.FareInfo::getPrice))
+            .collect(Collectors.toList()));
         doc.setStops(0);
         return doc;
     }
+    
+    private FlightDocument.FareInfo toFare(SeatInventory inventory) {
+        return new FlightDocument.FareInfo(
+            inventory.getFareClass(),
+            inventory.getCabinClass(),
+            inventory.getPrice(),
+            inventory.getAvailableSeats()
+        );
+    }
 }
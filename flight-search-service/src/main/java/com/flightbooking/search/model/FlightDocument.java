@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
-@Document(indexName = "itineraries")
+@Document(indexName = "itineraries", createIndex = false)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +23,7 @@ public class FlightDocument {
     @Id
     public String itineraryId;
     
+    @Field(type = FieldType.Keyword)
     public UUID flightId;
     
     @Field(type = FieldType.Keyword)
@@ -44,19 +45,36 @@ public class FlightDocument {
     
     public Integer durationMinutes;
     
-    @Field(type = FieldType.Keyword)
-    public CabinClass cabinClass;
-    
-    public BigDecimal price;
-    
     public String currency;
     
-    public Integer availableSeats;
+    /**
+     * Every fare bucket of the flight, cheapest first. Nested so a search can require
+     * cabin and seat conditions to hold on the same fare.
+     */
+    @Field(type = FieldType.Nested)
+    public List<FareInfo> fares;
     
     public Integer stops;
     
     public List<SegmentInfo> segments;
     
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FareInfo {
+        @Field(type = FieldType.Keyword)
+        public String fareClass;
+        
+        @Field(type = FieldType.Keyword)
+        public CabinClass cabinClass;
+        
+        @Field(type = FieldType.Double)
+        public BigDecimal price;
+        
+        @Field(type = FieldType.Integer)
+        public Integer availableSeats;
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,17 @@
+package com.flightbooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A flight paired with one of its seat inventory buckets, as returned by the
+ * joined route search query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightFare {
+    private Flight flight;
+    private SeatInventory inventory;
+}
@@ -10,6 +10,7 @@ import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
@@ -41,6 +42,14 @@ public class InventoryHold {
     @Column(columnDefinition = "jsonb")
     private List<String> seats;
     
+    /**
+     * Seats debited per fare class; null for holds taken before buckets were recorded,
+     * which debited the flight's first fare class.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Integer> fareClassSeats;
+    
     @Column(nullable = false)
     private LocalDateTime expiresAt;
     
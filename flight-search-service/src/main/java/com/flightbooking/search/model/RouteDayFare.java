@@ -0,0 +1,48 @@
+package com.flightbooking.search.model;
+
+import com.flightbooking.common.enums.CabinClass;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated lowest fare with at least one seat left, per route, departure day
+ * and cabin. Rows are recomputed for one route/day whenever inventory on it changes
+ * and back the low-fare calendar.
+ */
+@Entity
+@Table(name = "route_day_fares", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"origin", "destination", "departure_date", "cabin_class"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteDayFare {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String origin;
+    
+    @Column(nullable = false)
+    private String destination;
+    
+    @Column(nullable = false)
+    private LocalDate departureDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CabinClass cabinClass;
+    
+    @Column(nullable = false)
+    private BigDecimal minPrice;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
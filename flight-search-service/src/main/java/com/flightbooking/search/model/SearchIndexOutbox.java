@@ -0,0 +1,35 @@
+package com.flightbooking.search.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Transactional outbox row recording that a flight's search documents need to be
+ * rewritten. Inserted in the same transaction as the inventory change and removed
+ * once the change has been applied to Elasticsearch.
+ */
+@Entity
+@Table(name = "search_index_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private UUID flightId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    public SearchIndexOutbox(UUID flightId) {
+        this.flightId = flightId;
+    }
+}
@@ -0,0 +1,16 @@
+package com.flightbooking.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An origin-destination pair with at least one active upcoming flight.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServedRoute {
+    private String origin;
+    private String destination;
+}
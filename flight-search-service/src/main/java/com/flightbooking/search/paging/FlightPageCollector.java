@@ -0,0 +1,66 @@
+package com.flightbooking.search.paging;
+
+import com.flightbooking.search.dto.FlightSearchPage;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchSort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Selects one page of results as they stream out of a search engine, without
+ * materializing or sorting the full result set.
+ *
+ * Rows at or before the cursor are dropped on arrival; the rest go through a bounded
+ * max-heap holding the best {@code pageSize + 1} rows seen so far, so selection costs
+ * O(n log k) time and O(k) memory. The extra row only signals that a next page exists.
+ */
+public class FlightPageCollector implements Consumer<FlightSearchResponse> {
+    
+    private final SearchSort sort;
+    private final int pageSize;
+    private final ResultPosition after;
+    private final Comparator<ResultPosition> order;
+    private final PriorityQueue<Ranked> heap;
+    
+    public FlightPageCollector(SearchSort sort, int pageSize, String cursor) {
+        this.sort = sort;
+        this.pageSize = pageSize;
+        this.after = cursor == null ? null : ResultPosition.fromCursor(cursor, sort);
+        this.order = ResultPosition.order(sort);
+        Comparator<Ranked> ranking = Comparator.comparing(Ranked::position, order);
+        this.heap = new PriorityQueue<>(pageSize + 1, ranking.reversed());
+    }
+    
+    @Override
+    public void accept(FlightSearchResponse response) {
+        ResultPosition position = ResultPosition.of(response);
+        if (after != null && order.compare(position, after) <= 0) {
+            return;
+        }
+        if (heap.size() <= pageSize) {
+            heap.add(new Ranked(position, response));
+        } else if (order.compare(position, heap.peek().position()) < 0) {
+            heap.poll();
+            heap.add(new Ranked(position, response));
+        }
+    }
+    
+    public FlightSearchPage toPage() {
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(Comparator.comparing(Ranked::position, order));
+        boolean hasMore = ranked.size() > pageSize;
+        List<Ranked> page = hasMore ? ranked.subList(0, pageSize) : ranked;
+        
+        List<FlightSearchResponse> results = new ArrayList<>(page.size());
+        page.forEach(row -> results.add(row.response()));
+        String nextCursor = hasMore ? page.get(page.size() - 1).position().toCursor(sort) : null;
+        return new FlightSearchPage(results, sort, pageSize, nextCursor, null);
+    }
+    
+    private record Ranked(ResultPosition position, FlightSearchResponse response) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.flightbooking.search.paging;
+
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Position of a search result in a paged ordering: the sort columns plus a tie-breaker
+ * identifying the itinerary, its fare buckets and cabin. Encoded as an opaque keyset cursor, so the next
+ * page starts strictly after the last row returned regardless of what changed between
+ * requests.
+ */
+public record ResultPosition(LocalDateTime departureTime, BigDecimal price, int durationMinutes, String itinerary) {
+    
+    private static final String SEPARATOR = "|";
+    
+    private static final Comparator<ResultPosition> BY_DEPARTURE = Comparator.comparing(ResultPosition::departureTime);
+    private static final Comparator<ResultPosition> BY_PRICE = Comparator.comparing(ResultPosition::price);
+    private static final Comparator<ResultPosition> BY_DURATION = Comparator.comparingInt(ResultPosition::durationMinutes);
+    private static final Comparator<ResultPosition> BY_ITINERARY = Comparator.comparing(ResultPosition::itinerary);
+    
+    public static ResultPosition of(FlightSearchResponse response) {
+        // A nonstop flight returns one row per fare bucket, so the bucket is part of its identity
+        String itinerary = response.getSegments() == null
+            ? response.getFlightId() + "/" + response.getFareClass()
+            : response.getSegments().stream()
+                .map(segment -> segment.getFlightId() + "/" + segment.getFareClass())
+                .collect(Collectors.joining(","));
+        return new ResultPosition(response.getDepartureTime(), response.getPrice(),
+            response.getDurationMinutes() == null ? 0 : response.getDurationMinutes(),
+            itinerary + "/" + response.getCabinClass());
+    }
+    
+    public static Comparator<ResultPosition> order(SearchSort sort) {
+        Comparator<ResultPosition> order = switch (sort) {
+            case DEPARTURE -> BY_DEPARTURE.thenComparing(BY_PRICE).thenComparing(BY_DURATION);
+            case PRICE -> BY_PRICE.thenComparing(BY_DEPARTURE).thenComparing(BY_DURATION);
+            case DURATION -> BY_DURATION.thenComparing(BY_DEPARTURE).thenComparing(BY_PRICE);
+        };
+        return order.thenComparing(BY_ITINERARY);
+    }
+    
+    public String toCursor(SearchSort sort) {
+        String raw = String.join(SEPARATOR, sort.name(), departureTime.toString(), price.toPlainString(),
+            String.valueOf(durationMinutes), itinerary);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor issued for {@code sort}; a cursor from another ordering or a
+     * malformed one is rejected rather than silently restarting the listing.
+     */
+    public static ResultPosition fromCursor(String cursor, SearchSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split("\\" + SEPARATOR, 5);
+            if (parts.length != 5 || !sort.name().equals(parts[0])) {
+                throw new BusinessException("Cursor does not belong to sort " + sort);
+            }
+            return new ResultPosition(LocalDateTime.parse(parts[1]), new BigDecimal(parts[2]),
+                Integer.parseInt(parts[3]), parts[4]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Invalid search cursor");
+        }
+    }
+}
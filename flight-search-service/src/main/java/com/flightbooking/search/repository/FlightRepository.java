@@ -1,13 +1,21 @@
 package com.flightbooking.search.repository;
 
+import com.flightbooking.common.enums.CabinClass;
 import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightFare;
+import com.flightbooking.search.model.ServedRoute;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, UUID> {
@@ -19,4 +27,58 @@ public interface FlightRepository extends JpaRepository<Flight, UUID> {
            "AND f.isActive = true")
     List<Flight> findFlightsByRoute(String origin, String destination, 
                                      LocalDateTime startTime, LocalDateTime endTime);
+    
+    /**
+     * Route search in a single round trip: flights joined with their seat inventory,
+     * with the passenger-count and cabin filters applied in SQL.
+     */
+    @Query("SELECT new com.flightbooking.search.model.FlightFare(f, s) FROM Flight f " +
+           "JOIN SeatInventory s ON s.flightId = f.flightId " +
+           "WHERE f.departureAirport = :origin " +
+           "AND f.arrivalAirport = :destination " +
+           "AND f.departureTime >= :startTime " +
+           "AND f.departureTime < :endTime " +
+           "AND f.isActive = true " +
+           "AND s.availableSeats >= :passengers " +
+           "AND (:cabinClass IS NULL OR s.cabinClass = :cabinClass) " +
+           "ORDER BY f.departureTime, s.price")
+    List<FlightFare> findFlightFaresByRoute(String origin, String destination,
+                                            LocalDateTime startTime, LocalDateTime endTime,
+                                            Integer passengers, CabinClass cabinClass);
+    
+    /**
+     * Streaming variant of {@link #findFlightFaresByRoute} for result sets too large to
+     * buffer. Must be consumed, and closed, inside a transaction.
+     */
+    @Query("SELECT new com.flightbooking.search.model.FlightFare(f, s) FROM Flight f " +
+           "JOIN SeatInventory s ON s.flightId = f.flightId " +
+           "WHERE f.departureAirport = :origin " +
+           "AND f.arrivalAirport = :destination " +
+           "AND f.departureTime >= :startTime " +
+           "AND f.departureTime < :endTime " +
+           "AND f.isActive = true " +
+           "AND s.availableSeats >= :passengers " +
+           "AND (:cabinClass IS NULL OR s.cabinClass = :cabinClass) " +
+           "ORDER BY f.departureTime, s.price")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<FlightFare> streamFlightFaresByRoute(String origin, String destination,
+                                                LocalDateTime startTime, LocalDateTime endTime,
+                                                Integer passengers, CabinClass cabinClass);
+    
+    /**
+     * Keyset pages over all flights in flight ID order, for streaming re-index.
+     */
+    List<Flight> findAllByOrderByFlightIdAsc(Limit limit);
+    
+    List<Flight> findByFlightIdGreaterThanOrderByFlightIdAsc(UUID flightId, Limit limit);
+    
+    List<Flight> findByDepartureTimeGreaterThanEqualAndDepartureTimeLessThanAndIsActiveTrue(
+        LocalDateTime startTime, LocalDateTime endTime);
+    
+    /**
+     * Every origin-destination pair with an active flight departing at or after {@code from}.
+     */
+    @Query("SELECT DISTINCT new com.flightbooking.search.model.ServedRoute(f.departureAirport, f.arrivalAirport) " +
+           "FROM Flight f WHERE f.departureTime >= :from AND f.isActive = true")
+    List<ServedRoute> findServedRoutes(LocalDateTime from);
 }
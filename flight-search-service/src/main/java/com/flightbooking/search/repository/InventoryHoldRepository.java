@@ -3,6 +3,7 @@ package com.flightbooking.search.repository;
 import com.flightbooking.common.enums.HoldStatus;
 import com.flightbooking.search.model.InventoryHold;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -17,4 +18,30 @@ public interface InventoryHoldRepository extends JpaRepository<InventoryHold, UU
     List<InventoryHold> findExpiredHolds(LocalDateTime now);
     
     List<InventoryHold> findByCustomerSessionIdAndStatus(String sessionId, HoldStatus status);
+    
+    /**
+     * Inserts a hold accepted elsewhere under its own id; replaying the same hold is a no-op.
+     *
+     * @param seats the seat list as a JSON array
+     * @param fareClassSeats seats per fare class as a JSON object
+     * @return 1 if inserted, 0 if the hold already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory_holds (hold_id, flight_id, customer_session_id, seat_count, seats, " +
+                   "fare_class_seats, expires_at, status, created_at) " +
+                   "VALUES (:holdId, :flightId, :sessionId, :seatCount, CAST(:seats AS jsonb), " +
+                   "CAST(:fareClassSeats AS jsonb), :expiresAt, 'ACTIVE', :createdAt) " +
+                   "ON CONFLICT (hold_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(UUID holdId, UUID flightId, String sessionId, int seatCount, String seats,
+                       String fareClassSeats, LocalDateTime expiresAt, LocalDateTime createdAt);
+    
+    /**
+     * Moves an active hold to {@code status}.
+     *
+     * @return 1 if changed, 0 if the hold was missing or no longer active
+     */
+    @Modifying
+    @Query("UPDATE InventoryHold h SET h.status = :status WHERE h.holdId = :holdId AND h.status = 'ACTIVE'")
+    int updateStatusIfActive(UUID holdId, HoldStatus status);
 }
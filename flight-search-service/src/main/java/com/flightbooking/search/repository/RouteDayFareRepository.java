@@ -0,0 +1,68 @@
+package com.flightbooking.search.repository;
+
+import com.flightbooking.search.model.RouteDayFare;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RouteDayFareRepository extends JpaRepository<RouteDayFare, Long> {
+    
+    List<RouteDayFare> findByOriginAndDestinationAndDepartureDateBetweenOrderByDepartureDateAsc(
+        String origin, String destination, LocalDate startDate, LocalDate endDate);
+    
+    /**
+     * Serializes recomputation of one route/day until the surrounding transaction ends,
+     * so the aggregate read afterwards sees every inventory change committed before it.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext(:routeDay))) AS route_day_lock",
+           nativeQuery = true)
+    Integer lockRouteDay(String routeDay);
+    
+    /**
+     * Upserts the lowest fare with seats left per cabin for flights departing in
+     * {@code [startTime, endTime)}, optionally restricted to one route. A row written
+     * by a later statement is never overwritten with this statement's older snapshot.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO route_day_fares (origin, destination, departure_date, cabin_class, min_price, updated_at) " +
+                   "SELECT f.departure_airport, f.arrival_airport, CAST(f.departure_time AS date), s.cabin_class, " +
+                   "MIN(s.price), statement_timestamp() " +
+                   "FROM flights f JOIN seat_inventory s ON s.flight_id = f.flight_id " +
+                   "WHERE (CAST(:origin AS text) IS NULL OR f.departure_airport = :origin) " +
+                   "AND (CAST(:destination AS text) IS NULL OR f.arrival_airport = :destination) " +
+                   "AND f.departure_time >= :startTime AND f.departure_time < :endTime " +
+                   "AND f.is_active = true AND s.available_seats > 0 " +
+                   "GROUP BY f.departure_airport, f.arrival_airport, CAST(f.departure_time AS date), s.cabin_class " +
+                   "ON CONFLICT (origin, destination, departure_date, cabin_class) " +
+                   "DO UPDATE SET min_price = EXCLUDED.min_price, updated_at = EXCLUDED.updated_at " +
+                   "WHERE route_day_fares.updated_at <= EXCLUDED.updated_at",
+           nativeQuery = true)
+    int upsertMinFares(String origin, String destination, LocalDateTime startTime, LocalDateTime endTime);
+    
+    /**
+     * Deletes rows in {@code [startDate, endDate]} whose cabin no longer has any fare
+     * with seats left, optionally restricted to one route.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM route_day_fares r " +
+                   "WHERE (CAST(:origin AS text) IS NULL OR r.origin = :origin) " +
+                   "AND (CAST(:destination AS text) IS NULL OR r.destination = :destination) " +
+                   "AND r.departure_date BETWEEN :startDate AND :endDate " +
+                   "AND r.updated_at < statement_timestamp() " +
+                   "AND NOT EXISTS (SELECT 1 FROM flights f JOIN seat_inventory s ON s.flight_id = f.flight_id " +
+                   "WHERE f.departure_airport = r.origin AND f.arrival_airport = r.destination " +
+                   "AND CAST(f.departure_time AS date) = r.departure_date AND s.cabin_class = r.cabin_class " +
+                   "AND f.is_active = true AND s.available_seats > 0)",
+           nativeQuery = true)
+    int deleteUnavailable(String origin, String destination, LocalDate startDate, LocalDate endDate);
+    
+    @Modifying
+    @Query("DELETE FROM RouteDayFare r WHERE r.departureDate < :date")
+    int deleteByDepartureDateBefore(LocalDate date);
+}
@@ -0,0 +1,14 @@
+package com.flightbooking.search.repository;
+
+import com.flightbooking.search.model.SearchIndexOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SearchIndexOutboxRepository extends JpaRepository<SearchIndexOutbox, Long> {
+    
+    List<SearchIndexOutbox> findAllByOrderByIdAsc(Limit limit);
+}
@@ -4,9 +4,11 @@ import com.flightbooking.search.model.SeatInventory;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,7 +16,26 @@ import java.util.UUID;
 public interface SeatInventoryRepository extends JpaRepository<SeatInventory, Long> {
     List<SeatInventory> findByFlightId(UUID flightId);
     
+    List<SeatInventory> findByFlightIdIn(Collection<UUID> flightIds);
+    
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT s FROM SeatInventory s WHERE s.flightId = :flightId")
     List<SeatInventory> findByFlightIdWithLock(UUID flightId);
+    
+    /**
+     * Applies per-fare-class seat changes to a flight in one statement, bumping each
+     * row's version so concurrent entity updates still fail their optimistic check.
+     * A bucket is skipped if the change would take it below zero.
+     *
+     * @param seatDeltas a JSON object of fare class to seat change, e.g. {@code {"Y": -2}}
+     * @return the number of buckets changed
+     */
+    @Modifying
+    @Query(value = "UPDATE seat_inventory s " +
+                   "SET available_seats = s.available_seats + CAST(d.value AS int), version = s.version + 1 " +
+                   "FROM jsonb_each_text(CAST(:seatDeltas AS jsonb)) AS d " +
+                   "WHERE s.flight_id = :flightId AND s.fare_class = d.key " +
+                   "AND s.available_seats + CAST(d.value AS int) >= 0",
+           nativeQuery = true)
+    int adjustAvailableSeats(UUID flightId, String seatDeltas);
 }
@@ -0,0 +1,53 @@
+package com.flightbooking.search.repository;
+
+import com.flightbooking.search.model.SeatMap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SeatMapRepository extends JpaRepository<SeatMap, Long> {
+    List<SeatMap> findByFlightId(UUID flightId);
+    
+    List<SeatMap> findByFlightIdAndSeatNoIn(UUID flightId, Collection<String> seatNos);
+    
+    /**
+     * Applies seat status changes in one statement. Each change only applies while its
+     * row is still in the expected status.
+     *
+     * @param changes a JSON array of {@code {id, status, holdId, expected}} objects
+     * @return the number of rows changed
+     */
+    @Modifying
+    @Query(value = "UPDATE seat_map m SET status = d.status, current_hold_id = d.\"holdId\" " +
+                   "FROM jsonb_to_recordset(CAST(:changes AS jsonb)) " +
+                   "AS d(id bigint, status text, \"holdId\" uuid, expected text) " +
+                   "WHERE m.id = d.id AND m.status = d.expected",
+           nativeQuery = true)
+    int applyChanges(String changes);
+    
+    /**
+     * Holds the given seats if every one of them is still available.
+     *
+     * @return the number of seats held; fewer than requested means some were taken
+     */
+    @Modifying
+    @Query("UPDATE SeatMap s SET s.status = 'HELD', s.currentHoldId = :holdId " +
+           "WHERE s.flightId = :flightId AND s.seatNo IN :seatNos AND s.status = 'AVAILABLE'")
+    int holdSeats(UUID flightId, Collection<String> seatNos, UUID holdId);
+    
+    @Modifying
+    @Query("UPDATE SeatMap s SET s.status = 'AVAILABLE', s.currentHoldId = null " +
+           "WHERE s.flightId = :flightId AND s.currentHoldId = :holdId AND s.status = 'HELD'")
+    int releaseSeats(UUID flightId, UUID holdId);
+    
+    @Modifying
+    @Query("UPDATE SeatMap s SET s.status = 'BOOKED' " +
+           "WHERE s.flightId = :flightId AND s.currentHoldId = :holdId AND s.status = 'HELD'")
+    int bookSeats(UUID flightId, UUID holdId);
+}
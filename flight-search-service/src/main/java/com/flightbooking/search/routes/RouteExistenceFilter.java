@@ -0,0 +1,157 @@
+package com.flightbooking.search.routes;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.model.ServedRoute;
+import com.flightbooking.search.repository.FlightRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * In-memory bitmap of the origin-destination pairs we serve, so searches for routes
+ * with no flights at all (bots, typos) are answered empty without touching the cache,
+ * Elasticsearch or Postgres.
+ *
+ * Rebuilt from active upcoming flights once the application is ready and on every
+ * {@code rebuild-interval}; until the first build completes every route is assumed
+ * to exist. New flights are registered immediately and announced to the other nodes
+ * over Redis pub/sub, and registrations racing with a rebuild are re-applied to it.
+ * The filter may claim a route exists when it has no flights, never the reverse.
+ */
+@Component("routeExistenceFilter")
+@Slf4j
+public class RouteExistenceFilter {
+    
+    static final String TOPIC = "search:routes:added";
+    private static final String SEPARATOR = "|";
+    
+    private final FlightRepository flightRepository;
+    private final RedissonClient redissonClient;
+    private final Executor taskExecutor;
+    private final Counter rejected;
+    private final Set<String> registeredDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile ServedRoutes routes = ServedRoutes.EMPTY;
+    private volatile boolean loaded;
+    private volatile boolean rebuilding;
+    
+    public RouteExistenceFilter(FlightRepository flightRepository,
+                                RedissonClient redissonClient,
+                                @Qualifier("taskExecutor") Executor taskExecutor,
+                                MeterRegistry meterRegistry) {
+        this.flightRepository = flightRepository;
+        this.redissonClient = redissonClient;
+        this.taskExecutor = taskExecutor;
+        this.rejected = meterRegistry.counter("search.routes.rejected");
+        Gauge.builder("search.routes.served", this, filter -> filter.routes.routeCount()).register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void subscribe() {
+        topic().addListener(String.class, (channel, message) -> {
+            int separator = message.indexOf(SEPARATOR);
+            if (separator > 0) {
+                add(message.substring(0, separator), message.substring(separator + 1));
+            }
+        });
+    }
+    
+    /**
+     * False only when no served route can answer the search: the pair has no nonstop
+     * flights and, if stops are allowed, the origin has no departures or the
+     * destination no arrivals.
+     */
+    public boolean mayHaveResults(FlightSearchRequest request) {
+        if (!loaded) {
+            return true;
+        }
+        ServedRoutes current = routes;
+        return current.serves(request.getOrigin(), request.getDestination())
+            || (request.getMaxStops() != null && request.getMaxStops() > 0
+                && current.hasDepartures(request.getOrigin())
+                && current.hasArrivals(request.getDestination()));
+    }
+    
+    /**
+     * {@link #mayHaveResults} for the search itself, counting the searches it turns away.
+     */
+    public boolean admit(FlightSearchRequest request) {
+        boolean possible = mayHaveResults(request);
+        if (!possible) {
+            rejected.increment();
+        }
+        return possible;
+    }
+    
+    /**
+     * Marks a route as served on this node and every other node.
+     */
+    public void register(String origin, String destination) {
+        add(origin, destination);
+        try {
+            topic().publishAsync(origin + SEPARATOR + destination);
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce new route {}-{}, other nodes pick it up on rebuild: {}",
+                     origin, destination, e.getMessage());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        taskExecutor.execute(this::rebuild);
+    }
+    
+    @Scheduled(fixedDelayString = "${search.routes.rebuild-interval:10m}",
+               initialDelayString = "${search.routes.rebuild-interval:10m}")
+    public void rebuild() {
+        rebuilding = true;
+        try {
+            List<ServedRoute> served = flightRepository.findServedRoutes(LocalDate.now().atStartOfDay());
+            ServedRoutes.Builder builder = new ServedRoutes.Builder();
+            served.forEach(route -> builder.add(route.getOrigin(), route.getDestination()));
+            synchronized (this) {
+                for (String route : registeredDuringRebuild) {
+                    int separator = route.indexOf(SEPARATOR);
+                    builder.add(route.substring(0, separator), route.substring(separator + 1));
+                }
+                registeredDuringRebuild.clear();
+                routes = builder.build();
+                rebuilding = false;
+            }
+            loaded = true;
+            log.info("Route existence filter rebuilt with {} routes", routes.routeCount());
+        } catch (RuntimeException e) {
+            rebuilding = false;
+            registeredDuringRebuild.clear();
+            log.warn("Failed to rebuild route existence filter, keeping the previous one: {}", e.getMessage());
+        }
+    }
+    
+    private synchronized void add(String origin, String destination) {
+        if (rebuilding) {
+            registeredDuringRebuild.add(origin + SEPARATOR + destination);
+        }
+        if (!routes.serves(origin, destination)) {
+            routes = routes.toBuilder().add(origin, destination).build();
+        }
+    }
+    
+    private RTopic topic() {
+        return redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+    }
+}
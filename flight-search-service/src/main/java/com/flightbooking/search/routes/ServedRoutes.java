@@ -0,0 +1,90 @@
+package com.flightbooking.search.routes;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable bitmap of served (origin, destination) pairs. Airports get dense indexes,
+ * and the pair bit sits at {@code origin * stride + destination}, so a lookup is two
+ * map reads and one bit test. A few hundred airports take tens of kilobytes.
+ */
+final class ServedRoutes {
+    
+    static final ServedRoutes EMPTY = new Builder().build();
+    
+    private final Map<String, Integer> airports;
+    private final String[] codes;
+    private final int stride;
+    private final BitSet pairs;
+    private final BitSet origins;
+    private final BitSet destinations;
+    
+    private ServedRoutes(Map<String, Integer> airports, String[] codes, int stride,
+                         BitSet pairs, BitSet origins, BitSet destinations) {
+        this.airports = airports;
+        this.codes = codes;
+        this.stride = stride;
+        this.pairs = pairs;
+        this.origins = origins;
+        this.destinations = destinations;
+    }
+    
+    boolean serves(String origin, String destination) {
+        Integer from = airports.get(origin);
+        Integer to = airports.get(destination);
+        return from != null && to != null && pairs.get(from * stride + to);
+    }
+    
+    boolean hasDepartures(String airport) {
+        Integer index = airports.get(airport);
+        return index != null && origins.get(index);
+    }
+    
+    boolean hasArrivals(String airport) {
+        Integer index = airports.get(airport);
+        return index != null && destinations.get(index);
+    }
+    
+    int routeCount() {
+        return pairs.cardinality();
+    }
+    
+    Builder toBuilder() {
+        Builder builder = new Builder();
+        for (int pair = pairs.nextSetBit(0); pair >= 0; pair = pairs.nextSetBit(pair + 1)) {
+            builder.add(codes[pair / stride], codes[pair % stride]);
+        }
+        return builder;
+    }
+    
+    static final class Builder {
+        
+        private final Map<String, Integer> airports = new HashMap<>();
+        private final Map<Integer, BitSet> destinationsByOrigin = new HashMap<>();
+        
+        Builder add(String origin, String destination) {
+            int from = airports.computeIfAbsent(origin, code -> airports.size());
+            int to = airports.computeIfAbsent(destination, code -> airports.size());
+            destinationsByOrigin.computeIfAbsent(from, index -> new BitSet()).set(to);
+            return this;
+        }
+        
+        ServedRoutes build() {
+            int stride = Math.max(1, airports.size());
+            BitSet pairs = new BitSet(stride * stride);
+            BitSet origins = new BitSet(stride);
+            BitSet destinations = new BitSet(stride);
+            String[] codes = new String[airports.size()];
+            airports.forEach((code, index) -> codes[index] = code);
+            destinationsByOrigin.forEach((from, tos) -> {
+                origins.set(from);
+                destinations.or(tos);
+                for (int to = tos.nextSetBit(0); to >= 0; to = tos.nextSetBit(to + 1)) {
+                    pairs.set(from * stride + to);
+                }
+            });
+            return new ServedRoutes(Map.copyOf(airports), codes, stride, pairs, origins, destinations);
+        }
+    }
+}
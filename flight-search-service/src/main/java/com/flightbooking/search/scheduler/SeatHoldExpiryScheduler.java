@@ -1,25 +1,110 @@
 package com.flightbooking.search.scheduler;
 
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.holds.HoldExpiryQueue;
 import com.flightbooking.search.service.SeatHoldService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Releases holds shortly after they expire.
+ *
+ * Every {@code poll-interval} each node claims due holds from {@link HoldExpiryQueue}
+ * and releases them, so a hold is released within about one interval of its expiry
+ * and an idle poll is one sorted-set range query. A hold's claim is completed once its
+ * release went through or found nothing to do; on any other failure it is retried when
+ * the claim's {@code lease} runs out.
+ *
+ * Releases only ever move active holds, so a hold released by two nodes, or by the
+ * queue and a customer at once, returns its seats once. The database sweep every
+ * {@code sweep-interval}, run by one node at a time, catches holds the queue never
+ * got, such as ones taken while Redis was unavailable. It also runs at startup.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class SeatHoldExpiryScheduler {
     
+    static final String SWEEP_LOCK_KEY = "search:holds:expiry:sweep";
+    
     private final SeatHoldService seatHoldService;
+    private final HoldExpiryQueue expiryQueue;
+    private final RedissonClient redissonClient;
+    private final int batchSize;
+    private final Duration lease;
+    private final Counter released;
+    
+    public SeatHoldExpiryScheduler(SeatHoldService seatHoldService,
+                                   HoldExpiryQueue expiryQueue,
+                                   RedissonClient redissonClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${search.holds.expiry.batch-size:200}") int batchSize,
+                                   @Value("${search.holds.expiry.lease:30s}") Duration lease) {
+        this.seatHoldService = seatHoldService;
+        this.expiryQueue = expiryQueue;
+        this.redissonClient = redissonClient;
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.released = meterRegistry.counter("search.holds.expired");
+    }
+    
+    @Scheduled(fixedDelayString = "${search.holds.expiry.poll-interval:500ms}")
+    public void releaseDueHolds() {
+        try {
+            List<UUID> due;
+            do {
+                due = expiryQueue.claimDue(LocalDateTime.now(), batchSize, lease);
+                due.forEach(this::release);
+            } while (due.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Error in seat hold expiry job", e);
+        }
+    }
     
-    @Scheduled(fixedRate = 60000)
+    @Scheduled(fixedDelayString = "${search.holds.expiry.sweep-interval:5m}")
     public void releaseExpiredHolds() {
-        log.debug("Running seat hold expiry job");
+        RLock lock = redissonClient.getLock(SWEEP_LOCK_KEY);
+        try {
+            if (!lock.tryLock()) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Could not take the hold expiry sweep lock, skipping this sweep: {}", e.getMessage());
+            return;
+        }
+        log.debug("Running seat hold expiry sweep");
         try {
             seatHoldService.releaseExpiredHolds();
         } catch (Exception e) {
-            log.error("Error in seat hold expiry job", e);
+            log.error("Error in seat hold expiry sweep", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private void release(UUID holdId) {
+        try {
+            seatHoldService.releaseHold(holdId);
+            released.increment();
+        } catch (BusinessException e) {
+            // Nothing to release, e.g. the hold was rolled back after being scheduled
+            log.debug("Expired hold {} not released: {}", holdId, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error releasing expired hold {}, retrying after its lease", holdId, e);
+            return;
         }
+        expiryQueue.complete(holdId);
     }
 }
@@ -0,0 +1,227 @@
+package com.flightbooking.search.seatmap;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.SeatStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.model.SeatMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory seat map of one flight, with seat state kept as one bitset per status.
+ *
+ * Seats are numbered in row order and then by letter within a row, so seats that sit
+ * side by side have consecutive indexes. {@code blockStart} marks the first seat of
+ * each row and the first seat after an aisle. An adjacent-seat search is then a scan
+ * for a run of set bits in {@code available & cabin} that contains no block start.
+ *
+ * All methods are synchronized on the map, and each completes in a handful of word
+ * operations. A hold either takes every requested seat or changes nothing.
+ */
+public class FlightSeatMap {
+    
+    static final FlightSeatMap EMPTY = new FlightSeatMap(List.of(), Set.of());
+    
+    private final String[] seatNos;
+    private final long[] rowIds;
+    private final String[] fareClasses;
+    private final Map<String, Integer> indexBySeat = new HashMap<>();
+    private final Map<CabinClass, BitSet> cabins = new EnumMap<>(CabinClass.class);
+    private final BitSet blockStart = new BitSet();
+    private final BitSet available = new BitSet();
+    private final BitSet held = new BitSet();
+    private final BitSet booked = new BitSet();
+    private final BitSet blocked = new BitSet();
+    private final UUID[] holdIds;
+    private final Map<UUID, int[]> seatsByHold = new HashMap<>();
+    
+    /**
+     * @param aisleAfter seat letters followed by an aisle, e.g. C in an ABC-DEF cabin
+     */
+    public FlightSeatMap(List<SeatMap> rows, Set<Character> aisleAfter) {
+        List<SeatMap> ordered = new ArrayList<>(rows);
+        ordered.sort(Comparator.comparingInt((SeatMap seat) -> row(seat.getSeatNo()))
+            .thenComparing(seat -> letter(seat.getSeatNo())));
+        int size = ordered.size();
+        this.seatNos = new String[size];
+        this.rowIds = new long[size];
+        this.fareClasses = new String[size];
+        this.holdIds = new UUID[size];
+        
+        for (int i = 0; i < size; i++) {
+            SeatMap seat = ordered.get(i);
+            seatNos[i] = seat.getSeatNo();
+            rowIds[i] = seat.getId() == null ? 0 : seat.getId();
+            fareClasses[i] = seat.getFareClass();
+            indexBySeat.put(seat.getSeatNo(), i);
+            cabins.computeIfAbsent(seat.getCabinClass(), cabin -> new BitSet()).set(i);
+            if (i == 0 || row(seatNos[i - 1]) != row(seat.getSeatNo())
+                || aisleAfter.contains(letter(seatNos[i - 1]))
+                || ordered.get(i - 1).getCabinClass() != seat.getCabinClass()) {
+                blockStart.set(i);
+            }
+            SeatStatus status = seat.getStatus() == null ? SeatStatus.AVAILABLE : seat.getStatus();
+            bits(status).set(i);
+            if (status == SeatStatus.HELD && seat.getCurrentHoldId() != null) {
+                holdIds[i] = seat.getCurrentHoldId();
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (holdIds[i] != null) {
+                seatsByHold.merge(holdIds[i], new int[]{i}, FlightSeatMap::concat);
+            }
+        }
+    }
+    
+    public boolean isEmpty() {
+        return seatNos.length == 0;
+    }
+    
+    /**
+     * Holds exactly these seats for {@code holdId}, or none of them.
+     *
+     * @return the changes to persist
+     * @throws BusinessException if a seat is not on the map or not available
+     */
+    public synchronized List<SeatChange> hold(List<String> seats, UUID holdId) {
+        int[] indexes = new int[seats.size()];
+        BitSet requested = new BitSet();
+        for (int i = 0; i < indexes.length; i++) {
+            Integer index = indexBySeat.get(seats.get(i));
+            if (index == null) {
+                throw new BusinessException("Seat " + seats.get(i) + " is not on the seat map");
+            }
+            if (requested.get(index)) {
+                throw new BusinessException("Seat " + seats.get(i) + " requested twice");
+            }
+            requested.set(index);
+            indexes[i] = index;
+        }
+        BitSet taken = (BitSet) requested.clone();
+        taken.andNot(available);
+        if (!taken.isEmpty()) {
+            throw new BusinessException("Seat " + seatNos[taken.nextSetBit(0)] + " is no longer available");
+        }
+        return take(indexes, holdId);
+    }
+    
+    /**
+     * The first {@code count} side-by-side available seats in the cabin, front of the
+     * cabin first, or null if no row has that many together.
+     */
+    public synchronized List<String> findAdjacent(CabinClass cabin, int count) {
+        BitSet cabinSeats = cabins.get(cabin);
+        if (cabinSeats == null || count < 1) {
+            return null;
+        }
+        BitSet free = (BitSet) available.clone();
+        free.and(cabinSeats);
+        int start = free.nextSetBit(0);
+        while (start >= 0) {
+            int runEnd = free.nextClearBit(start);
+            int nextBlock = blockStart.nextSetBit(start + 1);
+            int end = nextBlock >= 0 ? Math.min(runEnd, nextBlock) : runEnd;
+            if (end - start >= count) {
+                List<String> seats = new ArrayList<>(count);
+                for (int i = start; i < start + count; i++) {
+                    seats.add(seatNos[i]);
+                }
+                return seats;
+            }
+            start = free.nextSetBit(end);
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the seats of an active hold to the available pool.
+     */
+    public synchronized List<SeatChange> release(UUID holdId) {
+        int[] indexes = seatsByHold.remove(holdId);
+        if (indexes == null) {
+            return List.of();
+        }
+        List<SeatChange> changes = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            held.clear(index);
+            available.set(index);
+            holdIds[index] = null;
+            changes.add(new SeatChange(rowIds[index], SeatStatus.AVAILABLE, null, SeatStatus.HELD));
+        }
+        return changes;
+    }
+    
+    /**
+     * Seats per fare class, for debiting the matching inventory buckets.
+     */
+    public Map<String, Integer> fareClassSeats(List<String> seats) {
+        Map<String, Integer> buckets = new HashMap<>();
+        for (String seat : seats) {
+            Integer index = indexBySeat.get(seat);
+            if (index == null) {
+                throw new BusinessException("Seat " + seat + " is not on the seat map");
+            }
+            buckets.merge(fareClasses[index], 1, Integer::sum);
+        }
+        return buckets;
+    }
+    
+    synchronized SeatStatus status(String seatNo) {
+        int index = indexBySeat.get(seatNo);
+        if (held.get(index)) {
+            return SeatStatus.HELD;
+        }
+        if (booked.get(index)) {
+            return SeatStatus.BOOKED;
+        }
+        return blocked.get(index) ? SeatStatus.BLOCKED : SeatStatus.AVAILABLE;
+    }
+    
+    private List<SeatChange> take(int[] indexes, UUID holdId) {
+        List<SeatChange> changes = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            available.clear(index);
+            held.set(index);
+            holdIds[index] = holdId;
+            changes.add(new SeatChange(rowIds[index], SeatStatus.HELD, holdId, SeatStatus.AVAILABLE));
+        }
+        seatsByHold.put(holdId, indexes);
+        return changes;
+    }
+    
+    private BitSet bits(SeatStatus status) {
+        return switch (status) {
+            case AVAILABLE -> available;
+            case HELD -> held;
+            case BOOKED -> booked;
+            case BLOCKED -> blocked;
+        };
+    }
+    
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = new int[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+    
+    private static int row(String seatNo) {
+        int end = 0;
+        while (end < seatNo.length() && Character.isDigit(seatNo.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? 0 : Integer.parseInt(seatNo.substring(0, end));
+    }
+    
+    private static char letter(String seatNo) {
+        return seatNo.isEmpty() ? ' ' : seatNo.charAt(seatNo.length() - 1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.flightbooking.search.seatmap;
+
+import com.flightbooking.common.enums.SeatStatus;
+
+import java.util.UUID;
+
+/**
+ * A seat_map row moving from {@code expected} to {@code status}; the write is skipped
+ * if the row is no longer in the expected state.
+ */
+public record SeatChange(long id, SeatStatus status, UUID holdId, SeatStatus expected) {
+}
@@ -0,0 +1,94 @@
+package com.flightbooking.search.seatmap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Per-flight {@link FlightSeatMap}s loaded from {@code seat_map}, and the batched
+ * write that persists their changes.
+ *
+ * Cached maps are only authoritative for the node that writes the flight's holds
+ * (the sequencer owner). Every persisted change is conditional on the row's previous
+ * status, so a stale map makes the write fail instead of double-holding a seat; the
+ * caller then evicts the map and retries against a fresh load.
+ */
+@Component
+@Slf4j
+public class SeatMapEngine {
+    
+    private final SeatMapRepository seatMapRepository;
+    private final ObjectMapper objectMapper;
+    private final Set<Character> aisleAfter;
+    private final Cache<UUID, FlightSeatMap> maps;
+    
+    public SeatMapEngine(SeatMapRepository seatMapRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${search.seat-map.aisle-after:C,G}") List<String> aisleAfter,
+                         @Value("${search.seat-map.maximum-flights:2000}") long maximumFlights,
+                         @Value("${search.seat-map.ttl:10m}") Duration ttl) {
+        this.seatMapRepository = seatMapRepository;
+        this.objectMapper = objectMapper;
+        this.aisleAfter = aisleAfter.stream()
+            .map(String::trim)
+            .filter(letter -> !letter.isEmpty())
+            .map(letter -> letter.charAt(0))
+            .collect(Collectors.toUnmodifiableSet());
+        this.maps = Caffeine.newBuilder()
+            .maximumSize(maximumFlights)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+    
+    /**
+     * The cached map of a flight, loading it on first use; empty if the flight has
+     * no seat map.
+     */
+    public FlightSeatMap get(UUID flightId) {
+        return maps.get(flightId, this::load);
+    }
+    
+    /**
+     * A fresh map of the flight from Postgres, bypassing the cache.
+     */
+    public FlightSeatMap load(UUID flightId) {
+        var rows = seatMapRepository.findByFlightId(flightId);
+        return rows.isEmpty() ? FlightSeatMap.EMPTY : new FlightSeatMap(rows, aisleAfter);
+    }
+    
+    public void evict(UUID flightId) {
+        maps.invalidate(flightId);
+    }
+    
+    /**
+     * Writes seat changes in one statement.
+     *
+     * @throws IllegalStateException if a row was no longer in its expected state
+     */
+    public void persist(List<SeatChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        int updated;
+        try {
+            updated = seatMapRepository.applyChanges(objectMapper.writeValueAsString(changes));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write seat changes", e);
+        }
+        if (updated < changes.size()) {
+            throw new IllegalStateException("Seat map changed concurrently, " + (changes.size() - updated)
+                + " of " + changes.size() + " seat changes did not apply");
+        }
+    }
+}
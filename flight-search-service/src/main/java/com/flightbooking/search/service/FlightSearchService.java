@@ -4,6 +4,7 @@ import com.flightbooking.search.dto.*;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service interface for flight search operations.
@@ -16,6 +17,16 @@ public interface FlightSearchService {
      */
     List<FlightSearchResponse> searchFlights(FlightSearchRequest request);
     
+    /**
+     * Search flights returning one sorted page, continuing after the request cursor
+     */
+    FlightSearchPage searchFlightPage(FlightSearchRequest request);
+    
+    /**
+     * Search flights emitting each result to the sink as soon as it is produced
+     */
+    void streamFlights(FlightSearchRequest request, Consumer<FlightSearchResponse> sink);
+    
     /**
      * Get flight details by ID
      */
@@ -0,0 +1,16 @@
+package com.flightbooking.search.service;
+
+import com.flightbooking.search.dto.LowFareCalendarRequest;
+import com.flightbooking.search.dto.LowFareCalendarResponse;
+
+/**
+ * Service interface for flexible-date fare lookups.
+ * Reads pre-aggregated per route/day minimum fares rather than running searches.
+ */
+public interface LowFareCalendarService {
+    
+    /**
+     * Lowest fare per day and cabin for a route over a date window
+     */
+    LowFareCalendarResponse getCalendar(LowFareCalendarRequest request);
+}
@@ -1,10 +1,28 @@
 package com.flightbooking.search.service;
 
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.search.dto.SeatHoldResponse;
+
 import java.util.List;
 import java.util.UUID;
 
 public interface SeatHoldService {
-    UUID holdSeats(UUID flightId, String sessionId, List<String> seats, Integer durationMinutes);
+    /**
+     * Holds seats, debiting {@code fareClass} or, when null, the fare classes of the
+     * chosen seats on the seat map.
+     */
+    UUID holdSeats(UUID flightId, String sessionId, List<String> seats, String fareClass, Integer durationMinutes);
+    
+    default UUID holdSeats(UUID flightId, String sessionId, List<String> seats, Integer durationMinutes) {
+        return holdSeats(flightId, sessionId, seats, null, durationMinutes);
+    }
+    
+    /**
+     * Holds {@code count} side-by-side seats in the cabin, front of the cabin first.
+     */
+    SeatHoldResponse holdAdjacentSeats(UUID flightId, String sessionId, CabinClass cabinClass, int count,
+                                       Integer durationMinutes);
+    
     void releaseHold(UUID holdId);
     void confirmHold(UUID holdId);
     void releaseExpiredHolds();
@@ -1,29 +1,50 @@
 package com.flightbooking.search.service.impl;
 
 import com.flightbooking.common.exception.ResourceNotFoundException;
+import com.flightbooking.search.availability.FlightAvailabilityIndex;
 import com.flightbooking.search.dto.*;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.facets.FacetCollector;
+import com.flightbooking.search.index.FlightReindexer;
+import com.flightbooking.search.itinerary.ConnectionBuilder;
 import com.flightbooking.search.mapper.FlightMapper;
 import com.flightbooking.search.model.Flight;
 import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.model.FlightFare;
 import com.flightbooking.search.model.SeatInventory;
-import com.flightbooking.search.repository.FlightDocumentRepository;
+import com.flightbooking.search.paging.FlightPageCollector;
 import com.flightbooking.search.repository.FlightRepository;
 import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.routes.RouteExistenceFilter;
 import com.flightbooking.search.service.FlightSearchService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,38 +53,274 @@ public class FlightSearchServiceImpl implements FlightSearchService {
     
     private final FlightRepository flightRepository;
     private final SeatInventoryRepository seatInventoryRepository;
-    private final FlightDocumentRepository flightDocumentRepository;
     private final ElasticsearchOperations elasticsearchOperations;
     private final FlightMapper flightMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FlightReindexer flightReindexer;
+    private final ConnectionBuilder connectionBuilder;
+    private final FlightAvailabilityIndex availabilityIndex;
+    private final RouteExistenceFilter routeExistenceFilter;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    
+    @Value("${search.facets.price-bucket-width:1000}")
+    private BigDecimal priceBucketWidth;
+    
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final Comparator<FlightSearchResponse> RESULT_ORDER = Comparator
+        .comparing(FlightSearchResponse::getDepartureTime)
+        .thenComparing(FlightSearchResponse::getPrice);
 
     @Override
-    @Cacheable(value = "flightSearch", key = "#request.origin + '-' + #request.destination + '-' + #request.departureDate + '-' + #request.passengers")
+    @Cacheable(value = "flightSearch", key = "T(com.flightbooking.search.cache.FlightSearchCacheKeys).searchKey(#request)",
+               condition = "!@flightAvailabilityIndex.ready and @routeExistenceFilter.mayHaveResults(#request)",
+               sync = true)
+    @CircuitBreaker(name = "elasticsearchSearch", fallbackMethod = "searchFlightsFromDatabase")
     public List<FlightSearchResponse> searchFlights(FlightSearchRequest request) {
         log.info("Searching flights: {} to {} on {}", request.getOrigin(), 
                  request.getDestination(), request.getDepartureDate());
         
+        // Routes we do not serve skip the cache entirely so bots and typos cannot fill it
+        if (!routeExistenceFilter.admit(request)) {
+            return List.of();
+        }
+        
+        List<FlightSearchResponse> nonstop = new ArrayList<>();
+        // The in-memory index is patched on every inventory change, so it bypasses the cache too
+        if (availabilityIndex.isReady()) {
+            availabilityIndex.search(request, nonstop::add);
+        } else {
+            searchNonstopInElasticsearch(request, nonstop::add);
+        }
+        return withConnections(request, nonstop);
+    }
+    
+    @Override
+    @Cacheable(value = "flightSearchPages", key = "T(com.flightbooking.search.cache.FlightSearchCacheKeys).pageKey(#request)",
+               condition = "!@flightAvailabilityIndex.ready and @routeExistenceFilter.mayHaveResults(#request)",
+               sync = true)
+    @CircuitBreaker(name = "elasticsearchSearch", fallbackMethod = "searchFlightPageFromDatabase")
+    public FlightSearchPage searchFlightPage(FlightSearchRequest request) {
+        log.info("Searching flight page: {} to {} on {} by {}", request.getOrigin(),
+                 request.getDestination(), request.getDepartureDate(), request.getSort());
+        
+        if (!routeExistenceFilter.admit(request)) {
+            return emptyPage(request);
+        }
+        
+        return collectPage(request, sink -> {
+            if (availabilityIndex.isReady()) {
+                availabilityIndex.search(request, sink);
+            } else {
+                searchNonstopInElasticsearch(request, sink);
+            }
+        });
+    }
+    
+    /**
+     * Feeds nonstop results from {@code nonstop} and then connections through top-K page
+     * selection and, if requested, facet counting in a single pass.
+     */
+    private FlightSearchPage collectPage(FlightSearchRequest request,
+                                         Consumer<Consumer<FlightSearchResponse>> nonstop) {
+        FlightPageCollector page = new FlightPageCollector(request.getSort(), request.getPageSize(), request.getCursor());
+        FacetCollector facets = Boolean.TRUE.equals(request.getIncludeFacets())
+            ? new FacetCollector(priceBucketWidth)
+            : null;
+        Consumer<FlightSearchResponse> sink = facets == null ? page : page.andThen(facets);
+        
+        nonstop.accept(sink);
+        connectionBuilder.search(request).forEach(sink);
+        
+        FlightSearchPage result = page.toPage();
+        if (facets != null) {
+            result.setFacets(facets.toFacets());
+        }
+        return result;
+    }
+    
+    private FlightSearchPage emptyPage(FlightSearchRequest request) {
+        FlightSearchPage page = new FlightPageCollector(request.getSort(), request.getPageSize(), request.getCursor())
+            .toPage();
+        if (Boolean.TRUE.equals(request.getIncludeFacets())) {
+            page.setFacets(new FacetCollector(priceBucketWidth).toFacets());
+        }
+        return page;
+    }
+    
+    @Override
+    public void streamFlights(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        log.info("Streaming flights: {} to {} on {}", request.getOrigin(),
+                 request.getDestination(), request.getDepartureDate());
+        
+        if (!routeExistenceFilter.admit(request)) {
+            return;
+        }
+        if (availabilityIndex.isReady()) {
+            availabilityIndex.search(request, sink);
+        } else {
+            streamNonstop(request, sink);
+        }
+        connectionBuilder.search(request).forEach(sink);
+    }
+    
+    /**
+     * Streams nonstop rows from Elasticsearch through the search circuit breaker, falling
+     * back to the database only while nothing has been emitted yet: once rows reached the
+     * client, switching source mid-stream would repeat them.
+     */
+    private void streamNonstop(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        AtomicLong emitted = new AtomicLong();
+        try {
+            circuitBreakerRegistry.circuitBreaker("elasticsearchSearch").executeRunnable(() ->
+                streamNonstopFromElasticsearch(request, row -> {
+                    emitted.incrementAndGet();
+                    sink.accept(row);
+                }));
+        } catch (RuntimeException e) {
+            if (emitted.get() > 0) {
+                throw e;
+            }
+            log.warn("Elasticsearch search unavailable, streaming from database: {}", e.getMessage());
+            streamNonstopFromDatabase(request, sink);
+        }
+    }
+    
+    private void streamNonstopFromElasticsearch(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        NativeQuery query = nonstopQuery(request)
+            .withPageable(PageRequest.of(0, STREAM_BATCH_SIZE))
+            .build();
+        
+        try (SearchHitsIterator<FlightDocument> hits = elasticsearchOperations.searchForStream(query, FlightDocument.class)) {
+            hits.stream()
+                .map(SearchHit::getContent)
+                .forEach(doc -> doc.getFares().stream()
+                    .filter(fare -> matches(fare, request))
+                    .forEach(fare -> sink.accept(flightMapper.toSearchResponse(doc, fare))));
+        }
+    }
+    
+    private void streamNonstopFromDatabase(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        LocalDateTime startTime = request.getDepartureDate().atStartOfDay();
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<FlightFare> fares = flightRepository.streamFlightFaresByRoute(request.getOrigin(),
+                    request.getDestination(), startTime, startTime.plusDays(1),
+                    request.getPassengers(), request.getCabinClass())) {
+                AtomicLong rows = new AtomicLong();
+                fares.forEach(fare -> {
+                    sink.accept(flightMapper.toSearchResponse(fare.getFlight(), fare.getInventory()));
+                    // Detach streamed entities so the persistence context stays bounded
+                    if (rows.incrementAndGet() % STREAM_BATCH_SIZE == 0) {
+                        entityManager.clear();
+                    }
+                });
+            }
+        });
+    }
+    
+    /**
+     * Feeds every matching nonstop row to {@code sink}, reading Elasticsearch in
+     * {@code search_after} batches so a busy route/day is never cut off at a fixed
+     * result window, and the list agrees with the database fallback, which returns
+     * every row. Fares are stored cheapest first, so rows come in departure, then price
+     * order.
+     */
+    private void searchNonstopInElasticsearch(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
+        List<Object> searchAfter = null;
+        List<SearchHit<FlightDocument>> batch;
+        do {
+            NativeQueryBuilder query = nonstopQuery(request)
+                .withSort(Sort.by("flightId"))
+                .withPageable(PageRequest.of(0, STREAM_BATCH_SIZE));
+            if (searchAfter != null) {
+                query.withSearchAfter(searchAfter);
+            }
+            batch = elasticsearchOperations.search(query.build(), FlightDocument.class).getSearchHits();
+            batch.forEach(hit -> hit.getContent().getFares().stream()
+                .filter(fare -> matches(fare, request))
+                .forEach(fare -> sink.accept(flightMapper.toSearchResponse(hit.getContent(), fare))));
+            if (!batch.isEmpty()) {
+                searchAfter = batch.get(batch.size() - 1).getSortValues();
+            }
+        } while (batch.size() == STREAM_BATCH_SIZE);
+    }
+    
+    private NativeQueryBuilder nonstopQuery(FlightSearchRequest request) {
+        LocalDateTime startTime = request.getDepartureDate().atStartOfDay();
+        LocalDateTime endTime = startTime.plusDays(1);
+        
+        return NativeQuery.builder()
+            .withQuery(q -> q.bool(b -> {
+                b.filter(f -> f.term(t -> t.field("origin").value(request.getOrigin())));
+                b.filter(f -> f.term(t -> t.field("destination").value(request.getDestination())));
+                b.filter(f -> f.range(r -> r.date(d -> d.field("departureTime")
+                    .gte(startTime.toString())
+                    .lt(endTime.toString()))));
+                // Seats and cabin must match on the same fare bucket
+                b.filter(f -> f.nested(n -> n.path("fares").query(fq -> fq.bool(fb -> {
+                    fb.filter(ff -> ff.range(r -> r.number(num -> num.field("fares.availableSeats")
+                        .gte(request.getPassengers().doubleValue()))));
+                    if (request.getCabinClass() != null) {
+                        fb.filter(ff -> ff.term(t -> t.field("fares.cabinClass")
+                            .value(request.getCabinClass().name())));
+                    }
+                    return fb;
+                }))));
+                return b;
+            }))
+            .withSort(Sort.by("departureTime"));
+    }
+    
+    private boolean matches(FlightDocument.FareInfo fare, FlightSearchRequest request) {
+        return fare.getAvailableSeats() >= request.getPassengers()
+            && (request.getCabinClass() == null || request.getCabinClass() == fare.getCabinClass());
+    }
+    
+    private List<FlightSearchResponse> searchFlightsFromDatabase(FlightSearchRequest request, Throwable cause) {
+        log.warn("Elasticsearch search unavailable, falling back to database: {}", cause.getMessage());
+        
+        List<FlightSearchResponse> nonstop = new ArrayList<>();
+        searchNonstopInDatabase(request, nonstop::add);
+        return withConnections(request, nonstop);
+    }
+    
+    private FlightSearchPage searchFlightPageFromDatabase(FlightSearchRequest request, Throwable cause) {
+        log.warn("Elasticsearch search unavailable, falling back to database: {}", cause.getMessage());
+        
+        return collectPage(request, sink -> searchNonstopInDatabase(request, sink));
+    }
+    
+    private void searchNonstopInDatabase(FlightSearchRequest request, Consumer<FlightSearchResponse> sink) {
         LocalDateTime startTime = request.getDepartureDate().atStartOfDay();
         LocalDateTime endTime = startTime.plusDays(1);
         
-        // Search from database as fallback
-        List<Flight> flights = flightRepository.findFlightsByRoute(
+        List<FlightFare> fares = flightRepository.findFlightFaresByRoute(
             request.getOrigin(), 
             request.getDestination(), 
             startTime, 
-            endTime
+            endTime,
+            request.getPassengers(),
+            request.getCabinClass()
         );
         
-        return flights.stream()
-            .flatMap(flight -> {
-                List<SeatInventory> inventory = seatInventoryRepository.findByFlightId(flight.getFlightId());
-                return inventory.stream()
-                    .filter(inv -> inv.getAvailableSeats() >= request.getPassengers())
-                    .filter(inv -> request.getCabinClass() == null || 
-                                   inv.getCabinClass() == request.getCabinClass())
-                    .map(inv -> flightMapper.toDocument(flight, inv))
-                    .map(flightMapper::toSearchResponse);
-            })
-            .collect(Collectors.toList());
+        fares.forEach(fare -> sink.accept(flightMapper.toSearchResponse(fare.getFlight(), fare.getInventory())));
+    }
+    
+    /**
+     * Merges connecting itineraries into the nonstop results when the request allows stops.
+     */
+    private List<FlightSearchResponse> withConnections(FlightSearchRequest request,
+                                                       List<FlightSearchResponse> nonstop) {
+        List<FlightSearchResponse> connections = connectionBuilder.search(request);
+        if (connections.isEmpty()) {
+            return nonstop;
+        }
+        List<FlightSearchResponse> merged = new ArrayList<>(nonstop);
+        merged.addAll(connections);
+        merged.sort(RESULT_ORDER);
+        return merged;
     }
     
     @Override
@@ -78,21 +335,8 @@ public class FlightSearchServiceImpl implements FlightSearchService {
     }
     
     @Override
-    @Transactional
     public void syncFlightsToElasticsearch() {
-        log.info("Starting flight sync to Elasticsearch");
-        
-        List<Flight> flights = flightRepository.findAll();
-        
-        for (Flight flight : flights) {
-            List<SeatInventory> inventory = seatInventoryRepository.findByFlightId(flight.getFlightId());
-            for (SeatInventory inv : inventory) {
-                FlightDocument doc = flightMapper.toDocument(flight, inv);
-                flightDocumentRepository.save(doc);
-            }
-        }
-        
-        log.info("Completed syncing {} flights to Elasticsearch", flights.size());
+        flightReindexer.reindex();
     }
     
     @Override
@@ -111,6 +355,7 @@ public class FlightSearchServiceImpl implements FlightSearchService {
         flight.setIsActive(true);
         
         flight = flightRepository.save(flight);
+        routeExistenceFilter.register(flight.getDepartureAirport(), flight.getArrivalAirport());
         
         return new FlightCreatedResponse(flight.getFlightId(), flight.getFlightNumber(), 
                                          "Flight created successfully");
@@ -121,7 +366,7 @@ public class FlightSearchServiceImpl implements FlightSearchService {
     public void addInventory(AddInventoryRequest request) {
         log.info("Adding inventory for flight: {}", request.getFlightId());
         
-        Flight flight = flightRepository.findById(request.getFlightId())
+        flightRepository.findById(request.getFlightId())
             .orElseThrow(() -> new ResourceNotFoundException("Flight not found: " + request.getFlightId()));
         
         SeatInventory inventory = new SeatInventory();
@@ -133,10 +378,8 @@ public class FlightSearchServiceImpl implements FlightSearchService {
         inventory.setPrice(request.getPrice());
         
         seatInventoryRepository.save(inventory);
-        
-        // Auto-sync to Elasticsearch
-        FlightDocument doc = flightMapper.toDocument(flight, inventory);
-        flightDocumentRepository.save(doc);
+        // Picked up by the search index outbox relay once this transaction commits
+        eventPublisher.publishEvent(new InventoryChangedEvent(request.getFlightId()));
         
         log.info("Inventory added successfully");
     }
@@ -0,0 +1,68 @@
+package com.flightbooking.search.service.impl;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.LowFareCalendarRequest;
+import com.flightbooking.search.dto.LowFareCalendarResponse;
+import com.flightbooking.search.model.RouteDayFare;
+import com.flightbooking.search.repository.RouteDayFareRepository;
+import com.flightbooking.search.service.LowFareCalendarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LowFareCalendarServiceImpl implements LowFareCalendarService {
+    
+    private final RouteDayFareRepository routeDayFareRepository;
+    
+    @Value("${search.calendar.max-window-days:60}")
+    private int maxWindowDays;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public LowFareCalendarResponse getCalendar(LowFareCalendarRequest request) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("endDate must not be before startDate");
+        }
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > maxWindowDays) {
+            throw new BusinessException("Calendar window must not exceed " + maxWindowDays + " days");
+        }
+        log.debug("Low-fare calendar: {} to {} from {} to {}", request.getOrigin(),
+                  request.getDestination(), startDate, endDate);
+        
+        // One indexed range read; never a search per day
+        Map<LocalDate, Map<CabinClass, BigDecimal>> faresByDay = new HashMap<>();
+        for (RouteDayFare fare : routeDayFareRepository.findByOriginAndDestinationAndDepartureDateBetweenOrderByDepartureDateAsc(
+                request.getOrigin(), request.getDestination(), startDate, endDate)) {
+            if (request.getCabinClass() == null || request.getCabinClass() == fare.getCabinClass()) {
+                faresByDay.computeIfAbsent(fare.getDepartureDate(), day -> new EnumMap<>(CabinClass.class))
+                    .put(fare.getCabinClass(), fare.getMinPrice());
+            }
+        }
+        
+        List<LowFareCalendarResponse.CalendarDay> calendar = new ArrayList<>((int) days);
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Map<CabinClass, BigDecimal> cabinFares = faresByDay.getOrDefault(day, Map.of());
+            BigDecimal lowest = cabinFares.values().stream().min(BigDecimal::compareTo).orElse(null);
+            calendar.add(new LowFareCalendarResponse.CalendarDay(day, lowest, cabinFares));
+        }
+        return new LowFareCalendarResponse(request.getOrigin(), request.getDestination(), "INR", calendar);
+    }
+}
@@ -1,17 +1,30 @@
 package com.flightbooking.search.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.common.enums.CabinClass;
 import com.flightbooking.common.enums.HoldStatus;
 import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.SeatHoldResponse;
+import com.flightbooking.search.event.HoldPlacedEvent;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.holds.FareClassResolver;
 import com.flightbooking.search.model.InventoryHold;
 import com.flightbooking.search.model.SeatInventory;
 import com.flightbooking.search.repository.InventoryHoldRepository;
 import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.flightbooking.search.seatmap.FlightSeatMap;
+import com.flightbooking.search.seatmap.SeatMapEngine;
 import com.flightbooking.search.service.SeatHoldService;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -20,8 +33,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,45 +51,87 @@ public class SeatHoldServiceImpl implements SeatHoldService {
     private final InventoryHoldRepository holdRepository;
     private final SeatInventoryRepository inventoryRepository;
     private final RedissonClient redissonClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FareClassResolver fareClassResolver;
+    private final SeatMapRepository seatMapRepository;
+    private final SeatMapEngine seatMapEngine;
+    private final ObjectMapper objectMapper;
     
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     @Retryable(
-        retryFor = {OptimisticLockException.class},
+        retryFor = {OptimisticLockException.class, ConcurrencyFailureException.class},
         maxAttempts = 3,
         backoff = @Backoff(delay = 100, multiplier = 2)
     )
-    public UUID holdSeats(UUID flightId, String sessionId, List<String> seats, Integer durationMinutes) {
-        String lockKey = "seat-hold:" + flightId;
-        RLock lock = redissonClient.getLock(lockKey);
+    public UUID holdSeats(UUID flightId, String sessionId, List<String> seats, String fareClass,
+                          Integer durationMinutes) {
+        return hold(flightId, sessionId, seats, fareClass, durationMinutes);
+    }
+    
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Retryable(
+        retryFor = {OptimisticLockException.class, ConcurrencyFailureException.class},
+        maxAttempts = 3,
+        backoff = @Backoff(delay = 100, multiplier = 2)
+    )
+    public SeatHoldResponse holdAdjacentSeats(UUID flightId, String sessionId, CabinClass cabinClass, int count,
+                                              Integer durationMinutes) {
+        FlightSeatMap seatMap = seatMapEngine.load(flightId);
+        if (seatMap.isEmpty()) {
+            throw new BusinessException("Flight has no seat map");
+        }
+        List<String> seats = seatMap.findAdjacent(cabinClass, count);
+        if (seats == null) {
+            throw new BusinessException("No " + count + " adjacent seats available in " + cabinClass);
+        }
+        // A seat taken since the map was read fails the conditional seat update below
+        return new SeatHoldResponse(hold(flightId, sessionId, seats, null, durationMinutes), seats);
+    }
+    
+    private UUID hold(UUID flightId, String sessionId, List<String> seats, String fareClass, Integer durationMinutes) {
+        SortedMap<String, Integer> buckets = fareClassResolver.resolve(flightId, seats, fareClass);
+        List<SeatInventory> inventories = inventoryRepository.findByFlightId(flightId);
+        if (inventories.isEmpty()) {
+            throw new BusinessException("No inventory found for flight");
+        }
+        Set<String> fareClasses = inventories.stream().map(SeatInventory::getFareClass).collect(Collectors.toSet());
+        if (!fareClasses.containsAll(buckets.keySet())) {
+            throw new BusinessException("Unknown fare class for flight");
+        }
         
+        RLock lock = bucketLock(flightId, new TreeSet<>(buckets.keySet()));
         try {
             if (lock.tryLock(5, 10, TimeUnit.SECONDS)) {
                 try {
-                    log.info("Holding {} seats for flight: {}", seats.size(), flightId);
+                    log.info("Holding {} seats in {} for flight: {}", seats.size(), buckets, flightId);
                     
-                    List<SeatInventory> inventories = inventoryRepository.findByFlightId(flightId);
-                    if (inventories.isEmpty()) {
-                        throw new BusinessException("No inventory found for flight");
-                    }
-                    
-                    SeatInventory inventory = inventories.get(0);
-                    if (inventory.getAvailableSeats() < seats.size()) {
+                    // The statement skips buckets without enough seats; rolling back
+                    // undoes the ones it did debit
+                    int debited = inventoryRepository.adjustAvailableSeats(flightId, seatDeltas(buckets, -1));
+                    if (debited < buckets.size()) {
                         throw new BusinessException("Insufficient seats available");
                     }
                     
-                    inventory.setAvailableSeats(inventory.getAvailableSeats() - seats.size());
-                    inventoryRepository.save(inventory);
-                    
                     InventoryHold hold = new InventoryHold();
                     hold.setFlightId(flightId);
                     hold.setCustomerSessionId(sessionId);
                     hold.setSeatCount(seats.size());
                     hold.setSeats(seats);
+                    hold.setFareClassSeats(buckets);
                     hold.setExpiresAt(LocalDateTime.now().plusMinutes(durationMinutes));
                     hold.setStatus(HoldStatus.ACTIVE);
                     hold = holdRepository.save(hold);
                     
+                    int seatsHeld = seatMapRepository.holdSeats(flightId, seats, hold.getHoldId());
+                    if (seatsHeld < seats.size()
+                        && seatMapRepository.findByFlightIdAndSeatNoIn(flightId, seats).size() > seatsHeld) {
+                        throw new BusinessException("Requested seats are no longer available");
+                    }
+                    eventPublisher.publishEvent(new InventoryChangedEvent(flightId));
+                    eventPublisher.publishEvent(new HoldPlacedEvent(hold.getHoldId(), hold.getExpiresAt()));
+                    
                     log.info("Seats held successfully: {}", hold.getHoldId());
                     return hold.getHoldId();
                 } finally {
@@ -99,25 +161,37 @@ public class SeatHoldServiceImpl implements SeatHoldService {
             return;
         }
         
-        String lockKey = "seat-hold:" + hold.getFlightId();
-        RLock lock = redissonClient.getLock(lockKey);
+        Map<String, Integer> buckets = hold.getFareClassSeats();
+        if (buckets == null || buckets.isEmpty()) {
+            // Held before buckets were recorded; credit the fare classes of its seats
+            buckets = fareClassResolver.resolve(hold.getFlightId(), hold.getSeats(), null);
+        }
         
+        RLock lock = bucketLock(hold.getFlightId(), new TreeSet<>(buckets.keySet()));
         try {
             if (lock.tryLock(5, 10, TimeUnit.SECONDS)) {
                 try {
-                    List<SeatInventory> inventories = inventoryRepository.findByFlightId(hold.getFlightId());
-                    if (!inventories.isEmpty()) {
-                        SeatInventory inventory = inventories.get(0);
-                        inventory.setAvailableSeats(inventory.getAvailableSeats() + hold.getSeatCount());
-                        inventoryRepository.save(inventory);
+                    // Another node (or the expiry job) may have released it since it
+                    // was read; only the one that moves it off ACTIVE returns the seats
+                    if (holdRepository.updateStatusIfActive(holdId, HoldStatus.RELEASED) == 0) {
+                        return;
                     }
-                    
                     hold.setStatus(HoldStatus.RELEASED);
-                    holdRepository.save(hold);
+                    
+                    if (!buckets.isEmpty()) {
+                        inventoryRepository.adjustAvailableSeats(hold.getFlightId(), seatDeltas(buckets, 1));
+                    }
+                    
+                    seatMapRepository.releaseSeats(hold.getFlightId(), holdId);
+                    
+                    eventPublisher.publishEvent(new InventoryChangedEvent(hold.getFlightId()));
                     log.info("Hold released: {}", holdId);
                 } finally {
                     lock.unlock();
                 }
+            } else {
+                // Not a business outcome: the hold is still active and must be retried
+                throw new CannotAcquireLockException("Unable to acquire lock for hold release");
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -131,8 +205,16 @@ public class SeatHoldServiceImpl implements SeatHoldService {
         InventoryHold hold = holdRepository.findById(holdId)
             .orElseThrow(() -> new BusinessException("Hold not found"));
         
+        if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("Hold has expired");
+        }
+        // Conditional, so a confirm racing a release cannot revive a hold whose seats
+        // were already credited back
+        if (holdRepository.updateStatusIfActive(holdId, HoldStatus.CONFIRMED) == 0) {
+            throw new BusinessException("Hold is no longer active");
+        }
         hold.setStatus(HoldStatus.CONFIRMED);
-        holdRepository.save(hold);
+        seatMapRepository.bookSeats(hold.getFlightId(), holdId);
         log.info("Hold confirmed: {}", holdId);
     }
     
@@ -151,4 +233,29 @@ public class SeatHoldServiceImpl implements SeatHoldService {
         
         log.info("Released {} expired holds", expiredHolds.size());
     }
+    
+    /**
+     * One lock per (flight, fare class), so holds in different buckets of the same
+     * flight don't wait on each other. Several buckets are locked together, in fare
+     * class order.
+     */
+    private RLock bucketLock(UUID flightId, SortedSet<String> fareClasses) {
+        if (fareClasses.isEmpty()) {
+            return redissonClient.getLock("seat-hold:" + flightId);
+        }
+        RLock[] locks = fareClasses.stream()
+            .map(fareClass -> redissonClient.getLock("seat-hold:" + flightId + ":" + fareClass))
+            .toArray(RLock[]::new);
+        return locks.length == 1 ? locks[0] : redissonClient.getMultiLock(locks);
+    }
+    
+    private String seatDeltas(Map<String, Integer> buckets, int sign) {
+        Map<String, Integer> deltas = new TreeMap<>();
+        buckets.forEach((fareClass, seats) -> deltas.put(fareClass, sign * seats));
+        try {
+            return objectMapper.writeValueAsString(deltas);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write seat deltas", e);
+        }
+    }
 }
@@ -0,0 +1,79 @@
+package com.flightbooking.search.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.search.dto.FlightSearchResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes search results to a response stream one row at a time, as newline-delimited
+ * JSON or as server-sent events.
+ *
+ * The first row is flushed immediately so clients see results as soon as the engine
+ * produces one; after that the stream is flushed every {@code flushEvery} rows. Nothing
+ * is retained between rows, so memory per request does not grow with the result count.
+ * A write failure (typically the client going away) aborts the search that feeds it.
+ */
+public class FlightResultWriter implements Consumer<FlightSearchResponse> {
+    
+    public enum Format {
+        NDJSON,
+        SSE
+    }
+    
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_PREFIX = "event: flight\ndata: ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_SUFFIX = "\n\n".getBytes(StandardCharsets.UTF_8);
+    
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+    private final Format format;
+    private final int flushEvery;
+    private long written;
+    
+    public FlightResultWriter(OutputStream out, ObjectMapper objectMapper, Format format, int flushEvery) {
+        this.out = out;
+        this.objectMapper = objectMapper;
+        this.format = format;
+        this.flushEvery = flushEvery;
+    }
+    
+    @Override
+    public void accept(FlightSearchResponse response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            if (format == Format.SSE) {
+                out.write(EVENT_PREFIX);
+                out.write(json);
+                out.write(EVENT_SUFFIX);
+            } else {
+                out.write(json);
+                out.write(NEWLINE);
+            }
+            written++;
+            if (written == 1 || written % flushEvery == 0) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Ends the stream; SSE clients get a closing {@code end} event with the row count.
+     */
+    public void finish() throws IOException {
+        if (format == Format.SSE) {
+            out.write(("event: end\ndata: {\"count\":" + written + "}\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+        out.flush();
+    }
+    
+    public long getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,119 @@
+package com.flightbooking.search.traffic;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory frequency sketch: {@code depth} rows of {@code width} counters, each
+ * key incrementing one counter per row. The estimate is the smallest of its counters,
+ * which never undercounts and overcounts by at most {@code e / width} of all recorded
+ * events with probability {@code 1 - e^-depth}.
+ *
+ * Counters are updated with atomic adds, so recording takes no locks and allocates
+ * nothing. Sketches with the same dimensions merge by adding counters, which is how
+ * per-node sketches combine into a cluster view.
+ */
+public class CountMinSketch {
+    
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicLongArray counters;
+    private final LongAdder total = new LongAdder();
+    
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.mask = this.width - 1;
+        this.counters = new AtomicLongArray(depth * this.width);
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public long getTotal() {
+        return total.sum();
+    }
+    
+    /**
+     * Upper bound on how far any estimate may exceed the true count.
+     */
+    public double errorBound() {
+        return Math.E / width * getTotal();
+    }
+    
+    /**
+     * Counts one occurrence of {@code hash} and returns its new estimate.
+     */
+    public long add(long hash) {
+        total.increment();
+        long estimate = Long.MAX_VALUE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+    
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(row * width + ((h1 + row * h2) & mask)));
+        }
+        return estimate;
+    }
+    
+    /**
+     * Halves every counter so old traffic fades. Increments racing with this are
+     * halved or not depending on timing, which is within the sketch's error anyway.
+     */
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+        long current = total.sumThenReset();
+        total.add(current >>> 1);
+    }
+    
+    /**
+     * Adds the counters of a sketch written by {@link #toBytes()} with the same dimensions.
+     */
+    public void merge(ByteBuffer serialized) {
+        int otherDepth = serialized.getInt();
+        int otherWidth = serialized.getInt();
+        if (otherDepth != depth || otherWidth != width) {
+            throw new IllegalArgumentException("Cannot merge a " + otherDepth + "x" + otherWidth
+                + " sketch into a " + depth + "x" + width + " sketch");
+        }
+        total.add(serialized.getLong());
+        for (int i = 0; i < counters.length(); i++) {
+            counters.addAndGet(i, serialized.getLong());
+        }
+    }
+    
+    /**
+     * Dimensions, total and counters, in the layout {@link #merge(ByteBuffer)} reads.
+     */
+    public void writeTo(ByteBuffer out) {
+        out.putInt(depth).putInt(width).putLong(getTotal());
+        for (int i = 0; i < counters.length(); i++) {
+            out.putLong(counters.get(i));
+        }
+    }
+    
+    public int serializedSize() {
+        return Integer.BYTES * 2 + Long.BYTES * (1 + counters.length());
+    }
+}
@@ -0,0 +1,124 @@
+package com.flightbooking.search.traffic;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@code k} route/days with the highest estimates in a {@link CountMinSketch}.
+ *
+ * Only keys are kept; counts are always read from the sketch. A search that is already
+ * tracked, or whose estimate is below the smallest tracked one, returns after a scan
+ * of {@code k} longs without locking or allocating. The lock is taken only to admit a
+ * new key, which evicts the key with the lowest current estimate.
+ */
+public class HeavyHitters {
+    
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final long[] hashes;
+    private final RouteDayKey[] keys;
+    private int size;
+    private volatile long admissionThreshold;
+    
+    public HeavyHitters(CountMinSketch sketch, int capacity) {
+        this.sketch = sketch;
+        this.capacity = capacity;
+        this.hashes = new long[capacity];
+        this.keys = new RouteDayKey[capacity];
+    }
+    
+    /**
+     * Records one search in the sketch and admits the route/day if it became a heavy hitter.
+     */
+    public void record(String origin, String destination, LocalDate departureDate) {
+        long hash = RouteDayKey.hash(origin, destination, departureDate);
+        long estimate = sketch.add(hash);
+        if (estimate < admissionThreshold || isTracked(hash)) {
+            return;
+        }
+        admit(hash, estimate, new RouteDayKey(origin, destination, departureDate));
+    }
+    
+    /**
+     * Considers a key known elsewhere, such as another node's heavy hitter, for
+     * admission using its estimate in this sketch.
+     */
+    public void offer(RouteDayKey key) {
+        long hash = key.hash();
+        long estimate = sketch.estimate(hash);
+        if (estimate > 0 && estimate >= admissionThreshold && !isTracked(hash)) {
+            admit(hash, estimate, key);
+        }
+    }
+    
+    public synchronized List<HeavyHitter> top() {
+        List<HeavyHitter> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(new HeavyHitter(keys[i], sketch.estimate(hashes[i])));
+        }
+        top.sort(Comparator.comparingLong(HeavyHitter::estimatedSearches).reversed());
+        return top;
+    }
+    
+    /**
+     * Lowers the admission bar after the sketch was halved.
+     */
+    public synchronized void halveThreshold() {
+        admissionThreshold >>>= 1;
+    }
+    
+    private boolean isTracked(long hash) {
+        // Unsynchronized read: a stale miss only costs a re-check under the lock
+        for (long tracked : hashes) {
+            if (tracked == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private synchronized void admit(long hash, long estimate, RouteDayKey key) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash) {
+                return;
+            }
+        }
+        if (size < capacity) {
+            hashes[size] = hash;
+            keys[size++] = key;
+            if (size == capacity) {
+                admissionThreshold = lowest().estimate;
+            }
+            return;
+        }
+        Slot lowest = lowest();
+        if (estimate > lowest.estimate) {
+            hashes[lowest.index] = hash;
+            keys[lowest.index] = key;
+            admissionThreshold = lowest().estimate;
+        } else {
+            admissionThreshold = lowest.estimate;
+        }
+    }
+    
+    private Slot lowest() {
+        int index = 0;
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            long estimate = sketch.estimate(hashes[i]);
+            if (estimate < lowest) {
+                lowest = estimate;
+                index = i;
+            }
+        }
+        return new Slot(index, lowest);
+    }
+    
+    private record Slot(int index, long estimate) {
+    }
+    
+    public record HeavyHitter(RouteDayKey key, long estimatedSearches) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.flightbooking.search.traffic;
+
+import java.time.LocalDate;
+
+/**
+ * An origin-destination-date search key as tracked by {@link HeavyHitters}.
+ */
+public record RouteDayKey(String origin, String destination, LocalDate departureDate) {
+    
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    
+    /**
+     * 64-bit hash of a route/day computed straight from its parts, so callers need not
+     * allocate a key per search. Stable across JVMs, which merging sketches relies on.
+     */
+    public static long hash(String origin, String destination, LocalDate departureDate) {
+        long hash = origin.hashCode();
+        hash = hash * GOLDEN + destination.hashCode();
+        hash = hash * GOLDEN + departureDate.toEpochDay();
+        // MurmurHash3 finalizer, so nearby dates and codes spread over the sketch
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    public long hash() {
+        return hash(origin, destination, departureDate);
+    }
+    
+    @Override
+    public String toString() {
+        return origin + "-" + destination + "-" + departureDate;
+    }
+    
+    /**
+     * Parses {@link #toString()}, returning null for anything malformed.
+     */
+    public static RouteDayKey parse(String value) {
+        String[] parts = value.split("-", 3);
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            return new RouteDayKey(parts[0], parts[1], LocalDate.parse(parts[2]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
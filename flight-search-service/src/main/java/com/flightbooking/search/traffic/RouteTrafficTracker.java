@@ -0,0 +1,173 @@
+package com.flightbooking.search.traffic;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tracks which origin-destination-date keys drive search load.
+ *
+ * Every search is counted in a per-node {@link CountMinSketch} with a fixed number of
+ * counters, and the top {@code top-k} route/days are kept by {@link HeavyHitters}.
+ * Counters are halved every {@code decay-interval}, so the ranking follows recent
+ * traffic. Each node periodically publishes its sketch and heavy hitters to Redis;
+ * the cluster view adds up the recent node sketches and re-ranks the union of their
+ * heavy hitters against the merged counts.
+ */
+@Component
+@Slf4j
+public class RouteTrafficTracker {
+    
+    static final String NODES_KEY = "search:traffic:sketch:nodes";
+    static final String SKETCH_KEY_PREFIX = "search:traffic:sketch:";
+    
+    private final RedissonClient redissonClient;
+    private final int depth;
+    private final int width;
+    private final int topK;
+    private final Duration publishInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final CountMinSketch sketch;
+    private final HeavyHitters heavyHitters;
+    
+    public RouteTrafficTracker(RedissonClient redissonClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${search.traffic.sketch.depth:4}") int depth,
+                               @Value("${search.traffic.sketch.width:4096}") int width,
+                               @Value("${search.traffic.top-k:100}") int topK,
+                               @Value("${search.traffic.publish-interval:30s}") Duration publishInterval) {
+        this.redissonClient = redissonClient;
+        this.depth = depth;
+        this.topK = topK;
+        this.publishInterval = publishInterval;
+        this.sketch = new CountMinSketch(depth, width);
+        this.width = sketch.getWidth();
+        this.heavyHitters = new HeavyHitters(sketch, topK);
+        Gauge.builder("search.traffic.searches", sketch, CountMinSketch::getTotal).register(meterRegistry);
+    }
+    
+    public void record(FlightSearchRequest request) {
+        heavyHitters.record(request.getOrigin(), request.getDestination(), request.getDepartureDate());
+    }
+    
+    public SearchTrafficReport nodeReport(int limit) {
+        return report("node", 1, sketch, heavyHitters, limit);
+    }
+    
+    /**
+     * Merges the sketches of every node that published within the last three intervals,
+     * falling back to this node's view when Redis is unavailable.
+     */
+    public SearchTrafficReport clusterReport(int limit) {
+        try {
+            return mergedReport(limit);
+        } catch (RuntimeException e) {
+            log.warn("Could not read cluster traffic sketches, reporting this node only: {}", e.getMessage());
+            return nodeReport(limit);
+        }
+    }
+    
+    private SearchTrafficReport mergedReport(int limit) {
+        long since = System.currentTimeMillis() - publishInterval.multipliedBy(3).toMillis();
+        Collection<String> nodes = nodes().valueRange(since, true, Double.POSITIVE_INFINITY, true);
+        CountMinSketch merged = new CountMinSketch(depth, width);
+        Set<RouteDayKey> candidates = new LinkedHashSet<>();
+        int mergedNodes = 0;
+        for (String node : nodes) {
+            byte[] published = sketchBucket(node).get();
+            if (published == null) {
+                continue;
+            }
+            try {
+                ByteBuffer in = ByteBuffer.wrap(published);
+                merged.merge(in);
+                readKeys(in, candidates);
+                mergedNodes++;
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                log.warn("Skipping unreadable traffic sketch from node {}: {}", node, e.getMessage());
+            }
+        }
+        HeavyHitters clusterHitters = new HeavyHitters(merged, Math.max(topK, limit));
+        candidates.forEach(clusterHitters::offer);
+        return report("cluster", mergedNodes, merged, clusterHitters, limit);
+    }
+    
+    @Scheduled(fixedDelayString = "${search.traffic.publish-interval:30s}",
+               initialDelayString = "${search.traffic.publish-interval:30s}")
+    public void publish() {
+        List<HeavyHitters.HeavyHitter> top = heavyHitters.top();
+        List<byte[]> keys = new ArrayList<>(top.size());
+        int size = sketch.serializedSize() + Integer.BYTES;
+        for (HeavyHitters.HeavyHitter hitter : top) {
+            byte[] key = hitter.key().toString().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            size += Short.BYTES + key.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        sketch.writeTo(out);
+        out.putInt(keys.size());
+        for (byte[] key : keys) {
+            out.putShort((short) key.length).put(key);
+        }
+        try {
+            sketchBucket(nodeId).set(out.array(), publishInterval.multipliedBy(3));
+            nodes().add(System.currentTimeMillis(), nodeId);
+            nodes().removeRangeByScore(0, true, System.currentTimeMillis() - Duration.ofDays(1).toMillis(), true);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish search traffic sketch: {}", e.getMessage());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${search.traffic.decay-interval:10m}",
+               initialDelayString = "${search.traffic.decay-interval:10m}")
+    public void decay() {
+        sketch.halve();
+        heavyHitters.halveThreshold();
+    }
+    
+    private static SearchTrafficReport report(String scope, int nodes, CountMinSketch source,
+                                              HeavyHitters hitters, int limit) {
+        return new SearchTrafficReport(scope, nodes, source.getTotal(), (long) Math.ceil(source.errorBound()),
+            hitters.top().stream().limit(limit).map(SearchTrafficReport.Route::of).toList());
+    }
+    
+    private static void readKeys(ByteBuffer in, Set<RouteDayKey> keys) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[in.getShort()];
+            in.get(key);
+            RouteDayKey parsed = RouteDayKey.parse(new String(key, StandardCharsets.UTF_8));
+            if (parsed != null) {
+                keys.add(parsed);
+            }
+        }
+    }
+    
+    private RScoredSortedSet<String> nodes() {
+        return redissonClient.getScoredSortedSet(NODES_KEY, StringCodec.INSTANCE);
+    }
+    
+    private RBucket<byte[]> sketchBucket(String node) {
+        return redissonClient.getBucket(SKETCH_KEY_PREFIX + node, ByteArrayCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,30 @@
+package com.flightbooking.search.traffic;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/searchtraffic}: the most searched route/days across the cluster, or
+ * on this node only with {@code ?scope=node}. Use it to size caches, pick warm-up
+ * routes and plan Elasticsearch shards.
+ */
+@Component
+@Endpoint(id = "searchtraffic")
+@RequiredArgsConstructor
+public class SearchTrafficEndpoint {
+    
+    private static final int DEFAULT_LIMIT = 20;
+    
+    private final RouteTrafficTracker routeTrafficTracker;
+    
+    @ReadOperation
+    public SearchTrafficReport heavyHitters(@Nullable String scope, @Nullable Integer limit) {
+        int top = limit == null ? DEFAULT_LIMIT : Math.max(1, limit);
+        return "node".equalsIgnoreCase(scope)
+            ? routeTrafficTracker.nodeReport(top)
+            : routeTrafficTracker.clusterReport(top);
+    }
+}
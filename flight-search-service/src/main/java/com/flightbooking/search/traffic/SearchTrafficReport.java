@@ -0,0 +1,24 @@
+package com.flightbooking.search.traffic;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Heavy-hitter view returned by the {@code searchtraffic} actuator endpoint.
+ *
+ * @param scope       {@code node} for this instance only, {@code cluster} for all nodes
+ *                    that published recently
+ * @param nodes       number of node sketches merged
+ * @param searches    searches recorded, after decay
+ * @param errorBound  how far an estimate may exceed the true count (with high probability)
+ */
+public record SearchTrafficReport(String scope, int nodes, long searches, long errorBound, List<Route> routes) {
+    
+    public record Route(String origin, String destination, LocalDate departureDate, long estimatedSearches) {
+        
+        static Route of(HeavyHitters.HeavyHitter hitter) {
+            RouteDayKey key = hitter.key();
+            return new Route(key.origin(), key.destination(), key.departureDate(), hitter.estimatedSearches());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.flightbooking.search.warmup;
+
+import com.flightbooking.search.availability.FlightAvailabilityIndex;
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.service.FlightSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-populates the {@code flightSearch} cache for the most searched route, party size
+ * and cabin combinations over the next {@code days} days, so the first traffic after
+ * a deploy or Redis flush does not all fall through to the database.
+ *
+ * Searches go through {@link FlightSearchService}, so entries land in both cache
+ * levels exactly as a user request would leave them, and ones still in Redis only
+ * cost an L1 fill. At most {@code parallelism} searches run at once.
+ *
+ * The startup run holds readiness (see {@link CacheWarmupHealthIndicator}) until
+ * {@code min-coverage} of the planned entries are warm, or until {@code max-wait}
+ * has passed so a failing backend cannot keep a node out of rotation. Later runs,
+ * scheduled ahead of peak windows by {@code cron}, never affect readiness.
+ */
+@Component
+@Slf4j
+public class CacheWarmer {
+    
+    private final FlightSearchService flightSearchService;
+    private final SearchTrafficRecorder trafficRecorder;
+    private final FlightAvailabilityIndex availabilityIndex;
+    private final Executor taskExecutor;
+    private final Executor warmupExecutor;
+    private final boolean enabled;
+    private final int topSearches;
+    private final int days;
+    private final int parallelism;
+    private final double minCoverage;
+    private final Duration maxWait;
+    private final Counter warmed;
+    private final Counter failed;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile double coverage;
+    private volatile boolean warm;
+    private volatile long readinessDeadline = Long.MAX_VALUE;
+    
+    public CacheWarmer(FlightSearchService flightSearchService,
+                       SearchTrafficRecorder trafficRecorder,
+                       FlightAvailabilityIndex availabilityIndex,
+                       @Qualifier("taskExecutor") Executor taskExecutor,
+                       @Qualifier("warmupExecutor") Executor warmupExecutor,
+                       MeterRegistry meterRegistry,
+                       @Value("${search.warmup.enabled:false}") boolean enabled,
+                       @Value("${search.warmup.top-searches:200}") int topSearches,
+                       @Value("${search.warmup.days:7}") int days,
+                       @Value("${search.warmup.parallelism:4}") int parallelism,
+                       @Value("${search.warmup.min-coverage:0.9}") double minCoverage,
+                       @Value("${search.warmup.max-wait:5m}") Duration maxWait) {
+        this.flightSearchService = flightSearchService;
+        this.trafficRecorder = trafficRecorder;
+        this.availabilityIndex = availabilityIndex;
+        this.taskExecutor = taskExecutor;
+        this.warmupExecutor = warmupExecutor;
+        this.enabled = enabled;
+        this.topSearches = topSearches;
+        this.days = days;
+        this.parallelism = parallelism;
+        this.minCoverage = minCoverage;
+        this.maxWait = maxWait;
+        this.warm = !enabled;
+        this.warmed = meterRegistry.counter("search.warmup.entries", "outcome", "warmed");
+        this.failed = meterRegistry.counter("search.warmup.entries", "outcome", "failed");
+        Gauge.builder("search.warmup.coverage", this, warmer -> warmer.coverage).register(meterRegistry);
+    }
+    
+    /**
+     * True once the startup run reached the coverage target or gave up waiting; stays
+     * true afterwards.
+     */
+    public boolean isWarm() {
+        if (!warm && System.currentTimeMillis() >= readinessDeadline) {
+            log.warn("Cache warm-up did not reach {} coverage within {}, accepting traffic at {}",
+                     minCoverage, maxWait, coverage);
+            warm = true;
+        }
+        return warm;
+    }
+    
+    public double getCoverage() {
+        return coverage;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (enabled) {
+            readinessDeadline = System.currentTimeMillis() + maxWait.toMillis();
+            taskExecutor.execute(this::warmUp);
+        }
+    }
+    
+    @Scheduled(cron = "${search.warmup.cron:-}")
+    public void warmBeforePeak() {
+        if (enabled) {
+            warmUp();
+        }
+    }
+    
+    /**
+     * Runs one warm-up pass unless one is already in progress.
+     *
+     * @return the fraction of planned entries that were warmed
+     */
+    public double warmUp() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Cache warm-up already running, skipping");
+            return coverage;
+        }
+        try {
+            return warmPlanned();
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private double warmPlanned() {
+        // Searches answered from the in-memory index bypass the cache entirely
+        List<FlightSearchRequest> plan = availabilityIndex.isReady() ? List.of() : plan();
+        if (plan.isEmpty()) {
+            coverage = 1.0;
+            warm = true;
+            return coverage;
+        }
+        
+        coverage = 0;
+        long started = System.currentTimeMillis();
+        log.info("Warming {} search cache entries", plan.size());
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<Void>> searches = new ArrayList<>(plan.size());
+        try {
+            for (FlightSearchRequest request : plan) {
+                permits.acquire();
+                try {
+                    searches.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            flightSearchService.searchFlights(request);
+                            warmed.increment();
+                            progress(done.incrementAndGet(), plan.size());
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                            log.debug("Cache warm-up search {} to {} on {} failed: {}", request.getOrigin(),
+                                      request.getDestination(), request.getDepartureDate(), e.getMessage());
+                        } finally {
+                            permits.release();
+                        }
+                    }, warmupExecutor));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Cache warm-up interrupted after {} of {} entries", done.get(), plan.size());
+        }
+        CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new)).join();
+        
+        log.info("Cache warm-up finished: {} of {} entries in {}ms",
+                 done.get(), plan.size(), System.currentTimeMillis() - started);
+        return coverage;
+    }
+    
+    private void progress(int done, int planned) {
+        coverage = (double) done / planned;
+        if (!warm && coverage >= minCoverage) {
+            log.info("Cache warm-up reached {} coverage, accepting traffic", minCoverage);
+            warm = true;
+        }
+    }
+    
+    /**
+     * The busiest searches for each of the next {@code days} days, nearest day first
+     * so the dates most likely to be searched are warm earliest.
+     */
+    private List<FlightSearchRequest> plan() {
+        List<PopularSearch> popular;
+        try {
+            popular = trafficRecorder.topSearches(topSearches);
+        } catch (RuntimeException e) {
+            log.warn("Could not read search traffic, skipping cache warm-up: {}", e.getMessage());
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        List<FlightSearchRequest> plan = new ArrayList<>(popular.size() * days);
+        for (int day = 0; day < days; day++) {
+            for (PopularSearch search : popular) {
+                plan.add(search.toRequest(today.plusDays(day)));
+            }
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,24 @@
+package com.flightbooking.search.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} while the startup cache warm-up is below its coverage
+ * target. Included in the readiness health group, so load balancers hold traffic
+ * back from a cold node.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+    
+    private final CacheWarmer cacheWarmer;
+    
+    @Override
+    public Health health() {
+        Health.Builder health = cacheWarmer.isWarm() ? Health.up() : Health.outOfService();
+        return health.withDetail("coverage", cacheWarmer.getCoverage()).build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.flightbooking.search.warmup;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.search.dto.FlightSearchRequest;
+
+import java.time.LocalDate;
+
+/**
+ * The date-independent part of a search: route, party size, cabin and stops. Traffic
+ * is counted per popular search so warm-up can fill the cache for upcoming days that
+ * nobody has searched since the last deploy or flush.
+ */
+public record PopularSearch(String origin, String destination, int passengers, CabinClass cabinClass, int maxStops) {
+    
+    private static final String SEPARATOR = "|";
+    private static final String ANY_CABIN = "ANY";
+    
+    public static PopularSearch of(FlightSearchRequest request) {
+        return new PopularSearch(request.getOrigin(), request.getDestination(), request.getPassengers(),
+            request.getCabinClass(), request.getMaxStops() == null ? 0 : request.getMaxStops());
+    }
+    
+    /**
+     * Parses a {@link #member()} string, returning null for anything malformed.
+     */
+    public static PopularSearch parse(String member) {
+        String[] parts = member.split("\\" + SEPARATOR);
+        if (parts.length != 5) {
+            return null;
+        }
+        try {
+            return new PopularSearch(parts[0], parts[1], Integer.parseInt(parts[2]),
+                ANY_CABIN.equals(parts[3]) ? null : CabinClass.valueOf(parts[3]), Integer.parseInt(parts[4]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    public String member() {
+        return String.join(SEPARATOR, origin, destination, String.valueOf(passengers),
+            cabinClass == null ? ANY_CABIN : cabinClass.name(), String.valueOf(maxStops));
+    }
+    
+    public FlightSearchRequest toRequest(LocalDate departureDate) {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        request.setDestination(destination);
+        request.setDepartureDate(departureDate);
+        request.setPassengers(passengers);
+        request.setCabinClass(cabinClass);
+        request.setMaxStops(maxStops == 0 ? null : maxStops);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.flightbooking.search.warmup;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.client.protocol.ScoredEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Counts searches per {@link PopularSearch} in one Redis sorted set per day, shared by
+ * all nodes. Day buckets expire after the look-back window, so the ranking follows
+ * recent traffic without a separate decay job.
+ *
+ * Recording is fire-and-forget: a search never waits on, or fails because of, Redis.
+ */
+@Component
+@Slf4j
+public class SearchTrafficRecorder {
+    
+    static final String DAY_KEY_PREFIX = "search:warmup:traffic:";
+    static final String TOP_KEY = "search:warmup:traffic:top";
+    
+    private final RedissonClient redissonClient;
+    private final int lookbackDays;
+    
+    public SearchTrafficRecorder(RedissonClient redissonClient,
+                                 @Value("${search.warmup.traffic.lookback-days:7}") int lookbackDays) {
+        this.redissonClient = redissonClient;
+        this.lookbackDays = lookbackDays;
+    }
+    
+    public void record(FlightSearchRequest request) {
+        try {
+            RScoredSortedSet<String> day = redissonClient.getScoredSortedSet(dayKey(LocalDate.now()), StringCodec.INSTANCE);
+            day.addScoreAsync(PopularSearch.of(request).member(), 1);
+            day.expireAsync(Duration.ofDays(lookbackDays + 1L));
+        } catch (RuntimeException e) {
+            log.debug("Could not record search traffic: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * The most frequent searches over the look-back window, busiest first.
+     */
+    public List<PopularSearch> topSearches(int limit) {
+        LocalDate today = LocalDate.now();
+        String[] days = new String[lookbackDays];
+        for (int i = 0; i < lookbackDays; i++) {
+            days[i] = dayKey(today.minusDays(i));
+        }
+        RScoredSortedSet<String> top = redissonClient.getScoredSortedSet(TOP_KEY, StringCodec.INSTANCE);
+        top.union(days);
+        top.expire(Duration.ofHours(1));
+        return top.entryRangeReversed(0, limit - 1).stream()
+            .map(ScoredEntry::getValue)
+            .map(PopularSearch::parse)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    static String dayKey(LocalDate day) {
+        return DAY_KEY_PREFIX + day;
+    }
+}
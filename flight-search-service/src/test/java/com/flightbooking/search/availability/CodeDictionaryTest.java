@@ -0,0 +1,24 @@
+package com.flightbooking.search.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeDictionaryTest {
+    
+    @Test
+    void codesStayStableAsTheDictionaryGrows() {
+        CodeDictionary dictionary = new CodeDictionary();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, dictionary.encode("6E-" + i));
+        }
+        
+        assertEquals(100, dictionary.size());
+        assertEquals(42, dictionary.encode("6E-42"));
+        assertEquals(42, dictionary.code("6E-42"));
+        assertEquals(-1, dictionary.code("AI-1"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("6E-" + i, dictionary.decode(i));
+        }
+    }
+}
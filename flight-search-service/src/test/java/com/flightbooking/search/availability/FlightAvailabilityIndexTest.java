@@ -0,0 +1,205 @@
+package com.flightbooking.search.availability;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightAvailabilityIndexTest {
+    
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private SeatInventoryRepository seatInventoryRepository;
+    
+    private FlightAvailabilityIndex index;
+    private Flight morning;
+    private Flight evening;
+    
+    @BeforeEach
+    void setUp() {
+        index = new FlightAvailabilityIndex(flightRepository, seatInventoryRepository, Runnable::run,
+            new SimpleMeterRegistry(), true);
+        morning = flight("6E-101", DAY.atTime(7, 30));
+        evening = flight("6E-909", DAY.atTime(19, 15));
+        lenient().when(flightRepository.findAllByOrderByFlightIdAsc(any(Limit.class))).thenReturn(List.of(evening, morning));
+        lenient().when(seatInventoryRepository.findByFlightIdIn(any())).thenReturn(List.of(
+            inventory(morning, "Y", CabinClass.ECONOMY, 1, "4999.50"),
+            inventory(morning, "B", CabinClass.ECONOMY, 9, "6200.00"),
+            inventory(morning, "J", CabinClass.BUSINESS, 4, "15000.00"),
+            inventory(evening, "Y", CabinClass.ECONOMY, 30, "4500.00")));
+    }
+    
+    @Test
+    void testSearchReturnsMatchingFaresInDepartureThenPriceOrder() {
+        index.loadOnStartup();
+        
+        assertTrue(index.isReady());
+        List<FlightSearchResponse> results = index.search(request(2, CabinClass.ECONOMY));
+        
+        assertEquals(2, results.size());
+        FlightSearchResponse first = results.get(0);
+        assertEquals(morning.getFlightId(), first.getFlightId());
+        assertEquals("6E-101", first.getFlightNumber());
+        assertEquals(Carrier.INDIGO, first.getCarrier());
+        assertEquals(DAY.atTime(7, 30), first.getDepartureTime());
+        assertEquals(DAY.atTime(9, 45), first.getArrivalTime());
+        assertEquals(135, first.getDurationMinutes());
+        assertEquals(new BigDecimal("6200.00"), first.getPrice());
+        assertEquals("B", first.getFareClass());
+        assertEquals(9, first.getAvailableSeats());
+        assertEquals(0, first.getStops());
+        assertEquals(evening.getFlightId(), results.get(1).getFlightId());
+        assertEquals("Y", results.get(1).getFareClass());
+        
+        assertEquals(4, index.search(request(1, null)).size());
+        assertTrue(index.search(request(1, CabinClass.FIRST)).isEmpty());
+    }
+    
+    @Test
+    void testUnknownRouteReturnsNothing() {
+        index.loadOnStartup();
+        
+        FlightSearchRequest request = request(1, null);
+        request.setDestination("CCU");
+        
+        assertTrue(index.search(request).isEmpty());
+    }
+    
+    @Test
+    void testInventoryChangePatchesTheRouteDay() {
+        index.loadOnStartup();
+        when(flightRepository.findById(evening.getFlightId())).thenReturn(Optional.of(evening));
+        when(seatInventoryRepository.findByFlightId(evening.getFlightId()))
+            .thenReturn(List.of(inventory(evening, "Y", CabinClass.ECONOMY, 1, "4500.00")));
+        
+        index.onInventoryChanged(new InventoryChangedEvent(evening.getFlightId()));
+        
+        List<FlightSearchResponse> results = index.search(request(2, CabinClass.ECONOMY));
+        assertEquals(1, results.size());
+        assertEquals(morning.getFlightId(), results.get(0).getFlightId());
+        
+        evening.setIsActive(false);
+        index.onInventoryChanged(new InventoryChangedEvent(evening.getFlightId()));
+        
+        assertEquals(3, index.search(request(1, null)).size());
+    }
+    
+    @Test
+    void testFailedPatchReloadsTheIndex() {
+        index.loadOnStartup();
+        when(flightRepository.findById(evening.getFlightId())).thenThrow(new IllegalStateException("connection reset"));
+        
+        index.onInventoryChanged(new InventoryChangedEvent(evening.getFlightId()));
+        
+        assertTrue(index.isReady());
+        verify(flightRepository, times(2)).findAllByOrderByFlightIdAsc(any(Limit.class));
+        assertEquals(4, index.search(request(1, null)).size());
+    }
+    
+    @Test
+    void testPricesAreRoundedAndOutOfRangeFaresLeftOut() {
+        when(seatInventoryRepository.findByFlightIdIn(any())).thenReturn(List.of(
+            inventory(morning, "Y", CabinClass.ECONOMY, 5, "4999.505"),
+            inventory(morning, "F", CabinClass.FIRST, 2, "30000000.00"),
+            inventory(evening, "F", CabinClass.FIRST, 2, "30000000.00")));
+        
+        index.loadOnStartup();
+        
+        assertTrue(index.isReady());
+        List<FlightSearchResponse> results = index.search(request(1, null));
+        assertEquals(1, results.size());
+        assertEquals(morning.getFlightId(), results.get(0).getFlightId());
+        assertEquals(new BigDecimal("4999.51"), results.get(0).getPrice());
+    }
+    
+    @Test
+    void testDepartedDaysAreDropped() {
+        index.loadOnStartup();
+        Flight departed = flight("6E-555", LocalDate.now().minusDays(1).atTime(10, 0));
+        when(flightRepository.findById(departed.getFlightId())).thenReturn(Optional.of(departed));
+        when(seatInventoryRepository.findByFlightId(departed.getFlightId()))
+            .thenReturn(List.of(inventory(departed, "Y", CabinClass.ECONOMY, 10, "3000.00")));
+        index.onInventoryChanged(new InventoryChangedEvent(departed.getFlightId()));
+        FlightSearchRequest yesterday = request(1, null);
+        yesterday.setDepartureDate(LocalDate.now().minusDays(1));
+        assertEquals(1, index.search(yesterday).size());
+        
+        index.maintain();
+        
+        assertTrue(index.search(yesterday).isEmpty());
+        assertEquals(4, index.search(request(1, null)).size());
+    }
+    
+    @Test
+    void testDisabledIndexNeverLoads() {
+        FlightAvailabilityIndex disabled = new FlightAvailabilityIndex(flightRepository, seatInventoryRepository,
+            Runnable::run, new SimpleMeterRegistry(), false);
+        
+        disabled.loadOnStartup();
+        
+        assertFalse(disabled.isReady());
+        verify(flightRepository, never()).findAllByOrderByFlightIdAsc(any(Limit.class));
+    }
+    
+    private FlightSearchRequest request(int passengers, CabinClass cabinClass) {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin("BLR");
+        request.setDestination("DEL");
+        request.setDepartureDate(DAY);
+        request.setPassengers(passengers);
+        request.setCabinClass(cabinClass);
+        return request;
+    }
+    
+    private Flight flight(String flightNumber, LocalDateTime departure) {
+        Flight flight = new Flight();
+        flight.setFlightId(UUID.randomUUID());
+        flight.setCarrier(Carrier.INDIGO);
+        flight.setFlightNumber(flightNumber);
+        flight.setDepartureAirport("BLR");
+        flight.setArrivalAirport("DEL");
+        flight.setDepartureTime(departure);
+        flight.setArrivalTime(departure.plusMinutes(135));
+        flight.setIsActive(true);
+        return flight;
+    }
+    
+    private SeatInventory inventory(Flight flight, String fareClass, CabinClass cabinClass, int seats, String price) {
+        SeatInventory inventory = new SeatInventory();
+        inventory.setFlightId(flight.getFlightId());
+        inventory.setFareClass(fareClass);
+        inventory.setCabinClass(cabinClass);
+        inventory.setTotalSeats(seats);
+        inventory.setAvailableSeats(seats);
+        inventory.setPrice(new BigDecimal(price));
+        return inventory;
+    }
+}
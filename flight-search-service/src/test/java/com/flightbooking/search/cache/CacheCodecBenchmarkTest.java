@@ -0,0 +1,80 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.dto.FlightSearchResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares stored size and encode/decode time of cached search results under the JSON
+ * codec used today, the binary codec, and either one with LZ4 compression.
+ *
+ * Run with: mvn -pl flight-search-service test -Dtest=CacheCodecBenchmarkTest -Dbenchmark=true
+ *
+ * Bytes are what Redis stores and ships per hit, so they matter as much as CPU time:
+ * every L1 miss pays for them on the network and every entry pays for them in memory.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheCodecBenchmarkTest {
+
+    private static final int[] RESULTS_PER_ENTRY = {10, 50, 200, 500};
+    private static final int WARMUP_ITERATIONS = 1_000;
+    private static final int MEASURED_ITERATIONS = 2_000;
+    private static final int COMPRESSION_MIN_BYTES = 2048;
+
+    @Test
+    void benchmarkCacheCodecs() {
+        RedisSerializer<Object> json = FlightSearchBinarySerializerTest.jsonSerializer();
+        Map<String, RedisSerializer<Object>> codecs = new LinkedHashMap<>();
+        codecs.put("json", json);
+        codecs.put("binary", CacheCodec.BINARY.serializer(json));
+        codecs.put("json+lz4", new Lz4CompressingSerializer(json, COMPRESSION_MIN_BYTES));
+        codecs.put("binary+lz4", new Lz4CompressingSerializer(CacheCodec.BINARY.serializer(json), COMPRESSION_MIN_BYTES));
+
+        System.out.printf("%n%-8s %-12s %10s %14s %14s%n", "results", "codec", "bytes", "encode (us)", "decode (us)");
+
+        for (int size : RESULTS_PER_ENTRY) {
+            CachedValue entry = entry(size);
+            for (Map.Entry<String, RedisSerializer<Object>> codec : codecs.entrySet()) {
+                RedisSerializer<Object> serializer = codec.getValue();
+                byte[] bytes = serializer.serialize(entry);
+                assertEquals(entry, serializer.deserialize(bytes));
+
+                measure(() -> serializer.serialize(entry), WARMUP_ITERATIONS);
+                double encodeMicros = measure(() -> serializer.serialize(entry), MEASURED_ITERATIONS);
+                measure(() -> serializer.deserialize(bytes), WARMUP_ITERATIONS);
+                double decodeMicros = measure(() -> serializer.deserialize(bytes), MEASURED_ITERATIONS);
+
+                System.out.printf("%-8d %-12s %10d %14.1f %14.1f%n",
+                    size, codec.getKey(), bytes.length, encodeMicros, decodeMicros);
+            }
+        }
+    }
+
+    private static double measure(Runnable operation, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+
+    private static CachedValue entry(int size) {
+        LocalDateTime departure = LocalDateTime.of(2026, 11, 3, 5, 0);
+        List<FlightSearchResponse> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(FlightSearchBinarySerializerTest.nonstop(
+                departure.plusMinutes(7L * i), new BigDecimal(3500 + 37 * i).setScale(2)));
+        }
+        return new CachedValue(results, System.currentTimeMillis(), 35);
+    }
+}
@@ -0,0 +1,138 @@
+package com.flightbooking.search.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchPage;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchFacets;
+import com.flightbooking.search.dto.SearchSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightSearchBinarySerializerTest {
+    
+    private final RedisSerializer<Object> json = jsonSerializer();
+    private final FlightSearchBinarySerializer binary = new FlightSearchBinarySerializer(json);
+    
+    @Test
+    void roundTripsResultListsIncludingConnectionsAndNulls() {
+        LocalDateTime departure = LocalDateTime.of(2026, 11, 3, 6, 15);
+        FlightSearchResponse nonstop = nonstop(departure, new BigDecimal("4599.50"));
+        FlightSearchResponse connection = new FlightSearchResponse(null, Carrier.values()[0], "AI101+AI202",
+            "DEL", "BLR", departure, departure.plusHours(5), 300, CabinClass.ECONOMY, null,
+            new BigDecimal("7200.00"), "INR", 3, 1, List.of(
+                new FlightSearchResponse.SegmentInfo(UUID.randomUUID(), Carrier.values()[0], "AI101", "DEL", "BOM",
+                    departure, departure.plusHours(2), "Y", CabinClass.ECONOMY, new BigDecimal("3600.00")),
+                new FlightSearchResponse.SegmentInfo(UUID.randomUUID(), Carrier.values()[0], "AI202", "BOM", "BLR",
+                    departure.plusHours(3), departure.plusHours(5), null, CabinClass.ECONOMY, null)));
+        CachedValue cached = new CachedValue(new ArrayList<>(List.of(nonstop, connection)), 1_700_000_000_000L, 42);
+        
+        byte[] bytes = binary.serialize(cached);
+        
+        assertEquals(FlightSearchBinarySerializer.MARKER, bytes[0]);
+        assertEquals(cached, binary.deserialize(bytes));
+        List<?> rows = (List<?>) ((CachedValue) binary.deserialize(bytes)).getValue();
+        assertEquals("Y", ((FlightSearchResponse) rows.get(0)).getFareClass());
+        assertNull(((FlightSearchResponse) rows.get(1)).getFareClass());
+    }
+    
+    @Test
+    void roundTripsPagesWithFacets() {
+        FlightSearchResponse row = nonstop(LocalDateTime.of(2026, 11, 3, 9, 0), new BigDecimal("5100"));
+        SearchFacets facets = new SearchFacets(1, Map.of(row.getCarrier(), 1L),
+            List.of(new SearchFacets.PriceBucket(new BigDecimal("5000"), new BigDecimal("6000"), 1)),
+            Map.of(9, 1L), Map.of(CabinClass.ECONOMY, new SearchFacets.CabinAvailability(1, new BigDecimal("5100"), 12)));
+        CachedValue cached = new CachedValue(
+            new FlightSearchPage(new ArrayList<>(List.of(row)), SearchSort.PRICE, 20, "UFJJQ0V8", facets), 1L, 2L);
+        
+        assertEquals(cached, binary.deserialize(binary.serialize(cached)));
+    }
+    
+    @Test
+    void readsEntriesWrittenAsJson() {
+        CachedValue cached = new CachedValue(
+            new ArrayList<>(List.of(nonstop(LocalDateTime.of(2026, 11, 3, 6, 15), new BigDecimal("4599.50")))), 5L, 6L);
+        
+        assertEquals(cached, binary.deserialize(json.serialize(cached)));
+    }
+    
+    @Test
+    void delegatesOtherValuesToJson() {
+        byte[] bytes = binary.serialize(new CachedValue("not a result list", 1L, 1L));
+        
+        assertEquals('{', bytes[0]);
+        assertEquals("not a result list", ((CachedValue) binary.deserialize(bytes)).getValue());
+    }
+    
+    @Test
+    void compressesOnlyAboveThresholdAndReadsBoth() {
+        Lz4CompressingSerializer compressing = new Lz4CompressingSerializer(binary, 512);
+        LocalDateTime departure = LocalDateTime.of(2026, 11, 3, 6, 0);
+        List<FlightSearchResponse> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(nonstop(departure.plusMinutes(10L * i), new BigDecimal(4000 + i)));
+        }
+        CachedValue small = new CachedValue(new ArrayList<>(rows.subList(0, 1)), 1L, 1L);
+        CachedValue large = new CachedValue(rows, 1L, 1L);
+        
+        byte[] smallBytes = compressing.serialize(small);
+        byte[] largeBytes = compressing.serialize(large);
+        
+        assertEquals(FlightSearchBinarySerializer.MARKER, smallBytes[0]);
+        assertEquals(Lz4CompressingSerializer.MARKER, largeBytes[0]);
+        assertTrue(largeBytes.length < binary.serialize(large).length);
+        assertEquals(small, compressing.deserialize(smallBytes));
+        assertEquals(large, compressing.deserialize(largeBytes));
+        assertEquals(large, compressing.deserialize(json.serialize(large)));
+    }
+    
+    @Test
+    void rejectsCompressedEntriesWhoseStoredLengthDoesNotMatch() {
+        Lz4CompressingSerializer compressing = new Lz4CompressingSerializer(binary, 0);
+        LocalDateTime departure = LocalDateTime.of(2026, 11, 3, 6, 0);
+        List<FlightSearchResponse> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(nonstop(departure.plusMinutes(10L * i), new BigDecimal(4000 + i)));
+        }
+        byte[] bytes = compressing.serialize(new CachedValue(rows, 1L, 1L));
+        assertEquals(Lz4CompressingSerializer.MARKER, bytes[0]);
+        
+        byte[] shorter = bytes.clone();
+        ByteBuffer.wrap(shorter, 1, 4).putInt(ByteBuffer.wrap(bytes, 1, 4).getInt() - 1);
+        byte[] huge = bytes.clone();
+        ByteBuffer.wrap(huge, 1, 4).putInt(Integer.MAX_VALUE);
+        
+        assertThrows(SerializationException.class, () -> compressing.deserialize(shorter));
+        assertThrows(SerializationException.class, () -> compressing.deserialize(huge));
+    }
+    
+    static RedisSerializer<Object> jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return GenericJackson2JsonRedisSerializer.builder()
+            .objectMapper(objectMapper)
+            .defaultTyping(true)
+            .build();
+    }
+    
+    static FlightSearchResponse nonstop(LocalDateTime departure, BigDecimal price) {
+        return new FlightSearchResponse(UUID.randomUUID(), Carrier.values()[0], "AI101", "DEL", "BOM",
+            departure, departure.plusMinutes(130), 130, CabinClass.ECONOMY, "Y", price, "INR", 9, 0, null);
+    }
+}
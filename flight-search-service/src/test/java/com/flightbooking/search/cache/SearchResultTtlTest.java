@@ -0,0 +1,42 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.dto.FlightSearchPage;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchSort;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchResultTtlTest {
+    
+    private final SearchResultTtl ttl = new SearchResultTtl(Duration.ofMinutes(65), Duration.ofMinutes(1),
+        Duration.ofMinutes(2));
+    
+    @Test
+    void emptyResultsExpireEarly() {
+        assertEquals(Duration.ofMinutes(1), ttl.getTimeToLive("k", new CachedValue(List.of(), 1L, 1L)));
+        assertEquals(Duration.ofMinutes(1), ttl.getTimeToLive("k",
+            new CachedValue(new FlightSearchPage(List.of(), SearchSort.PRICE, 20, null, null), 1L, 1L)));
+    }
+    
+    @Test
+    void resultsKeepTheRegularTtl() {
+        assertEquals(Duration.ofMinutes(65),
+            ttl.getTimeToLive("k", new CachedValue(List.of(new FlightSearchResponse()), 1L, 1L)));
+        assertEquals(Duration.ofMinutes(65), ttl.getTimeToLive("k", new CachedValue("other", 1L, 1L)));
+        assertEquals(Duration.ofMinutes(65), ttl.getTimeToLive("BLR-DEL-2026-12-15:1:ANY:page:PRICE:20:first",
+            new CachedValue(List.of(new FlightSearchResponse()), 1L, 1L)));
+    }
+    
+    @Test
+    void resultsWithConnectionsExpireEarly() {
+        CachedValue results = new CachedValue(List.of(new FlightSearchResponse()), 1L, 1L);
+        
+        assertEquals(Duration.ofMinutes(2), ttl.getTimeToLive("BLR-DEL-2026-12-15:1:ANY:1", results));
+        assertEquals(Duration.ofMinutes(2), ttl.getTimeToLive("BLR-DEL-2026-12-15:1:ANY:2:page:PRICE:20:first", results));
+        assertEquals(Duration.ofMinutes(1), ttl.getTimeToLive("BLR-DEL-2026-12-15:1:ANY:1", new CachedValue(List.of(), 1L, 1L)));
+    }
+}
@@ -0,0 +1,233 @@
+package com.flightbooking.search.cache;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheTest {
+    
+    private ConcurrentMapCacheManager redisStandIn;
+    private CacheInvalidationBus invalidationBus;
+    private MeterRegistry meterRegistry;
+    private CacheTagIndex tagIndex;
+    private Consumer<CacheInvalidationMessage> remoteListener;
+    private Cache cache;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisStandIn = new ConcurrentMapCacheManager("flightSearch", "other");
+        invalidationBus = mock(CacheInvalidationBus.class);
+        doAnswer(invocation -> {
+            remoteListener = invocation.getArgument(0);
+            return null;
+        }).when(invalidationBus).subscribe(any());
+        meterRegistry = new SimpleMeterRegistry();
+        tagIndex = mock(CacheTagIndex.class);
+        
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisStandIn, Set.of("flightSearch"),
+            100, Duration.ofSeconds(30), invalidationBus, meterRegistry,
+            FlightSearchCacheKeys::routeDayOf, tagIndex, null, Map.of());
+        cache = cacheManager.getCache("flightSearch");
+        assertInstanceOf(TwoLevelCache.class, cache);
+        assertFalse(cacheManager.getCache("other") instanceof TwoLevelCache);
+    }
+    
+    @Test
+    void testL2HitPopulatesL1() {
+        redisStandIn.getCache("flightSearch").put("BLR-DEL", fresh("flights"));
+        
+        assertEquals("flights", cache.get("BLR-DEL").get());
+        redisStandIn.getCache("flightSearch").evict("BLR-DEL");
+        assertEquals("flights", cache.get("BLR-DEL").get());
+        
+        assertEquals(1.0, count("l1", "hit"));
+        assertEquals(1.0, count("l1", "miss"));
+        assertEquals(1.0, count("l2", "hit"));
+        assertEquals(0.5, meterRegistry.get("cache.layer.hit.ratio").tag("layer", "l1").gauge().value());
+    }
+    
+    @Test
+    void testLoaderWritesBothLayersAndBroadcasts() {
+        String value = cache.get("BLR-DEL", () -> "loaded");
+        
+        assertEquals("loaded", value);
+        assertEquals("loaded", ((CachedValue) redisStandIn.getCache("flightSearch").get("BLR-DEL").get()).getValue());
+        assertEquals(1.0, count("l2", "miss"));
+        verify(invalidationBus).publishEvict("flightSearch", "BLR-DEL");
+    }
+    
+    @Test
+    void testRemoteInvalidationDropsL1Only() {
+        cache.put("BLR-DEL", "v1");
+        redisStandIn.getCache("flightSearch").put("BLR-DEL", fresh("v2"));
+        
+        remoteListener.accept(new CacheInvalidationMessage("other-node", "flightSearch", "BLR-DEL", null));
+        
+        assertEquals("v2", cache.get("BLR-DEL").get());
+    }
+    
+    @Test
+    void testEvictAndClear() {
+        cache.put("BLR-DEL", "v1");
+        cache.evict("BLR-DEL");
+        assertNull(cache.get("BLR-DEL"));
+        
+        cache.put("BLR-BOM", "v2");
+        cache.clear();
+        assertNull(cache.get("BLR-BOM"));
+        verify(invalidationBus).publishClear("flightSearch");
+    }
+    
+    @Test
+    void testEvictTagDropsRouteDayEntriesOnly() {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin("BLR");
+        request.setDestination("DEL");
+        request.setDepartureDate(LocalDate.of(2026, 12, 15));
+        request.setPassengers(2);
+        String key = FlightSearchCacheKeys.searchKey(request);
+        assertEquals("BLR-DEL-2026-12-15:2:ANY", key);
+        
+        cache.put(key, "blr-del");
+        cache.put("BLR-BOM-2026-12-15:2:ANY", "blr-bom");
+        verify(tagIndex).add("flightSearch", "BLR-DEL-2026-12-15", key);
+        when(tagIndex.drain("flightSearch", "BLR-DEL-2026-12-15")).thenReturn(Set.of(key));
+        
+        ((TwoLevelCache) cache).evictTag("BLR-DEL-2026-12-15");
+        
+        assertNull(cache.get(key));
+        assertEquals("blr-bom", cache.get("BLR-BOM-2026-12-15:2:ANY").get());
+        verify(invalidationBus).publishEvictTag("flightSearch", "BLR-DEL-2026-12-15");
+    }
+    
+    @Test
+    void testRemoteTagInvalidationDropsOnlyThatTagsLocalEntries() {
+        cache.put("BLR-DEL-2026-12-15:2:ANY", "blr-del");
+        cache.put("BLR-DEL-2026-12-15:1:ECONOMY", "blr-del-economy");
+        cache.put("BLR-BOM-2026-12-15:2:ANY", "blr-bom");
+        redisStandIn.getCache("flightSearch").clear();
+        
+        remoteListener.accept(new CacheInvalidationMessage("other-node", "flightSearch", null, "BLR-DEL-2026-12-15"));
+        
+        assertNull(cache.get("BLR-DEL-2026-12-15:2:ANY"));
+        assertNull(cache.get("BLR-DEL-2026-12-15:1:ECONOMY"));
+        assertEquals("blr-bom", cache.get("BLR-BOM-2026-12-15:2:ANY").get());
+    }
+    
+    @Test
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("BLR-DEL-2026-12-15:1:ANY", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "loaded";
+                })));
+            }
+            
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1.0, meterRegistry.get("cache.loads.coalesced").counter().count());
+    }
+    
+    @Test
+    void testLoaderFailureReachesEveryCaller() {
+        assertThrows(Cache.ValueRetrievalException.class,
+            () -> cache.get("BLR-DEL-2026-12-15:1:ANY", () -> {
+                throw new IllegalStateException("db down");
+            }));
+        assertNull(cache.get("BLR-DEL-2026-12-15:1:ANY"));
+    }
+    
+    @Test
+    void testDistributedLeaseReusesValueLoadedByAnotherNode() throws Exception {
+        CacheLoadLease lease = mock(CacheLoadLease.class);
+        when(lease.callExclusively(any(), any(), any())).thenAnswer(invocation -> {
+            redisStandIn.getCache("flightSearch").put("BLR-DEL-2026-12-15:1:ANY", fresh("from-other-node"));
+            return ((Callable<?>) invocation.getArgument(2)).call();
+        });
+        Cache leased = new TwoLevelCacheManager(redisStandIn, Set.of("flightSearch"), 100, Duration.ofSeconds(30),
+            invalidationBus, new SimpleMeterRegistry(), FlightSearchCacheKeys::routeDayOf, tagIndex, lease,
+            Map.of())
+            .getCache("flightSearch");
+        
+        String value = leased.get("BLR-DEL-2026-12-15:1:ANY", () -> "recomputed");
+        
+        assertEquals("from-other-node", value);
+    }
+    
+    @Test
+    void testStaleEntryIsServedWhileRefreshedInBackground() {
+        List<Runnable> background = new ArrayList<>();
+        Cache refreshing = new TwoLevelCacheManager(redisStandIn, Set.of("flightSearch"), 100, Duration.ofSeconds(30),
+            invalidationBus, meterRegistry, FlightSearchCacheKeys::routeDayOf, tagIndex, null,
+            Map.of("flightSearch", new CacheRefreshPolicy(Duration.ofMinutes(60), 1.0, background::add)))
+            .getCache("flightSearch");
+        long computedAt = System.currentTimeMillis() - Duration.ofMinutes(61).toMillis();
+        redisStandIn.getCache("flightSearch").put("BLR-DEL-2026-12-15:1:ANY", new CachedValue("old", computedAt, 50));
+        
+        assertEquals("old", refreshing.get("BLR-DEL-2026-12-15:1:ANY", () -> "new"));
+        assertEquals("old", refreshing.get("BLR-DEL-2026-12-15:1:ANY", () -> "new"));
+        assertEquals(1, background.size());
+        
+        background.get(0).run();
+        
+        assertEquals("new", refreshing.get("BLR-DEL-2026-12-15:1:ANY", () -> "newer"));
+        assertEquals(2.0, meterRegistry.get("cache.stale.served").counter().count());
+        assertEquals(1.0, meterRegistry.get("cache.refreshes").counter().count());
+    }
+    
+    @Test
+    void testFreshEntryIsNotRefreshedEarly() {
+        CacheRefreshPolicy policy = new CacheRefreshPolicy(Duration.ofMinutes(60), 1.0, Runnable::run);
+        long now = System.currentTimeMillis();
+        
+        assertFalse(policy.shouldRefreshEarly(new CachedValue("v", now, 50), now));
+        assertTrue(policy.isStale(new CachedValue("v", now - Duration.ofMinutes(60).toMillis(), 50), now));
+    }
+    
+    private CachedValue fresh(Object value) {
+        return new CachedValue(value, System.currentTimeMillis(), 0);
+    }
+    
+    private double count(String layer, String result) {
+        return meterRegistry.get("cache.layer.gets").tag("layer", layer).tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,63 @@
+package com.flightbooking.search.calendar;
+
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.RouteDayFareRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteDayFareUpdaterTest {
+    
+    @Mock
+    private RouteDayFareRepository routeDayFareRepository;
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @InjectMocks
+    private RouteDayFareUpdater updater;
+    
+    @Test
+    void testInventoryChangeRecomputesOnlyItsRouteDayUnderLock() {
+        LocalDate day = LocalDate.of(2026, 12, 15);
+        Flight flight = new Flight();
+        flight.setFlightId(UUID.randomUUID());
+        flight.setDepartureAirport("BLR");
+        flight.setArrivalAirport("DEL");
+        flight.setDepartureTime(day.atTime(6, 0));
+        when(flightRepository.findById(flight.getFlightId())).thenReturn(Optional.of(flight));
+        
+        updater.onInventoryChanged(new InventoryChangedEvent(flight.getFlightId()));
+        
+        InOrder inOrder = inOrder(routeDayFareRepository);
+        inOrder.verify(routeDayFareRepository).lockRouteDay("BLR-DEL-2026-12-15");
+        inOrder.verify(routeDayFareRepository).deleteUnavailable("BLR", "DEL", day, day);
+        inOrder.verify(routeDayFareRepository).upsertMinFares("BLR", "DEL", day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+    
+    @Test
+    void testFailureIsLeftToReconcile() {
+        UUID flightId = UUID.randomUUID();
+        when(flightRepository.findById(flightId)).thenThrow(new IllegalStateException("db down"));
+        
+        updater.onInventoryChanged(new InventoryChangedEvent(flightId));
+        
+        verifyNoInteractions(routeDayFareRepository);
+    }
+}
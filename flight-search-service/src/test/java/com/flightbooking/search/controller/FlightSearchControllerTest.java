@@ -2,18 +2,31 @@ package com.flightbooking.search.controller;
 
 import com.flightbooking.common.enums.CabinClass;
 import com.flightbooking.search.dto.FlightDetailsResponse;
+import com.flightbooking.search.dto.FlightSearchPage;
 import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.LowFareCalendarResponse;
 import com.flightbooking.search.service.FlightSearchService;
+import com.flightbooking.search.service.LowFareCalendarService;
+import com.flightbooking.search.traffic.RouteTrafficTracker;
+import com.flightbooking.search.warmup.SearchTrafficRecorder;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -27,6 +40,15 @@ class FlightSearchControllerTest {
     @MockBean
     private FlightSearchService flightSearchService;
     
+    @MockBean
+    private LowFareCalendarService lowFareCalendarService;
+    
+    @MockBean
+    private SearchTrafficRecorder searchTrafficRecorder;
+    
+    @MockBean
+    private RouteTrafficTracker routeTrafficTracker;
+    
     @Test
     void testSearchFlights() throws Exception {
         when(flightSearchService.searchFlights(any())).thenReturn(Arrays.asList(new FlightSearchResponse()));
@@ -38,6 +60,93 @@ class FlightSearchControllerTest {
                 .param("passengers", "2")
                 .param("cabinClass", "ECONOMY"))
                 .andExpect(status().isOk());
+        
+        verify(searchTrafficRecorder).record(any());
+        verify(routeTrafficTracker).record(any());
+    }
+    
+    @Test
+    void testSearchFlightPage() throws Exception {
+        when(flightSearchService.searchFlightPage(any())).thenReturn(new FlightSearchPage());
+        
+        mockMvc.perform(get("/api/flights/search/page")
+                .param("origin", "BLR")
+                .param("destination", "DEL")
+                .param("departureDate", "2025-12-12")
+                .param("passengers", "2")
+                .param("sort", "PRICE")
+                .param("pageSize", "10"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void testSearchFlightPageRejectsInvalidCursorWithoutSearching() throws Exception {
+        mockMvc.perform(get("/api/flights/search/page")
+                .param("origin", "BLR")
+                .param("destination", "DEL")
+                .param("departureDate", "2025-12-12")
+                .param("passengers", "2")
+                .param("sort", "PRICE")
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        
+        verify(flightSearchService, never()).searchFlightPage(any());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamFlights() throws Exception {
+        FlightSearchResponse first = new FlightSearchResponse();
+        first.setFlightNumber("6E-123");
+        FlightSearchResponse second = new FlightSearchResponse();
+        second.setFlightNumber("AI-456");
+        doAnswer(invocation -> {
+            Consumer<FlightSearchResponse> sink = invocation.getArgument(1);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(flightSearchService).streamFlights(any(), any(Consumer.class));
+        
+        MvcResult ndjson = mockMvc.perform(get("/api/flights/search/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .param("origin", "BLR")
+                .param("destination", "DEL")
+                .param("departureDate", "2025-12-12")
+                .param("passengers", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"flightNumber\":\"AI-456\""));
+        
+        MvcResult sse = mockMvc.perform(get("/api/flights/search/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .param("origin", "BLR")
+                .param("destination", "DEL")
+                .param("departureDate", "2025-12-12")
+                .param("passengers", "2"))
+                .andReturn();
+        String events = mockMvc.perform(asyncDispatch(sse))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(events.startsWith("event: flight\ndata: {"));
+        assertTrue(events.endsWith("event: end\ndata: {\"count\":2}\n\n"));
+    }
+    
+    @Test
+    void testGetLowFareCalendar() throws Exception {
+        when(lowFareCalendarService.getCalendar(any())).thenReturn(new LowFareCalendarResponse());
+        
+        mockMvc.perform(get("/api/flights/calendar")
+                .param("origin", "BLR")
+                .param("destination", "DEL")
+                .param("startDate", "2026-12-12")
+                .param("endDate", "2026-12-18"))
+                .andExpect(status().isOk());
     }
     
     @Test
@@ -0,0 +1,56 @@
+package com.flightbooking.search.facets;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchFacets;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetCollectorTest {
+    
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 12, 15, 0, 0);
+    
+    @Test
+    void testCountsEveryFacetInOnePass() {
+        FacetCollector collector = new FacetCollector(BigDecimal.valueOf(1000));
+        
+        List.of(
+            result(Carrier.INDIGO, 6, CabinClass.ECONOMY, "4999.00", 40),
+            result(Carrier.INDIGO, 6, CabinClass.BUSINESS, "15000.00", 4),
+            result(Carrier.AIR_INDIA, 18, CabinClass.ECONOMY, "4200.00", 90),
+            result(Carrier.AIR_INDIA, 21, CabinClass.ECONOMY, "6100.50", 12)
+        ).forEach(collector);
+        SearchFacets facets = collector.toFacets();
+        
+        assertEquals(4, facets.getTotal());
+        assertEquals(Map.of(Carrier.INDIGO, 2L, Carrier.AIR_INDIA, 2L), facets.getCarriers());
+        assertEquals(Map.of(6, 2L, 18, 1L, 21, 1L), facets.getDepartureHours());
+        assertEquals(List.of(
+            new SearchFacets.PriceBucket(new BigDecimal("4000"), new BigDecimal("5000"), 2),
+            new SearchFacets.PriceBucket(new BigDecimal("6000"), new BigDecimal("7000"), 1),
+            new SearchFacets.PriceBucket(new BigDecimal("15000"), new BigDecimal("16000"), 1)),
+            facets.getPriceHistogram());
+        SearchFacets.CabinAvailability economy = facets.getCabins().get(CabinClass.ECONOMY);
+        assertEquals(3, economy.getCount());
+        assertEquals(new BigDecimal("4200.00"), economy.getLowestPrice());
+        assertEquals(90, economy.getMaxAvailableSeats());
+        assertFalse(facets.getCabins().containsKey(CabinClass.FIRST));
+    }
+    
+    private FlightSearchResponse result(Carrier carrier, int hour, CabinClass cabinClass, String price, int seats) {
+        FlightSearchResponse response = new FlightSearchResponse();
+        response.setCarrier(carrier);
+        response.setDepartureTime(DAY.plusHours(hour));
+        response.setCabinClass(cabinClass);
+        response.setPrice(new BigDecimal(price));
+        response.setAvailableSeats(seats);
+        return response;
+    }
+}
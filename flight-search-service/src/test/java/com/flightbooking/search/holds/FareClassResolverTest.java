@@ -0,0 +1,70 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.SeatStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.model.SeatMap;
+import com.flightbooking.search.repository.SeatMapRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FareClassResolverTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private SeatMapRepository seatMapRepository;
+    
+    private FareClassResolver resolver;
+    
+    @BeforeEach
+    void setUp() {
+        resolver = new FareClassResolver(seatMapRepository);
+    }
+    
+    @Test
+    void explicitFareClassTakesEverySeatWithoutReadingTheSeatMap() {
+        assertEquals(Map.of("J", 2), resolver.resolve(FLIGHT, List.of("2A", "2B"), "J"));
+        verifyNoInteractions(seatMapRepository);
+    }
+    
+    @Test
+    void seatsAreCountedPerSeatMapFareClass() {
+        List<String> seats = List.of("2A", "14C", "14D");
+        when(seatMapRepository.findByFlightIdAndSeatNoIn(FLIGHT, seats)).thenReturn(List.of(
+            seat("2A", CabinClass.BUSINESS, "J"), seat("14C", CabinClass.ECONOMY, "Y"), seat("14D", CabinClass.ECONOMY, "Y")));
+        
+        assertEquals(Map.of("J", 1, "Y", 2), resolver.resolve(FLIGHT, seats, null));
+    }
+    
+    @Test
+    void seatsOffTheSeatMapNeedAnExplicitFareClass() {
+        when(seatMapRepository.findByFlightIdAndSeatNoIn(FLIGHT, List.of("14C"))).thenReturn(List.of());
+        
+        assertThrows(BusinessException.class, () -> resolver.resolve(FLIGHT, List.of("14C"), null));
+    }
+    
+    @Test
+    void seatMissingFromAMappedFlightIsRejected() {
+        List<String> seats = List.of("14C", "99Z");
+        when(seatMapRepository.findByFlightIdAndSeatNoIn(FLIGHT, seats))
+            .thenReturn(List.of(seat("14C", CabinClass.ECONOMY, "Y")));
+        
+        assertThrows(BusinessException.class, () -> resolver.resolve(FLIGHT, seats, null));
+    }
+    
+    private static SeatMap seat(String seatNo, CabinClass cabin, String fareClass) {
+        return new SeatMap(null, FLIGHT, seatNo, cabin, fareClass, SeatStatus.AVAILABLE, null);
+    }
+}
@@ -0,0 +1,89 @@
+package com.flightbooking.search.holds;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightHoldSequencerTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private HoldBatchWriter batchWriter;
+    
+    private FlightHoldSequencer sequencer;
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sequencer.stop();
+    }
+    
+    @Test
+    void commandsQueuedDuringAWriteShareTheNextCommitInArrivalOrder() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<HoldCommand> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(HoldCommand::sessionId).toList());
+            firstWriteStarted.countDown();
+            releaseFirstWrite.await(5, TimeUnit.SECONDS);
+            batch.forEach(command -> command.result().complete(List.of("1A")));
+            return null;
+        }).when(batchWriter).write(anyList());
+        sequencer = new FlightHoldSequencer(batchWriter, new SimpleMeterRegistry(), 1, 100, 1000, Duration.ofSeconds(5));
+        sequencer.start();
+        
+        CompletableFuture<List<String>> first = sequencer.submit(command("s0"));
+        assertTrue(firstWriteStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<List<String>>> queued = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            queued.add(sequencer.submit(command("s" + i)));
+        }
+        releaseFirstWrite.countDown();
+        
+        first.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<List<String>> result : queued) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of(List.of("s0"), List.of("s1", "s2", "s3", "s4", "s5")), batches);
+    }
+    
+    @Test
+    void failedBatchFailsItsCommandsAndTheLaneKeepsRunning() throws Exception {
+        doThrow(new IllegalStateException("database down"))
+            .doAnswer(invocation -> {
+                invocation.<List<HoldCommand>>getArgument(0).forEach(command -> command.result().complete(List.of("1A")));
+                return null;
+            })
+            .when(batchWriter).write(anyList());
+        sequencer = new FlightHoldSequencer(batchWriter, new SimpleMeterRegistry(), 2, 100, 1000, Duration.ofSeconds(5));
+        sequencer.start();
+        
+        assertThrows(IllegalStateException.class,
+            () -> sequencer.hold(FLIGHT, UUID.randomUUID(), "s0", List.of("1A"), Map.of(), 15));
+        assertDoesNotThrow(() -> sequencer.hold(FLIGHT, UUID.randomUUID(), "s1", List.of("1A"), Map.of(), 15));
+    }
+    
+    private static HoldCommand command(String sessionId) {
+        return HoldCommand.hold(FLIGHT, UUID.randomUUID(), sessionId, List.of("1A"), Map.of(), 15);
+    }
+}
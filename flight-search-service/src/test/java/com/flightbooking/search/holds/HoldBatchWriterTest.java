@@ -0,0 +1,208 @@
+package com.flightbooking.search.holds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.HoldStatus;
+import com.flightbooking.common.enums.SeatStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.model.InventoryHold;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.model.SeatMap;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.seatmap.FlightSeatMap;
+import com.flightbooking.search.seatmap.SeatChange;
+import com.flightbooking.search.seatmap.SeatMapEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldBatchWriterTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private SeatInventoryRepository inventoryRepository;
+    
+    @Mock
+    private InventoryHoldRepository holdRepository;
+    
+    @Mock
+    private SeatMapEngine seatMapEngine;
+    
+    @Mock
+    private FareClassResolver fareClassResolver;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private HoldBatchWriter writer;
+    
+    @BeforeEach
+    void setUp() {
+        writer = new HoldBatchWriter(inventoryRepository, holdRepository, seatMapEngine, fareClassResolver, transactionTemplate, eventPublisher,
+            new ObjectMapper());
+        lenient().when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(holdRepository.insertIfAbsent(any(), any(), any(), anyInt(), any(), any(), any(), any()))
+            .thenReturn(1);
+        lenient().when(seatMapEngine.get(any())).thenReturn(new FlightSeatMap(List.of(), Set.of()));
+    }
+    
+    @Test
+    void batchIsDecidedInOrderAndWrittenAsOneUpdatePerFlight() throws Exception {
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT))).thenReturn(List.of(inventory("Y", 3), inventory("J", 1)));
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"J\":-1,\"Y\":-3}")).thenReturn(2);
+        HoldCommand first = hold(Map.of("Y", 2));
+        HoldCommand second = hold(Map.of("Y", 2));
+        HoldCommand third = hold(Map.of("Y", 1, "J", 1));
+        
+        writer.write(List.of(first, second, third));
+        
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(inventoryRepository, times(1)).adjustAvailableSeats(any(), any());
+        assertNotNull(first.result().get());
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.result().get());
+        assertEquals("Insufficient seats available", rejected.getCause().getMessage());
+        assertNotNull(third.result().get());
+        verify(eventPublisher).publishEvent(new InventoryChangedEvent(FLIGHT));
+    }
+    
+    @Test
+    void holdWithoutBucketsIsRejected() {
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT))).thenReturn(List.of(inventory("Y", 3), inventory("J", 1)));
+        HoldCommand command = hold(Map.of());
+        
+        writer.write(List.of(command));
+        
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> command.result().get());
+        assertInstanceOf(BusinessException.class, rejected.getCause());
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+    }
+    
+    @Test
+    void releaseCreditsOnlyHoldsThatAreStillActive() throws Exception {
+        InventoryHold active = existingHold(HoldStatus.ACTIVE);
+        InventoryHold confirmed = existingHold(HoldStatus.CONFIRMED);
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT))).thenReturn(List.of(inventory("Y", 0)));
+        when(holdRepository.findAllById(anyList())).thenReturn(List.of(active, confirmed));
+        when(holdRepository.updateStatusIfActive(active.getHoldId(), HoldStatus.RELEASED)).thenReturn(1);
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"Y\":2}")).thenReturn(1);
+        HoldCommand releaseActive = HoldCommand.release(FLIGHT, active.getHoldId());
+        HoldCommand releaseConfirmed = HoldCommand.release(FLIGHT, confirmed.getHoldId());
+        
+        writer.write(List.of(releaseActive, releaseConfirmed));
+        
+        assertEquals(List.of(), releaseActive.result().get());
+        assertEquals(List.of(), releaseConfirmed.result().get());
+        verify(holdRepository, never()).updateStatusIfActive(eq(confirmed.getHoldId()), any());
+        assertEquals(HoldStatus.CONFIRMED, confirmed.getStatus());
+    }
+    
+    @Test
+    void concurrentInventoryChangeRetriesEachCommandOnItsOwn() throws Exception {
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT)))
+            .thenReturn(List.of(inventory("Y", 2)))
+            .thenReturn(List.of(inventory("Y", 1)))
+            .thenReturn(List.of(inventory("Y", 0)));
+        // Someone else took a seat between the read and the write of the batch
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"Y\":-2}")).thenReturn(0);
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"Y\":-1}")).thenReturn(1);
+        HoldCommand first = hold(Map.of("Y", 1));
+        HoldCommand second = hold(Map.of("Y", 1));
+        
+        writer.write(List.of(first, second));
+        
+        verify(transactionTemplate, times(3)).execute(any());
+        assertNotNull(first.result().get());
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> second.result().get());
+        assertInstanceOf(BusinessException.class, rejected.getCause());
+    }
+    
+    @Test
+    void adjacentHoldTakesSeatsFromTheMapAndDebitsTheirFareClasses() throws Exception {
+        FlightSeatMap seatMap = new FlightSeatMap(List.of(
+            seat(1L, "1A", "J"), seat(2L, "1B", "J"), seat(3L, "1C", "Y"), seat(4L, "1D", "Y")), Set.of('B'));
+        when(seatMapEngine.get(FLIGHT)).thenReturn(seatMap);
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT))).thenReturn(List.of(inventory("Y", 3), inventory("J", 1)));
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"Y\":-2}")).thenReturn(1);
+        HoldCommand command = HoldCommand.holdAdjacent(FLIGHT, UUID.randomUUID(), "session", CabinClass.ECONOMY, 2, 15);
+        
+        writer.write(List.of(command));
+        
+        assertEquals(List.of("1C", "1D"), command.result().get());
+        verify(seatMapEngine).persist(List.of(
+            new SeatChange(3L, SeatStatus.HELD, command.holdId(), SeatStatus.AVAILABLE),
+            new SeatChange(4L, SeatStatus.HELD, command.holdId(), SeatStatus.AVAILABLE)));
+        verify(holdRepository).insertIfAbsent(eq(command.holdId()), eq(FLIGHT), eq("session"), eq(2),
+            eq("[\"1C\",\"1D\"]"), eq("{\"Y\":2}"), any(), any());
+    }
+    
+    @Test
+    void staleSeatMapIsEvictedAndTheBatchRetriedAgainstAFreshLoad() throws Exception {
+        FlightSeatMap stale = new FlightSeatMap(List.of(seat(1L, "1A", "Y"), seat(2L, "1B", "Y")), Set.of());
+        FlightSeatMap fresh = new FlightSeatMap(List.of(seat(1L, "1A", "Y"), seat(2L, "1B", "Y")), Set.of());
+        when(seatMapEngine.get(FLIGHT)).thenReturn(stale, stale, fresh);
+        when(inventoryRepository.findByFlightIdIn(Set.of(FLIGHT))).thenReturn(List.of(inventory("Y", 3)));
+        when(inventoryRepository.adjustAvailableSeats(eq(FLIGHT), anyString())).thenReturn(1);
+        // Another writer moved a seat row since the map was cached
+        doThrow(new IllegalStateException("Seat map changed concurrently")).doNothing()
+            .when(seatMapEngine).persist(anyList());
+        HoldCommand first = HoldCommand.hold(FLIGHT, UUID.randomUUID(), "s1", List.of("1A"), Map.of("Y", 1), 15);
+        HoldCommand second = HoldCommand.hold(FLIGHT, UUID.randomUUID(), "s2", List.of("1B"), Map.of("Y", 1), 15);
+        
+        writer.write(List.of(first, second));
+        
+        verify(seatMapEngine, atLeastOnce()).evict(FLIGHT);
+        assertEquals(List.of("1A"), first.result().get());
+        assertEquals(List.of("1B"), second.result().get());
+        assertThrows(BusinessException.class, () -> fresh.hold(List.of("1A"), UUID.randomUUID()));
+    }
+    
+    private static SeatMap seat(Long id, String seatNo, String fareClass) {
+        CabinClass cabin = fareClass.equals("J") ? CabinClass.BUSINESS : CabinClass.ECONOMY;
+        return new SeatMap(id, FLIGHT, seatNo, cabin, fareClass, SeatStatus.AVAILABLE, null);
+    }
+    
+    private static HoldCommand hold(Map<String, Integer> fareClassSeats) {
+        int seats = Math.max(1, fareClassSeats.values().stream().mapToInt(Integer::intValue).sum());
+        List<String> seatNumbers = IntStream.range(0, seats).mapToObj(i -> i + "A").toList();
+        return HoldCommand.hold(FLIGHT, UUID.randomUUID(), "session", seatNumbers, fareClassSeats, 15);
+    }
+    
+    private static InventoryHold existingHold(HoldStatus status) {
+        InventoryHold hold = new InventoryHold();
+        hold.setHoldId(UUID.randomUUID());
+        hold.setFlightId(FLIGHT);
+        hold.setSeatCount(2);
+        hold.setFareClassSeats(Map.of("Y", 2));
+        hold.setStatus(status);
+        return hold;
+    }
+    
+    private static SeatInventory inventory(String fareClass, int available) {
+        return new SeatInventory(null, FLIGHT, fareClass, CabinClass.ECONOMY, 100, available, BigDecimal.ONE, 0L);
+    }
+}
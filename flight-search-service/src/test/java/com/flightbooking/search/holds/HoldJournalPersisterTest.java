@@ -0,0 +1,198 @@
+package com.flightbooking.search.holds;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flightbooking.common.enums.HoldStatus;
+import com.flightbooking.search.event.InventoryChangedEvent;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldJournalPersisterTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    
+    @Mock
+    private RedisSeatCounters counters;
+    
+    @Mock
+    private InventoryHoldRepository holdRepository;
+    
+    @Mock
+    private SeatInventoryRepository inventoryRepository;
+    
+    @Mock
+    private SeatMapRepository seatMapRepository;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    private HoldJournalPersister persister;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        persister = new HoldJournalPersister(counters, holdRepository, inventoryRepository, seatMapRepository, transactionTemplate,
+            eventPublisher, redissonClient, objectMapper, new SimpleMeterRegistry(), 500);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(counters.parse(anyString()))
+            .thenAnswer(invocation -> objectMapper.readValue(invocation.<String>getArgument(0), HoldJournalEntry.class));
+    }
+    
+    @Test
+    void batchIsAppliedInOneTransactionBeforeTheJournalIsTrimmed() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        journal(hold(first, 2), hold(second, Map.of("Y", 1, "J", 1)), release(first, 2));
+        when(holdRepository.insertIfAbsent(any(), eq(FLIGHT), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        when(inventoryRepository.adjustAvailableSeats(eq(FLIGHT), anyString())).thenReturn(1, 2, 1);
+        when(holdRepository.updateStatusIfActive(first, HoldStatus.RELEASED)).thenReturn(1);
+        
+        persister.drain();
+        
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(holdRepository).insertIfAbsent(eq(first), eq(FLIGHT), eq("session"), eq(2), eq("[\"1A\",\"1B\"]"),
+            eq("{\"Y\":2}"), any(), any());
+        // A hold spanning two buckets debits both in one statement
+        verify(inventoryRepository).adjustAvailableSeats(FLIGHT, "{\"J\":-1,\"Y\":-1}");
+        verify(inventoryRepository).adjustAvailableSeats(FLIGHT, "{\"Y\":-2}");
+        verify(inventoryRepository).adjustAvailableSeats(FLIGHT, "{\"Y\":2}");
+        verify(seatMapRepository).releaseSeats(eq(FLIGHT), any());
+        verify(eventPublisher, times(1)).publishEvent(new InventoryChangedEvent(FLIGHT));
+        
+        var order = inOrder(transactionTemplate, counters);
+        order.verify(transactionTemplate).executeWithoutResult(any());
+        order.verify(counters).trimJournal(FLIGHT, 3);
+    }
+    
+    @Test
+    void replayedEntriesDoNotChangeAvailabilityTwice() throws Exception {
+        UUID holdId = UUID.randomUUID();
+        journal(hold(holdId, 2), release(holdId, 2));
+        when(holdRepository.insertIfAbsent(any(), any(), any(), anyInt(), any(), any(), any(), any())).thenReturn(0);
+        when(holdRepository.updateStatusIfActive(holdId, HoldStatus.RELEASED)).thenReturn(0);
+        
+        persister.drain();
+        
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(counters).trimJournal(FLIGHT, 2);
+    }
+    
+    @Test
+    void entryThatKeepsFailingIsMovedAsideWithoutBlockingTheRest() throws Exception {
+        UUID good = UUID.randomUUID();
+        UUID bad = UUID.randomUUID();
+        journal(hold(good, 1), hold(bad, 1));
+        when(holdRepository.insertIfAbsent(eq(good), any(), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        when(holdRepository.insertIfAbsent(eq(bad), any(), any(), anyInt(), any(), any(), any(), any()))
+            .thenThrow(new IllegalStateException("constraint violation"));
+        when(inventoryRepository.adjustAvailableSeats(eq(FLIGHT), anyString())).thenReturn(1);
+        
+        persister.drain();
+        
+        // The batch, then each entry on its own
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(counters).deadLetter(argThat(entry -> entry.contains(bad.toString())));
+        verify(counters, never()).deadLetter(argThat(entry -> entry.contains(good.toString())));
+        verify(counters).trimJournal(FLIGHT, 2);
+    }
+    
+    @Test
+    void holdPostgresCannotTakeIsCancelledInRedis() throws Exception {
+        UUID holdId = UUID.randomUUID();
+        journal(hold(holdId, 2));
+        when(holdRepository.insertIfAbsent(any(), any(), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        // Postgres has fewer seats than Redis counted
+        when(inventoryRepository.adjustAvailableSeats(eq(FLIGHT), anyString())).thenReturn(0);
+        
+        persister.drain();
+        
+        verify(counters).deadLetter(argThat(entry -> entry.contains(holdId.toString())));
+        verify(counters).changeStatus(argThat(entry -> entry.type() == HoldJournalEntry.Type.CANCEL
+            && entry.holdId().equals(holdId)));
+        verify(counters).trimJournal(FLIGHT, 1);
+    }
+    
+    @Test
+    void cancelOfRejectedHoldReleasesItsMappedSeats() throws Exception {
+        UUID holdId = UUID.randomUUID();
+        journal(hold(holdId, 2));
+        when(holdRepository.insertIfAbsent(any(), any(), any(), anyInt(), any(), any(), any(), any()))
+            .thenThrow(new IllegalStateException("constraint violation"));
+        persister.drain();
+        
+        // The CANCEL the persister journaled for it arrives on the next poll
+        journal(new HoldJournalEntry(HoldJournalEntry.Type.CANCEL, holdId, FLIGHT, Map.of("Y", 2), null, null,
+            null, null, LocalDateTime.now()));
+        when(holdRepository.updateStatusIfActive(holdId, HoldStatus.CANCELLED)).thenReturn(0);
+        persister.drain();
+        
+        verify(seatMapRepository).releaseSeats(FLIGHT, holdId);
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    private void journal(HoldJournalEntry... entries) throws Exception {
+        List<String> raw = new ArrayList<>();
+        for (HoldJournalEntry entry : entries) {
+            raw.add(objectMapper.writeValueAsString(entry));
+        }
+        when(counters.loadedFlights()).thenReturn(Set.of(FLIGHT));
+        when(counters.journalHead(FLIGHT, 500)).thenReturn(raw);
+    }
+    
+    private static HoldJournalEntry hold(UUID holdId, int seats) {
+        return hold(holdId, Map.of("Y", seats));
+    }
+    
+    private static HoldJournalEntry hold(UUID holdId, Map<String, Integer> fareClassSeats) {
+        int seats = fareClassSeats.values().stream().mapToInt(Integer::intValue).sum();
+        List<String> seatNumbers = seats == 2 ? List.of("1A", "1B") : List.of("2C");
+        return new HoldJournalEntry(HoldJournalEntry.Type.HOLD, holdId, FLIGHT, new TreeMap<>(fareClassSeats),
+            "session", seatNumbers, seats, LocalDateTime.now().plusMinutes(15), LocalDateTime.now());
+    }
+    
+    private static HoldJournalEntry release(UUID holdId, int seats) {
+        return new HoldJournalEntry(HoldJournalEntry.Type.RELEASE, holdId, FLIGHT, Map.of("Y", seats), null, null,
+            null, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,55 @@
+package com.flightbooking.search.holds;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldSequencerRingTest {
+    
+    private static final int FLIGHTS = 10_000;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Test
+    void flightsSpreadEvenlyAndOnlyTheLeavingNodesShareMoves() {
+        HoldSequencerRing ring = new HoldSequencerRing(redissonClient, Duration.ofSeconds(2), 64);
+        NavigableMap<Long, String> three = ring.build(Set.of("a", "b", "c"));
+        NavigableMap<Long, String> two = ring.build(Set.of("a", "b"));
+        
+        Map<String, Integer> owned = new HashMap<>();
+        int moved = 0;
+        for (int i = 0; i < FLIGHTS; i++) {
+            UUID flight = new UUID(i * 0x9E3779B97F4A7C15L, i);
+            String before = HoldSequencerRing.ownerOf(three, flight);
+            String after = HoldSequencerRing.ownerOf(two, flight);
+            owned.merge(before, 1, Integer::sum);
+            if (!before.equals(after)) {
+                assertEquals("c", before, "only flights of the node that left may move");
+                moved++;
+            }
+        }
+        
+        assertEquals(owned.get("c"), moved);
+        owned.values().forEach(count -> assertTrue(count > FLIGHTS / 6, "uneven ring: " + owned));
+    }
+    
+    @Test
+    void nodeOwnsEverythingUntilItHasSeenTheRing() {
+        HoldSequencerRing ring = new HoldSequencerRing(redissonClient, Duration.ofSeconds(2), 64);
+        
+        assertEquals(ring.nodeId(), ring.ownerOf(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,168 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.model.SeatMap;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.flightbooking.search.service.SeatHoldService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisSeatHoldServiceTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private RedisSeatCounters counters;
+    
+    @Mock
+    private SeatHoldService databaseHolds;
+    
+    @Mock
+    private FareClassResolver fareClassResolver;
+    
+    @Mock
+    private SeatInventoryRepository inventoryRepository;
+    
+    @Mock
+    private InventoryHoldRepository holdRepository;
+    
+    @Mock
+    private SeatMapRepository seatMapRepository;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private TransactionStatus transactionStatus;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private RedisSeatHoldService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new RedisSeatHoldService(counters, databaseHolds, fareClassResolver, inventoryRepository, holdRepository,
+            seatMapRepository, transactionTemplate, eventPublisher, new SimpleMeterRegistry(), Duration.ofDays(1));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
+    }
+    
+    @Test
+    void firstHoldOnFlightLoadsCountersFromPostgres() {
+        when(fareClassResolver.resolve(FLIGHT, List.of("12A", "12B"), null)).thenReturn(new TreeMap<>());
+        when(counters.hold(any(), any())).thenReturn(RedisSeatCounters.NOT_LOADED, 8L);
+        when(inventoryRepository.findByFlightId(FLIGHT)).thenReturn(List.of(
+            inventory("Y", 10), inventory("J", 4)));
+        
+        UUID holdId = service.holdSeats(FLIGHT, "session", List.of("12A", "12B"), 15);
+        
+        verify(counters).load(FLIGHT, Map.of("Y", 10, "J", 4));
+        ArgumentCaptor<HoldJournalEntry> entry = ArgumentCaptor.forClass(HoldJournalEntry.class);
+        verify(counters, times(2)).hold(entry.capture(), eq(Duration.ofMinutes(15).plusDays(1)));
+        assertEquals(holdId, entry.getValue().holdId());
+        assertEquals(2, entry.getValue().seatCount());
+        assertEquals(HoldJournalEntry.Type.HOLD, entry.getValue().type());
+        verifyNoInteractions(databaseHolds);
+    }
+    
+    @Test
+    void holdBeyondAvailabilityIsRejected() {
+        when(fareClassResolver.resolve(FLIGHT, List.of("12A"), "J")).thenReturn(new TreeMap<>(Map.of("J", 1)));
+        when(counters.hold(any(), any())).thenReturn(RedisSeatCounters.INSUFFICIENT);
+        
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> service.holdSeats(FLIGHT, "session", List.of("12A"), "J", 15));
+        
+        assertEquals("Insufficient seats available", e.getMessage());
+        verify(counters, never()).load(any(), any());
+    }
+    
+    @Test
+    void releaseGoesThroughCountersWhenRedisKnowsTheHold() {
+        UUID holdId = UUID.randomUUID();
+        when(counters.flightOf(holdId)).thenReturn(FLIGHT);
+        when(counters.changeStatus(any())).thenReturn(1L);
+        
+        service.releaseHold(holdId);
+        
+        ArgumentCaptor<HoldJournalEntry> entry = ArgumentCaptor.forClass(HoldJournalEntry.class);
+        verify(counters).changeStatus(entry.capture());
+        assertEquals(HoldJournalEntry.Type.RELEASE, entry.getValue().type());
+        assertEquals(FLIGHT, entry.getValue().flightId());
+        verifyNoInteractions(databaseHolds);
+    }
+    
+    @Test
+    void holdOfASeatTakenMeanwhileIsCancelledInRedis() {
+        List<String> seats = List.of("12A", "12B");
+        when(fareClassResolver.resolve(FLIGHT, seats, null)).thenReturn(new TreeMap<>(Map.of("Y", 2)));
+        when(counters.hold(any(), any())).thenReturn(8L);
+        when(seatMapRepository.holdSeats(eq(FLIGHT), eq(seats), any())).thenReturn(1);
+        when(seatMapRepository.findByFlightIdAndSeatNoIn(FLIGHT, seats)).thenReturn(List.of(new SeatMap(), new SeatMap()));
+        
+        BusinessException e = assertThrows(BusinessException.class, () -> service.holdSeats(FLIGHT, "session", seats, 15));
+        
+        assertEquals("Requested seats are no longer available", e.getMessage());
+        verify(transactionStatus).setRollbackOnly();
+        ArgumentCaptor<HoldJournalEntry> cancel = ArgumentCaptor.forClass(HoldJournalEntry.class);
+        verify(counters).changeStatus(cancel.capture());
+        assertEquals(HoldJournalEntry.Type.CANCEL, cancel.getValue().type());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+    
+    @Test
+    void confirmOfAHoldRedisNoLongerHoldsIsRejected() {
+        UUID holdId = UUID.randomUUID();
+        when(counters.flightOf(holdId)).thenReturn(FLIGHT);
+        when(counters.changeStatus(any())).thenReturn(0L, RedisSeatCounters.EXPIRED);
+        
+        assertThrows(BusinessException.class, () -> service.confirmHold(holdId));
+        BusinessException expired = assertThrows(BusinessException.class, () -> service.confirmHold(holdId));
+        assertEquals("Hold has expired", expired.getMessage());
+        verifyNoInteractions(databaseHolds);
+    }
+    
+    @Test
+    void holdsUnknownToRedisAreHandledByTheDatabasePath() {
+        UUID holdId = UUID.randomUUID();
+        when(counters.flightOf(holdId)).thenReturn(null);
+        
+        service.releaseHold(holdId);
+        service.confirmHold(holdId);
+        
+        verify(databaseHolds).releaseHold(holdId);
+        verify(databaseHolds).confirmHold(holdId);
+        verify(counters, never()).changeStatus(any());
+    }
+    
+    private static SeatInventory inventory(String fareClass, int available) {
+        return new SeatInventory(null, FLIGHT, fareClass, CabinClass.ECONOMY, available, available,
+            BigDecimal.valueOf(5000), 0L);
+    }
+}
@@ -0,0 +1,90 @@
+package com.flightbooking.search.holds;
+
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RRemoteService;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RemoteInvocationOptions;
+import org.redisson.remote.RemoteServiceAckTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SequencedSeatHoldServiceTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private FlightHoldSequencer sequencer;
+    
+    @Mock
+    private HoldSequencerRing ring;
+    
+    @Mock
+    private FareClassResolver fareClassResolver;
+    
+    @Mock
+    private InventoryHoldRepository holdRepository;
+    
+    @Mock
+    private SeatMapRepository seatMapRepository;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RRemoteService remoteService;
+    
+    @Mock
+    private HoldCommands owner;
+    
+    private SequencedSeatHoldService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new SequencedSeatHoldService(sequencer, ring, fareClassResolver, holdRepository, seatMapRepository,
+            redissonClient, new SimpleMeterRegistry(), Duration.ofSeconds(5), 4);
+        when(ring.nodeId()).thenReturn("node-a");
+        when(ring.ownerOf(FLIGHT)).thenReturn("node-b");
+        when(fareClassResolver.resolve(FLIGHT, List.of("1A"), "Y")).thenReturn(new TreeMap<>(Map.of("Y", 1)));
+        when(redissonClient.getRemoteService(SequencedSeatHoldService.REMOTE_SERVICE_PREFIX + "node-b"))
+            .thenReturn(remoteService);
+        when(remoteService.get(eq(HoldCommands.class), any(RemoteInvocationOptions.class))).thenReturn(owner);
+    }
+    
+    @Test
+    void holdForwardedToTheOwnerReturnsTheIdItSent() {
+        UUID holdId = service.holdSeats(FLIGHT, "session", List.of("1A"), "Y", 15);
+        
+        verify(owner).hold(FLIGHT, holdId, "session", List.of("1A"), Map.of("Y", 1), 15);
+        verifyNoInteractions(sequencer);
+    }
+    
+    @Test
+    void holdRetriedLocallyAfterAnUnansweredForwardKeepsItsId() {
+        ArgumentCaptor<UUID> forwardedId = ArgumentCaptor.forClass(UUID.class);
+        doThrow(new RemoteServiceAckTimeoutException("no ack"))
+            .when(owner).hold(eq(FLIGHT), forwardedId.capture(), any(), any(), any(), anyInt());
+        
+        UUID holdId = service.holdSeats(FLIGHT, "session", List.of("1A"), "Y", 15);
+        
+        // One id for both attempts, so the writer inserts whichever lands first and refuses the other
+        assertEquals(forwardedId.getValue(), holdId);
+        verify(sequencer).hold(eq(FLIGHT), eq(holdId), eq("session"), eq(List.of("1A")), any(), eq(15));
+    }
+}
@@ -0,0 +1,173 @@
+package com.flightbooking.search.index;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.mapper.FlightMapper;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FlightReindexerTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private SeatInventoryRepository seatInventoryRepository;
+    
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+    
+    @Mock
+    private ItineraryIndexManager indexManager;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RLock lock;
+    
+    @Mock
+    private RBucket<Object> checkpoint;
+    
+    @Mock
+    private RBucket<Object> target;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private FlightReindexer reindexer;
+    private Flight first;
+    private Flight second;
+    private Flight third;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        FlightDocumentIndexer documentIndexer =
+            new FlightDocumentIndexer(seatInventoryRepository, elasticsearchOperations, new FlightMapper());
+        reindexer = new FlightReindexer(flightRepository, documentIndexer, indexManager, redissonClient,
+            Runnable::run, meterRegistry, 2, 2);
+        
+        first = flight("00000000-0000-0000-0000-000000000001");
+        second = flight("00000000-0000-0000-0000-000000000002");
+        third = flight("00000000-0000-0000-0000-000000000003");
+        
+        when(redissonClient.getLock(FlightReindexer.LOCK_KEY)).thenReturn(lock);
+        when(lock.tryLock()).thenReturn(true);
+        lenient().when(redissonClient.getBucket(eq(FlightReindexer.CHECKPOINT_KEY), any(Codec.class))).thenReturn(checkpoint);
+        lenient().when(redissonClient.getBucket(eq(FlightReindexer.TARGET_KEY), any(Codec.class))).thenReturn(target);
+        lenient().when(indexManager.createGeneration()).thenReturn("itineraries-v20261215060000");
+        lenient().when(seatInventoryRepository.findByFlightIdIn(any())).thenAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(this::inventory).toList();
+        });
+    }
+    
+    @Test
+    void testStreamsKeysetPagesAsBulkRequests() {
+        when(flightRepository.findAllByOrderByFlightIdAsc(Limit.of(2))).thenReturn(List.of(first, second));
+        when(flightRepository.findByFlightIdGreaterThanOrderByFlightIdAsc(second.getFlightId(), Limit.of(2)))
+            .thenReturn(List.of(third));
+        
+        long flights = reindexer.reindex();
+        
+        assertEquals(3, flights);
+        verify(elasticsearchOperations, times(2)).bulkIndex(anyList(), eq(IndexCoordinates.of("itineraries-v20261215060000")));
+        verify(checkpoint).set(second.getFlightId().toString());
+        verify(checkpoint).set(third.getFlightId().toString());
+        verify(target).set("itineraries-v20261215060000");
+        verify(indexManager).publish("itineraries-v20261215060000");
+        verify(target).delete();
+        verify(flightRepository, never()).findAll();
+        assertEquals(3.0, meterRegistry.get("search.reindex.documents").counter().count());
+    }
+    
+    @Test
+    void testResumesAfterCheckpointIntoTheSameGeneration() {
+        when(target.get()).thenReturn("itineraries-v20261215060000");
+        when(indexManager.exists("itineraries-v20261215060000")).thenReturn(true);
+        when(checkpoint.get()).thenReturn(second.getFlightId().toString());
+        when(flightRepository.findByFlightIdGreaterThanOrderByFlightIdAsc(second.getFlightId(), Limit.of(2)))
+            .thenReturn(List.of(third));
+        
+        assertEquals(1, reindexer.reindex());
+        verify(flightRepository, never()).findAllByOrderByFlightIdAsc(any());
+        verify(indexManager, never()).createGeneration();
+        verify(indexManager).publish("itineraries-v20261215060000");
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedBulkKeepsCheckpointAtLastCompletedPage() {
+        when(flightRepository.findAllByOrderByFlightIdAsc(Limit.of(2))).thenReturn(List.of(first, second));
+        when(flightRepository.findByFlightIdGreaterThanOrderByFlightIdAsc(second.getFlightId(), Limit.of(2)))
+            .thenReturn(List.of(third));
+        when(elasticsearchOperations.bulkIndex(anyList(), eq(IndexCoordinates.of("itineraries-v20261215060000"))))
+            .thenReturn(List.of())
+            .thenThrow(new IllegalStateException("es rejected bulk"));
+        when(lock.isHeldByCurrentThread()).thenReturn(true);
+        
+        assertThrows(IllegalStateException.class, () -> reindexer.reindex());
+        
+        verify(checkpoint).set(second.getFlightId().toString());
+        verify(checkpoint, never()).set(third.getFlightId().toString());
+        verify(indexManager, never()).publish(any());
+        verify(lock).unlock();
+    }
+    
+    @Test
+    void testSkipsWhenAnotherNodeHoldsTheLock() {
+        when(lock.tryLock()).thenReturn(false);
+        
+        assertEquals(0, reindexer.reindex());
+        verifyNoInteractions(flightRepository);
+    }
+    
+    private Flight flight(String id) {
+        Flight flight = new Flight();
+        flight.setFlightId(UUID.fromString(id));
+        flight.setCarrier(Carrier.INDIGO);
+        flight.setFlightNumber("6E-" + id.substring(id.length() - 1));
+        flight.setDepartureAirport("BLR");
+        flight.setArrivalAirport("DEL");
+        flight.setDepartureTime(LocalDateTime.of(2026, 12, 15, 6, 0));
+        flight.setArrivalTime(LocalDateTime.of(2026, 12, 15, 8, 45));
+        return flight;
+    }
+    
+    private SeatInventory inventory(UUID flightId) {
+        SeatInventory inventory = new SeatInventory();
+        inventory.setFlightId(flightId);
+        inventory.setFareClass("Y");
+        inventory.setCabinClass(CabinClass.ECONOMY);
+        inventory.setTotalSeats(180);
+        inventory.setAvailableSeats(150);
+        inventory.setPrice(BigDecimal.valueOf(5000));
+        return inventory;
+    }
+}
@@ -0,0 +1,101 @@
+package com.flightbooking.search.index;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexInformation;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.AliasData;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItineraryIndexManagerTest {
+    
+    @Mock
+    private ElasticsearchOperations elasticsearchOperations;
+    
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private ElasticsearchClient elasticsearchClient;
+    
+    private ItineraryIndexManager indexManager;
+    private final Map<String, IndexOperations> indices = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        indexManager = new ItineraryIndexManager(elasticsearchOperations, elasticsearchClient);
+        ReflectionTestUtils.setField(indexManager, "retainedGenerations", 2);
+        lenient().when(elasticsearchOperations.indexOps(any(IndexCoordinates.class))).thenAnswer(invocation ->
+            indices.computeIfAbsent(((IndexCoordinates) invocation.getArgument(0)).getIndexName(),
+                name -> mock(IndexOperations.class)));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPublishSwapsAliasAtomicallyAndDropsOldGenerations() throws Exception {
+        when(index("itineraries-v*").getInformation()).thenReturn(List.of(
+            generation("itineraries-v20261201000000", false),
+            generation("itineraries-v20261208000000", true),
+            generation("itineraries-v20261215000000", false)));
+        
+        indexManager.publish("itineraries-v20261215000000");
+        
+        verify(elasticsearchClient.indices()).putSettings(any(Function.class));
+        List<AliasAction> actions = publishedActions("itineraries-v20261215000000");
+        assertEquals(2, actions.size());
+        assertInstanceOf(AliasAction.Remove.class, actions.get(0));
+        assertArrayEquals(new String[]{"itineraries-v20261208000000"}, actions.get(0).getParameters().getIndices());
+        assertInstanceOf(AliasAction.Add.class, actions.get(1));
+        
+        verify(index("itineraries-v20261201000000")).delete();
+        verify(index("itineraries-v20261208000000"), never()).delete();
+    }
+    
+    @Test
+    void testPublishReplacesLegacyConcreteIndex() {
+        when(index("itineraries-v*").getInformation())
+            .thenReturn(List.of(generation("itineraries-v20261215000000", false)));
+        when(index("itineraries").exists()).thenReturn(true);
+        
+        indexManager.publish("itineraries-v20261215000000");
+        
+        List<AliasAction> actions = publishedActions("itineraries-v20261215000000");
+        assertInstanceOf(AliasAction.RemoveIndex.class, actions.get(0));
+        assertArrayEquals(new String[]{"itineraries"}, actions.get(0).getParameters().getIndices());
+        assertInstanceOf(AliasAction.Add.class, actions.get(1));
+    }
+    
+    private List<AliasAction> publishedActions(String generation) {
+        ArgumentCaptor<AliasActions> captor = ArgumentCaptor.forClass(AliasActions.class);
+        verify(index(generation)).alias(captor.capture());
+        return captor.getValue().getActions();
+    }
+    
+    private IndexInformation generation(String name, boolean aliased) {
+        List<AliasData> aliases = aliased
+            ? List.of(AliasData.of(ItineraryIndexManager.ALIAS, null, null, null, null, null))
+            : List.of();
+        return IndexInformation.of(name, null, null, aliases);
+    }
+    
+    private IndexOperations index(String name) {
+        return elasticsearchOperations.indexOps(IndexCoordinates.of(name));
+    }
+}
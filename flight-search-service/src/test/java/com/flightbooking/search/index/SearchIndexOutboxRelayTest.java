@@ -0,0 +1,122 @@
+package com.flightbooking.search.index;
+
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.model.SearchIndexOutbox;
+import com.flightbooking.search.repository.FlightRepository;
+import com.flightbooking.search.repository.SearchIndexOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexOutboxRelayTest {
+    
+    private static final IndexCoordinates ALIAS = IndexCoordinates.of(ItineraryIndexManager.ALIAS);
+    
+    @Mock
+    private SearchIndexOutboxRepository outboxRepository;
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private FlightDocumentIndexer documentIndexer;
+    
+    @Mock
+    private FlightReindexer flightReindexer;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RLock lock;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private SearchIndexOutboxRelay relay;
+    private Flight flight;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new SearchIndexOutboxRelay(outboxRepository, flightRepository, documentIndexer, flightReindexer,
+            redissonClient, meterRegistry, 10);
+        
+        flight = new Flight();
+        flight.setFlightId(UUID.randomUUID());
+        flight.setCarrier(Carrier.INDIGO);
+        flight.setIsActive(true);
+        
+        when(redissonClient.getLock(SearchIndexOutboxRelay.LOCK_KEY)).thenReturn(lock);
+        when(lock.tryLock()).thenReturn(true);
+        lenient().when(flightReindexer.buildingGeneration()).thenReturn(Optional.empty());
+    }
+    
+    @Test
+    void testCoalescesChangesPerFlightAndDeletesAppliedRows() {
+        UUID removedFlight = UUID.randomUUID();
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(
+            entry(1L, flight.getFlightId()), entry(2L, flight.getFlightId()), entry(3L, removedFlight)));
+        when(flightRepository.findAllById(Set.of(flight.getFlightId(), removedFlight))).thenReturn(List.of(flight));
+        FlightDocument doc = new FlightDocument();
+        doc.setFlightId(flight.getFlightId());
+        when(documentIndexer.toDocuments(List.of(flight))).thenReturn(List.of(doc));
+        
+        relay.relay();
+        
+        verify(documentIndexer).bulkIndex(List.of(doc), ALIAS);
+        verify(documentIndexer).deleteFlights(Set.of(removedFlight), ALIAS);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        assertEquals(3.0, meterRegistry.get("search.index.outbox.applied").counter().count());
+        assertEquals(1.0, meterRegistry.get("search.index.outbox.coalesced").counter().count());
+    }
+    
+    @Test
+    void testAlsoWritesToGenerationBeingRebuilt() {
+        when(flightReindexer.buildingGeneration()).thenReturn(Optional.of("itineraries-v20261215060000"));
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(entry(1L, flight.getFlightId())));
+        when(flightRepository.findAllById(any())).thenReturn(List.of(flight));
+        when(documentIndexer.toDocuments(any())).thenReturn(List.of());
+        
+        relay.relay();
+        
+        verify(documentIndexer).bulkIndex(anyList(), eq(ALIAS));
+        verify(documentIndexer).bulkIndex(anyList(), eq(IndexCoordinates.of("itineraries-v20261215060000")));
+    }
+    
+    @Test
+    void testFailedBulkLeavesRowsForRetry() {
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(entry(1L, flight.getFlightId())));
+        when(flightRepository.findAllById(any())).thenReturn(List.of(flight));
+        when(documentIndexer.toDocuments(any())).thenReturn(List.of());
+        doThrow(new IllegalStateException("es unavailable")).when(documentIndexer).bulkIndex(anyList(), any());
+        
+        relay.relay();
+        
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+    
+    private SearchIndexOutbox entry(Long id, UUID flightId) {
+        return new SearchIndexOutbox(id, flightId, LocalDateTime.now().minusSeconds(1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.flightbooking.search.itinerary;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.mapper.FlightMapper;
+import com.flightbooking.search.model.FlightDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConnectionBuilderTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2026, 12, 15);
+    
+    private final List<FlightDocument> flights = new ArrayList<>();
+    private ConnectionBuilder connectionBuilder;
+    
+    @BeforeEach
+    void setUp() {
+        flight("6E-1", "BLR", "BOM", "06:00", "08:00", 3000, 9);
+        flight("6E-2", "BOM", "DEL", "08:30", "10:30", 3500, 9);
+        flight("6E-3", "BOM", "DEL", "09:30", "11:30", 4000, 9);
+        flight("6E-4", "BOM", "DEL", "16:00", "18:00", 2000, 9);
+        flight("6E-5", "BLR", "HYD", "07:00", "08:00", 2500, 9);
+        flight("6E-6", "HYD", "DEL", "09:00", "11:00", 2500, 1);
+        flight("6E-7", "BLR", "DEL", "10:00", "12:45", 6000, 9);
+        flight("6E-8", "BLR", "MAA", "05:00", "06:00", 1500, 9);
+        flight("6E-9", "MAA", "GOI", "07:00", "08:00", 1500, 9);
+        flight("6E-10", "GOI", "DEL", "09:00", "11:00", 1500, 9);
+        
+        DepartureBoards boards = mock(DepartureBoards.class);
+        when(boards.forDay(any())).thenAnswer(invocation -> {
+            LocalDate day = invocation.getArgument(0);
+            return new DepartureBoard(day, day.equals(DAY) ? flights : List.of());
+        });
+        
+        connectionBuilder = new ConnectionBuilder(boards, new FlightMapper());
+        ReflectionTestUtils.setField(connectionBuilder, "minConnectionTime", Duration.ofMinutes(45));
+        ReflectionTestUtils.setField(connectionBuilder, "minConnectionMinutesByAirport", Map.of());
+        ReflectionTestUtils.setField(connectionBuilder, "maxLayover", Duration.ofHours(6));
+        ReflectionTestUtils.setField(connectionBuilder, "maxStops", 2);
+        ReflectionTestUtils.setField(connectionBuilder, "maxResults", 50);
+        ReflectionTestUtils.setField(connectionBuilder, "expansionBudget", 5000);
+    }
+    
+    @Test
+    void testOneStopHonorsConnectionTimeLayoverAndSeats() {
+        List<FlightSearchResponse> results = connectionBuilder.search(request(1));
+        
+        assertEquals(1, results.size());
+        FlightSearchResponse itinerary = results.get(0);
+        assertEquals("6E-1/6E-3", itinerary.getFlightNumber());
+        assertEquals(1, itinerary.getStops());
+        assertEquals(2, itinerary.getSegments().size());
+        assertEquals(BigDecimal.valueOf(7000), itinerary.getPrice());
+        assertEquals(330, itinerary.getDurationMinutes());
+    }
+    
+    @Test
+    void testTwoStopsAddsLongerItineraries() {
+        List<FlightSearchResponse> results = connectionBuilder.search(request(2));
+        
+        assertEquals(List.of("6E-8/6E-9/6E-10", "6E-1/6E-3"),
+            results.stream().map(FlightSearchResponse::getFlightNumber).toList());
+        assertEquals(2, results.get(0).getStops());
+    }
+    
+    @Test
+    void testAirportMinimumConnectionTimeOverride() {
+        ReflectionTestUtils.setField(connectionBuilder, "minConnectionMinutesByAirport", Map.of("BOM", 30));
+        
+        List<FlightSearchResponse> results = connectionBuilder.search(request(1));
+        
+        assertEquals(List.of("6E-1/6E-2", "6E-1/6E-3"),
+            results.stream().map(FlightSearchResponse::getFlightNumber).toList());
+    }
+    
+    @Test
+    void testNonstopRequestsAndExhaustedBudgetReturnNothing() {
+        assertTrue(connectionBuilder.search(request(0)).isEmpty());
+        
+        ReflectionTestUtils.setField(connectionBuilder, "expansionBudget", 1);
+        assertTrue(connectionBuilder.search(request(2)).isEmpty());
+    }
+    
+    private FlightSearchRequest request(int maxStops) {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin("BLR");
+        request.setDestination("DEL");
+        request.setDepartureDate(DAY);
+        request.setPassengers(2);
+        request.setCabinClass(CabinClass.ECONOMY);
+        request.setMaxStops(maxStops);
+        return request;
+    }
+    
+    private void flight(String number, String origin, String destination,
+                        String departure, String arrival, int price, int seats) {
+        FlightDocument doc = new FlightDocument();
+        doc.setFlightId(UUID.randomUUID());
+        doc.setItineraryId(doc.getFlightId().toString());
+        doc.setCarrier(Carrier.INDIGO);
+        doc.setFlightNumber(number);
+        doc.setOrigin(origin);
+        doc.setDestination(destination);
+        doc.setDepartureTime(DAY.atTime(LocalTime.parse(departure)));
+        doc.setArrivalTime(DAY.atTime(LocalTime.parse(arrival)));
+        doc.setCurrency("INR");
+        doc.setFares(List.of(new FlightDocument.FareInfo("Y", CabinClass.ECONOMY, BigDecimal.valueOf(price), seats)));
+        doc.setStops(0);
+        flights.add(doc);
+    }
+}
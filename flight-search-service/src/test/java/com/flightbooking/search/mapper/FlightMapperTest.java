@@ -3,6 +3,7 @@ package com.flightbooking.search.mapper;
 import com.flightbooking.common.enums.CabinClass;
 import com.flightbooking.common.enums.Carrier;
 import com.flightbooking.search.dto.FlightDetailsResponse;
+import com.flightbooking.search.dto.FlightSearchResponse;
 import com.flightbooking.search.model.Flight;
 import com.flightbooking.search.model.FlightDocument;
 import com.flightbooking.search.model.SeatInventory;
@@ -45,18 +46,38 @@ class FlightMapperTest {
     }
     
     @Test
-    void testToDocument() {
-        FlightDocument doc = flightMapper.toDocument(testFlight, testInventory);
+    void testToDocumentHoldsEveryFareCheapestFirst() {
+        SeatInventory business = new SeatInventory();
+        business.setFareClass("J");
+        business.setCabinClass(CabinClass.BUSINESS);
+        business.setAvailableSeats(8);
+        business.setPrice(BigDecimal.valueOf(15000));
+        
+        FlightDocument doc = flightMapper.toDocument(testFlight, Arrays.asList(business, testInventory));
         
         assertNotNull(doc);
+        assertEquals(testFlight.getFlightId().toString(), doc.getItineraryId());
         assertEquals(testFlight.getFlightId(), doc.getFlightId());
         assertEquals(testFlight.getCarrier(), doc.getCarrier());
         assertEquals(testFlight.getFlightNumber(), doc.getFlightNumber());
         assertEquals(testFlight.getDepartureAirport(), doc.getOrigin());
         assertEquals(testFlight.getArrivalAirport(), doc.getDestination());
-        assertEquals(testInventory.getCabinClass(), doc.getCabinClass());
-        assertEquals(testInventory.getPrice(), doc.getPrice());
-        assertEquals(testInventory.getAvailableSeats(), doc.getAvailableSeats());
+        assertEquals(2, doc.getFares().size());
+        assertEquals("Y", doc.getFares().get(0).getFareClass());
+        assertEquals(testInventory.getPrice(), doc.getFares().get(0).getPrice());
+        assertEquals(CabinClass.BUSINESS, doc.getFares().get(1).getCabinClass());
+        assertEquals(8, doc.getFares().get(1).getAvailableSeats());
+    }
+    
+    @Test
+    void testToSearchResponseUsesFare() {
+        FlightSearchResponse response = flightMapper.toSearchResponse(testFlight, testInventory);
+        
+        assertEquals(testFlight.getFlightId(), response.getFlightId());
+        assertEquals(CabinClass.ECONOMY, response.getCabinClass());
+        assertEquals("Y", response.getFareClass());
+        assertEquals(testInventory.getPrice(), response.getPrice());
+        assertEquals(50, response.getAvailableSeats());
     }
     
     @Test
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -95,13 +96,12 @@ class ModelTest {
         doc.setDepartureTime(LocalDateTime.now());
         doc.setArrivalTime(LocalDateTime.now().plusHours(2));
         doc.setDurationMinutes(120);
-        doc.setCabinClass(CabinClass.ECONOMY);
-        doc.setPrice(BigDecimal.valueOf(5000));
         doc.setCurrency("INR");
-        doc.setAvailableSeats(150);
+        doc.setFares(List.of(new FlightDocument.FareInfo("Y", CabinClass.ECONOMY, BigDecimal.valueOf(5000), 150)));
         doc.setStops(0);
         
         assertEquals("itin123", doc.getItineraryId());
         assertEquals(120, doc.getDurationMinutes());
+        assertEquals(150, doc.getFares().get(0).getAvailableSeats());
     }
 }
@@ -0,0 +1,114 @@
+package com.flightbooking.search.paging;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.FlightSearchPage;
+import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchSort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightPageCollectorTest {
+    
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 12, 15, 0, 0);
+    
+    @Test
+    void testPagesWalkTheFullOrderingWithoutGapsOrDuplicates() {
+        Random random = new Random(42);
+        List<FlightSearchResponse> results = new ArrayList<>();
+        for (int i = 0; i < 57; i++) {
+            // Coarse values so the sort keys tie often and the tie-breakers matter
+            results.add(result(random.nextInt(6) * 60, random.nextInt(4) * 1000 + 3000, 90 + random.nextInt(3) * 30));
+        }
+        
+        for (SearchSort sort : SearchSort.values()) {
+            Comparator<FlightSearchResponse> expectedOrder = Comparator.comparing(ResultPosition::of, ResultPosition.order(sort));
+            List<FlightSearchResponse> expected = results.stream().sorted(expectedOrder).collect(Collectors.toList());
+            
+            List<FlightSearchResponse> paged = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                FlightPageCollector collector = new FlightPageCollector(sort, 10, cursor);
+                results.forEach(collector);
+                FlightSearchPage page = collector.toPage();
+                paged.addAll(page.getResults());
+                cursor = page.getNextCursor();
+                pages++;
+            } while (cursor != null);
+            
+            assertEquals(6, pages);
+            assertEquals(expected, paged, "order for " + sort);
+        }
+    }
+    
+    @Test
+    void testPriceSortPutsCheapestFirst() {
+        FlightSearchResponse cheap = result(600, 3500, 120);
+        FlightSearchResponse early = result(60, 5000, 150);
+        FlightSearchResponse shortest = result(300, 7000, 90);
+        
+        FlightPageCollector collector = new FlightPageCollector(SearchSort.PRICE, 2, null);
+        List.of(early, shortest, cheap).forEach(collector);
+        FlightSearchPage page = collector.toPage();
+        
+        assertEquals(List.of(cheap, early), page.getResults());
+        assertNotNull(page.getNextCursor());
+        
+        FlightPageCollector byDuration = new FlightPageCollector(SearchSort.DURATION, 5, null);
+        List.of(early, shortest, cheap).forEach(byDuration);
+        assertEquals(List.of(shortest, cheap, early), byDuration.toPage().getResults());
+        assertNull(byDuration.toPage().getNextCursor());
+    }
+    
+    @Test
+    void testEqualPricedBucketsOfOneFlightSplitAcrossPages() {
+        FlightSearchResponse saver = result(60, 5000, 150);
+        saver.setFareClass("Q");
+        FlightSearchResponse flex = result(60, 5000, 150);
+        flex.setFlightId(saver.getFlightId());
+        flex.setFareClass("Y");
+        
+        FlightPageCollector first = new FlightPageCollector(SearchSort.PRICE, 1, null);
+        List.of(flex, saver).forEach(first);
+        FlightSearchPage page = first.toPage();
+        assertEquals(List.of(saver), page.getResults());
+        assertNotNull(page.getNextCursor());
+        
+        FlightPageCollector second = new FlightPageCollector(SearchSort.PRICE, 1, page.getNextCursor());
+        List.of(flex, saver).forEach(second);
+        FlightSearchPage next = second.toPage();
+        assertEquals(List.of(flex), next.getResults());
+        assertNull(next.getNextCursor());
+    }
+    
+    @Test
+    void testCursorIsBoundToItsSort() {
+        String cursor = ResultPosition.of(result(60, 5000, 150)).toCursor(SearchSort.PRICE);
+        
+        assertThrows(BusinessException.class, () -> new FlightPageCollector(SearchSort.DEPARTURE, 10, cursor));
+        assertThrows(BusinessException.class, () -> new FlightPageCollector(SearchSort.PRICE, 10, "not-a-cursor"));
+    }
+    
+    private FlightSearchResponse result(int departureMinute, int price, int durationMinutes) {
+        FlightSearchResponse response = new FlightSearchResponse();
+        response.setFlightId(UUID.randomUUID());
+        response.setDepartureTime(DAY.plusMinutes(departureMinute));
+        response.setArrivalTime(DAY.plusMinutes(departureMinute + durationMinutes));
+        response.setDurationMinutes(durationMinutes);
+        response.setPrice(BigDecimal.valueOf(price));
+        response.setCabinClass(CabinClass.ECONOMY);
+        response.setStops(0);
+        return response;
+    }
+}
@@ -0,0 +1,152 @@
+package com.flightbooking.search.repository;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightFare;
+import com.flightbooking.search.model.SeatInventory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares cache-miss latency of the legacy N+1 route search (one inventory lookup
+ * per flight) against the single joined query as the number of flights per route grows.
+ *
+ * Run with: mvn -pl flight-search-service test -Dtest=FlightSearchQueryBenchmarkTest -Dbenchmark=true
+ *
+ * H2 runs in-process, so the absolute gap understates what a networked Postgres sees;
+ * the statements-per-search column is the number that scales with round trips.
+ */
+@DataJpaTest(properties = {
+    "spring.sql.init.mode=never",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FlightSearchQueryBenchmarkTest {
+
+    private static final int[] FLIGHTS_PER_ROUTE = {5, 10, 20, 40, 80, 160};
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+    private static final int PASSENGERS = 2;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SeatInventoryRepository seatInventoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void benchmarkRouteSearchMissLatency() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        LocalDate day = LocalDate.now().plusDays(30);
+        LocalDateTime startTime = day.atStartOfDay();
+        LocalDateTime endTime = startTime.plusDays(1);
+
+        System.out.printf("%n%-10s %14s %14s %12s %12s%n",
+            "flights", "n+1 (us)", "joined (us)", "n+1 stmts", "joined stmts");
+
+        for (int flights : FLIGHTS_PER_ROUTE) {
+            String origin = "O" + flights;
+            String destination = "D" + flights;
+            seedRoute(origin, destination, day, flights);
+
+            Supplier<Integer> nPlusOne = () -> flightRepository
+                .findFlightsByRoute(origin, destination, startTime, endTime).stream()
+                .mapToInt(flight -> (int) seatInventoryRepository.findByFlightId(flight.getFlightId()).stream()
+                    .filter(inv -> inv.getAvailableSeats() >= PASSENGERS)
+                    .filter(inv -> inv.getCabinClass() == CabinClass.ECONOMY)
+                    .count())
+                .sum();
+            Supplier<Integer> joined = () -> {
+                List<FlightFare> fares = flightRepository.findFlightFaresByRoute(
+                    origin, destination, startTime, endTime, PASSENGERS, CabinClass.ECONOMY);
+                return fares.size();
+            };
+
+            assertEquals(nPlusOne.get(), joined.get());
+
+            Measurement legacy = measure(nPlusOne, statistics);
+            Measurement single = measure(joined, statistics);
+
+            System.out.printf("%-10d %14.1f %14.1f %12.1f %12.1f%n",
+                flights, legacy.micros, single.micros, legacy.statements, single.statements);
+        }
+    }
+
+    private Measurement measure(Supplier<Integer> search, Statistics statistics) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            entityManager.clear();
+            search.get();
+        }
+
+        statistics.clear();
+        long elapsed = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            search.get();
+            elapsed += System.nanoTime() - start;
+        }
+
+        return new Measurement(
+            elapsed / 1_000.0 / MEASURED_ITERATIONS,
+            (double) statistics.getPrepareStatementCount() / MEASURED_ITERATIONS
+        );
+    }
+
+    private void seedRoute(String origin, String destination, LocalDate day, int flights) {
+        for (int i = 0; i < flights; i++) {
+            Flight flight = new Flight();
+            flight.setCarrier(Carrier.values()[i % Carrier.values().length]);
+            flight.setFlightNumber("BM-" + i);
+            flight.setDepartureAirport(origin);
+            flight.setArrivalAirport(destination);
+            flight.setDepartureTime(day.atTime(5, 0).plusMinutes(i * 7L % 1080));
+            flight.setArrivalTime(flight.getDepartureTime().plusMinutes(150));
+            flight.setIsActive(true);
+            flight = flightRepository.save(flight);
+
+            seatInventoryRepository.save(inventory(flight, "Y", CabinClass.ECONOMY, 150, 5000 + i));
+            seatInventoryRepository.save(inventory(flight, "M", CabinClass.ECONOMY, i % 3, 4000 + i));
+            seatInventoryRepository.save(inventory(flight, "J", CabinClass.BUSINESS, 12, 15000 + i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private SeatInventory inventory(Flight flight, String fareClass, CabinClass cabinClass,
+                                    int availableSeats, int price) {
+        SeatInventory inventory = new SeatInventory();
+        inventory.setFlightId(flight.getFlightId());
+        inventory.setFareClass(fareClass);
+        inventory.setCabinClass(cabinClass);
+        inventory.setTotalSeats(180);
+        inventory.setAvailableSeats(availableSeats);
+        inventory.setPrice(BigDecimal.valueOf(price));
+        return inventory;
+    }
+
+    private record Measurement(double micros, double statements) {
+    }
+}
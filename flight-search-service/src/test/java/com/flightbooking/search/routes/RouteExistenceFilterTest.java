@@ -0,0 +1,120 @@
+package com.flightbooking.search.routes;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.model.ServedRoute;
+import com.flightbooking.search.repository.FlightRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteExistenceFilterTest {
+    
+    @Mock
+    private FlightRepository flightRepository;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RTopic topic;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private RouteExistenceFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(redissonClient.getTopic(eq(RouteExistenceFilter.TOPIC), any(Codec.class))).thenReturn(topic);
+        lenient().when(flightRepository.findServedRoutes(any())).thenReturn(List.of(
+            new ServedRoute("BLR", "DEL"), new ServedRoute("DEL", "BOM")));
+        filter = new RouteExistenceFilter(flightRepository, redissonClient, Runnable::run, meterRegistry);
+    }
+    
+    @Test
+    void assumesEveryRouteExistsUntilLoaded() {
+        assertTrue(filter.admit(request("XXX", "YYY", null)));
+    }
+    
+    @Test
+    void rejectsRoutesWithoutFlights() {
+        filter.loadOnStartup();
+        
+        assertTrue(filter.admit(request("BLR", "DEL", null)));
+        assertFalse(filter.admit(request("DEL", "BLR", null)));
+        assertFalse(filter.admit(request("BLR", "XXX", 2)));
+        assertEquals(2.0, meterRegistry.counter("search.routes.rejected").count());
+        assertEquals(2.0, meterRegistry.get("search.routes.served").gauge().value());
+    }
+    
+    @Test
+    void allowsConnectionsWhenOriginDepartsAndDestinationIsServed() {
+        filter.loadOnStartup();
+        
+        assertTrue(filter.mayHaveResults(request("BLR", "BOM", 1)));
+        assertFalse(filter.mayHaveResults(request("BLR", "BOM", 0)));
+        assertFalse(filter.mayHaveResults(request("BOM", "BLR", 1)));
+    }
+    
+    @Test
+    void registeredRoutesAreServedHereAndAnnounced() {
+        filter.loadOnStartup();
+        
+        filter.register("BOM", "GOI");
+        
+        assertTrue(filter.mayHaveResults(request("BOM", "GOI", null)));
+        verify(topic).publishAsync("BOM|GOI");
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void routesAnnouncedByOtherNodesAreServed() {
+        filter.subscribe();
+        filter.loadOnStartup();
+        ArgumentCaptor<MessageListener<String>> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(topic).addListener(eq(String.class), listener.capture());
+        
+        listener.getValue().onMessage(RouteExistenceFilter.TOPIC, "GOI|BLR");
+        
+        assertTrue(filter.mayHaveResults(request("GOI", "BLR", null)));
+    }
+    
+    @Test
+    void keepsRoutesRegisteredWhileRebuilding() {
+        when(flightRepository.findServedRoutes(any())).thenAnswer(invocation -> {
+            filter.register("BOM", "GOI");
+            return List.of(new ServedRoute("BLR", "DEL"));
+        });
+        
+        filter.rebuild();
+        
+        assertTrue(filter.mayHaveResults(request("BOM", "GOI", null)));
+        assertTrue(filter.mayHaveResults(request("BLR", "DEL", null)));
+        assertFalse(filter.mayHaveResults(request("DEL", "BOM", null)));
+    }
+    
+    private static FlightSearchRequest request(String origin, String destination, Integer maxStops) {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        request.setDestination(destination);
+        request.setDepartureDate(LocalDate.now().plusDays(3));
+        request.setPassengers(1);
+        request.setMaxStops(maxStops);
+        return request;
+    }
+}
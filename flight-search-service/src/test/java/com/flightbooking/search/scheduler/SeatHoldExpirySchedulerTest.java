@@ -0,0 +1,88 @@
+package com.flightbooking.search.scheduler;
+
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.holds.HoldExpiryQueue;
+import com.flightbooking.search.service.SeatHoldService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldExpirySchedulerTest {
+    
+    private static final Duration LEASE = Duration.ofSeconds(30);
+    
+    @Mock
+    private SeatHoldService seatHoldService;
+    
+    @Mock
+    private HoldExpiryQueue expiryQueue;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RLock lock;
+    
+    private SeatHoldExpiryScheduler scheduler;
+    
+    @BeforeEach
+    void setUp() {
+        scheduler = new SeatHoldExpiryScheduler(seatHoldService, expiryQueue, redissonClient, new SimpleMeterRegistry(),
+            2, LEASE);
+    }
+    
+    @Test
+    void dueHoldsAreReleasedUntilAClaimComesBackShort() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(expiryQueue.claimDue(any(), eq(2), eq(LEASE))).thenReturn(List.of(first, second))
+            .thenReturn(List.of(third));
+        
+        scheduler.releaseDueHolds();
+        
+        verify(expiryQueue, times(2)).claimDue(any(), eq(2), eq(LEASE));
+        for (UUID holdId : List.of(first, second, third)) {
+            verify(seatHoldService).releaseHold(holdId);
+            verify(expiryQueue).complete(holdId);
+        }
+    }
+    
+    @Test
+    void failedReleaseKeepsItsClaimForRetryAfterTheLease() {
+        UUID failing = UUID.randomUUID();
+        UUID gone = UUID.randomUUID();
+        when(expiryQueue.claimDue(any(), eq(2), eq(LEASE))).thenReturn(List.of(failing, gone))
+            .thenReturn(List.of());
+        doThrow(new IllegalStateException("database down")).when(seatHoldService).releaseHold(failing);
+        doThrow(new BusinessException("Hold not found")).when(seatHoldService).releaseHold(gone);
+        
+        scheduler.releaseDueHolds();
+        
+        verify(expiryQueue, never()).complete(failing);
+        verify(expiryQueue).complete(gone);
+    }
+    
+    @Test
+    void sweepRunsOnOneNodeAtATime() {
+        when(redissonClient.getLock(SeatHoldExpiryScheduler.SWEEP_LOCK_KEY)).thenReturn(lock);
+        when(lock.tryLock()).thenReturn(false);
+        
+        scheduler.releaseExpiredHolds();
+        
+        verify(seatHoldService, never()).releaseExpiredHolds();
+    }
+}
@@ -0,0 +1,118 @@
+package com.flightbooking.search.seatmap;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.SeatStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.model.SeatMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightSeatMapTest {
+
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Test
+    void holdTakesEveryRequestedSeatOrNone() {
+        FlightSeatMap seatMap = cabin(seat("1A", SeatStatus.AVAILABLE), seat("1B", SeatStatus.BOOKED),
+            seat("1C", SeatStatus.AVAILABLE));
+        
+        assertThrows(BusinessException.class, () -> seatMap.hold(List.of("1A", "1B"), UUID.randomUUID()));
+        assertEquals(SeatStatus.AVAILABLE, seatMap.status("1A"));
+        
+        UUID holdId = UUID.randomUUID();
+        List<SeatChange> changes = seatMap.hold(List.of("1A", "1C"), holdId);
+        
+        assertEquals(2, changes.size());
+        assertTrue(changes.stream().allMatch(change -> change.holdId().equals(holdId)
+            && change.status() == SeatStatus.HELD && change.expected() == SeatStatus.AVAILABLE));
+        assertEquals(SeatStatus.HELD, seatMap.status("1A"));
+    }
+    
+    @Test
+    void seatCannotBeHeldTwice() {
+        FlightSeatMap seatMap = cabin(seat("1A", SeatStatus.AVAILABLE));
+        seatMap.hold(List.of("1A"), UUID.randomUUID());
+        
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> seatMap.hold(List.of("1A"), UUID.randomUUID()));
+        assertEquals("Seat 1A is no longer available", e.getMessage());
+        assertThrows(BusinessException.class, () -> seatMap.hold(List.of("9Z"), UUID.randomUUID()));
+    }
+    
+    @Test
+    void adjacentSeatsNeverSpanAnAisleOrARow() {
+        List<SeatMap> seats = new ArrayList<>();
+        for (String seatNo : List.of("1A", "1B", "1C", "1D", "1E", "1F", "2A", "2B", "2C", "2D", "2E", "2F")) {
+            seats.add(seat(seatNo, SeatStatus.AVAILABLE));
+        }
+        seats.get(1).setStatus(SeatStatus.BOOKED);
+        seats.get(4).setStatus(SeatStatus.BOOKED);
+        FlightSeatMap seatMap = new FlightSeatMap(seats, Set.of('C'));
+        
+        // Row 1 has only 1C-1D free together, and they sit across the aisle
+        assertEquals(List.of("2A", "2B", "2C"), seatMap.findAdjacent(CabinClass.ECONOMY, 3));
+        assertEquals(List.of("1A"), seatMap.findAdjacent(CabinClass.ECONOMY, 1));
+        assertNull(seatMap.findAdjacent(CabinClass.ECONOMY, 4));
+        assertNull(seatMap.findAdjacent(CabinClass.BUSINESS, 1));
+    }
+    
+    @Test
+    void adjacentSeatsStayInTheRequestedCabin() {
+        FlightSeatMap seatMap = new FlightSeatMap(List.of(
+            seat("1A", CabinClass.BUSINESS, "J"), seat("1B", CabinClass.BUSINESS, "J"),
+            seat("1C", CabinClass.ECONOMY, "Y"), seat("1D", CabinClass.ECONOMY, "Y")), Set.of());
+        
+        assertEquals(List.of("1C", "1D"), seatMap.findAdjacent(CabinClass.ECONOMY, 2));
+        assertNull(seatMap.findAdjacent(CabinClass.ECONOMY, 3));
+        assertEquals(Map.of("J", 1, "Y", 1), seatMap.fareClassSeats(List.of("1B", "1C")));
+    }
+    
+    @Test
+    void releaseReturnsOnlyTheHoldsSeats() {
+        FlightSeatMap seatMap = cabin(seat("1A", SeatStatus.AVAILABLE), seat("1B", SeatStatus.AVAILABLE));
+        UUID first = UUID.randomUUID();
+        seatMap.hold(List.of("1A"), first);
+        seatMap.hold(List.of("1B"), UUID.randomUUID());
+        
+        List<SeatChange> changes = seatMap.release(first);
+        
+        assertEquals(1, changes.size());
+        assertEquals(SeatStatus.AVAILABLE, changes.get(0).status());
+        assertEquals(SeatStatus.HELD, changes.get(0).expected());
+        assertEquals(SeatStatus.AVAILABLE, seatMap.status("1A"));
+        assertEquals(SeatStatus.HELD, seatMap.status("1B"));
+        assertEquals(List.of(), seatMap.release(first));
+    }
+    
+    @Test
+    void heldSeatsLoadedFromTheDatabaseCanBeReleased() {
+        UUID holdId = UUID.randomUUID();
+        SeatMap held = seat("1A", SeatStatus.HELD);
+        held.setCurrentHoldId(holdId);
+        FlightSeatMap seatMap = cabin(held, seat("1B", SeatStatus.AVAILABLE));
+        
+        assertEquals(1, seatMap.release(holdId).size());
+        assertEquals(SeatStatus.AVAILABLE, seatMap.status("1A"));
+    }
+    
+    private static FlightSeatMap cabin(SeatMap... seats) {
+        return new FlightSeatMap(List.of(seats), Set.of());
+    }
+    
+    private static SeatMap seat(String seatNo, SeatStatus status) {
+        SeatMap seat = seat(seatNo, CabinClass.ECONOMY, "Y");
+        seat.setStatus(status);
+        return seat;
+    }
+    
+    private static SeatMap seat(String seatNo, CabinClass cabin, String fareClass) {
+        return new SeatMap((long) seatNo.hashCode(), FLIGHT, seatNo, cabin, fareClass, SeatStatus.AVAILABLE, null);
+    }
+}
@@ -2,34 +2,57 @@ package com.flightbooking.search.service;
 
 import com.flightbooking.common.enums.CabinClass;
 import com.flightbooking.common.enums.Carrier;
+import com.flightbooking.search.availability.FlightAvailabilityIndex;
 import com.flightbooking.search.dto.FlightDetailsResponse;
+import com.flightbooking.search.dto.FlightSearchPage;
 import com.flightbooking.search.dto.FlightSearchRequest;
 import com.flightbooking.search.dto.FlightSearchResponse;
+import com.flightbooking.search.dto.SearchSort;
+import com.flightbooking.search.index.FlightReindexer;
+import com.flightbooking.search.itinerary.ConnectionBuilder;
 import com.flightbooking.search.mapper.FlightMapper;
 import com.flightbooking.search.model.Flight;
+import com.flightbooking.search.model.FlightDocument;
+import com.flightbooking.search.model.FlightFare;
 import com.flightbooking.search.model.SeatInventory;
-import com.flightbooking.search.repository.FlightDocumentRepository;
 import com.flightbooking.search.repository.FlightRepository;
 import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.routes.RouteExistenceFilter;
 import com.flightbooking.search.service.impl.FlightSearchServiceImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,15 +64,33 @@ class FlightSearchServiceTest {
     @Mock
     private SeatInventoryRepository seatInventoryRepository;
     
-    @Mock
-    private FlightDocumentRepository flightDocumentRepository;
-    
     @Mock
     private ElasticsearchOperations elasticsearchOperations;
     
     @Mock
     private FlightMapper flightMapper;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private FlightReindexer flightReindexer;
+    
+    @Mock
+    private ConnectionBuilder connectionBuilder;
+    
+    @Mock
+    private FlightAvailabilityIndex availabilityIndex;
+    
+    @Mock
+    private RouteExistenceFilter routeExistenceFilter;
+    
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    
+    @Mock
+    private EntityManager entityManager;
+    
     @InjectMocks
     private FlightSearchServiceImpl flightSearchService;
     
@@ -58,6 +99,9 @@ class FlightSearchServiceTest {
     
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(flightSearchService, "circuitBreakerRegistry", CircuitBreakerRegistry.ofDefaults());
+        lenient().when(routeExistenceFilter.admit(any())).thenReturn(true);
+        
         testFlight = new Flight();
         testFlight.setFlightId(UUID.randomUUID());
         testFlight.setCarrier(Carrier.INDIGO);
@@ -78,25 +122,267 @@ class FlightSearchServiceTest {
     }
     
     @Test
+    @SuppressWarnings("unchecked")
     void testSearchFlights_Success() {
-        FlightSearchRequest request = new FlightSearchRequest();
-        request.setOrigin("BLR");
-        request.setDestination("DEL");
-        request.setDepartureDate(LocalDate.now().plusDays(1));
-        request.setPassengers(2);
-        request.setCabinClass(CabinClass.ECONOMY);
+        FlightSearchRequest request = searchRequest();
         
-        when(flightRepository.findFlightsByRoute(any(), any(), any(), any()))
-            .thenReturn(Arrays.asList(testFlight));
-        when(seatInventoryRepository.findByFlightId(any()))
-            .thenReturn(Arrays.asList(testInventory));
-        when(flightMapper.toDocument(any(), any())).thenCallRealMethod();
-        when(flightMapper.toSearchResponse(any())).thenReturn(new FlightSearchResponse());
+        SearchHit<FlightDocument> hit = mock(SearchHit.class);
+        SeatInventory soldOut = new SeatInventory();
+        soldOut.setFareClass("M");
+        soldOut.setCabinClass(CabinClass.ECONOMY);
+        soldOut.setAvailableSeats(1);
+        soldOut.setPrice(BigDecimal.valueOf(4000));
+        when(hit.getContent()).thenReturn(new FlightMapper().toDocument(testFlight, List.of(testInventory, soldOut)));
+        SearchHits<FlightDocument> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of(hit));
+        when(elasticsearchOperations.search(any(Query.class), eq(FlightDocument.class))).thenReturn(hits);
+        when(flightMapper.toSearchResponse(any(FlightDocument.class), any(FlightDocument.FareInfo.class)))
+            .thenReturn(new FlightSearchResponse());
         
         List<FlightSearchResponse> results = flightSearchService.searchFlights(request);
         
+        // Only the fare with enough seats for both passengers is returned
+        assertEquals(1, results.size());
+        verify(flightMapper).toSearchResponse(any(FlightDocument.class),
+            argThat((FlightDocument.FareInfo fare) -> "Y".equals(fare.getFareClass())));
+        verify(elasticsearchOperations).search(any(Query.class), eq(FlightDocument.class));
+        verifyNoInteractions(flightRepository);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchFlights_ReturnsEveryRowPastTheFirstElasticsearchBatch() {
+        FlightSearchRequest request = searchRequest();
+        
+        SearchHit<FlightDocument> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(new FlightMapper().toDocument(testFlight, List.of(testInventory)));
+        when(hit.getSortValues()).thenReturn(List.of(1L, "last"));
+        SearchHits<FlightDocument> firstBatch = mock(SearchHits.class);
+        when(firstBatch.getSearchHits()).thenReturn(Collections.nCopies(500, hit));
+        SearchHits<FlightDocument> lastBatch = mock(SearchHits.class);
+        when(lastBatch.getSearchHits()).thenReturn(List.of(hit));
+        when(elasticsearchOperations.search(any(Query.class), eq(FlightDocument.class)))
+            .thenReturn(firstBatch)
+            .thenReturn(lastBatch);
+        when(flightMapper.toSearchResponse(any(FlightDocument.class), any(FlightDocument.FareInfo.class)))
+            .thenReturn(new FlightSearchResponse());
+        
+        List<FlightSearchResponse> results = flightSearchService.searchFlights(request);
+        
+        assertEquals(501, results.size());
+        verify(elasticsearchOperations).search(argThat((Query query) -> List.of(1L, "last").equals(query.getSearchAfter())),
+            eq(FlightDocument.class));
+    }
+    
+    @Test
+    void testSearchFlights_ServedFromAvailabilityIndexWhenReady() {
+        FlightSearchRequest request = searchRequest();
+        List<FlightSearchResponse> indexed = List.of(new FlightSearchResponse());
+        when(availabilityIndex.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            indexed.forEach(invocation.<Consumer<FlightSearchResponse>>getArgument(1));
+            return null;
+        }).when(availabilityIndex).search(eq(request), any());
+        
+        assertEquals(indexed, flightSearchService.searchFlights(request));
+        verifyNoInteractions(elasticsearchOperations, flightRepository);
+    }
+    
+    @Test
+    void testSearchFlights_UnservedRouteReturnsEmptyWithoutSearching() {
+        FlightSearchRequest request = searchRequest();
+        request.setIncludeFacets(true);
+        ReflectionTestUtils.setField(flightSearchService, "priceBucketWidth", BigDecimal.valueOf(1000));
+        when(routeExistenceFilter.admit(request)).thenReturn(false);
+        List<FlightSearchResponse> streamed = new ArrayList<>();
+        
+        assertTrue(flightSearchService.searchFlights(request).isEmpty());
+        FlightSearchPage page = flightSearchService.searchFlightPage(request);
+        flightSearchService.streamFlights(request, streamed::add);
+        
+        assertTrue(page.getResults().isEmpty());
+        assertNull(page.getNextCursor());
+        assertEquals(0, page.getFacets().getTotal());
+        assertTrue(streamed.isEmpty());
+        verifyNoInteractions(elasticsearchOperations, flightRepository, connectionBuilder);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchFlightPage_SelectsCheapestAcrossNonstopAndConnections() {
+        FlightSearchRequest request = searchRequest();
+        request.setMaxStops(1);
+        request.setSort(SearchSort.PRICE);
+        request.setPageSize(1);
+        
+        FlightSearchResponse nonstop = new FlightSearchResponse();
+        nonstop.setFlightId(testFlight.getFlightId());
+        nonstop.setDepartureTime(testFlight.getDepartureTime());
+        nonstop.setDurationMinutes(120);
+        nonstop.setPrice(BigDecimal.valueOf(5000));
+        FlightSearchResponse connection = new FlightSearchResponse();
+        connection.setFlightId(UUID.randomUUID());
+        connection.setDepartureTime(testFlight.getDepartureTime().minusHours(3));
+        connection.setDurationMinutes(300);
+        connection.setPrice(BigDecimal.valueOf(4000));
+        doAnswer(invocation -> {
+            invocation.<Consumer<FlightSearchResponse>>getArgument(1).accept(nonstop);
+            return null;
+        }).when(availabilityIndex).search(eq(request), any(Consumer.class));
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(connectionBuilder.search(request)).thenReturn(List.of(connection));
+        
+        FlightSearchPage page = flightSearchService.searchFlightPage(request);
+        
+        assertEquals(List.of(connection), page.getResults());
+        assertNotNull(page.getNextCursor());
+        
+        assertNull(page.getFacets());
+        
+        request.setCursor(page.getNextCursor());
+        request.setIncludeFacets(true);
+        ReflectionTestUtils.setField(flightSearchService, "priceBucketWidth", BigDecimal.valueOf(1000));
+        FlightSearchPage next = flightSearchService.searchFlightPage(request);
+        assertEquals(List.of(nonstop), next.getResults());
+        assertNull(next.getNextCursor());
+        // Facets cover the whole result set, not just the page after the cursor
+        assertEquals(2, next.getFacets().getTotal());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSearchFlightPage_ReadsEveryElasticsearchBatchBeforeSelectingByPrice() {
+        FlightSearchRequest request = searchRequest();
+        request.setSort(SearchSort.PRICE);
+        request.setPageSize(1);
+        
+        SearchHit<FlightDocument> early = mock(SearchHit.class);
+        when(early.getContent()).thenReturn(new FlightMapper().toDocument(testFlight, List.of(testInventory)));
+        when(early.getSortValues()).thenReturn(List.of(1L, "early"));
+        SearchHits<FlightDocument> firstBatch = mock(SearchHits.class);
+        when(firstBatch.getSearchHits()).thenReturn(Collections.nCopies(500, early));
+        
+        Flight late = new Flight();
+        late.setFlightId(UUID.randomUUID());
+        late.setCarrier(Carrier.INDIGO);
+        late.setFlightNumber("6E-999");
+        late.setDepartureAirport("BLR");
+        late.setArrivalAirport("DEL");
+        late.setDepartureTime(testFlight.getDepartureTime().plusHours(10));
+        late.setArrivalTime(testFlight.getDepartureTime().plusHours(12));
+        late.setIsActive(true);
+        SeatInventory cheap = new SeatInventory();
+        cheap.setFlightId(late.getFlightId());
+        cheap.setFareClass("Q");
+        cheap.setCabinClass(CabinClass.ECONOMY);
+        cheap.setAvailableSeats(9);
+        cheap.setPrice(BigDecimal.valueOf(2500));
+        SearchHit<FlightDocument> cheapest = mock(SearchHit.class);
+        when(cheapest.getContent()).thenReturn(new FlightMapper().toDocument(late, List.of(cheap)));
+        SearchHits<FlightDocument> lastBatch = mock(SearchHits.class);
+        when(lastBatch.getSearchHits()).thenReturn(List.of(cheapest));
+        
+        when(elasticsearchOperations.search(any(Query.class), eq(FlightDocument.class)))
+            .thenReturn(firstBatch)
+            .thenReturn(lastBatch);
+        FlightMapper mapper = new FlightMapper();
+        when(flightMapper.toSearchResponse(any(FlightDocument.class), any(FlightDocument.FareInfo.class)))
+            .thenAnswer(invocation -> mapper.toSearchResponse(invocation.<FlightDocument>getArgument(0),
+                invocation.<FlightDocument.FareInfo>getArgument(1)));
+        
+        FlightSearchPage page = flightSearchService.searchFlightPage(request);
+        
+        assertEquals(1, page.getResults().size());
+        assertEquals(late.getFlightId(), page.getResults().get(0).getFlightId());
+        verify(elasticsearchOperations).search(argThat((Query query) -> List.of(1L, "early").equals(query.getSearchAfter())),
+            eq(FlightDocument.class));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamFlights_EmitsElasticsearchRowsThenConnections() {
+        FlightSearchRequest request = searchRequest();
+        SearchHit<FlightDocument> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(new FlightMapper().toDocument(testFlight, List.of(testInventory)));
+        SearchHitsIterator<FlightDocument> hits = mock(SearchHitsIterator.class);
+        when(hits.stream()).thenReturn(Stream.of(hit));
+        when(elasticsearchOperations.searchForStream(any(Query.class), eq(FlightDocument.class))).thenReturn(hits);
+        FlightSearchResponse nonstop = new FlightSearchResponse();
+        FlightSearchResponse connection = new FlightSearchResponse();
+        when(flightMapper.toSearchResponse(any(FlightDocument.class), any(FlightDocument.FareInfo.class))).thenReturn(nonstop);
+        when(connectionBuilder.search(request)).thenReturn(List.of(connection));
+        
+        List<FlightSearchResponse> emitted = new ArrayList<>();
+        flightSearchService.streamFlights(request, emitted::add);
+        
+        assertEquals(List.of(nonstop, connection), emitted);
+        verify(hits).close();
+        verifyNoInteractions(flightRepository);
+    }
+    
+    @Test
+    void testStreamFlights_FallsBackToDatabaseBeforeFirstRow() {
+        FlightSearchRequest request = searchRequest();
+        when(elasticsearchOperations.searchForStream(any(Query.class), eq(FlightDocument.class)))
+            .thenThrow(new IllegalStateException("es down"));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(flightRepository.streamFlightFaresByRoute(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Stream.of(new FlightFare(testFlight, testInventory)));
+        FlightSearchResponse fromDatabase = new FlightSearchResponse();
+        when(flightMapper.toSearchResponse(any(Flight.class), any(SeatInventory.class))).thenReturn(fromDatabase);
+        when(connectionBuilder.search(request)).thenReturn(List.of());
+        
+        List<FlightSearchResponse> emitted = new ArrayList<>();
+        flightSearchService.streamFlights(request, emitted::add);
+        
+        assertEquals(List.of(fromDatabase), emitted);
+    }
+    
+    @Test
+    void testSearchFlights_MergesConnectionsByDeparture() {
+        FlightSearchRequest request = searchRequest();
+        request.setMaxStops(1);
+        
+        FlightSearchResponse nonstop = new FlightSearchResponse();
+        nonstop.setDepartureTime(testFlight.getDepartureTime());
+        nonstop.setPrice(BigDecimal.valueOf(5000));
+        nonstop.setStops(0);
+        FlightSearchResponse connection = new FlightSearchResponse();
+        connection.setDepartureTime(testFlight.getDepartureTime().minusHours(3));
+        connection.setPrice(BigDecimal.valueOf(7000));
+        connection.setStops(1);
+        when(flightRepository.findFlightFaresByRoute(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Arrays.asList(new FlightFare(testFlight, testInventory)));
+        when(flightMapper.toSearchResponse(any(Flight.class), any(SeatInventory.class))).thenReturn(nonstop);
+        when(connectionBuilder.search(request)).thenReturn(List.of(connection));
+        
+        List<FlightSearchResponse> results = ReflectionTestUtils.invokeMethod(
+            flightSearchService, "searchFlightsFromDatabase", request, new RuntimeException("es down"));
+        
+        assertEquals(List.of(connection, nonstop), results);
+    }
+    
+    @Test
+    void testSearchFlights_DatabaseFallback() {
+        FlightSearchRequest request = searchRequest();
+        
+        when(flightRepository.findFlightFaresByRoute(any(), any(), any(), any(), any(), any()))
+            .thenReturn(Arrays.asList(new FlightFare(testFlight, testInventory)));
+        when(flightMapper.toSearchResponse(any(Flight.class), any(SeatInventory.class)))
+            .thenReturn(new FlightSearchResponse());
+        
+        List<FlightSearchResponse> results = ReflectionTestUtils.invokeMethod(
+            flightSearchService, "searchFlightsFromDatabase", request, new RuntimeException("es down"));
+        
         assertNotNull(results);
-        verify(flightRepository).findFlightsByRoute(any(), any(), any(), any());
+        assertEquals(1, results.size());
+        verify(flightRepository).findFlightFaresByRoute("BLR", "DEL", 
+            request.getDepartureDate().atStartOfDay(), request.getDepartureDate().plusDays(1).atStartOfDay(),
+            2, CabinClass.ECONOMY);
+        verify(seatInventoryRepository, never()).findByFlightId(any());
     }
     
     @Test
@@ -116,16 +402,21 @@ class FlightSearchServiceTest {
         verify(seatInventoryRepository).findByFlightId(flightId);
     }
     
+    private FlightSearchRequest searchRequest() {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin("BLR");
+        request.setDestination("DEL");
+        request.setDepartureDate(LocalDate.now().plusDays(1));
+        request.setPassengers(2);
+        request.setCabinClass(CabinClass.ECONOMY);
+        return request;
+    }
+    
     @Test
     void testSyncFlightsToElasticsearch() {
-        when(flightRepository.findAll()).thenReturn(Arrays.asList(testFlight));
-        when(seatInventoryRepository.findByFlightId(any()))
-            .thenReturn(Arrays.asList(testInventory));
-        when(flightMapper.toDocument(any(), any())).thenCallRealMethod();
-        
         flightSearchService.syncFlightsToElasticsearch();
         
-        verify(flightRepository).findAll();
-        verify(flightDocumentRepository, atLeastOnce()).save(any());
+        verify(flightReindexer).reindex();
+        verify(flightRepository, never()).findAll();
     }
 }
@@ -0,0 +1,95 @@
+package com.flightbooking.search.service;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.dto.LowFareCalendarRequest;
+import com.flightbooking.search.dto.LowFareCalendarResponse;
+import com.flightbooking.search.model.RouteDayFare;
+import com.flightbooking.search.repository.RouteDayFareRepository;
+import com.flightbooking.search.service.impl.LowFareCalendarServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowFareCalendarServiceTest {
+    
+    private static final LocalDate START = LocalDate.of(2026, 12, 14);
+    
+    @Mock
+    private RouteDayFareRepository routeDayFareRepository;
+    
+    @InjectMocks
+    private LowFareCalendarServiceImpl lowFareCalendarService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lowFareCalendarService, "maxWindowDays", 60);
+    }
+    
+    @Test
+    void testCalendarFillsEveryDayFromOneRangeRead() {
+        when(routeDayFareRepository.findByOriginAndDestinationAndDepartureDateBetweenOrderByDepartureDateAsc(
+                "BLR", "DEL", START, START.plusDays(2)))
+            .thenReturn(List.of(
+                fare(START, CabinClass.ECONOMY, "5000.00"),
+                fare(START, CabinClass.BUSINESS, "15000.00"),
+                fare(START.plusDays(2), CabinClass.ECONOMY, "4200.00")));
+        
+        LowFareCalendarResponse response = lowFareCalendarService.getCalendar(request(START.plusDays(2), null));
+        
+        assertEquals(3, response.getDays().size());
+        LowFareCalendarResponse.CalendarDay first = response.getDays().get(0);
+        assertEquals(new BigDecimal("5000.00"), first.getLowestFare());
+        assertEquals(new BigDecimal("15000.00"), first.getCabinFares().get(CabinClass.BUSINESS));
+        assertNull(response.getDays().get(1).getLowestFare());
+        assertTrue(response.getDays().get(1).getCabinFares().isEmpty());
+        assertEquals(new BigDecimal("4200.00"), response.getDays().get(2).getLowestFare());
+        verify(routeDayFareRepository, times(1))
+            .findByOriginAndDestinationAndDepartureDateBetweenOrderByDepartureDateAsc(any(), any(), any(), any());
+    }
+    
+    @Test
+    void testCabinFilter() {
+        when(routeDayFareRepository.findByOriginAndDestinationAndDepartureDateBetweenOrderByDepartureDateAsc(
+                "BLR", "DEL", START, START))
+            .thenReturn(List.of(
+                fare(START, CabinClass.ECONOMY, "5000.00"),
+                fare(START, CabinClass.BUSINESS, "15000.00")));
+        
+        LowFareCalendarResponse response = lowFareCalendarService.getCalendar(request(START, CabinClass.BUSINESS));
+        
+        assertEquals(new BigDecimal("15000.00"), response.getDays().get(0).getLowestFare());
+        assertEquals(1, response.getDays().get(0).getCabinFares().size());
+    }
+    
+    @Test
+    void testWindowLimits() {
+        assertThrows(BusinessException.class,
+            () -> lowFareCalendarService.getCalendar(request(START.plusDays(60), null)));
+        assertThrows(BusinessException.class,
+            () -> lowFareCalendarService.getCalendar(request(START.minusDays(1), null)));
+        verifyNoInteractions(routeDayFareRepository);
+    }
+    
+    private LowFareCalendarRequest request(LocalDate endDate, CabinClass cabinClass) {
+        return new LowFareCalendarRequest("BLR", "DEL", START, endDate, cabinClass);
+    }
+    
+    private RouteDayFare fare(LocalDate day, CabinClass cabinClass, String price) {
+        return new RouteDayFare(null, "BLR", "DEL", day, cabinClass, new BigDecimal(price), LocalDateTime.now());
+    }
+}
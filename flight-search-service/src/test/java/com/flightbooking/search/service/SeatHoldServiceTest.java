@@ -0,0 +1,245 @@
+package com.flightbooking.search.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.common.enums.HoldStatus;
+import com.flightbooking.common.exception.BusinessException;
+import com.flightbooking.search.event.HoldPlacedEvent;
+import com.flightbooking.search.holds.FareClassResolver;
+import com.flightbooking.search.model.InventoryHold;
+import com.flightbooking.search.model.SeatInventory;
+import com.flightbooking.search.model.SeatMap;
+import com.flightbooking.search.repository.InventoryHoldRepository;
+import com.flightbooking.search.repository.SeatInventoryRepository;
+import com.flightbooking.search.repository.SeatMapRepository;
+import com.flightbooking.search.seatmap.SeatMapEngine;
+import com.flightbooking.search.service.impl.SeatHoldServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceTest {
+    
+    private static final UUID FLIGHT = UUID.randomUUID();
+    
+    @Mock
+    private InventoryHoldRepository holdRepository;
+    
+    @Mock
+    private SeatInventoryRepository inventoryRepository;
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private FareClassResolver fareClassResolver;
+    
+    @Mock
+    private SeatMapRepository seatMapRepository;
+    
+    @Mock
+    private SeatMapEngine seatMapEngine;
+    
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Mock
+    private RLock lock;
+    
+    @InjectMocks
+    private SeatHoldServiceImpl seatHoldService;
+    
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        lenient().when(redissonClient.getLock(anyString())).thenReturn(lock);
+        lenient().when(redissonClient.getMultiLock(any(RLock[].class))).thenReturn(lock);
+        lenient().when(lock.tryLock(5, 10, TimeUnit.SECONDS)).thenReturn(true);
+        lenient().when(inventoryRepository.findByFlightId(FLIGHT)).thenReturn(List.of(
+            inventory("Y", CabinClass.ECONOMY), inventory("J", CabinClass.BUSINESS)));
+    }
+    
+    @Test
+    void holdDebitsEveryTouchedBucketInOneStatementUnderBucketLocks() {
+        List<String> seats = List.of("2A", "14C", "14D");
+        when(fareClassResolver.resolve(FLIGHT, seats, null)).thenReturn(new TreeMap<>(Map.of("Y", 2, "J", 1)));
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"J\":-1,\"Y\":-2}")).thenReturn(2);
+        when(holdRepository.save(any(InventoryHold.class))).thenAnswer(invocation -> {
+            InventoryHold hold = invocation.getArgument(0);
+            hold.setHoldId(UUID.randomUUID());
+            return hold;
+        });
+        
+        seatHoldService.holdSeats(FLIGHT, "session", seats, 15);
+        
+        verify(redissonClient).getLock("seat-hold:" + FLIGHT + ":J");
+        verify(redissonClient).getLock("seat-hold:" + FLIGHT + ":Y");
+        verify(redissonClient, never()).getLock("seat-hold:" + FLIGHT);
+        ArgumentCaptor<InventoryHold> hold = ArgumentCaptor.forClass(InventoryHold.class);
+        verify(holdRepository).save(hold.capture());
+        assertEquals(Map.of("J", 1, "Y", 2), hold.getValue().getFareClassSeats());
+        assertEquals(3, hold.getValue().getSeatCount());
+        verify(eventPublisher).publishEvent(new HoldPlacedEvent(hold.getValue().getHoldId(), hold.getValue().getExpiresAt()));
+    }
+    
+    @Test
+    void holdFailsWhenAnyBucketIsShort() {
+        List<String> seats = List.of("2A", "14C");
+        when(fareClassResolver.resolve(FLIGHT, seats, null)).thenReturn(new TreeMap<>(Map.of("Y", 1, "J", 1)));
+        when(inventoryRepository.adjustAvailableSeats(eq(FLIGHT), anyString())).thenReturn(1);
+        
+        assertThrows(BusinessException.class, () -> seatHoldService.holdSeats(FLIGHT, "session", seats, 15));
+        verify(holdRepository, never()).save(any());
+    }
+    
+    @Test
+    void holdWhoseSeatsResolveToNoBucketIsRejected() {
+        when(fareClassResolver.resolve(FLIGHT, List.of("14C"), null))
+            .thenThrow(new BusinessException("Seats are not on the seat map, a fare class is required"));
+        
+        assertThrows(BusinessException.class, () -> seatHoldService.holdSeats(FLIGHT, "session", List.of("14C"), 15));
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+    }
+    
+    @Test
+    void unknownFareClassIsRejected() {
+        when(fareClassResolver.resolve(FLIGHT, List.of("14C"), "F")).thenReturn(new TreeMap<>(Map.of("F", 1)));
+        
+        assertThrows(BusinessException.class, () -> seatHoldService.holdSeats(FLIGHT, "session", List.of("14C"), "F", 15));
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+    }
+    
+    @Test
+    void holdFailsWhenAMappedSeatWasTakenMeanwhile() {
+        List<String> seats = List.of("2A", "2B");
+        when(fareClassResolver.resolve(FLIGHT, seats, null)).thenReturn(new TreeMap<>(Map.of("J", 2)));
+        when(inventoryRepository.adjustAvailableSeats(FLIGHT, "{\"J\":-2}")).thenReturn(1);
+        when(holdRepository.save(any(InventoryHold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(seatMapRepository.holdSeats(eq(FLIGHT), eq(seats), any())).thenReturn(1);
+        when(seatMapRepository.findByFlightIdAndSeatNoIn(FLIGHT, seats)).thenReturn(List.of(new SeatMap(), new SeatMap()));
+        
+        BusinessException e = assertThrows(BusinessException.class,
+            () -> seatHoldService.holdSeats(FLIGHT, "session", seats, 15));
+        assertEquals("Requested seats are no longer available", e.getMessage());
+    }
+    
+    @Test
+    void releaseCreditsTheBucketsTheHoldDebited() {
+        InventoryHold hold = hold(Map.of("J", 2));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.RELEASED)).thenReturn(1);
+        
+        seatHoldService.releaseHold(hold.getHoldId());
+        
+        verify(inventoryRepository).adjustAvailableSeats(FLIGHT, "{\"J\":2}");
+        assertEquals(HoldStatus.RELEASED, hold.getStatus());
+    }
+    
+    @Test
+    void holdReleasedMeanwhileByAnotherNodeIsNotCreditedAgain() {
+        InventoryHold hold = hold(Map.of("J", 2));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.RELEASED)).thenReturn(0);
+        
+        seatHoldService.releaseHold(hold.getHoldId());
+        
+        verify(inventoryRepository, never()).adjustAvailableSeats(any(), any());
+        verify(seatMapRepository, never()).releaseSeats(any(), any());
+    }
+    
+    @Test
+    void releaseOfHoldWithoutRecordedBucketsCreditsTheFareClassesOfItsSeats() {
+        InventoryHold hold = hold(null);
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(fareClassResolver.resolve(FLIGHT, List.of("2A", "2B"), null)).thenReturn(new TreeMap<>(Map.of("Y", 2)));
+        when(holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.RELEASED)).thenReturn(1);
+        
+        seatHoldService.releaseHold(hold.getHoldId());
+        
+        verify(inventoryRepository).adjustAvailableSeats(FLIGHT, "{\"Y\":2}");
+    }
+    
+    @Test
+    void releaseThatCannotTakeTheLockFailsSoItIsRetried() throws InterruptedException {
+        InventoryHold hold = hold(Map.of("J", 2));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(lock.tryLock(5, 10, TimeUnit.SECONDS)).thenReturn(false);
+        
+        assertThrows(CannotAcquireLockException.class, () -> seatHoldService.releaseHold(hold.getHoldId()));
+        verify(holdRepository, never()).updateStatusIfActive(any(), any());
+    }
+    
+    @Test
+    void confirmBooksTheSeatsOfAnActiveHold() {
+        InventoryHold hold = hold(Map.of("J", 2));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.CONFIRMED)).thenReturn(1);
+        
+        seatHoldService.confirmHold(hold.getHoldId());
+        
+        verify(seatMapRepository).bookSeats(FLIGHT, hold.getHoldId());
+        verify(holdRepository, never()).save(any());
+    }
+    
+    @Test
+    void confirmOfAHoldReleasedMeanwhileIsRejected() {
+        InventoryHold hold = hold(Map.of("J", 2));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        when(holdRepository.updateStatusIfActive(hold.getHoldId(), HoldStatus.CONFIRMED)).thenReturn(0);
+        
+        assertThrows(BusinessException.class, () -> seatHoldService.confirmHold(hold.getHoldId()));
+        verify(seatMapRepository, never()).bookSeats(any(), any());
+    }
+    
+    @Test
+    void confirmAfterExpiryIsRejected() {
+        InventoryHold hold = hold(Map.of("J", 2));
+        hold.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(holdRepository.findById(hold.getHoldId())).thenReturn(Optional.of(hold));
+        
+        BusinessException e = assertThrows(BusinessException.class, () -> seatHoldService.confirmHold(hold.getHoldId()));
+        assertEquals("Hold has expired", e.getMessage());
+        verify(holdRepository, never()).updateStatusIfActive(any(), any());
+    }
+    
+    private static InventoryHold hold(Map<String, Integer> fareClassSeats) {
+        InventoryHold hold = new InventoryHold();
+        hold.setHoldId(UUID.randomUUID());
+        hold.setFlightId(FLIGHT);
+        hold.setCustomerSessionId("session");
+        hold.setSeatCount(2);
+        hold.setSeats(List.of("2A", "2B"));
+        hold.setFareClassSeats(fareClassSeats);
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        return hold;
+    }
+    
+    private static SeatInventory inventory(String fareClass, CabinClass cabin) {
+        return new SeatInventory(null, FLIGHT, fareClass, cabin, 100, 50, BigDecimal.valueOf(5000), 0L);
+    }
+}
@@ -0,0 +1,106 @@
+package com.flightbooking.search.traffic;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2026, 12, 20);
+    
+    @Test
+    void estimatesNeverUndercountAndStayWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int route = 0; route < 500; route++) {
+            for (int i = 0; i <= route % 10; i++) {
+                sketch.add(RouteDayKey.hash("O" + route, "D", DAY));
+            }
+        }
+        
+        int withinBound = 0;
+        for (int route = 0; route < 500; route++) {
+            long estimate = sketch.estimate(RouteDayKey.hash("O" + route, "D", DAY));
+            assertTrue(estimate >= route % 10 + 1);
+            if (estimate <= route % 10 + 1 + sketch.errorBound()) {
+                withinBound++;
+            }
+        }
+        // The bound holds per key with probability 1 - e^-depth, about 98% here
+        assertTrue(withinBound >= 490, withinBound + " of 500 estimates within bound");
+        assertEquals(1024, sketch.getWidth());
+        assertEquals(0, sketch.estimate(RouteDayKey.hash("DEL", "BOM", DAY)));
+    }
+    
+    @Test
+    void mergesSketchesByAddingCounters() {
+        CountMinSketch first = new CountMinSketch(4, 256);
+        CountMinSketch second = new CountMinSketch(4, 256);
+        long hash = RouteDayKey.hash("DEL", "BOM", DAY);
+        for (int i = 0; i < 3; i++) {
+            first.add(hash);
+        }
+        second.add(hash);
+        
+        ByteBuffer serialized = ByteBuffer.allocate(second.serializedSize());
+        second.writeTo(serialized);
+        first.merge(serialized.flip());
+        
+        assertEquals(4, first.estimate(hash));
+        assertEquals(4, first.getTotal());
+        assertThrows(IllegalArgumentException.class,
+            () -> new CountMinSketch(4, 512).merge(ByteBuffer.allocate(second.serializedSize()).putInt(4).putInt(256).flip()));
+    }
+    
+    @Test
+    void halvingDecaysCounts() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        long hash = RouteDayKey.hash("DEL", "BOM", DAY);
+        for (int i = 0; i < 9; i++) {
+            sketch.add(hash);
+        }
+        
+        sketch.halve();
+        
+        assertEquals(4, sketch.estimate(hash));
+        assertEquals(4, sketch.getTotal());
+    }
+    
+    @Test
+    void heavyHittersKeepTheMostSearchedRouteDays() {
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        HeavyHitters hitters = new HeavyHitters(sketch, 3);
+        for (int route = 0; route < 50; route++) {
+            hitters.record("O" + route, "D", DAY);
+        }
+        for (int i = 0; i < 30; i++) {
+            hitters.record("DEL", "BOM", DAY);
+            if (i % 2 == 0) {
+                hitters.record("BLR", "DEL", DAY.plusDays(1));
+            }
+            if (i % 3 == 0) {
+                hitters.record("BOM", "GOI", DAY);
+            }
+        }
+        
+        List<HeavyHitters.HeavyHitter> top = hitters.top();
+        
+        assertEquals(List.of(
+            new RouteDayKey("DEL", "BOM", DAY),
+            new RouteDayKey("BLR", "DEL", DAY.plusDays(1)),
+            new RouteDayKey("BOM", "GOI", DAY)), top.stream().map(HeavyHitters.HeavyHitter::key).toList());
+        assertEquals(30, top.get(0).estimatedSearches());
+    }
+    
+    @Test
+    void routeDayKeysRoundTripThroughText() {
+        RouteDayKey key = new RouteDayKey("DEL", "BOM", DAY);
+        
+        assertEquals(key, RouteDayKey.parse(key.toString()));
+        assertEquals(key.hash(), RouteDayKey.hash("DEL", "BOM", DAY));
+        assertNull(RouteDayKey.parse("DEL-BOM"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.flightbooking.search.traffic;
+
+import com.flightbooking.search.dto.FlightSearchRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteTrafficTrackerTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2026, 12, 20);
+    
+    @Mock
+    private RedissonClient redissonClient;
+    
+    @Mock
+    private RScoredSortedSet<Object> nodes;
+    
+    private final Map<String, byte[]> published = new HashMap<>();
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(redissonClient.getScoredSortedSet(eq(RouteTrafficTracker.NODES_KEY), any(Codec.class)))
+            .thenReturn(nodes);
+        lenient().when(redissonClient.getBucket(startsWith(RouteTrafficTracker.SKETCH_KEY_PREFIX), any(Codec.class)))
+            .thenAnswer(invocation -> {
+                String key = invocation.getArgument(0);
+                RBucket<Object> bucket = mock(RBucket.class);
+                lenient().doAnswer(set -> published.put(key, set.getArgument(0)))
+                    .when(bucket).set(any(), any(Duration.class));
+                lenient().when(bucket.get()).thenAnswer(get -> published.get(key));
+                return bucket;
+            });
+        lenient().when(nodes.valueRange(anyDouble(), anyBoolean(), anyDouble(), anyBoolean()))
+            .thenAnswer(invocation -> published.keySet().stream()
+                .map(key -> key.substring(RouteTrafficTracker.SKETCH_KEY_PREFIX.length()))
+                .toList());
+    }
+    
+    @Test
+    void clusterReportMergesPublishedNodeSketches() {
+        RouteTrafficTracker first = tracker();
+        RouteTrafficTracker second = tracker();
+        search(first, "DEL", "BOM", 5);
+        search(first, "BLR", "DEL", 2);
+        search(second, "BLR", "DEL", 6);
+        search(second, "BOM", "GOI", 1);
+        
+        first.publish();
+        second.publish();
+        SearchTrafficReport cluster = first.clusterReport(2);
+        
+        assertEquals("cluster", cluster.scope());
+        assertEquals(2, cluster.nodes());
+        assertEquals(14, cluster.searches());
+        assertEquals(List.of(
+            new SearchTrafficReport.Route("BLR", "DEL", DAY, 8),
+            new SearchTrafficReport.Route("DEL", "BOM", DAY, 5)), cluster.routes());
+        
+        SearchTrafficReport node = first.nodeReport(10);
+        assertEquals("node", node.scope());
+        assertEquals(7, node.searches());
+        assertEquals(2, node.routes().size());
+    }
+    
+    @Test
+    void clusterReportFallsBackToNodeWhenRedisFails() {
+        RouteTrafficTracker tracker = tracker();
+        search(tracker, "DEL", "BOM", 1);
+        when(nodes.valueRange(anyDouble(), anyBoolean(), anyDouble(), anyBoolean()))
+            .thenThrow(new IllegalStateException("Redis unavailable"));
+        
+        assertEquals("node", tracker.clusterReport(5).scope());
+    }
+    
+    private RouteTrafficTracker tracker() {
+        return new RouteTrafficTracker(redissonClient, new SimpleMeterRegistry(), 4, 1024, 10, Duration.ofSeconds(30));
+    }
+    
+    private static void search(RouteTrafficTracker tracker, String origin, String destination, int times) {
+        FlightSearchRequest request = new FlightSearchRequest();
+        request.setOrigin(origin);
+        request.setDestination(destination);
+        request.setDepartureDate(DAY);
+        request.setPassengers(1);
+        for (int i = 0; i < times; i++) {
+            tracker.record(request);
+        }
+    }
+}
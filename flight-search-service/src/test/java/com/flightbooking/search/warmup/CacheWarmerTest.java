@@ -0,0 +1,134 @@
+package com.flightbooking.search.warmup;
+
+import com.flightbooking.common.enums.CabinClass;
+import com.flightbooking.search.availability.FlightAvailabilityIndex;
+import com.flightbooking.search.dto.FlightSearchRequest;
+import com.flightbooking.search.service.FlightSearchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+    
+    @Mock
+    private FlightSearchService flightSearchService;
+    
+    @Mock
+    private SearchTrafficRecorder trafficRecorder;
+    
+    @Mock
+    private FlightAvailabilityIndex availabilityIndex;
+    
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(trafficRecorder.topSearches(10)).thenReturn(List.of(
+            new PopularSearch("DEL", "BOM", 1, CabinClass.ECONOMY, 0),
+            new PopularSearch("BLR", "DEL", 2, null, 1)));
+    }
+    
+    @Test
+    void warmsTopSearchesForEachUpcomingDay() {
+        CacheWarmer warmer = warmer(0.9, Duration.ofMinutes(5));
+        
+        assertEquals(1.0, warmer.warmUp());
+        
+        ArgumentCaptor<FlightSearchRequest> requests = ArgumentCaptor.forClass(FlightSearchRequest.class);
+        verify(flightSearchService, times(6)).searchFlights(requests.capture());
+        LocalDate today = LocalDate.now();
+        FlightSearchRequest first = requests.getAllValues().get(0);
+        assertEquals("DEL", first.getOrigin());
+        assertEquals(today, first.getDepartureDate());
+        assertNull(first.getMaxStops());
+        FlightSearchRequest last = requests.getAllValues().get(5);
+        assertEquals("BLR", last.getOrigin());
+        assertEquals(today.plusDays(2), last.getDepartureDate());
+        assertNull(last.getCabinClass());
+        assertEquals(1, last.getMaxStops());
+        assertEquals(6.0, meterRegistry.counter("search.warmup.entries", "outcome", "warmed").count());
+        assertTrue(warmer.isWarm());
+    }
+    
+    @Test
+    void holdsReadinessUntilCoverageIsReached() {
+        lenient().when(flightSearchService.searchFlights(argThat(request -> "BLR".equals(request.getOrigin()))))
+            .thenThrow(new IllegalStateException("Elasticsearch unavailable"));
+        CacheWarmer warmer = warmer(0.9, Duration.ofMinutes(5));
+        CacheWarmupHealthIndicator health = new CacheWarmupHealthIndicator(warmer);
+        warmer.warmOnStartup();
+        
+        assertEquals(0.5, warmer.warmUp());
+        assertFalse(warmer.isWarm());
+        assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+        assertEquals(3.0, meterRegistry.counter("search.warmup.entries", "outcome", "failed").count());
+        
+        CacheWarmer lenient = warmer(0.5, Duration.ofMinutes(5));
+        lenient.warmUp();
+        assertTrue(lenient.isWarm());
+    }
+    
+    @Test
+    void acceptsTrafficAfterMaxWaitEvenIfCold() {
+        when(flightSearchService.searchFlights(any())).thenThrow(new IllegalStateException("Elasticsearch unavailable"));
+        CacheWarmer warmer = warmer(0.9, Duration.ZERO);
+        warmer.warmOnStartup();
+        
+        assertEquals(0.0, warmer.warmUp());
+        assertEquals(Status.UP, new CacheWarmupHealthIndicator(warmer).health().getStatus());
+    }
+    
+    @Test
+    void skipsWarmUpWhileAvailabilityIndexServesSearches() {
+        when(availabilityIndex.isReady()).thenReturn(true);
+        CacheWarmer warmer = warmer(0.9, Duration.ofMinutes(5));
+        
+        assertEquals(1.0, warmer.warmUp());
+        assertTrue(warmer.isWarm());
+        verifyNoInteractions(flightSearchService, trafficRecorder);
+    }
+    
+    @Test
+    void disabledWarmerNeverHoldsReadiness() {
+        CacheWarmer warmer = new CacheWarmer(flightSearchService, trafficRecorder, availabilityIndex,
+            Runnable::run, Runnable::run, meterRegistry, false, 10, 3, 2, 0.9, Duration.ofMinutes(5));
+        warmer.warmOnStartup();
+        warmer.warmBeforePeak();
+        
+        assertTrue(warmer.isWarm());
+        verifyNoInteractions(flightSearchService, trafficRecorder);
+    }
+    
+    @Test
+    void popularSearchRoundTripsThroughItsMember() {
+        PopularSearch search = new PopularSearch("BLR", "DEL", 2, null, 1);
+        
+        assertEquals(search, PopularSearch.parse(search.member()));
+        assertNull(PopularSearch.parse("BLR|DEL|two|ANY|0"));
+    }
+    
+    /**
+     * Runs the startup pass on the calling thread only when the test triggers it, so
+     * readiness can be checked before and after.
+     */
+    private CacheWarmer warmer(double minCoverage, Duration maxWait) {
+        return new CacheWarmer(flightSearchService, trafficRecorder, availabilityIndex,
+            task -> { }, Runnable::run, meterRegistry, true, 10, 3, 2, minCoverage, maxWait);
+    }
+}